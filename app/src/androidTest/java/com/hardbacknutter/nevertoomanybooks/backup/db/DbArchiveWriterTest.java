@@ -0,0 +1,126 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.backup.db;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.annotation.NonNull;
+import androidx.test.filters.MediumTest;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.hardbacknutter.nevertoomanybooks.BaseDBTest;
+import com.hardbacknutter.nevertoomanybooks.DbPrep;
+import com.hardbacknutter.nevertoomanybooks.TestProgressListener;
+import com.hardbacknutter.nevertoomanybooks.backup.ExportResults;
+import com.hardbacknutter.nevertoomanybooks.core.database.DaoWriteException;
+import com.hardbacknutter.nevertoomanybooks.core.database.SynchronizedDb;
+import com.hardbacknutter.nevertoomanybooks.core.storage.StorageException;
+import com.hardbacknutter.nevertoomanybooks.database.DBDefinitions;
+import com.hardbacknutter.nevertoomanybooks.io.DataReaderException;
+import com.hardbacknutter.nevertoomanybooks.io.DataWriterException;
+import com.hardbacknutter.nevertoomanybooks.utils.AppLocale;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@MediumTest
+@SuppressWarnings("MissingJavadoc")
+public class DbArchiveWriterTest
+        extends BaseDBTest {
+
+    private static final String TAG = "DbArchiveWriterTest";
+
+    private long bookInDb;
+
+    @Before
+    public void setup()
+            throws DaoWriteException, StorageException, IOException, DataReaderException {
+        super.setup(AppLocale.SYSTEM_LANGUAGE);
+        bookInDb = new DbPrep().maybeInstallTestData(context);
+    }
+
+    @Test
+    public void write()
+            throws IOException, DataWriterException, InterruptedException {
+        final File file = new File(context.getFilesDir(), TAG + ".db");
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+
+        final SynchronizedDb db = serviceLocator.getDb();
+
+        // Keep reading while the export runs.
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicInteger reads = new AtomicInteger();
+        final Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                if (countBooks(db) == bookInDb) {
+                    reads.incrementAndGet();
+                }
+            }
+        });
+        reader.start();
+
+        final ExportResults results;
+        try (DbArchiveWriter writer = new DbArchiveWriter(db, file)) {
+            results = writer.write(context, new TestProgressListener(TAG));
+        } finally {
+            done.set(true);
+            reader.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        assertTrue(results.database);
+        assertTrue(reads.get() > 0);
+
+        // The export is a single, vacuumed file, no larger than the live database.
+        assertTrue(file.length() <= new File(db.getPath()).length());
+        assertFalse(new File(file.getPath() + "-wal").exists());
+        assertFalse(new File(file.getPath() + ".snapshot").exists());
+
+        try (SQLiteDatabase copy = SQLiteDatabase.openDatabase(
+                file.getPath(), null, SQLiteDatabase.OPEN_READONLY)) {
+            try (Cursor cursor = copy.rawQuery("PRAGMA integrity_check", null)) {
+                assertTrue(cursor.moveToFirst());
+                assertEquals("ok", cursor.getString(0));
+            }
+            try (Cursor cursor = copy.rawQuery(
+                    "SELECT COUNT(*) FROM " + DBDefinitions.TBL_BOOKS.getName(), null)) {
+                assertTrue(cursor.moveToFirst());
+                assertEquals(bookInDb, cursor.getLong(0));
+            }
+        }
+    }
+
+    private static long countBooks(@NonNull final SynchronizedDb db) {
+        try (Cursor cursor = db.rawQuery(
+                "SELECT COUNT(*) FROM " + DBDefinitions.TBL_BOOKS.getName(), null)) {
+            cursor.moveToFirst();
+            return cursor.getLong(0);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.database;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.test.filters.MediumTest;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.hardbacknutter.nevertoomanybooks.core.database.DaoWriteException;
+import com.hardbacknutter.nevertoomanybooks.core.storage.StorageException;
+import com.hardbacknutter.nevertoomanybooks.database.dao.BookDao;
+import com.hardbacknutter.nevertoomanybooks.entities.Book;
+import com.hardbacknutter.nevertoomanybooks.entities.BookBatchLoader;
+import com.hardbacknutter.nevertoomanybooks.entities.Entity;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that {@link BookBatchLoader} produces the same linked lists
+ * as loading each book individually.
+ */
+@MediumTest
+@SuppressWarnings("MissingJavadoc")
+public class BookBatchLoaderTest
+        extends BaseSetup {
+
+    @NonNull
+    private static List<Long> ids(@NonNull final List<? extends Entity> list) {
+        return list.stream().map(Entity::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    public void batchLoad()
+            throws DaoWriteException, StorageException {
+        final BookDao bookDao = serviceLocator.getBookDao();
+
+        initBook(0);
+        setBookBookshelves(0, 0);
+        setBookPublishers(0, 0);
+        settBookAuthors(0, 0, 1);
+        bookIdArray[0] = bookDao.insert(context, bookArray[0], Set.of());
+
+        initBook(1);
+        setBookBookshelves(1, 0);
+        settBookAuthors(1, 1);
+        bookIdArray[1] = bookDao.insert(context, bookArray[1], Set.of());
+
+        initBook(2);
+        setBookBookshelves(2, 0);
+        setBookPublishers(2, 1, 2);
+        settBookAuthors(2, 2, 0);
+        setBookTocEntries(2, 2, 1, 0, 3);
+        bookIdArray[2] = bookDao.insert(context, bookArray[2], Set.of());
+
+        final Set<Long> inserted = Set.of(bookIdArray[0], bookIdArray[1], bookIdArray[2]);
+        int found = 0;
+
+        // use a small batch size to make sure we cross batch boundaries
+        try (Cursor cursor = bookDao.fetchBooksForExport(null)) {
+            final BookBatchLoader loader = new BookBatchLoader(cursor, 2);
+            Book book;
+            while ((book = loader.next()) != null) {
+                if (!inserted.contains(book.getId())) {
+                    continue;
+                }
+                found++;
+
+                final Book expected = Book.from(book.getId());
+                assertEquals(expected.getTitle(), book.getTitle());
+                assertEquals(ids(expected.getBookshelves()), ids(book.getBookshelves()));
+                assertEquals(ids(expected.getAuthors()), ids(book.getAuthors()));
+                assertEquals(ids(expected.getSeries()), ids(book.getSeries()));
+                assertEquals(ids(expected.getPublishers()), ids(book.getPublishers()));
+                assertEquals(ids(expected.getToc()), ids(book.getToc()));
+            }
+        }
+        assertEquals(3, found);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.database;
+
+import android.database.MatrixCursor;
+
+import androidx.test.filters.SmallTest;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the index based access of {@link CursorRow}.
+ * The key versus index timing is measured by the JVM benchmark
+ * {@code benchmarks.CursorRowBenchmark}.
+ */
+@SmallTest
+@SuppressWarnings("MissingJavadoc")
+public class CursorRowTest {
+
+    /** Roughly the width of a booklist cursor with a style showing all fields. */
+    private static final int COLUMNS = 60;
+    private static final int ROWS = 2_000;
+
+    private MatrixCursor cursor;
+
+    @Before
+    public void setup() {
+        final String[] names = new String[COLUMNS];
+        for (int c = 0; c < COLUMNS; c++) {
+            names[c] = "column_" + c;
+        }
+        cursor = new MatrixCursor(names, ROWS);
+        for (int r = 0; r < ROWS; r++) {
+            final Object[] row = new Object[COLUMNS];
+            for (int c = 0; c < COLUMNS; c++) {
+                row[c] = c % 2 == 0 ? "value " + r + '/' + c : r + c;
+            }
+            cursor.addRow(row);
+        }
+    }
+
+    @Test
+    public void columnIndex() {
+        final CursorRow rowData = new CursorRow(cursor);
+        assertEquals(0, rowData.getColumnIndex("column_0"));
+        assertEquals(COLUMNS - 1, rowData.getColumnIndex("column_" + (COLUMNS - 1)));
+        assertEquals(-1, rowData.getColumnIndex("no_such_column"));
+        assertTrue(rowData.contains("column_1"));
+        assertFalse(rowData.contains("no_such_column"));
+
+        assertTrue(cursor.moveToPosition(7));
+        final int col = rowData.getColumnIndex("column_2");
+        assertEquals(rowData.getString("column_2"), rowData.getString(col));
+        assertEquals(rowData.getInt("column_3"), rowData.getInt(col + 1));
+        assertEquals(rowData.getLong("column_3"), rowData.getLong(col + 1));
+    }
+}
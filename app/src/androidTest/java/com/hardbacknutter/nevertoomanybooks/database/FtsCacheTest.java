@@ -0,0 +1,68 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.database;
+
+import androidx.test.filters.MediumTest;
+
+import java.util.List;
+import java.util.Set;
+
+import com.hardbacknutter.nevertoomanybooks.core.database.DaoWriteException;
+import com.hardbacknutter.nevertoomanybooks.core.storage.StorageException;
+import com.hardbacknutter.nevertoomanybooks.database.dao.BookDao;
+import com.hardbacknutter.nevertoomanybooks.database.dao.FtsDao;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@MediumTest
+@SuppressWarnings("MissingJavadoc")
+public class FtsCacheTest
+        extends BaseSetup {
+
+    @Test
+    public void deletedBookIsNotFound()
+            throws DaoWriteException, StorageException {
+        final BookDao bookDao = serviceLocator.getBookDao();
+        final FtsDao ftsDao = serviceLocator.getFtsDao();
+
+        for (int bookIdx = 0; bookIdx < 2; bookIdx++) {
+            initBook(bookIdx);
+            setBookBookshelves(bookIdx, 0);
+            settBookAuthors(bookIdx, 0);
+            bookIdArray[bookIdx] = bookDao.insert(context, bookArray[bookIdx], Set.of());
+        }
+
+        final String keywords = TestConstants.BOOK_TITLE[0];
+        // The second search is answered from the cache.
+        assertEquals(List.of(bookIdArray[0]),
+                     ftsDao.search(null, null, null, null, keywords, 10));
+        assertEquals(List.of(bookIdArray[0]),
+                     ftsDao.search(null, null, null, null, keywords, 10));
+
+        assertTrue(bookDao.delete(bookIdArray[0]));
+
+        assertTrue(ftsDao.search(null, null, null, null, keywords, 10).isEmpty());
+        assertEquals(List.of(bookIdArray[1]),
+                     ftsDao.search(null, null, null, null, TestConstants.BOOK_TITLE[1], 10));
+    }
+}
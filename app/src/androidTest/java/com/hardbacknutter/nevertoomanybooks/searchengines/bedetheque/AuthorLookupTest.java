@@ -20,12 +20,16 @@
 
 package com.hardbacknutter.nevertoomanybooks.searchengines.bedetheque;
 
+import java.util.List;
+import java.util.Locale;
+
 import com.hardbacknutter.nevertoomanybooks.BaseDBTest;
 import com.hardbacknutter.nevertoomanybooks.ServiceLocator;
 import com.hardbacknutter.nevertoomanybooks.TestProgressListener;
 import com.hardbacknutter.nevertoomanybooks.core.database.DaoWriteException;
 import com.hardbacknutter.nevertoomanybooks.core.network.CredentialsException;
 import com.hardbacknutter.nevertoomanybooks.core.storage.StorageException;
+import com.hardbacknutter.nevertoomanybooks.database.dao.BedethequeCacheDao;
 import com.hardbacknutter.nevertoomanybooks.entities.Author;
 import com.hardbacknutter.nevertoomanybooks.searchengines.AuthorResolver;
 import com.hardbacknutter.nevertoomanybooks.searchengines.SearchException;
@@ -127,4 +131,74 @@ public class AuthorLookupTest
         Assert.assertEquals("Yi-chi", realAuthor.getGivenNames());
         Assert.assertNull(realAuthor.getRealAuthor());
     }
+
+    @Test
+    public void lookupFailedIsRemembered()
+            throws SearchException, CredentialsException {
+
+        final BedethequeCacheDao cacheDao = ServiceLocator.getInstance().getBedethequeCacheDao();
+        final Locale locale = Locale.FRENCH;
+        final long failed = System.currentTimeMillis() - 1_000;
+
+        cacheDao.setNotListed("Nobody, Zzz", locale, failed);
+        BdtAuthor bdtAuthor = cacheDao.findByName("Nobody, Zzz", locale).orElse(null);
+        Assert.assertNotNull(bdtAuthor);
+        Assert.assertFalse(bdtAuthor.isListed());
+        Assert.assertEquals(failed, bdtAuthor.getLookupFailed());
+        // A negative entry does not count as a cached list-page
+        Assert.assertFalse(cacheDao.isAuthorPageCached('N'));
+        Assert.assertEquals(0, cacheDao.countAuthors());
+
+        // Within the TTL, the resolver must not try again.
+        final Author author = new Author("Nobody", "Zzz");
+        Assert.assertFalse(resolver.resolve(author));
+        bdtAuthor = cacheDao.findByName("Nobody, Zzz", locale).orElse(null);
+        Assert.assertNotNull(bdtAuthor);
+        Assert.assertEquals(failed, bdtAuthor.getLookupFailed());
+    }
+
+    @Test
+    public void notListedKeepsListedEntry()
+            throws DaoWriteException {
+
+        final BedethequeCacheDao cacheDao = ServiceLocator.getInstance().getBedethequeCacheDao();
+        final Locale locale = Locale.FRENCH;
+        final String url = "https://www.bedetheque.com/auteur-1-BD-Nobody-Zzz.html";
+
+        // Cache a miss, then make the name listed.
+        Assert.assertTrue(cacheDao.findByName("Nobody, Zzz", locale).isEmpty());
+        final BdtAuthor[] records = {new BdtAuthor("Nobody, Zzz", url)};
+        final int[] next = {0};
+        cacheDao.insert(locale, () -> next[0] < records.length ? records[next[0]++] : null);
+
+        // The earlier miss must not hide the listed entry,
+        // and a "not listed" must never overwrite it.
+        cacheDao.setNotListed("Nobody, Zzz", locale, System.currentTimeMillis());
+        final BdtAuthor bdtAuthor = cacheDao.findByName("Nobody, Zzz", locale).orElse(null);
+        Assert.assertNotNull(bdtAuthor);
+        Assert.assertTrue(bdtAuthor.isListed());
+        Assert.assertEquals(url, bdtAuthor.getUrl());
+        Assert.assertEquals(0, bdtAuthor.getLookupFailed());
+    }
+
+    @Test
+    public void resolveAll()
+            throws SearchException, CredentialsException {
+
+        final Author a1 = new Author("Jije", "");
+        final Author a2 = new Author("61Chi", "");
+        final Author a3 = new Author("Jije", "");
+        final Author a4 = new Author("Leloup", "Roger");
+        resolver.resolveAll(List.of(a1, a2, a3, a4));
+
+        for (final Author author : List.of(a1, a3)) {
+            Assert.assertEquals("Jijé", author.getFamilyName());
+            final Author realAuthor = author.getRealAuthor();
+            Assert.assertNotNull(realAuthor);
+            Assert.assertEquals("Gillain", realAuthor.getFamilyName());
+        }
+        Assert.assertNotNull(a2.getRealAuthor());
+        Assert.assertEquals("Liu", a2.getRealAuthor().getFamilyName());
+        Assert.assertNull(a4.getRealAuthor());
+    }
 }
@@ -0,0 +1,149 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.sync.calibre;
+
+import java.io.IOException;
+import java.security.cert.CertificateException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import com.hardbacknutter.nevertoomanybooks.BaseDBTest;
+import com.hardbacknutter.nevertoomanybooks.TestProgressListener;
+import com.hardbacknutter.nevertoomanybooks.core.database.DaoWriteException;
+import com.hardbacknutter.nevertoomanybooks.core.storage.StorageException;
+import com.hardbacknutter.nevertoomanybooks.database.DBKey;
+import com.hardbacknutter.nevertoomanybooks.database.dao.BookDao;
+import com.hardbacknutter.nevertoomanybooks.entities.Author;
+import com.hardbacknutter.nevertoomanybooks.entities.Book;
+import com.hardbacknutter.nevertoomanybooks.entities.Bookshelf;
+import com.hardbacknutter.nevertoomanybooks.io.DataWriterException;
+import com.hardbacknutter.nevertoomanybooks.sync.SyncWriterResults;
+import com.hardbacknutter.nevertoomanybooks.utils.AppLocale;
+import com.hardbacknutter.org.json.JSONArray;
+import com.hardbacknutter.org.json.JSONObject;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs the writer against a {@link StandInCalibreServer} and checks
+ * the number of requests made.
+ */
+@SuppressWarnings("MissingJavadoc")
+public class CalibreContentServerWriterTest
+        extends BaseDBTest {
+
+    private static final String TAG = "CalibreContentServerWriterTest";
+
+    private static final int NR_OF_BOOKS = 120;
+    /** Every n-th book is changed locally. */
+    private static final int CHANGED_EVERY = 3;
+    /** Must match CalibreContentServerWriter#BATCH_SIZE. */
+    private static final int BATCH_SIZE = 50;
+    private static final int FIRST_CALIBRE_ID = 1000;
+    private static final String REMOTE_LAST_MODIFIED = "2000-01-01T00:00:00+00:00";
+
+    private final List<Long> bookIds = new ArrayList<>();
+    private StandInCalibreServer standIn;
+
+    @Before
+    public void setup()
+            throws DaoWriteException, StorageException, IOException {
+        super.setup(AppLocale.SYSTEM_LANGUAGE);
+
+        standIn = new StandInCalibreServer();
+
+        final CalibreLibrary library = new CalibreLibrary(
+                "", StandInCalibreServer.LIBRARY_ID, StandInCalibreServer.LIBRARY_NAME,
+                Bookshelf.HARD_DEFAULT);
+
+        final BookDao bookDao = serviceLocator.getBookDao();
+        for (int i = 0; i < NR_OF_BOOKS; i++) {
+            final int calibreId = FIRST_CALIBRE_ID + i;
+            final String title = "Book " + i;
+            final Author author = new Author("Family" + i, "Given" + i);
+
+            final Book book = new Book();
+            book.putString(DBKey.TITLE, title);
+            book.putString(DBKey.LANGUAGE, "eng");
+            book.setAuthors(List.of(author));
+            book.putInt(DBKey.CALIBRE_BOOK_ID, calibreId);
+            book.putString(DBKey.CALIBRE_BOOK_UUID, "uuid-" + calibreId);
+            book.setCalibreLibrary(library);
+            bookIds.add(bookDao.insert(context, book, Set.of()));
+
+            // The remote book is identical, except for the title of every n-th book
+            standIn.addBook(new JSONObject()
+                                    .put(CalibreBookJsonKey.ID, calibreId)
+                                    .put(CalibreBookJsonKey.UUID, "uuid-" + calibreId)
+                                    .put(CalibreBookJsonKey.TITLE,
+                                         i % CHANGED_EVERY == 0 ? "Remote " + i : title)
+                                    .put(CalibreBookJsonKey.LAST_MODIFIED,
+                                         REMOTE_LAST_MODIFIED)
+                                    .put(CalibreBookJsonKey.AUTHOR_ARRAY, new JSONArray()
+                                            .put(author.getFormattedName(true)))
+                                    .put(CalibreBookJsonKey.SERIES_INDEX, 1.0d)
+                                    .put(CalibreBookJsonKey.LANGUAGES_ARRAY,
+                                         new JSONArray().put("eng"))
+                                    .put(CalibreBookJsonKey.IDENTIFIERS, new JSONObject()));
+        }
+    }
+
+    @After
+    public void cleanup()
+            throws IOException {
+        final BookDao bookDao = serviceLocator.getBookDao();
+        bookIds.forEach(bookDao::delete);
+        standIn.close();
+    }
+
+    @Test
+    public void onlyChangedBooksArePushed()
+            throws CertificateException, DataWriterException, StorageException, IOException {
+        final CalibreContentServer server = new CalibreContentServer.Builder(context)
+                .setUrl(standIn.getUrl())
+                .setUser("")
+                .build();
+
+        final CalibreContentServerWriter writer = new CalibreContentServerWriter(
+                context, server, false, false, false, Locale.getDefault());
+        final SyncWriterResults results = writer.write(context, new TestProgressListener(TAG));
+
+        final int expectedChanged = (NR_OF_BOOKS + CHANGED_EVERY - 1) / CHANGED_EVERY;
+        final int expectedBatches = (NR_OF_BOOKS + BATCH_SIZE - 1) / BATCH_SIZE;
+
+        assertEquals(expectedChanged, results.getBookCount());
+        assertEquals(expectedChanged, standIn.getRequestCount(StandInCalibreServer.EP_SET_FIELDS));
+        assertEquals(expectedBatches, standIn.getRequestCount(StandInCalibreServer.EP_BOOKS));
+        // Only the single book read while loading the library meta-data.
+        assertEquals(1, standIn.getRequestCount(StandInCalibreServer.EP_BOOK));
+
+        // Only the changed field (and the last-modified date) are send.
+        for (final JSONObject update : standIn.getUpdates()) {
+            assertEquals(Set.of(CalibreBookJsonKey.TITLE, CalibreBookJsonKey.LAST_MODIFIED),
+                         update.getJSONObject("changes").keySet());
+        }
+    }
+}
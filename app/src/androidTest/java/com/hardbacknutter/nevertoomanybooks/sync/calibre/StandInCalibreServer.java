@@ -0,0 +1,243 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.sync.calibre;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.hardbacknutter.org.json.JSONArray;
+import com.hardbacknutter.org.json.JSONObject;
+
+/**
+ * A minimal stand-in for a Calibre Content Server.
+ * <p>
+ * Serves a single library from an in-memory map of books,
+ * accepts updates and counts all requests per endpoint.
+ * Only the endpoints used by the reader/writer are supported.
+ */
+@SuppressWarnings("MissingJavadoc")
+public class StandInCalibreServer
+        implements Closeable {
+
+    static final String LIBRARY_ID = "Test_Lib";
+    static final String LIBRARY_NAME = "Test Lib";
+
+    static final String EP_LIBRARY_INFO = "/ajax/library-info";
+    static final String EP_CATEGORY = "/ajax/category";
+    static final String EP_BOOK = "/ajax/book";
+    static final String EP_BOOKS = "/ajax/books";
+    static final String EP_SET_FIELDS = "/cdb/set-fields";
+
+    /** Key: the calibre book id. */
+    private final Map<Integer, JSONObject> books = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+    /** The bodies of all set-fields requests. */
+    private final List<JSONObject> updates = Collections.synchronizedList(new ArrayList<>());
+
+    private final ServerSocket serverSocket;
+
+    public StandInCalibreServer()
+            throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        final Thread acceptor = new Thread(this::acceptLoop, "StandInCalibreServer");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    @NonNull
+    public String getUrl() {
+        return "http://127.0.0.1:" + serverSocket.getLocalPort();
+    }
+
+    public void addBook(@NonNull final JSONObject calibreBook) {
+        books.put(calibreBook.getInt(CalibreBookJsonKey.ID), calibreBook);
+    }
+
+    public int getRequestCount(@NonNull final String endpoint) {
+        final AtomicInteger count = requestCounts.get(endpoint);
+        return count == null ? 0 : count.get();
+    }
+
+    @NonNull
+    public List<JSONObject> getUpdates() {
+        return updates;
+    }
+
+    @Override
+    public void close()
+            throws IOException {
+        serverSocket.close();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                final Socket socket = serverSocket.accept();
+                final Thread handler = new Thread(() -> handle(socket));
+                handler.setDaemon(true);
+                handler.start();
+            } catch (@NonNull final IOException ignore) {
+                // closed
+            }
+        }
+    }
+
+    private void handle(@NonNull final Socket socket) {
+        try (Socket s = socket;
+             DataInputStream is = new DataInputStream(s.getInputStream());
+             OutputStream os = s.getOutputStream()) {
+
+            final String[] requestLine = readLine(is).split(" ");
+            final String method = requestLine[0];
+            final String target = requestLine[1];
+
+            int contentLength = 0;
+            String line;
+            while (!(line = readLine(is)).isEmpty()) {
+                final int colon = line.indexOf(':');
+                if (colon > 0 && "content-length".equals(
+                        line.substring(0, colon).trim().toLowerCase(Locale.ROOT))) {
+                    contentLength = Integer.parseInt(line.substring(colon + 1).trim());
+                }
+            }
+            final byte[] body = new byte[contentLength];
+            is.readFully(body);
+
+            final int q = target.indexOf('?');
+            final String path = q < 0 ? target : target.substring(0, q);
+            final String query = q < 0 ? "" : target.substring(q + 1);
+
+            final String response = route(method, path, query,
+                                          new String(body, StandardCharsets.UTF_8));
+            final byte[] out;
+            final String status;
+            if (response == null) {
+                status = "404 Not Found";
+                out = new byte[0];
+            } else {
+                status = "200 OK";
+                out = response.getBytes(StandardCharsets.UTF_8);
+            }
+            os.write(("HTTP/1.1 " + status + "\r\n"
+                      + "Content-Type: application/json; charset=utf-8\r\n"
+                      + "Content-Length: " + out.length + "\r\n"
+                      + "Connection: close\r\n"
+                      + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+            os.write(out);
+            os.flush();
+        } catch (@NonNull final IOException ignore) {
+            // client went away
+        }
+    }
+
+    @Nullable
+    private String route(@NonNull final String method,
+                         @NonNull final String path,
+                         @NonNull final String query,
+                         @NonNull final String body) {
+        // "/ajax/book/12/Test_Lib" -> "/ajax/book"
+        final String[] segments = path.split("/");
+        final String endpoint = segments.length > 2
+                                ? '/' + segments[1] + '/' + segments[2] : path;
+        requestCounts.computeIfAbsent(endpoint, k -> new AtomicInteger()).incrementAndGet();
+
+        switch (endpoint) {
+            case EP_LIBRARY_INFO:
+                return new JSONObject()
+                        .put("library_map", new JSONObject().put(LIBRARY_ID, LIBRARY_NAME))
+                        .put("default_library", LIBRARY_ID)
+                        .toString();
+
+            case EP_CATEGORY: {
+                final JSONArray ids = new JSONArray();
+                books.keySet().stream().sorted().limit(1).forEach(ids::put);
+                return new JSONObject()
+                        .put(CalibreContentServer.RESPONSE_TAG_TOTAL_NUM, books.size())
+                        .put(CalibreContentServer.RESPONSE_TAG_NUM, ids.length())
+                        .put(CalibreContentServer.RESPONSE_TAG_BOOK_IDS, ids)
+                        .toString();
+            }
+            case EP_BOOK: {
+                final String id = segments[3];
+                if (query.contains("id_is_uuid=true")) {
+                    return books.values().stream()
+                                .filter(b -> id.equals(b.getString(CalibreBookJsonKey.UUID)))
+                                .map(JSONObject::toString)
+                                .findFirst()
+                                .orElse(null);
+                }
+                final JSONObject book = books.get(Integer.parseInt(id));
+                return book == null ? null : book.toString();
+            }
+            case EP_BOOKS: {
+                final JSONObject result = new JSONObject();
+                for (final String param : query.split("&")) {
+                    if (param.startsWith("ids=")) {
+                        for (final String id : param.substring(4).split(",")) {
+                            final JSONObject book = books.get(Integer.parseInt(id));
+                            result.put(id, book == null ? JSONObject.NULL : book);
+                        }
+                    }
+                }
+                return result.toString();
+            }
+            case EP_SET_FIELDS: {
+                if (!"POST".equals(method)) {
+                    return null;
+                }
+                updates.add(new JSONObject(body));
+                return "{}";
+            }
+            default:
+                return null;
+        }
+    }
+
+    @NonNull
+    private static String readLine(@NonNull final InputStream is)
+            throws IOException {
+        final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int c;
+        while ((c = is.read()) != -1 && c != '\n') {
+            if (c != '\r') {
+                line.write(c);
+            }
+        }
+        return line.toString(StandardCharsets.ISO_8859_1.name());
+    }
+}
@@ -19,8 +19,13 @@
  */
 package com.hardbacknutter.nevertoomanybooks.sync.stripinfo;
 
+import androidx.annotation.NonNull;
+
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import com.hardbacknutter.nevertoomanybooks.BaseDBTest;
 import com.hardbacknutter.nevertoomanybooks.TestProgressListener;
@@ -54,6 +59,8 @@ public class UserCollectionTest
     private static final String TAG = "UserCollectionTest";
 
     private static final String UTF_8 = "UTF-8";
+    private static final int PAGE_LATENCY_MS = 100;
+    private static final int FETCH_LATENCY_MS = 30;
     /**
      * This user does not exist on the site, it was manually replaced in the sample file
      * username: NTMBUser
@@ -142,4 +149,68 @@ public class UserCollectionTest
         assertNotNull(collection);
         assertEquals(1, collection.size());
     }
+
+    /**
+     * Serve the canned collection pages through a stub with a slow link,
+     * and check the pipeline delivers the books in the same order as a sequential
+     * fetch would, while being faster.
+     */
+    @Test
+    public void pipelinedCollectionPages()
+            throws ExecutionException, InterruptedException, IOException, SearchException {
+
+        final UserCollection uc = new UserCollection(context, searchEngine, userId,
+                                                     bookshelfMapper);
+        final CollectionPipeline.PageSource<Book> site = new CollectionPipeline.PageSource<>() {
+            @Override
+            public int getMaxPages() {
+                return uc.getMaxPages();
+            }
+
+            @NonNull
+            @Override
+            public List<Book> fetchPage(final int pageNr)
+                    throws IOException, SearchException, InterruptedException {
+                Thread.sleep(PAGE_LATENCY_MS);
+                // We only have 2 samples; serve the first one for all but the last page.
+                final int resId = pageNr < 3
+                                  ? com.hardbacknutter.nevertoomanybooks.test
+                                          .R.raw.stripinfo_collection
+                                  : com.hardbacknutter.nevertoomanybooks.test
+                                          .R.raw.stripinfo_collection_last_page;
+                final Document document = loadDocument(
+                        resId, UTF_8,
+                        "https://www.stripinfo.be/userCollection/index/666/0/" + pageNr
+                        + "/0000");
+                return uc.parseDocument(document, pageNr, logger);
+            }
+        };
+
+        final List<Long> sequential = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int pageNr = 1; pageNr <= site.getMaxPages(); pageNr++) {
+            for (final Book book : site.fetchPage(pageNr)) {
+                Thread.sleep(FETCH_LATENCY_MS);
+                sequential.add(book.getLong(DBKey.SID_STRIP_INFO));
+            }
+        }
+        final long sequentialMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        final List<Long> pipelined = new ArrayList<>();
+        start = System.nanoTime();
+        new CollectionPipeline<Book, Long>(
+                site,
+                book -> book.getLong(DBKey.SID_STRIP_INFO),
+                externalId -> Thread.sleep(FETCH_LATENCY_MS),
+                (pageNr, externalIds) -> pipelined.addAll(externalIds),
+                () -> false,
+                3).run();
+        final long pipelinedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // 25 + 25 + 1
+        assertEquals(51, sequential.size());
+        assertEquals(sequential, pipelined);
+        assertTrue("sequential=" + sequentialMs + ", pipelined=" + pipelinedMs,
+                   pipelinedMs * 2 < sequentialMs);
+    }
 }
@@ -26,6 +26,7 @@ import android.os.StrictMode;
 
 import androidx.annotation.CallSuper;
 import androidx.annotation.NonNull;
+import androidx.preference.PreferenceManager;
 
 import java.io.File;
 import java.io.IOException;
@@ -34,6 +35,7 @@ import com.hardbacknutter.nevertoomanybooks.core.Logger;
 import com.hardbacknutter.nevertoomanybooks.core.LoggerFactory;
 import com.hardbacknutter.nevertoomanybooks.debug.AcraCustomDialog;
 import com.hardbacknutter.nevertoomanybooks.debug.FileLogger;
+import com.hardbacknutter.nevertoomanybooks.debug.SqlitePreferenceFragment;
 import com.hardbacknutter.nevertoomanybooks.searchengines.SearchEngineConfig;
 import com.hardbacknutter.nevertoomanybooks.utils.Languages;
 import com.hardbacknutter.nevertoomanybooks.utils.NightMode;
@@ -114,6 +116,8 @@ public class App
             logDir.mkdirs();
         }
         LoggerFactory.setLogger(new FileLogger(logDir));
+        SqlitePreferenceFragment.applyQueryStats(
+                PreferenceManager.getDefaultSharedPreferences(this));
 
         ServiceLocator.create(getApplicationContext());
 
@@ -24,6 +24,7 @@ import android.app.Activity;
 import android.app.SearchManager;
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.Looper;
 import android.view.Gravity;
 import android.view.Menu;
 import android.view.MenuInflater;
@@ -506,6 +507,11 @@ public class BooksOnBookshelf
             message.process(outcome -> {
                 vm.onBuildFinished(outcome);
                 displayList(outcome.getTargetNodes());
+                // The list is on screen; any deferred startup tasks can run when we're idle.
+                Looper.myQueue().addIdleHandler(() -> {
+                    StartupTaskScheduler.startDeferredTasks();
+                    return false;
+                });
             });
         });
 
@@ -873,6 +879,9 @@ public class BooksOnBookshelf
     public void onPause() {
         fabMenu.hideMenu();
         saveListPosition();
+        if (!vm.isBuilding()) {
+            vm.saveNodeState();
+        }
         super.onPause();
     }
 
@@ -1821,7 +1830,7 @@ public class BooksOnBookshelf
             // DO NOT REMOVE THE ADAPTER FROM FROM THE VIEW;
             // i.e. do NOT call vb.content.list.setAdapter(null)... crashes assured when doing so.
             if (adapter != null) {
-                adapter.setBooklist(null);
+                adapter.setBooklist(null, null);
             }
             vm.buildBookList();
         }
@@ -57,6 +57,7 @@ import com.hardbacknutter.nevertoomanybooks.booklist.RebuildBooklist;
 import com.hardbacknutter.nevertoomanybooks.booklist.ShowContextMenu;
 import com.hardbacknutter.nevertoomanybooks.booklist.TopRowListPosition;
 import com.hardbacknutter.nevertoomanybooks.booklist.adapter.BooklistAdapter;
+import com.hardbacknutter.nevertoomanybooks.booklist.adapter.SectionIndex;
 import com.hardbacknutter.nevertoomanybooks.booklist.header.BooklistHeader;
 import com.hardbacknutter.nevertoomanybooks.booklist.style.BuiltinStyle;
 import com.hardbacknutter.nevertoomanybooks.booklist.style.CoverScale;
@@ -189,6 +190,12 @@ public class BooksOnBookshelfViewModel
     /** Current displayed list. */
     @Nullable
     private Booklist booklist;
+    /**
+     * The index for the fast scroller popup of the current list.
+     * Build together with the list; discarded when list rows are updated.
+     */
+    @Nullable
+    private SectionIndex sectionIndex;
 
     /**
      * Flag (potentially) set when coming back from another Activity.
@@ -290,6 +297,17 @@ public class BooksOnBookshelfViewModel
         return positionsUpdated;
     }
 
+    /**
+     * Notify the observer that the given list positions were updated.
+     * The adapter will discard its section index; so do we.
+     *
+     * @param positions which were updated
+     */
+    private void postPositionsUpdated(@NonNull final int[] positions) {
+        sectionIndex = null;
+        positionsUpdated.setValue(positions);
+    }
+
     @Override
     protected void onCleared() {
         if (booklist != null) {
@@ -570,7 +588,7 @@ public class BooksOnBookshelfViewModel
 
 
         final BooklistAdapter adapter = new BooklistAdapter(context, style, layout, coverScale);
-        adapter.setBooklist(booklist);
+        adapter.setBooklist(booklist, sectionIndex);
         return adapter;
     }
 
@@ -614,6 +632,15 @@ public class BooksOnBookshelfViewModel
         }
     }
 
+    /**
+     * Save the expansion state of the nodes in the current list to permanent storage.
+     */
+    void saveNodeState() {
+        if (booklist != null) {
+            booklist.saveNodeState();
+        }
+    }
+
     /**
      * Check if a rebuild is needed in {@code Activity#onResume()}.
      * <p>
@@ -902,7 +929,7 @@ public class BooksOnBookshelfViewModel
                             .stream()
                             .mapToInt(BooklistNode::getAdapterPosition)
                             .toArray();
-            positionsUpdated.setValue(positions);
+            postPositionsUpdated(positions);
         }
     }
 
@@ -923,7 +950,7 @@ public class BooksOnBookshelfViewModel
                             .stream()
                             .mapToInt(BooklistNode::getAdapterPosition)
                             .toArray();
-            positionsUpdated.setValue(positions);
+            postPositionsUpdated(positions);
         }
     }
 
@@ -964,7 +991,7 @@ public class BooksOnBookshelfViewModel
                                             .stream()
                                             .mapToInt(BooklistNode::getAdapterPosition)
                                             .toArray();
-            positionsUpdated.setValue(positions);
+            postPositionsUpdated(positions);
             return false;
         }
     }
@@ -1002,7 +1029,7 @@ public class BooksOnBookshelfViewModel
                                             .stream()
                                             .mapToInt(BooklistNode::getAdapterPosition)
                                             .toArray();
-            positionsUpdated.setValue(positions);
+            postPositionsUpdated(positions);
             return false;
         }
     }
@@ -1020,7 +1047,7 @@ public class BooksOnBookshelfViewModel
                 .stream()
                 .mapToInt(BooklistNode::getAdapterPosition)
                 .toArray();
-        positionsUpdated.setValue(positions);
+        postPositionsUpdated(positions);
         return false;
     }
 
@@ -1274,6 +1301,11 @@ public class BooksOnBookshelfViewModel
         Objects.requireNonNull(bookshelf, ERROR_NULL_BOOKLIST);
         Objects.requireNonNull(searchCriteria, "searchCriteria");
 
+        // The new list will restore the saved node state; make sure it's up to date.
+        if (booklist != null) {
+            booklist.saveNodeState();
+        }
+
         boBTask.build(bookshelf, rebuildMode, searchCriteria, selectedBookId);
     }
 
@@ -1297,6 +1329,7 @@ public class BooksOnBookshelfViewModel
         }
 
         booklist = outcome.getList();
+        sectionIndex = outcome.getSectionIndex();
 
         // Save a flag to say list was loaded at least once successfully
         listLoaded = true;
@@ -31,6 +31,7 @@ import java.io.IOException;
 import java.util.Objects;
 import java.util.Set;
 
+import com.hardbacknutter.nevertoomanybooks.core.database.QueryStats;
 import com.hardbacknutter.nevertoomanybooks.debug.DebugReport;
 
 @SuppressWarnings("WeakerAccess")
@@ -92,6 +93,9 @@ public class MaintenanceViewModel
         if (selectedItems.contains(DBG_SEND_PREFERENCES)) {
             builder.addPreferences();
         }
+        if (QueryStats.isEnabled()) {
+            builder.addQueryStats();
+        }
         builder.sendToFile(uri);
     }
 }
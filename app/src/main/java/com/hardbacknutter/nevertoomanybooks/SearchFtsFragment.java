@@ -204,6 +204,10 @@ public class SearchFtsFragment
             searchIsDirty = searchIsDirty || dirty;
             // Reset the idle timer since the user did something
             idleStart = System.nanoTime();
+            // A search which is still running is now outdated
+            if (dirty) {
+                vm.cancelSearch();
+            }
             // If the search is dirty, make sure idle timer is running and update UI
             if (searchIsDirty) {
                 startIdleTimer();
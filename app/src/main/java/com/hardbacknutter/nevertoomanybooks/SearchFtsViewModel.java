@@ -28,6 +28,7 @@ import androidx.lifecycle.ViewModel;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.hardbacknutter.nevertoomanybooks.database.dao.FtsDao;
 
@@ -39,6 +40,8 @@ public class SearchFtsViewModel
     private final MutableLiveData<SearchCriteria> onSearchCriteriaUpdate =
             new MutableLiveData<>();
     private final MutableLiveData<List<Long>> onBooklistUpdate = new MutableLiveData<>();
+    /** Incremented for each search, and when the criteria are changed. */
+    private final AtomicInteger searchGeneration = new AtomicInteger();
     /** Database Access. */
     private FtsDao dao;
     @Nullable
@@ -78,14 +81,31 @@ public class SearchFtsViewModel
         return Objects.requireNonNull(criteria);
     }
 
+    /**
+     * The user changed the criteria; the result of a search which
+     * is still running will be discarded.
+     */
+    void cancelSearch() {
+        searchGeneration.incrementAndGet();
+    }
+
+    /**
+     * Run the search with the current criteria.
+     * <p>
+     * A search started earlier and finishing later will not post its (stale) result.
+     */
     public void search() {
         Objects.requireNonNull(criteria);
+        final int generation = searchGeneration.incrementAndGet();
         final List<Long> list = dao.search(criteria.getFtsAuthor(),
                                            criteria.getFtsBookTitle(),
                                            criteria.getFtsSeriesTitle(),
                                            criteria.getFtsPublisher(),
                                            criteria.getFtsKeywords(),
                                            MAX_SUGGESTIONS);
+        if (generation != searchGeneration.get()) {
+            return;
+        }
         criteria.setBookIdList(list);
         onBooklistUpdate.postValue(criteria.getBookIdList());
     }
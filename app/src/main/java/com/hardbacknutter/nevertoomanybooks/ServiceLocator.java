@@ -40,6 +40,7 @@ import com.hardbacknutter.nevertoomanybooks.core.network.NetworkChecker;
 import com.hardbacknutter.nevertoomanybooks.covers.CoverStorage;
 import com.hardbacknutter.nevertoomanybooks.database.CacheDbHelper;
 import com.hardbacknutter.nevertoomanybooks.database.DBHelper;
+import com.hardbacknutter.nevertoomanybooks.database.NameIndexes;
 import com.hardbacknutter.nevertoomanybooks.database.dao.AuthorDao;
 import com.hardbacknutter.nevertoomanybooks.database.dao.BedethequeCacheDao;
 import com.hardbacknutter.nevertoomanybooks.database.dao.BookDao;
@@ -132,6 +133,9 @@ public class ServiceLocator {
     @Nullable
     private Languages languages;
 
+    @Nullable
+    private NameIndexes nameIndexes;
+
     @Nullable
     private CoverStorage coverStorage;
 
@@ -328,6 +332,21 @@ public class ServiceLocator {
         return languages;
     }
 
+    /**
+     * Get the autocomplete lists cache container.
+     *
+     * @return singleton
+     */
+    @NonNull
+    public NameIndexes getNameIndexes() {
+        synchronized (this) {
+            if (nameIndexes == null) {
+                nameIndexes = new NameIndexes();
+            }
+        }
+        return nameIndexes;
+    }
+
     /**
      * Get the global field visibility settings.
      *
@@ -514,7 +533,8 @@ public class ServiceLocator {
                                           this::getStripInfoDao,
                                           this::getFtsDao,
                                           this::getCoverStorage,
-                                          this::getReorderHelper);
+                                          this::getReorderHelper,
+                                          this::getNameIndexes);
             }
         }
         return bookDao;
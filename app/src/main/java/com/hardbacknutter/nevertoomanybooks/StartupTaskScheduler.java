@@ -0,0 +1,398 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import com.hardbacknutter.nevertoomanybooks.core.LoggerFactory;
+import com.hardbacknutter.nevertoomanybooks.core.tasks.TaskListener;
+import com.hardbacknutter.nevertoomanybooks.core.tasks.TaskProgress;
+
+/**
+ * Runs the {@link StartupViewModel.StartupTask}s based on the resources they read and write.
+ * <p>
+ * A task depends on every task added <strong>before</strong> it with which it has
+ * a read/write or write/write conflict on a {@link Resource}.
+ * Tasks without such a conflict run concurrently.
+ * <p>
+ * Tasks which are not needed before the first booklist is displayed can be added
+ * as 'deferred'. They are only started after {@link #startDeferred()} is called,
+ * i.e. when the main screen is idle. Deferred tasks can depend on normal tasks,
+ * but not the other way around.
+ * <p>
+ * The wall-clock time of each task is recorded and logged when a stage has finished.
+ * <p>
+ * All methods must be called on the UI thread; the task callbacks are delivered
+ * on the UI thread as well.
+ */
+public final class StartupTaskScheduler
+        implements TaskListener<Boolean> {
+
+    /** Log tag. */
+    private static final String TAG = "StartupTaskScheduler";
+
+    /**
+     * A scheduler which still has deferred tasks to run.
+     * It's kept here as it must survive the {@link StartupActivity}.
+     */
+    @Nullable
+    private static StartupTaskScheduler pendingDeferred;
+
+    /** All tasks in the order they were added. */
+    @NonNull
+    private final List<Node> nodes = new ArrayList<>();
+    @NonNull
+    private final Executor executor;
+    /** The overall start time of the (normal) startup tasks. */
+    private long startNanos;
+    /** The time all normal tasks were done. */
+    private long finishedNanos;
+    /** Set when {@link #startDeferred()} was called. */
+    private boolean deferredReleased;
+    @Nullable
+    private Listener listener;
+
+    /**
+     * Constructor.
+     *
+     * @param executor to run the tasks on; must allow tasks to run in parallel
+     */
+    public StartupTaskScheduler(@NonNull final Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Start the deferred tasks of the last scheduler which was handed over
+     * with {@link #handOverDeferred()}. Does nothing if there are none.
+     */
+    @UiThread
+    public static void startDeferredTasks() {
+        final StartupTaskScheduler scheduler = pendingDeferred;
+        pendingDeferred = null;
+        if (scheduler != null) {
+            scheduler.startDeferred();
+        }
+    }
+
+    /**
+     * Set the listener for progress and completion of the normal (not deferred) tasks.
+     *
+     * @param listener to use, or {@code null} to remove the current one
+     */
+    @UiThread
+    public void setListener(@Nullable final Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Add a task which must be completed before the main screen can be used.
+     *
+     * @param task   to add
+     * @param reads  the resources the task reads
+     * @param writes the resources the task modifies
+     */
+    @UiThread
+    public void add(@NonNull final StartupViewModel.StartupTask task,
+                    @NonNull final Set<Resource> reads,
+                    @NonNull final Set<Resource> writes) {
+        add(task, reads, writes, false);
+    }
+
+    /**
+     * Add a task which can be run when the main screen is idle.
+     *
+     * @param task   to add
+     * @param reads  the resources the task reads
+     * @param writes the resources the task modifies
+     */
+    @UiThread
+    public void addDeferred(@NonNull final StartupViewModel.StartupTask task,
+                            @NonNull final Set<Resource> reads,
+                            @NonNull final Set<Resource> writes) {
+        add(task, reads, writes, true);
+    }
+
+    private void add(@NonNull final StartupViewModel.StartupTask task,
+                     @NonNull final Set<Resource> reads,
+                     @NonNull final Set<Resource> writes,
+                     final boolean deferred) {
+        final Node node = new Node(task, reads, writes, deferred);
+        for (final Node previous : nodes) {
+            if (node.conflictsWith(previous)) {
+                if (previous.deferred && !deferred) {
+                    throw new IllegalStateException("Task " + task.getTaskId()
+                                                    + " cannot depend on deferred task "
+                                                    + previous.task.getTaskId());
+                }
+                node.waitingFor.add(previous);
+            }
+        }
+        nodes.add(node);
+    }
+
+    /**
+     * Start all normal tasks which do not depend on another task.
+     * The remaining tasks are started as soon as their dependencies are done.
+     *
+     * @return {@code true} if there are tasks running; {@code false} if there was nothing to do
+     */
+    @UiThread
+    public boolean start() {
+        startNanos = System.nanoTime();
+        startReadyTasks();
+        if (!isRunning()) {
+            finishedNanos = startNanos;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Allow the deferred tasks to run.
+     */
+    @UiThread
+    public void startDeferred() {
+        deferredReleased = true;
+        startReadyTasks();
+    }
+
+    /**
+     * Keep this scheduler around until {@link #startDeferredTasks()} is called.
+     *
+     * @return {@code true} if there are deferred tasks to run
+     */
+    @UiThread
+    public boolean handOverDeferred() {
+        if (nodes.stream().anyMatch(node -> node.deferred && node.startNanos == 0)) {
+            pendingDeferred = this;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Check if any of the normal (i.e. not deferred) tasks is still waiting or running.
+     *
+     * @return {@code true} if the main screen has to wait
+     */
+    @UiThread
+    public boolean isRunning() {
+        return nodes.stream().anyMatch(node -> !node.deferred && !node.isDone());
+    }
+
+    /**
+     * Get the wall-clock time each task took, in the order they were added.
+     * Tasks which did not run (yet) are not included.
+     *
+     * @return map with the task id as key and the time in milliseconds as value
+     */
+    @NonNull
+    public Map<Integer, Long> getTimings() {
+        final Map<Integer, Long> timings = new LinkedHashMap<>();
+        nodes.stream()
+             .filter(Node::isDone)
+             .forEach(node -> timings.put(node.task.getTaskId(), toMillis(
+                     node.endNanos - node.startNanos)));
+        return timings;
+    }
+
+    /**
+     * Get the wall-clock time between {@link #start()} and the moment
+     * all normal tasks were done.
+     *
+     * @return time in milliseconds, or {@code -1} if still running
+     */
+    public long getStartupMillis() {
+        if (finishedNanos == 0) {
+            return -1;
+        }
+        return toMillis(finishedNanos - startNanos);
+    }
+
+    @Override
+    public void onFinished(final int taskId,
+                           @Nullable final Boolean result) {
+        onTaskDone(taskId);
+    }
+
+    @Override
+    public void onCancelled(final int taskId,
+                            @Nullable final Boolean result) {
+        onTaskDone(taskId);
+    }
+
+    @Override
+    public void onFailure(final int taskId,
+                          @Nullable final Throwable e) {
+        // We don't care about the status; the dependent tasks still run.
+        onTaskDone(taskId);
+    }
+
+    @Override
+    public void onProgress(@NonNull final TaskProgress message) {
+        if (listener != null) {
+            listener.onProgress(message);
+        }
+    }
+
+    @VisibleForTesting
+    void onTaskDone(final int taskId) {
+        final Node node = nodes.stream()
+                               .filter(n -> n.task.getTaskId() == taskId && n.isRunning())
+                               .findFirst()
+                               .orElse(null);
+        if (node == null) {
+            return;
+        }
+        node.endNanos = System.nanoTime();
+
+        startReadyTasks();
+
+        if (!node.deferred && finishedNanos == 0 && !isRunning()) {
+            finishedNanos = System.nanoTime();
+            logTimings("startup");
+            if (listener != null) {
+                listener.onFinished();
+            }
+        } else if (node.deferred
+                   && nodes.stream().filter(n -> n.deferred).allMatch(Node::isDone)) {
+            logTimings("deferred");
+        }
+    }
+
+    private void startReadyTasks() {
+        for (final Node node : nodes) {
+            if (node.startNanos == 0
+                && (!node.deferred || deferredReleased)
+                && node.waitingFor.stream().allMatch(Node::isDone)) {
+                node.startNanos = System.nanoTime();
+                node.task.setExecutor(executor);
+                node.task.start();
+            }
+        }
+    }
+
+    private void logTimings(@NonNull final String stage) {
+        final StringBuilder sb = new StringBuilder();
+        getTimings().forEach((taskId, ms) -> sb.append(' ')
+                                               .append(taskName(taskId))
+                                               .append('=')
+                                               .append(ms)
+                                               .append("ms"));
+        LoggerFactory.getLogger().d(TAG, stage, "total=" + getStartupMillis() + "ms", sb);
+    }
+
+    @NonNull
+    private String taskName(final int taskId) {
+        return nodes.stream()
+                    .filter(n -> n.task.getTaskId() == taskId)
+                    .map(n -> n.task.getClass().getSimpleName())
+                    .findFirst()
+                    .orElse(String.valueOf(taskId));
+    }
+
+    private static long toMillis(final long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * The shared data the startup tasks work on.
+     */
+    public enum Resource {
+        /** The language mapping cache. */
+        Languages,
+        /** The book/author/series/... data tables. */
+        Data,
+        /** The indexes on the data tables. */
+        Indexes,
+        /** The full-text-search table. */
+        Fts,
+        /** The temporary/cache files on storage. */
+        Files
+    }
+
+    public interface Listener {
+
+        /**
+         * Progress of any of the tasks.
+         *
+         * @param message with updates
+         */
+        void onProgress(@NonNull TaskProgress message);
+
+        /**
+         * Called once when all normal (i.e. not deferred) tasks are done.
+         */
+        void onFinished();
+    }
+
+    private static final class Node {
+
+        @NonNull
+        final StartupViewModel.StartupTask task;
+        @NonNull
+        final Set<Resource> reads;
+        @NonNull
+        final Set<Resource> writes;
+        final boolean deferred;
+        @NonNull
+        final Set<Node> waitingFor = new HashSet<>();
+        long startNanos;
+        long endNanos;
+
+        Node(@NonNull final StartupViewModel.StartupTask task,
+             @NonNull final Set<Resource> reads,
+             @NonNull final Set<Resource> writes,
+             final boolean deferred) {
+            this.task = task;
+            this.reads = reads.isEmpty() ? EnumSet.noneOf(Resource.class) : EnumSet.copyOf(reads);
+            this.writes = writes.isEmpty() ? EnumSet.noneOf(Resource.class)
+                                           : EnumSet.copyOf(writes);
+            this.deferred = deferred;
+        }
+
+        boolean conflictsWith(@NonNull final Node other) {
+            return writes.stream().anyMatch(r -> other.reads.contains(r)
+                                                 || other.writes.contains(r))
+                   || reads.stream().anyMatch(other.writes::contains);
+        }
+
+        boolean isRunning() {
+            return startNanos != 0 && endNanos == 0;
+        }
+
+        boolean isDone() {
+            return endNanos != 0;
+        }
+    }
+}
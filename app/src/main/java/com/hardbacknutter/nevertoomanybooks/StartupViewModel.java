@@ -24,7 +24,6 @@ import android.content.SharedPreferences;
 
 import androidx.annotation.AnyThread;
 import androidx.annotation.NonNull;
-import androidx.annotation.Nullable;
 import androidx.annotation.StringDef;
 import androidx.annotation.UiThread;
 import androidx.lifecycle.LiveData;
@@ -35,21 +34,24 @@ import androidx.preference.PreferenceManager;
 import java.io.File;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
-import java.util.Collection;
-import java.util.HashSet;
+import java.util.EnumSet;
+import java.util.concurrent.Executor;
 import java.util.stream.Stream;
 
 import com.hardbacknutter.nevertoomanybooks.backup.ExportHelper;
 import com.hardbacknutter.nevertoomanybooks.core.LoggerFactory;
+import com.hardbacknutter.nevertoomanybooks.StartupTaskScheduler.Resource;
+import com.hardbacknutter.nevertoomanybooks.core.tasks.ASyncExecutor;
 import com.hardbacknutter.nevertoomanybooks.core.tasks.LiveDataEvent;
-import com.hardbacknutter.nevertoomanybooks.core.tasks.TaskListener;
 import com.hardbacknutter.nevertoomanybooks.core.tasks.TaskProgress;
+import com.hardbacknutter.nevertoomanybooks.database.dao.MaintenanceDao;
 import com.hardbacknutter.nevertoomanybooks.database.tasks.DBCleanerTask;
 import com.hardbacknutter.nevertoomanybooks.database.tasks.OptimizeDbTask;
 import com.hardbacknutter.nevertoomanybooks.database.tasks.RebuildFtsTask;
 import com.hardbacknutter.nevertoomanybooks.database.tasks.RebuildIndexesTask;
 import com.hardbacknutter.nevertoomanybooks.database.tasks.RebuildTitleOrderByColumnTask;
 import com.hardbacknutter.nevertoomanybooks.tasks.BuildLanguageMappingsTask;
+import com.hardbacknutter.nevertoomanybooks.tasks.CleanTempCoversTask;
 
 /**
  * <strong>Note:</strong> yes, this is overkill for the startup. Call it an experiment.
@@ -87,48 +89,30 @@ public class StartupViewModel
     private final MutableLiveData<TaskProgress> onProgress =
             new MutableLiveData<>();
 
-    /** TaskId holder. Added when started. Removed when stopped. */
+    /**
+     * Runs the startup tasks. It is also the listener for the tasks;
+     * and must outlive this ViewModel when there are deferred tasks.
+     */
     @NonNull
-    private final Collection<Integer> allTasks = new HashSet<>(6);
-
-    private final TaskListener<Boolean> taskListener = new TaskListener<>() {
-        /**
-         * Called when any startup task completes. If no more tasks, let the activity know.
-         */
-        @Override
-        public void onFinished(final int taskId,
-                               @Nullable final Boolean result) {
-            cleanup(taskId);
-        }
-
-        @Override
-        public void onCancelled(final int taskId,
-                                @Nullable final Boolean result) {
-            // We should not get here as the user cannot cancel tasks
-            cleanup(taskId);
-        }
-
-        @Override
-        public void onFailure(final int taskId,
-                              @Nullable final Throwable e) {
-            // We don't care about the status; just finish
-            cleanup(taskId);
-        }
+    private final StartupTaskScheduler scheduler =
+            new StartupTaskScheduler(ASyncExecutor.MAIN);
+
+    private final StartupTaskScheduler.Listener schedulerListener =
+            new StartupTaskScheduler.Listener() {
+                @Override
+                public void onProgress(@NonNull final TaskProgress message) {
+                    onProgress.setValue(message);
+                }
 
-        private void cleanup(final int taskId) {
-            synchronized (allTasks) {
-                allTasks.remove(taskId);
-                if (!isRunning()) {
+                /**
+                 * Called when all startup tasks which must finish before
+                 * the main screen is displayed are done.
+                 */
+                @Override
+                public void onFinished() {
                     onFinished.setValue(LiveDataEvent.of(true));
                 }
-            }
-        }
-
-        @Override
-        public void onProgress(@NonNull final TaskProgress message) {
-            onProgress.setValue(message);
-        }
-    };
+            };
 
     /** Flag to ensure tasks are only ever started once. */
     private boolean startTasks = true;
@@ -148,6 +132,10 @@ public class StartupViewModel
                 .edit();
         if (flag) {
             ed.putBoolean(key, true);
+            if (PK_REBUILD_TITLE_OB.equals(key)) {
+                // A new rebuild is needed; never resume a previous one.
+                ed.remove(MaintenanceDao.PK_REBUILD_TITLE_OB_RESUME);
+            }
         } else {
             ed.remove(key);
         }
@@ -155,7 +143,7 @@ public class StartupViewModel
     }
 
     public boolean isRunning() {
-        return !allTasks.isEmpty();
+        return scheduler.isRunning();
     }
 
     boolean isProposeBackup() {
@@ -212,7 +200,13 @@ public class StartupViewModel
     }
 
     /**
-     * Run a number of essential tasks (sequentially).
+     * Run a number of essential tasks.
+     * <p>
+     * Each task declares the {@link Resource}s it reads and writes; tasks without
+     * a conflict run concurrently. The FTS rebuild and the database optimization are
+     * not needed to display the booklist and are deferred until the main screen is idle.
+     * The temporary cover files are deleted before the main screen is displayed.
+     * See {@link StartupTaskScheduler#startDeferredTasks()}.
      *
      * @param context Current context
      *
@@ -227,49 +221,72 @@ public class StartupViewModel
         startTasks = false;
 
         final SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(context);
+        scheduler.setListener(schedulerListener);
+
         // unconditional
-        startTask(new BuildLanguageMappingsTask(taskListener));
+        scheduler.add(new BuildLanguageMappingsTask(scheduler),
+                      EnumSet.noneOf(Resource.class),
+                      EnumSet.of(Resource.Languages));
 
         boolean optimizeDb = false;
 
         if (maintenanceNeeded || prefs.getBoolean(PK_RUN_MAINTENANCE, false)) {
-            // cleaner must be started after the language mapper task,
-            // but before the rebuild tasks.
-            startTask(new DBCleanerTask(taskListener));
+            // The cleaner uses the language mappings,
+            // and must be done before the rebuild tasks.
+            scheduler.add(new DBCleanerTask(scheduler),
+                          EnumSet.of(Resource.Languages),
+                          EnumSet.of(Resource.Data));
             optimizeDb = true;
         }
 
         if (prefs.getBoolean(PK_REBUILD_TITLE_OB, false)) {
-            startTask(new RebuildTitleOrderByColumnTask(taskListener));
+            // Needed before the first booklist as it determines the sort order.
+            scheduler.add(new RebuildTitleOrderByColumnTask(scheduler),
+                          EnumSet.of(Resource.Languages),
+                          EnumSet.of(Resource.Data));
             optimizeDb = true;
         }
 
         if (prefs.getBoolean(PK_REBUILD_INDEXES, false)) {
-            startTask(new RebuildIndexesTask(taskListener));
+            // Recreating the indexes reads all data tables;
+            // i.e. runs after the tasks above which modify the data.
+            scheduler.add(new RebuildIndexesTask(scheduler),
+                          EnumSet.of(Resource.Data),
+                          EnumSet.of(Resource.Indexes));
             optimizeDb = true;
         }
 
         if (prefs.getBoolean(PK_REBUILD_FTS, false)) {
-            startTask(new RebuildFtsTask(taskListener));
+            // Only needed for searching.
+            scheduler.addDeferred(new RebuildFtsTask(scheduler),
+                                  EnumSet.of(Resource.Data),
+                                  EnumSet.of(Resource.Fts));
             optimizeDb = true;
         }
 
         // triggered by any of the above as needed
-        // This should always be the last task.
         if (optimizeDb) {
-            startTask(new OptimizeDbTask(taskListener));
+            // The temporary covers must be deleted before any screen can start using them.
+            scheduler.add(new CleanTempCoversTask(scheduler),
+                          EnumSet.noneOf(Resource.class),
+                          EnumSet.of(Resource.Files));
+            // This must always be the last task.
+            scheduler.addDeferred(new OptimizeDbTask(scheduler),
+                                  EnumSet.allOf(Resource.class),
+                                  EnumSet.noneOf(Resource.class));
         }
 
+        scheduler.handOverDeferred();
+
         // We started at least one task (BuildLanguageMappingsTask) hence nextStage()
         // will be triggered by onFinished()
-        return true;
+        return scheduler.start();
     }
 
-    private void startTask(@NonNull final StartupTask task) {
-        synchronized (allTasks) {
-            allTasks.add(task.getTaskId());
-            task.start();
-        }
+    @Override
+    protected void onCleared() {
+        scheduler.setListener(null);
+        super.onCleared();
     }
 
     /**
@@ -305,6 +322,15 @@ public class StartupViewModel
         @AnyThread
         int getTaskId();
 
+        /**
+         * Set the executor to run on; called by the {@link StartupTaskScheduler}
+         * before the task is started.
+         *
+         * @param executor to use
+         */
+        @UiThread
+        void setExecutor(@NonNull Executor executor);
+
         @UiThread
         void start();
     }
@@ -55,6 +55,7 @@ import com.hardbacknutter.nevertoomanybooks.core.database.Synchronizer;
 import com.hardbacknutter.nevertoomanybooks.core.storage.StorageException;
 import com.hardbacknutter.nevertoomanybooks.core.tasks.ProgressListener;
 import com.hardbacknutter.nevertoomanybooks.database.DBKey;
+import com.hardbacknutter.nevertoomanybooks.database.dao.EntityIdCache;
 import com.hardbacknutter.nevertoomanybooks.entities.Book;
 import com.hardbacknutter.nevertoomanybooks.io.ArchiveReaderRecord;
 import com.hardbacknutter.nevertoomanybooks.io.DataReader;
@@ -210,47 +211,51 @@ public class CsvRecordReader
         final Style defaultStyle = ServiceLocator.getInstance().getStyles().getDefault();
         final BookCoder bookCoder = new BookCoder(context, defaultStyle);
 
-        while (row < books.size() && !progressListener.isCancelled()) {
+        // Cache the Author/Series/... name lookups for the duration of the import.
+        try (EntityIdCache ignored = EntityIdCache.begin(db)) {
+            while (row < books.size() && !progressListener.isCancelled()) {
 
-            if (!db.inTransaction()) {
-                txLock = db.beginTransaction(true);
-            }
-            try {
-                final String[] csvDataRow = parse(context, row, books.get(row));
+                if (!db.inTransaction()) {
+                    txLock = db.beginTransaction(true);
+                }
+                try {
+                    final String[] csvDataRow = parse(context, row, books.get(row));
 
-                if (csvDataRow.length == csvColumnNames.length) {
-                    final Book book = bookCoder.decode(context, csvColumnNames, csvDataRow);
-                    preprocessId(book);
-                    preprocessUuid(book);
-                    importBook(context, book);
+                    if (csvDataRow.length == csvColumnNames.length) {
+                        final Book book = bookCoder.decode(context, csvColumnNames, csvDataRow);
+                        preprocessId(book);
+                        preprocessUuid(book);
+                        importBook(context, book);
 
-                    if (txLock != null) {
-                        db.setTransactionSuccessful();
+                        if (txLock != null) {
+                            db.setTransactionSuccessful();
+                        }
+                    } else {
+                        final String msg = context.getString(
+                                R.string.error_import_csv_column_count_mismatch, row);
+                        results.handleRowException(context, row, new DataReaderException(msg), msg);
                     }
-                } else {
-                    final String msg = context.getString(
-                            R.string.error_import_csv_column_count_mismatch, row);
-                    results.handleRowException(context, row, new DataReaderException(msg), msg);
-                }
-            } catch (@NonNull final DaoWriteException | DataReaderException
-                                    | SQLiteDoneException e) {
-                results.handleRowException(context, row, e, null);
+                } catch (@NonNull final DaoWriteException | DataReaderException
+                                        | SQLiteDoneException e) {
+                    results.handleRowException(context, row, e, null);
 
-            } finally {
-                if (txLock != null) {
-                    db.endTransaction(txLock);
+                } finally {
+                    if (txLock != null) {
+                        db.endTransaction(txLock);
+                    }
                 }
-            }
 
-            row++;
+                row++;
 
-            delta++;
-            final long now = System.currentTimeMillis();
-            if (now - lastUpdateTime > progressListener.getUpdateIntervalInMs()
-                && !progressListener.isCancelled()) {
-                progressListener.publishProgress(delta, results.createBooksSummaryLine(context));
-                lastUpdateTime = now;
-                delta = 0;
+                delta++;
+                final long now = System.currentTimeMillis();
+                if (now - lastUpdateTime > progressListener.getUpdateIntervalInMs()
+                    && !progressListener.isCancelled()) {
+                    progressListener.publishProgress(delta,
+                                                     results.createBooksSummaryLine(context));
+                    lastUpdateTime = now;
+                    delta = 0;
+                }
             }
         }
 
@@ -20,56 +20,128 @@
 package com.hardbacknutter.nevertoomanybooks.backup.db;
 
 import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
 
 import androidx.annotation.NonNull;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 
 import com.hardbacknutter.nevertoomanybooks.backup.ExportResults;
+import com.hardbacknutter.nevertoomanybooks.core.LoggerFactory;
+import com.hardbacknutter.nevertoomanybooks.core.database.SynchronizedDb;
 import com.hardbacknutter.nevertoomanybooks.core.storage.FileUtils;
 import com.hardbacknutter.nevertoomanybooks.core.tasks.ProgressListener;
 import com.hardbacknutter.nevertoomanybooks.io.DataWriter;
+import com.hardbacknutter.nevertoomanybooks.io.DataWriterException;
 
 /**
  * Export a database file.
+ * <ol>
+ *     <li>Take a consistent snapshot of the live database into a temporary file.
+ *         The app can keep reading while this is done;
+ *         see {@link SynchronizedDb#copyTo(File, java.util.function.BooleanSupplier)}</li>
+ *     <li>Compact the snapshot with 'VACUUM' and run an integrity check on it;
+ *         this uses its own connection and does not touch the live database at all.</li>
+ *     <li>Stream the result into the destination file.</li>
+ * </ol>
  */
 public class DbArchiveWriter
         implements DataWriter<ExportResults> {
 
+    private static final String TAG = "DbArchiveWriter";
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+    private static final String[] SQLITE_SUFFIXES = {"", "-wal", "-shm", "-journal"};
+
     @NonNull
     private final File destFile;
 
     @NonNull
-    private final File databasePath;
+    private final SynchronizedDb db;
 
     /**
      * Constructor.
      *
-     * @param databasePath the database file path
-     * @param destFile     {@link File} to write to
+     * @param db       the database to export
+     * @param destFile {@link File} to write to
      */
-    public DbArchiveWriter(@NonNull final File databasePath,
+    public DbArchiveWriter(@NonNull final SynchronizedDb db,
                            @NonNull final File destFile) {
         this.destFile = destFile;
-        this.databasePath = databasePath;
+        this.db = db;
     }
 
     @NonNull
     @Override
     public ExportResults write(@NonNull final Context context,
                                @NonNull final ProgressListener progressListener)
-            throws IOException {
+            throws DataWriterException,
+                   IOException {
+
+        final ExportResults results = new ExportResults();
+
+        final File snapshot = new File(destFile.getPath() + SNAPSHOT_SUFFIX);
+        try {
+            final long start = System.nanoTime();
+            if (!db.copyTo(snapshot, progressListener::isCancelled)) {
+                return results;
+            }
+            final long copied = System.nanoTime();
+            final long snapshotSize = snapshot.length();
 
-        try (FileInputStream fis = new FileInputStream(databasePath);
-             FileOutputStream fos = new FileOutputStream(destFile)) {
-            FileUtils.copy(fis, fos);
+            compactAndCheck(snapshot);
+            final long compacted = System.nanoTime();
+
+            if (progressListener.isCancelled()) {
+                return results;
+            }
+            FileUtils.copy(snapshot, destFile);
+            final long done = System.nanoTime();
+
+            LoggerFactory.getLogger().d(TAG, "write",
+                                        "database=" + new File(db.getPath()).length(),
+                                        "snapshot=" + snapshotSize,
+                                        "exported=" + destFile.length(),
+                                        "copyMs=" + (copied - start) / 1_000_000,
+                                        "vacuumMs=" + (compacted - copied) / 1_000_000,
+                                        "streamMs=" + (done - compacted) / 1_000_000);
+            results.database = true;
+            return results;
+
+        } finally {
+            for (final String suffix : SQLITE_SUFFIXES) {
+                FileUtils.delete(new File(snapshot.getPath() + suffix));
+            }
         }
+    }
 
-        final ExportResults results = new ExportResults();
-        results.database = true;
-        return results;
+    /**
+     * Compact the given database file, and verify its integrity.
+     * Any "-wal" file which came with the snapshot is merged into it.
+     *
+     * @param file to process
+     *
+     * @throws DataWriterException if the file is not a valid database
+     */
+    private void compactAndCheck(@NonNull final File file)
+            throws DataWriterException {
+        try (SQLiteDatabase copy = SQLiteDatabase.openDatabase(
+                file.getPath(), null, SQLiteDatabase.OPEN_READWRITE)) {
+            // Make it a single, self-contained file.
+            copy.disableWriteAheadLogging();
+            copy.execSQL("VACUUM");
+
+            try (Cursor cursor = copy.rawQuery("PRAGMA integrity_check", null)) {
+                if (!cursor.moveToFirst() || !"ok".equals(cursor.getString(0))) {
+                    throw new DataWriterException(new SQLiteException(
+                            "integrity_check failed: "
+                            + (cursor.getCount() > 0 ? cursor.getString(0) : "")));
+                }
+            }
+        } catch (@NonNull final SQLiteException e) {
+            throw new DataWriterException(e);
+        }
     }
 }
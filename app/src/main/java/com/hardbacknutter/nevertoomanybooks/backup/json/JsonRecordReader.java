@@ -67,6 +67,7 @@ import com.hardbacknutter.nevertoomanybooks.database.DBKey;
 import com.hardbacknutter.nevertoomanybooks.database.dao.BookshelfDao;
 import com.hardbacknutter.nevertoomanybooks.database.dao.CalibreCustomFieldDao;
 import com.hardbacknutter.nevertoomanybooks.database.dao.CalibreLibraryDao;
+import com.hardbacknutter.nevertoomanybooks.database.dao.EntityIdCache;
 import com.hardbacknutter.nevertoomanybooks.database.dao.StylesHelper;
 import com.hardbacknutter.nevertoomanybooks.entities.Book;
 import com.hardbacknutter.nevertoomanybooks.io.ArchiveMetaData;
@@ -341,6 +342,7 @@ public class JsonRecordReader
                     .decode(jsonRoot);
             // Migrate/remove any obsolete keys
             DBHelper.migratePreferenceKeys(context);
+            ServiceLocator.getInstance().getReorderHelper().onPreferencesChanged();
             results.preferences = 1;
         }
     }
@@ -536,45 +538,49 @@ public class JsonRecordReader
 
         final JsonCoder<Book> bookCoder = new BookCoder(context, defaultStyle);
 
-        for (int i = 0; i < books.length() && !progressListener.isCancelled(); i++) {
+        // Cache the Author/Series/... name lookups for the duration of the import.
+        try (EntityIdCache ignored = EntityIdCache.begin(db)) {
+            for (int i = 0; i < books.length() && !progressListener.isCancelled(); i++) {
 
-            if (!db.inTransaction()) {
-                txLock = db.beginTransaction(true);
-            }
-            try {
-                final Book book = bookCoder.decode(books.getJSONObject(i));
-                // Books MUST have a UUID or we will NOT import them here.
-                final String importUuid = book.getString(DBKey.BOOK_UUID, null);
-                if (importUuid != null && !importUuid.isEmpty()) {
+                if (!db.inTransaction()) {
+                    txLock = db.beginTransaction(true);
+                }
+                try {
+                    final Book book = bookCoder.decode(books.getJSONObject(i));
+                    // Books MUST have a UUID or we will NOT import them here.
+                    final String importUuid = book.getString(DBKey.BOOK_UUID, null);
+                    if (importUuid != null && !importUuid.isEmpty()) {
 
-                    importBook(context, book);
+                        importBook(context, book);
 
-                    if (txLock != null) {
-                        db.setTransactionSuccessful();
+                        if (txLock != null) {
+                            db.setTransactionSuccessful();
+                        }
+                    } else {
+                        final String msg = context.getString(
+                                R.string.error_record_must_contain_column, DBKey.BOOK_UUID);
+                        results.handleRowException(context, row, new DataReaderException(msg), msg);
                     }
-                } else {
-                    final String msg = context.getString(
-                            R.string.error_record_must_contain_column, DBKey.BOOK_UUID);
-                    results.handleRowException(context, row, new DataReaderException(msg), msg);
-                }
-            } catch (@NonNull final DaoWriteException | SQLiteDoneException e) {
-                results.handleRowException(context, row, e, null);
+                } catch (@NonNull final DaoWriteException | SQLiteDoneException e) {
+                    results.handleRowException(context, row, e, null);
 
-            } finally {
-                if (txLock != null) {
-                    db.endTransaction(txLock);
+                } finally {
+                    if (txLock != null) {
+                        db.endTransaction(txLock);
+                    }
                 }
-            }
 
-            row++;
+                row++;
 
-            delta++;
-            final long now = System.currentTimeMillis();
-            if (now - lastUpdateTime > progressListener.getUpdateIntervalInMs()
-                && !progressListener.isCancelled()) {
-                progressListener.publishProgress(delta, results.createBooksSummaryLine(context));
-                lastUpdateTime = now;
-                delta = 0;
+                delta++;
+                final long now = System.currentTimeMillis();
+                if (now - lastUpdateTime > progressListener.getUpdateIntervalInMs()
+                    && !progressListener.isCancelled()) {
+                    progressListener.publishProgress(delta,
+                                                     results.createBooksSummaryLine(context));
+                    lastUpdateTime = now;
+                    delta = 0;
+                }
             }
         }
         // minus 1 to compensate for the last increment
@@ -58,6 +58,7 @@ import com.hardbacknutter.nevertoomanybooks.database.DBKey;
 import com.hardbacknutter.nevertoomanybooks.database.dao.BookDao;
 import com.hardbacknutter.nevertoomanybooks.database.dao.StylesHelper;
 import com.hardbacknutter.nevertoomanybooks.entities.Book;
+import com.hardbacknutter.nevertoomanybooks.entities.BookBatchLoader;
 import com.hardbacknutter.nevertoomanybooks.entities.Bookshelf;
 import com.hardbacknutter.nevertoomanybooks.io.ArchiveMetaData;
 import com.hardbacknutter.nevertoomanybooks.io.DataWriterException;
@@ -294,8 +295,9 @@ public class JsonRecordWriter
                 final JSONArray bookArray = new JSONArray();
                 final BookDao bookDao = ServiceLocator.getInstance().getBookDao();
                 try (Cursor cursor = bookDao.fetchBooksForExport(utcSinceDateTime)) {
-                    while (cursor.moveToNext() && !progressListener.isCancelled()) {
-                        final Book book = Book.from(cursor);
+                    final BookBatchLoader bookLoader = new BookBatchLoader(cursor);
+                    Book book;
+                    while (!progressListener.isCancelled() && (book = bookLoader.next()) != null) {
                         bookArray.put(coder.encode(book));
                         results.addBook(book.getId());
 
@@ -106,18 +106,16 @@ public class EditBookAuthorDialogFragment
         final Author currentEdit = authorVm.getCurrentEdit();
 
         //noinspection DataFlowIssue
-        final ExtArrayAdapter<String> familyNameAdapter = new ExtArrayAdapter<>(
+        final ExtArrayAdapter<String> familyNameAdapter = ExtArrayAdapter.createFromIndex(
                 context, R.layout.popup_dropdown_menu_item,
-                ExtArrayAdapter.FilterType.Diacritic,
-                vm.getAllAuthorFamilyNames());
+                vm.getAuthorFamilyNames());
         vb.familyName.setText(currentEdit.getFamilyName());
         vb.familyName.setAdapter(familyNameAdapter);
         autoRemoveError(vb.familyName, vb.lblFamilyName);
 
-        final ExtArrayAdapter<String> givenNameAdapter = new ExtArrayAdapter<>(
+        final ExtArrayAdapter<String> givenNameAdapter = ExtArrayAdapter.createFromIndex(
                 context, R.layout.popup_dropdown_menu_item,
-                ExtArrayAdapter.FilterType.Diacritic,
-                vm.getAllAuthorGivenNames());
+                vm.getAuthorGivenNames());
         vb.givenNames.setText(currentEdit.getGivenNames());
         vb.givenNames.setAdapter(givenNameAdapter);
 
@@ -134,10 +132,9 @@ public class EditBookAuthorDialogFragment
             vb.lblRealAuthorHeader.setVisibility(View.VISIBLE);
             vb.lblRealAuthor.setVisibility(View.VISIBLE);
 
-            final ExtArrayAdapter<String> realNameAdapter = new ExtArrayAdapter<>(
+            final ExtArrayAdapter<String> realNameAdapter = ExtArrayAdapter.createFromIndex(
                     context, R.layout.popup_dropdown_menu_item,
-                    ExtArrayAdapter.FilterType.Diacritic,
-                    vm.getAllAuthorNames());
+                    vm.getAuthorNames());
             vb.realAuthor.setText(authorVm.getCurrentRealAuthorName(), false);
             vb.realAuthor.setAdapter(realNameAdapter);
             autoRemoveError(vb.realAuthor, vb.lblRealAuthor);
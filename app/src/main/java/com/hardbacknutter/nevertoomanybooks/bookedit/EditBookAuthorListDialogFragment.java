@@ -144,9 +144,9 @@ public class EditBookAuthorListDialogFragment
         setSubtitle(vm.getBook().getTitle());
 
         //noinspection DataFlowIssue
-        final ExtArrayAdapter<String> nameAdapter = new ExtArrayAdapter<>(
+        final ExtArrayAdapter<String> nameAdapter = ExtArrayAdapter.createFromIndex(
                 getContext(), R.layout.popup_dropdown_menu_item,
-                ExtArrayAdapter.FilterType.Diacritic, vm.getAllAuthorNames());
+                vm.getAuthorNames());
         vb.author.setAdapter(nameAdapter);
         autoRemoveError(vb.author, vb.lblAuthor);
 
@@ -100,9 +100,9 @@ public class EditBookPublisherDialogFragment
         setSubtitle(vm.getBook().getTitle());
 
         //noinspection DataFlowIssue
-        final ExtArrayAdapter<String> nameAdapter = new ExtArrayAdapter<>(
+        final ExtArrayAdapter<String> nameAdapter = ExtArrayAdapter.createFromIndex(
                 getContext(), R.layout.popup_dropdown_menu_item,
-                ExtArrayAdapter.FilterType.Diacritic, vm.getAllPublisherNames());
+                vm.getPublisherNames());
 
         vb.publisherName.setText(currentEdit.getName());
         vb.publisherName.setAdapter(nameAdapter);
@@ -138,9 +138,9 @@ public class EditBookPublisherListDialogFragment
         setSubtitle(vm.getBook().getTitle());
 
         //noinspection DataFlowIssue
-        final ExtArrayAdapter<String> nameAdapter = new ExtArrayAdapter<>(
+        final ExtArrayAdapter<String> nameAdapter = ExtArrayAdapter.createFromIndex(
                 getContext(), R.layout.popup_dropdown_menu_item,
-                ExtArrayAdapter.FilterType.Diacritic, vm.getAllPublisherNames());
+                vm.getPublisherNames());
         vb.publisherName.setAdapter(nameAdapter);
         autoRemoveError(vb.publisherName, vb.lblPublisherName);
 
@@ -101,9 +101,9 @@ public class EditBookSeriesDialogFragment
         setSubtitle(vm.getBook().getTitle());
 
         //noinspection DataFlowIssue
-        final ExtArrayAdapter<String> titleAdapter = new ExtArrayAdapter<>(
+        final ExtArrayAdapter<String> titleAdapter = ExtArrayAdapter.createFromIndex(
                 getContext(), R.layout.popup_dropdown_menu_item,
-                ExtArrayAdapter.FilterType.Diacritic, vm.getAllSeriesTitles());
+                vm.getSeriesTitles());
 
         vb.seriesTitle.setText(currentEdit.getTitle());
         vb.seriesTitle.setAdapter(titleAdapter);
@@ -138,9 +138,9 @@ public class EditBookSeriesListDialogFragment
         setSubtitle(vm.getBook().getTitle());
 
         //noinspection DataFlowIssue
-        final ExtArrayAdapter<String> titleAdapter = new ExtArrayAdapter<>(
+        final ExtArrayAdapter<String> titleAdapter = ExtArrayAdapter.createFromIndex(
                 getContext(), R.layout.popup_dropdown_menu_item,
-                ExtArrayAdapter.FilterType.Diacritic, vm.getAllSeriesTitles());
+                vm.getSeriesTitles());
         vb.seriesTitle.setAdapter(titleAdapter);
         autoRemoveError(vb.seriesTitle, vb.lblSeriesTitle);
 
@@ -55,7 +55,9 @@ import com.hardbacknutter.nevertoomanybooks.core.parsers.MoneyParser;
 import com.hardbacknutter.nevertoomanybooks.core.parsers.RealNumberParser;
 import com.hardbacknutter.nevertoomanybooks.core.storage.StorageException;
 import com.hardbacknutter.nevertoomanybooks.core.utils.LocaleListUtils;
+import com.hardbacknutter.nevertoomanybooks.core.widgets.adapters.PrefixIndex;
 import com.hardbacknutter.nevertoomanybooks.database.DBKey;
+import com.hardbacknutter.nevertoomanybooks.database.NameIndexes;
 import com.hardbacknutter.nevertoomanybooks.database.dao.AuthorDao;
 import com.hardbacknutter.nevertoomanybooks.database.dao.PublisherDao;
 import com.hardbacknutter.nevertoomanybooks.database.dao.SeriesDao;
@@ -130,9 +132,6 @@ public class EditBookViewModel
     private List<String> genres;
     /** Field drop down list. */
     @Nullable
-    private List<String> locations;
-    /** Field drop down list. */
-    @Nullable
     private List<String> formats;
     /** Field drop down list. */
     @Nullable
@@ -146,21 +145,6 @@ public class EditBookViewModel
     /** Field drop down list. */
     @Nullable
     private List<String> listPriceCurrencies;
-    /** Field drop down list. */
-    @Nullable
-    private List<String> authorNamesFormatted;
-    /** Field drop down list. */
-    @Nullable
-    private List<String> authorFamilyNames;
-    /** Field drop down list. */
-    @Nullable
-    private List<String> authorGivenNames;
-    /** Field drop down list. */
-    @Nullable
-    private List<String> publisherNames;
-    /** Field drop down list. */
-    @Nullable
-    private List<String> seriesTitles;
 
     /** The currently displayed tab. */
     private int currentTab;
@@ -439,71 +423,59 @@ public class EditBookViewModel
     }
 
     /**
-     * Load an {@link Author} names list.
+     * Get the {@link Author} names.
+     * The list is shared, and refreshed when Authors are added/modified.
      *
-     * @return list of names
+     * @return index with the names
      */
     @NonNull
-    List<String> getAllAuthorNames() {
-        if (authorNamesFormatted == null) {
-            authorNamesFormatted = ServiceLocator.getInstance().getAuthorDao()
-                                                 .getNames(DBKey.AUTHOR_FORMATTED);
-        }
-        return authorNamesFormatted;
+    PrefixIndex getAuthorNames() {
+        return ServiceLocator.getInstance().getNameIndexes()
+                             .get(NameIndexes.Domain.AuthorFormatted);
     }
 
     /**
-     * Load an {@link Author} Family names list.
+     * Get the {@link Author} Family names.
      *
-     * @return list of names
+     * @return index with the names
      */
     @NonNull
-    List<String> getAllAuthorFamilyNames() {
-        if (authorFamilyNames == null) {
-            authorFamilyNames = ServiceLocator.getInstance().getAuthorDao()
-                                              .getNames(DBKey.AUTHOR_FAMILY_NAME);
-        }
-        return authorFamilyNames;
+    PrefixIndex getAuthorFamilyNames() {
+        return ServiceLocator.getInstance().getNameIndexes()
+                             .get(NameIndexes.Domain.AuthorFamilyName);
     }
 
     /**
-     * Load an {@link Author} Given names list.
+     * Get the {@link Author} Given names.
      *
-     * @return list of names
+     * @return index with the names
      */
     @NonNull
-    List<String> getAllAuthorGivenNames() {
-        if (authorGivenNames == null) {
-            authorGivenNames = ServiceLocator.getInstance().getAuthorDao()
-                                             .getNames(DBKey.AUTHOR_GIVEN_NAMES);
-        }
-        return authorGivenNames;
+    PrefixIndex getAuthorGivenNames() {
+        return ServiceLocator.getInstance().getNameIndexes()
+                             .get(NameIndexes.Domain.AuthorGivenNames);
     }
 
     /**
-     * Load a {@link Publisher} names list.
+     * Get the {@link Publisher} names.
      *
-     * @return list of names
+     * @return index with the names
      */
     @NonNull
-    List<String> getAllPublisherNames() {
-        if (publisherNames == null) {
-            publisherNames = ServiceLocator.getInstance().getPublisherDao().getNames();
-        }
-        return publisherNames;
+    PrefixIndex getPublisherNames() {
+        return ServiceLocator.getInstance().getNameIndexes()
+                             .get(NameIndexes.Domain.PublisherName);
     }
 
     /**
-     * Load a {@link Series} titles list.
+     * Get the {@link Series} titles.
      *
-     * @return list of titles
+     * @return index with the titles
      */
     @NonNull
-    List<String> getAllSeriesTitles() {
-        if (seriesTitles == null) {
-            seriesTitles = ServiceLocator.getInstance().getSeriesDao().getNames();
-        }
-        return seriesTitles;
+    PrefixIndex getSeriesTitles() {
+        return ServiceLocator.getInstance().getNameIndexes()
+                             .get(NameIndexes.Domain.SeriesTitle);
     }
 
     /**
@@ -608,10 +580,8 @@ public class EditBookViewModel
      */
     @NonNull
     private List<String> getAllLocations() {
-        if (locations == null) {
-            locations = ServiceLocator.getInstance().getLocationDao().getList();
-        }
-        return locations;
+        return ServiceLocator.getInstance().getNameIndexes()
+                             .get(NameIndexes.Domain.Location).getNames();
     }
 
     /**
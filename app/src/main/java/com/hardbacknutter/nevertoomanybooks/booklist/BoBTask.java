@@ -22,6 +22,7 @@ package com.hardbacknutter.nevertoomanybooks.booklist;
 import android.content.Context;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import androidx.annotation.WorkerThread;
 
@@ -36,6 +37,7 @@ import com.hardbacknutter.nevertoomanybooks.DEBUG_SWITCHES;
 import com.hardbacknutter.nevertoomanybooks.R;
 import com.hardbacknutter.nevertoomanybooks.SearchCriteria;
 import com.hardbacknutter.nevertoomanybooks.ServiceLocator;
+import com.hardbacknutter.nevertoomanybooks.booklist.adapter.SectionIndex;
 import com.hardbacknutter.nevertoomanybooks.booklist.filters.FtsMatchFilter;
 import com.hardbacknutter.nevertoomanybooks.booklist.filters.NumberListFilter;
 import com.hardbacknutter.nevertoomanybooks.booklist.filters.PEntityListFilter;
@@ -399,8 +401,12 @@ public class BoBTask
                 booklist.countDistinctBooks();
             }
 
+            // The fast scroller popup texts; reading them takes a query over all header rows.
+            final SectionIndex sectionIndex = SectionIndex.create(context, style, booklist);
+
             // Get the row(s) which will be used to determine new cursor position
-            return new Outcome(booklist, booklist.getVisibleBookNodes(desiredCentralBookId));
+            return new Outcome(booklist, booklist.getVisibleBookNodes(desiredCentralBookId),
+                               sectionIndex);
 
         } catch (@SuppressWarnings("OverlyBroadCatchBlock") @NonNull final Exception e) {
             if (booklist != null) {
@@ -424,6 +430,9 @@ public class BoBTask
                                            searchCriteria.getFtsAuthor(),
                                            searchCriteria.getFtsPublisher(),
                                            searchCriteria.getFtsKeywords())
+                        .map(ServiceLocator.getInstance().getFtsDao()::toMatchQuery)
+                        // e.g. only excluded words; there is nothing to match
+                        .filter(query -> !query.isEmpty())
                         .map(FtsMatchFilter::new)
                         .ifPresent(builder::addFilter);
 
@@ -492,11 +501,15 @@ public class BoBTask
         private final Booklist booklist;
         @NonNull
         private final List<BooklistNode> targetNodes;
+        @Nullable
+        private final SectionIndex sectionIndex;
 
         Outcome(@NonNull final Booklist booklist,
-                @NonNull final List<BooklistNode> targetNodes) {
+                @NonNull final List<BooklistNode> targetNodes,
+                @Nullable final SectionIndex sectionIndex) {
             this.booklist = booklist;
             this.targetNodes = targetNodes;
+            this.sectionIndex = sectionIndex;
         }
 
         /**
@@ -518,5 +531,15 @@ public class BoBTask
         public List<BooklistNode> getTargetNodes() {
             return targetNodes;
         }
+
+        /**
+         * The index for the fast scroller popup.
+         *
+         * @return index, or {@code null} if the style has no groups
+         */
+        @Nullable
+        public SectionIndex getSectionIndex() {
+            return sectionIndex;
+        }
     }
 }
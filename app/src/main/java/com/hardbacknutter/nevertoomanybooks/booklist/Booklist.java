@@ -26,12 +26,12 @@ import androidx.annotation.ColorInt;
 import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import androidx.core.util.Pair;
+import androidx.annotation.WorkerThread;
 
 import java.io.File;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -122,9 +122,22 @@ public class Booklist
     @NonNull
     private final String sqlSelectBooklistNodes;
 
-    /** {@link #getOffsetCursor(int, int)}. */
+    /** {@link #getOffsetCursor(int, int)}. Lazy initialized for the page size. */
     @SuppressWarnings("FieldNotUsedInToString")
-    private final String sqlGetOffsetCursor;
+    @Nullable
+    private String sqlGetOffsetCursor;
+    /** The page size for which {@link #sqlGetOffsetCursor} was created. */
+    @SuppressWarnings("FieldNotUsedInToString")
+    private int sqlGetOffsetCursorPageSize;
+
+    /**
+     * The in-memory expansion state of all nodes.
+     * This is the authoritative source for the expanded/visible state;
+     * the list-table is only updated when the state is saved.
+     */
+    @SuppressWarnings("FieldNotUsedInToString")
+    @NonNull
+    private final BooklistNodeTree nodeTree;
 
     /** Total number of books in current list. e.g. a book can be listed under 2 authors. */
     private int totalBooks = -1;
@@ -137,10 +150,6 @@ public class Booklist
     @Nullable
     private Cursor listCursor;
 
-    /** {@link #ensureNodeIsVisible}. */
-    @SuppressWarnings("FieldNotUsedInToString")
-    private String sqlEnsureNodeIsVisible;
-
     /** {@link #getBookIdsForNodeKey}. */
     @SuppressWarnings("FieldNotUsedInToString")
     private String sqlGetBookIdListForNodeKey;
@@ -169,6 +178,10 @@ public class Booklist
     @SuppressWarnings("FieldNotUsedInToString")
     private String sqlUpdateBookLoanee;
 
+    /** {@link #getHeaderCursor(int)}. */
+    @SuppressWarnings("FieldNotUsedInToString")
+    private String sqlGetHeaderRows;
+
     Booklist(final int instanceId,
              @NonNull final SynchronizedDb db,
              @NonNull final TableDefinition listTable,
@@ -180,23 +193,11 @@ public class Booklist
         this.listTable = listTable;
         this.navTable = navTable;
         this.nodeDao = nodeDao;
+        nodeTree = nodeDao.loadTree();
 
         sqlSelectBooklistNodes = SELECT_ + BooklistNode.getColumns(listTable)
                                  + _FROM_ + listTable.ref()
                                  + _WHERE_ + listTable.dot("%1s") + "=?";
-
-        sqlGetOffsetCursor = SELECT_
-                             // keep in sync with column list in #getListColumnNames() !
-                             + listTable.getDomains()
-                                        .stream()
-                                        .map(listTable::dot)
-                                        .collect(Collectors.joining(","))
-                             + ',' + (listTable.dot(DBKey.PK_ID)
-                                      + _AS_ + DBKey.BL_LIST_VIEW_NODE_ROW_ID)
-                             + _FROM_ + listTable.ref()
-                             + _WHERE_ + listTable.dot(DBKey.BL_NODE_VISIBLE) + "=1"
-                             + _ORDER_BY_ + listTable.dot(DBKey.PK_ID)
-                             + " LIMIT ? OFFSET ?";
     }
 
     @NonNull
@@ -246,11 +247,7 @@ public class Booklist
      * @return count
      */
     int countVisibleRows() {
-        try (SynchronizedStatement stmt = db.compileStatement(
-                SELECT_COUNT_FROM_ + listTable.getName()
-                + _WHERE_ + DBKey.BL_NODE_VISIBLE + "=1")) {
-            return (int) stmt.simpleQueryForLongOrZero();
-        }
+        return nodeTree.getVisibleCount();
     }
 
     /**
@@ -271,18 +268,45 @@ public class Booklist
     /**
      * Gets a 'window' on the result set, starting at 'offset' and 'pageSize' rows.
      * We only retrieve visible rows.
+     * <p>
+     * The row ids for the window are looked up in the {@link BooklistNodeTree},
+     * so the rows are read by primary key no matter how far down the list we are.
+     * The sql is the same for each page; the ids are bound as parameters,
+     * and a short last page is padded with an id which does not exist.
      *
-     * @param offset   the offset position (SQL OFFSET clause)
-     * @param pageSize the amount of results maximum to return (SQL LIMIT clause)
+     * @param offset   the list position of the first row
+     * @param pageSize the amount of results maximum to return
      *
      * @return a list cursor starting at a given offset, using a given limit.
      */
     @NonNull
     Cursor getOffsetCursor(final int offset,
                            @SuppressWarnings("SameParameterValue") final int pageSize) {
-        return db.rawQuery(sqlGetOffsetCursor, new String[]{
-                String.valueOf(pageSize),
-                String.valueOf(offset)});
+        if (sqlGetOffsetCursor == null || sqlGetOffsetCursorPageSize != pageSize) {
+            sqlGetOffsetCursor =
+                    SELECT_
+                    // keep in sync with column list in #getListColumnNames() !
+                    + listTable.getDomains()
+                               .stream()
+                               .map(listTable::dot)
+                               .collect(Collectors.joining(","))
+                    + ',' + (listTable.dot(DBKey.PK_ID)
+                             + _AS_ + DBKey.BL_LIST_VIEW_NODE_ROW_ID)
+                    + _FROM_ + listTable.ref()
+                    + _WHERE_ + listTable.dot(DBKey.PK_ID)
+                    + " IN (" + String.join(",", Collections.nCopies(pageSize, "?")) + ')'
+                    + _ORDER_BY_ + listTable.dot(DBKey.PK_ID);
+            sqlGetOffsetCursorPageSize = pageSize;
+        }
+
+        final long[] rowIds = nodeTree.getVisibleRowIds(offset, pageSize);
+        final String[] args = new String[pageSize];
+        // row ids start at 1
+        Arrays.fill(args, "0");
+        for (int i = 0; i < rowIds.length; i++) {
+            args[i] = String.valueOf(rowIds[i]);
+        }
+        return db.rawQuery(sqlGetOffsetCursor, args);
     }
 
     /**
@@ -300,6 +324,65 @@ public class Booklist
         return columnNames.toArray(Z_ARRAY_STRING);
     }
 
+    /**
+     * Get the row index for the given list position; i.e. the position of the row
+     * in the list-table, regardless of which rows are currently visible.
+     *
+     * @param position the list position; as used by the list cursor and the adapter
+     *
+     * @return row index
+     */
+    public int getRowIndexAtPosition(@IntRange(from = 0) final int position) {
+        return nodeTree.getIndexAtPosition(position);
+    }
+
+    /**
+     * Get the row index for the given row id.
+     *
+     * @param rowId the list-table row id
+     *
+     * @return row index, or a negative value if not found
+     *
+     * @see #getRowIndexAtPosition(int)
+     */
+    public int getRowIndex(final long rowId) {
+        return nodeTree.indexOf(rowId);
+    }
+
+    /**
+     * Get a cursor with all header rows with a level up to and including
+     * the given level; both visible and hidden, in list-table order.
+     * The columns are the same as for the list cursor.
+     * <p>
+     * The result does not depend on the expansion state of the nodes,
+     * and reading it does not write to the database.
+     *
+     * @param maxLevel the highest level to include
+     *
+     * @return cursor; the caller must close it
+     *
+     * @see #getRowIndex(long)
+     */
+    @WorkerThread
+    @NonNull
+    public Cursor getHeaderCursor(@IntRange(from = 1) final int maxLevel) {
+        if (sqlGetHeaderRows == null) {
+            sqlGetHeaderRows =
+                    SELECT_
+                    // keep in sync with column list in #getListColumnNames() !
+                    + listTable.getDomains()
+                               .stream()
+                               .map(listTable::dot)
+                               .collect(Collectors.joining(","))
+                    + ',' + (listTable.dot(DBKey.PK_ID)
+                             + _AS_ + DBKey.BL_LIST_VIEW_NODE_ROW_ID)
+                    + _FROM_ + listTable.ref()
+                    + _WHERE_ + listTable.dot(DBKey.BL_NODE_LEVEL) + "<=?"
+                    + _ORDER_BY_ + listTable.dot(DBKey.PK_ID);
+        }
+        return db.rawQuery(sqlGetHeaderRows, new String[]{String.valueOf(maxLevel)});
+    }
+
     /**
      * Expand or collapse <strong>all</strong> nodes.
      * The internal cursor will be set to {@code null} but it's still the clients responsibility
@@ -310,7 +393,7 @@ public class Booklist
      */
     public void setAllNodes(@IntRange(from = 1) final int topLevel,
                             final boolean expand) {
-        nodeDao.setAllNodes(topLevel, expand);
+        nodeTree.setAllNodes(topLevel, expand);
         if (listCursor != null) {
             listCursor.close();
         }
@@ -332,15 +415,25 @@ public class Booklist
                                 final int relativeChildLevel) {
         final BooklistNode node = getNodeByRowId(rowId);
         node.setNextState(nextState);
-        nodeDao.setNode(node.getRowId(), node.getLevel(),
-                        node.isExpanded(), relativeChildLevel);
-        node.updateAdapterPosition(db, listTable);
+        nodeTree.setNode(nodeTree.indexOf(rowId), node.isExpanded(), relativeChildLevel);
+        node.updateAdapterPosition(nodeTree);
         return node;
     }
 
+    /**
+     * Write the expansion state of all nodes to the list-table and to permanent storage.
+     * <p>
+     * Expanding/collapsing nodes is done in memory; the state is saved lazily
+     * when needed, e.g. before a rebuild, when the list is closed, or when the
+     * user leaves the screen. Does nothing if there were no changes.
+     */
+    public void saveNodeState() {
+        nodeDao.saveState(nodeTree);
+    }
+
     /**
      * Get the node for the the given row id (any row, not limited to books).
-     * It will contain the current state of the node as stored in the database.
+     * It will contain the current state of the node.
      *
      * @param rowId to get
      *
@@ -355,7 +448,7 @@ public class Booklist
 
             if (cursor.moveToFirst()) {
                 final BooklistNode node = new BooklistNode(cursor);
-                node.updateAdapterPosition(db, listTable);
+                node.updateState(nodeTree);
                 return node;
             } else {
                 throw new IllegalArgumentException("rowId not found: " + rowId);
@@ -392,7 +485,7 @@ public class Booklist
             // make them all visible
             nodeList.forEach(this::ensureNodeIsVisible);
             // and recalculate all positions
-            nodeList.forEach(node -> node.updateAdapterPosition(db, listTable));
+            nodeList.forEach(node -> node.updateAdapterPosition(nodeTree));
 
             return nodeList;
 
@@ -428,7 +521,7 @@ public class Booklist
             }
         }
 
-        nodeList.forEach(node -> node.updateAdapterPosition(db, listTable));
+        nodeList.forEach(node -> node.updateState(nodeTree));
 
         return nodeList;
     }
@@ -437,51 +530,10 @@ public class Booklist
      * Ensure al nodes up to the root node for the given (book) node (inclusive) are visible.
      *
      * @param node we want to become visible
-     *
-     * @see BooklistBuilder.TableBuilder#createTriggers(SynchronizedDb)
      */
-    @SuppressWarnings("JavadocReference")
     private void ensureNodeIsVisible(@NonNull final BooklistNode node) {
-
-        if (sqlEnsureNodeIsVisible == null) {
-            sqlEnsureNodeIsVisible =
-                    SELECT_ + DBKey.PK_ID + _FROM_ + listTable.getName()
-                    // follow the node hierarchy
-                    + _WHERE_ + DBKey.BL_NODE_KEY + _LIKE_x
-                    // we'll loop for all levels
-                    + _AND_ + DBKey.BL_NODE_LEVEL + "=?";
-        }
-
         node.setFullyVisible();
-        String nodeKey = node.getKey();
-
-        // levels are 1.. based; start with lowest level above books, working up to root.
-        // Pair: rowId/Level
-        final Deque<Pair<Long, Integer>> nodes = new ArrayDeque<>();
-        for (int level = node.getLevel() - 1; level >= 1; level--) {
-            try (Cursor cursor = db.rawQuery(sqlEnsureNodeIsVisible, new String[]{
-                    nodeKey + "%",
-                    String.valueOf(level)})) {
-
-                while (cursor.moveToNext()) {
-                    final long rowId = cursor.getLong(0);
-                    nodes.push(new Pair<>(rowId, level));
-                }
-            }
-            // the node key always must end with a /
-            // So find the previous-from-last '/' and create the
-            // new node key again with the '/' as last character
-            nodeKey = nodeKey.substring(0, nodeKey.lastIndexOf('/', nodeKey.length() - 2) + 1);
-        }
-
-        // Now process the collected nodes from the root downwards.
-        for (final Pair<Long, Integer> n : nodes) {
-            nodeDao.setNode(n.first, n.second,
-                            // Expand (and make visible) the given node
-                            true,
-                            // do this for only ONE level
-                            1);
-        }
+        nodeTree.ensureVisible(nodeTree.indexOf(node.getRowId()));
     }
 
     /**
@@ -710,7 +762,7 @@ public class Booklist
                     // FIRST make the node visible
                     ensureNodeIsVisible(node);
                     // only now calculate the list position
-                    node.updateAdapterPosition(db, listTable);
+                    node.updateAdapterPosition(nodeTree);
                     return Optional.of(node);
                 }
             }
@@ -733,6 +785,7 @@ public class Booklist
         if (listCursor != null) {
             listCursor.close();
         }
+        saveNodeState();
         db.drop(listTable.getName());
 
         if (BuildConfig.DEBUG && DEBUG_SWITCHES.BOB_THE_BUILDER) {
@@ -25,8 +25,6 @@ import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
 
 import com.hardbacknutter.nevertoomanybooks.booklist.adapter.BooklistAdapter;
-import com.hardbacknutter.nevertoomanybooks.core.database.SynchronizedDb;
-import com.hardbacknutter.nevertoomanybooks.core.database.SynchronizedStatement;
 import com.hardbacknutter.nevertoomanybooks.core.database.TableDefinition;
 import com.hardbacknutter.nevertoomanybooks.database.DBKey;
 
@@ -176,34 +174,24 @@ public class BooklistNode {
      * Update the node with the actual list position,
      * <strong>taking into account invisible rows</strong>.
      *
-     * @param db        Database Access
-     * @param listTable to use
+     * @param tree with the current state of all nodes
      */
-    void updateAdapterPosition(@NonNull final SynchronizedDb db,
-                               @NonNull final TableDefinition listTable) {
-
-        // We need to count the visible rows between the start of the list,
-        // and the given row, to determine the ACTUAL row we want.
-        final int count;
-        try (SynchronizedStatement stmt = db.compileStatement(
-                "SELECT COUNT(*) FROM " + listTable.getName()
-                + " WHERE " + DBKey.BL_NODE_VISIBLE + "=1"
-                + " AND " + DBKey.PK_ID + "<?")) {
-
-            stmt.bindLong(1, getRowId());
-            count = (int) stmt.simpleQueryForLongOrZero();
-        }
-
-        final int position;
-        if (isVisible()) {
-            // If the specified row is visible, then the count _is_ the position.
-            position = count;
-        } else {
-            // otherwise it's the previous visible row == count-1 (or the top row)
-            position = count > 0 ? count - 1 : 0;
-        }
+    void updateAdapterPosition(@NonNull final BooklistNodeTree tree) {
+        // If the row is not visible, this will be the previous visible row (or the top row)
+        adapterPosition = tree.getListPosition(tree.indexOf(rowId));
+    }
 
-        adapterPosition = position;
+    /**
+     * Update the node with the current expanded/visible state and the actual list position.
+     * The state as read from the list-table might not be up to date.
+     *
+     * @param tree with the current state of all nodes
+     */
+    void updateState(@NonNull final BooklistNodeTree tree) {
+        final int index = tree.indexOf(rowId);
+        expanded = tree.isExpanded(index);
+        visible = tree.isVisible(index);
+        adapterPosition = tree.getListPosition(index);
     }
 
     @Override
@@ -27,6 +27,7 @@ import androidx.annotation.NonNull;
 import androidx.core.util.Pair;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 
 import com.hardbacknutter.nevertoomanybooks.BuildConfig;
@@ -38,7 +39,6 @@ import com.hardbacknutter.nevertoomanybooks.core.database.SynchronizedStatement;
 import com.hardbacknutter.nevertoomanybooks.core.database.Synchronizer;
 import com.hardbacknutter.nevertoomanybooks.core.database.TableDefinition;
 import com.hardbacknutter.nevertoomanybooks.core.database.TransactionException;
-import com.hardbacknutter.nevertoomanybooks.core.debug.DbDebugUtils;
 import com.hardbacknutter.nevertoomanybooks.database.DBKey;
 import com.hardbacknutter.nevertoomanybooks.entities.Bookshelf;
 
@@ -50,10 +50,16 @@ import static com.hardbacknutter.nevertoomanybooks.database.DBDefinitions.TBL_BO
  * <p>
  * Entry points:
  * <ul>
- *      <li>{@link #setAllNodes(int, boolean)}: update ALL nodes starting from a set level.</li>
- *      <li>{@link #setNode(long, int, boolean, int)}: update a single node (and it's branch).</li>
+ *      <li>{@link #setAllNodes(int, boolean)}: update ALL nodes starting from a set level.
+ *          Only used while building the list.</li>
  *      <li>{@link #restoreSavedState()}: restore the tree view for all nodes from storage.</li>
+ *      <li>{@link #loadTree()}: load the in-memory {@link BooklistNodeTree} once the
+ *          list is build.</li>
+ *      <li>{@link #saveState(BooklistNodeTree)}: write the changes made in the
+ *          {@link BooklistNodeTree} back to the list-table and to storage.</li>
  * </ul>
+ * Once the list is build, expanding/collapsing nodes is done in memory
+ * by the {@link BooklistNodeTree}.
  * <p>
  * Dev. note: purging by Style/Bookshelf is not provided here but can instead by found in their
  * respective DAOs.
@@ -261,301 +267,95 @@ public class BooklistNodeDao {
     }
 
     /**
-     * Expand/collapse the passed node.
-     * <p>
-     * The node will always be kept visible.
-     * <p>
-     * If the resulting state of the node is:<br>
-     * 'Expand': we set the children to the desired child state/visibility
-     * (recurse up to the desired max child level)<br>
-     * 'Collapse': all children will be set to Collapse/hidden
-     *
-     * @param nodeRowId          of the node in the list
-     * @param nodeLevel          the level of the node
-     * @param expandNode         the state to set for this node
-     * @param relativeChildLevel up to and including this (relative to nodeLevel!) child level.
-     */
-    void setNode(final long nodeRowId,
-                 @IntRange(from = 1) final int nodeLevel,
-                 final boolean expandNode,
-                 @IntRange(from = 0) final int relativeChildLevel) {
-
-        final int groupCount = style.getGroupCount();
-
-        if (relativeChildLevel > groupCount) {
-            throw new IllegalArgumentException("groupCount=" + groupCount
-                                               + "|relativeChildLevel=" + relativeChildLevel);
-        }
-
-        Synchronizer.SyncLock txLock = null;
-        try {
-            if (!db.inTransaction()) {
-                txLock = db.beginTransaction(true);
-            }
-
-            // expand/collapse the specified row, but always keep it visible.
-            updateNode(nodeRowId, expandNode);
-
-            // Find the next row ('after' the given row) at the given level (or lower).
-            final long endRowExcl = findNextNode(nodeRowId, nodeLevel);
-            // are there actually any rows in between?
-            if ((endRowExcl - nodeRowId) > 1) {
-                // update the rows between the node row itself, and the endRow
-                if (expandNode) {
-                    // use the desired child state/level
-                    showAndExpandNodesBetween(nodeRowId, endRowExcl, nodeLevel, relativeChildLevel);
-                } else {
-                    // collapsing the node, so just collapse/hide all children.
-                    collapseAndHideNodesBetween(nodeRowId, endRowExcl);
-                }
-            }
-
-            // Store the state of these nodes.
-            saveNodesBetween(nodeRowId, endRowExcl, nodeLevel);
-
-            if (txLock != null) {
-                db.setTransactionSuccessful();
-            }
-        } finally {
-            if (txLock != null) {
-                db.endTransaction(txLock);
-            }
-        }
-    }
-
-    /**
-     * {@link #setNode} 1. Update a single node.
-     * <p>
-     * <strong>Transaction:</strong> required
+     * Load the current state of all nodes in memory.
      *
-     * @param rowId  the row/node to update
-     * @param expand state to set
+     * @return the tree
      */
-    private void updateNode(final long rowId,
-                            final boolean expand) {
-        if (BuildConfig.DEBUG /* always */) {
-            if (!db.inTransaction()) {
-                throw new TransactionException(TransactionException.REQUIRED);
-            }
-        }
-
-        final int rowsUpdated;
-        try (SynchronizedStatement stmt = db.compileStatement(
-                String.format(Sql.UPDATE_NODE, listTable.getName()))) {
-            stmt.bindBoolean(1, expand);
-            stmt.bindLong(2, rowId);
-            rowsUpdated = stmt.executeUpdateDelete();
-        }
-        if (BuildConfig.DEBUG && DEBUG_SWITCHES.BOB_NODE_STATE) {
-            LoggerFactory.getLogger().d(TAG, "updateNode",
-                                        "rowId=" + rowId,
-                                        "expand=" + expand,
-                                        "rowsUpdated=" + rowsUpdated);
-        }
-    }
-
-    /**
-     * {@link #setNode} 2. Find the next row ('after' the given row) at the given level (or lower).
-     * <p>
-     * <strong>Transaction:</strong> required
-     *
-     * @param rowId     from where to start looking
-     * @param nodeLevel level to look for
-     *
-     * @return row id
-     */
-    private long findNextNode(final long rowId,
-                              @IntRange(from = 1) final int nodeLevel) {
-        if (BuildConfig.DEBUG /* always */) {
-            if (!db.inTransaction()) {
-                throw new TransactionException(TransactionException.REQUIRED);
-            }
-        }
-
-        final long nextRowId;
+    @NonNull
+    BooklistNodeTree loadTree() {
+        final int size;
         try (SynchronizedStatement stmt = db.compileStatement(
-                String.format(Sql.FIND_NEXT_NODE, listTable.getName()))) {
-            stmt.bindLong(1, rowId);
-            stmt.bindLong(2, nodeLevel);
-            nextRowId = stmt.simpleQueryForLongOrZero();
-        }
-
-        // if there was no next node, use the end of the list.
-        if (nextRowId <= 0) {
-            return Long.MAX_VALUE;
-        }
-        return nextRowId;
-    }
-
-    /**
-     * {@link #setNode} 3. Update the nodes <strong>between</strong> the two given rows;
-     * i.e. <strong>excluding</strong> the start and end row.
-     * <p>
-     * <strong>Transaction:</strong> required
-     *
-     * @param startRowExcl       between this row
-     * @param endRowExcl         and this row
-     * @param nodeLevel          the level which was clicked
-     * @param relativeChildLevel up to and including this (relative to nodeLevel!) child level.
-     */
-    private void showAndExpandNodesBetween(final long startRowExcl,
-                                           final long endRowExcl,
-                                           @IntRange(from = 1) final int nodeLevel,
-                                           final int relativeChildLevel) {
-        if (BuildConfig.DEBUG /* always */) {
-            if (!db.inTransaction()) {
-                throw new TransactionException(TransactionException.REQUIRED);
+                Sql.SELECT_COUNT_FROM_ + listTable.getName())) {
+            size = (int) stmt.simpleQueryForLongOrZero();
+        }
+
+        final long[] rowIds = new long[size];
+        final byte[] levels = new byte[size];
+        final BitSet expanded = new BitSet(size);
+        final BitSet visible = new BitSet(size);
+
+        int index = 0;
+        try (Cursor cursor = db.rawQuery(String.format(Sql.LOAD_TREE, listTable.getName()),
+                                         null)) {
+            while (index < size && cursor.moveToNext()) {
+                rowIds[index] = cursor.getLong(0);
+                levels[index] = (byte) cursor.getInt(1);
+                expanded.set(index, cursor.getInt(2) != 0);
+                visible.set(index, cursor.getInt(3) != 0);
+                index++;
             }
         }
 
-        final int level = Math.min(nodeLevel + relativeChildLevel, style.getGroupCount() + 1);
-
-        if (BuildConfig.DEBUG && DEBUG_SWITCHES.BOB_NODE_STATE) {
-            LoggerFactory.getLogger().d(TAG, "showAndExpandNodesBetween",
-                                        "nodeLevel=" + nodeLevel,
-                                        "relativeChildLevel=" + relativeChildLevel,
-                                        "level=" + level);
-        }
-
-        int rowsUpdated;
-
-        try (SynchronizedStatement stmt = db.compileStatement(
-                String.format(Sql.UPDATE_NODES_BETWEEN_1, listTable.getName()))) {
-            stmt.bindLong(1, startRowExcl);
-            stmt.bindLong(2, endRowExcl);
-            stmt.bindLong(3, level);
-            rowsUpdated = stmt.executeUpdateDelete();
-        }
-
         if (BuildConfig.DEBUG && DEBUG_SWITCHES.BOB_NODE_STATE) {
-            LoggerFactory.getLogger().d(TAG, "showAndExpandNodesBetween|step1",
-                                        "startRowExcl=" + startRowExcl,
-                                        "endRowExcl=" + endRowExcl,
-                                        "rowsUpdated=" + rowsUpdated);
-        }
-
-        try (SynchronizedStatement stmt = db.compileStatement(
-                String.format(Sql.UPDATE_NODES_BETWEEN_2, listTable.getName()))) {
-            stmt.bindLong(1, startRowExcl);
-            stmt.bindLong(2, endRowExcl);
-            stmt.bindLong(3, level);
-            rowsUpdated = stmt.executeUpdateDelete();
+            LoggerFactory.getLogger().d(TAG, "loadTree", "size=" + size);
         }
 
-        if (BuildConfig.DEBUG && DEBUG_SWITCHES.BOB_NODE_STATE) {
-            LoggerFactory.getLogger().d(TAG, "showAndExpandNodesBetween|step2",
-                                        "startRowExcl=" + startRowExcl,
-                                        "endRowExcl=" + endRowExcl,
-                                        "rowsUpdated=" + rowsUpdated);
-        }
+        return new BooklistNodeTree(rowIds, levels, expanded, visible);
     }
 
     /**
-     * {@link #setNode} 3. Collapse/hide the nodes <strong>between</strong> the two given rows;
-     * i.e. <strong>excluding</strong> the start and end row.
+     * Write the changes made in the tree back to the list-table,
+     * and save the state of all nodes to permanent storage.
+     * Does nothing if there were no changes.
      * <p>
-     * <strong>Transaction:</strong> required
+     * The changes are only marked as saved once committed; when called inside
+     * a transaction started by the caller they will be written again next time.
      *
-     * @param startRowExcl between this row
-     * @param endRowExcl   and this row
+     * @param tree to save
      */
-    private void collapseAndHideNodesBetween(final long startRowExcl,
-                                             final long endRowExcl) {
-        if (BuildConfig.DEBUG /* always */) {
-            if (!db.inTransaction()) {
-                throw new TransactionException(TransactionException.REQUIRED);
-            }
+    void saveState(@NonNull final BooklistNodeTree tree) {
+        if (!tree.isDirty()) {
+            return;
         }
 
-        final int rowsUpdated;
-        try (SynchronizedStatement stmt = db.compileStatement(
-                String.format(Sql.COLLAPSE_AND_HIDE_NODES_BETWEEN, listTable.getName()))) {
-            stmt.bindLong(1, startRowExcl);
-            stmt.bindLong(2, endRowExcl);
-            rowsUpdated = stmt.executeUpdateDelete();
-        }
-        if (BuildConfig.DEBUG && DEBUG_SWITCHES.BOB_NODE_STATE) {
-            LoggerFactory.getLogger().d(TAG, "collapseAndHideNodesBetween",
-                                        "startRowExcl=" + startRowExcl,
-                                        "endRowExcl=" + endRowExcl,
-                                        "rowsUpdated=" + rowsUpdated);
-        }
-    }
-
-    /**
-     * {@link #setNode} 4. Save the state for a single node (and below) to permanent storage.
-     * <p>
-     * <strong>Note:</strong> always uses the current bookshelf/style
-     * <p>
-     * <strong>Transaction:</strong> required
-     *
-     * @param startRowIncl between this row (inclusive)
-     * @param endRowExcl   and this row (exclusive)
-     * @param nodeLevel    from this level onwards
-     */
-    private void saveNodesBetween(final long startRowIncl,
-                                  final long endRowExcl,
-                                  @IntRange(from = 1) final long nodeLevel) {
-        if (BuildConfig.DEBUG /* always */) {
+        Synchronizer.SyncLock txLock = null;
+        try {
             if (!db.inTransaction()) {
-                throw new TransactionException(TransactionException.REQUIRED);
+                txLock = db.beginTransaction(true);
             }
-        }
-
-        if (BuildConfig.DEBUG && DEBUG_SWITCHES.BOB_NODE_STATE) {
-            LoggerFactory.getLogger().d(TAG, "saveNodesBetween",
-                                        "fromRowId=" + startRowIncl,
-                                        "fromLevel=" + nodeLevel,
-                                        "endRowExcl=" + endRowExcl);
-
-            DbDebugUtils.dumpTable(db, TBL_BOOK_LIST_NODE_STATE, 10, DBKey.PK_ID,
-                                   "saveNodesBetween", "before delete");
-        }
-
-        int rowsUpdated;
-
-        // delete the given rows (inc. start, excl. end) and level
-        // for the current bookshelf/style
-        try (SynchronizedStatement stmt = db.compileStatement(
-                String.format(Sql.DELETE_NODES_BETWEEN, listTable.getName()))) {
-            stmt.bindLong(1, bookshelfId);
-            stmt.bindLong(2, style.getId());
-
-            stmt.bindLong(3, nodeLevel);
-
-            stmt.bindLong(4, startRowIncl);
-            stmt.bindLong(5, endRowExcl);
 
-            rowsUpdated = stmt.executeUpdateDelete();
-        }
-
-        if (BuildConfig.DEBUG && DEBUG_SWITCHES.BOB_NODE_STATE) {
-            LoggerFactory.getLogger().d(TAG, "saveNodesBetween", "rowsDeleted=" + rowsUpdated);
-            DbDebugUtils.dumpTable(db, TBL_BOOK_LIST_NODE_STATE, 10, DBKey.PK_ID,
-                                   "saveNodesBetween", "delete done");
-        }
+            final int[] runs = {0};
+            try (SynchronizedStatement stmt = db.compileStatement(
+                    String.format(Sql.UPDATE_NODES_RANGE, listTable.getName()))) {
+                tree.forEachDirtyRun((firstRowId, lastRowId, expanded, visible) -> {
+                    stmt.bindBoolean(1, expanded);
+                    stmt.bindBoolean(2, visible);
+                    stmt.bindLong(3, firstRowId);
+                    stmt.bindLong(4, lastRowId);
+                    stmt.executeUpdateDelete();
+                    runs[0]++;
+                });
+            }
 
-        // Read all nodes below the given node (again inc. start, excl. end),
-        // and send them to the permanent table.
-        try (SynchronizedStatement stmt = db.compileStatement(
-                String.format(Sql.SAVE_NODES_BETWEEN, listTable.getName()))) {
-            stmt.bindLong(1, bookshelfId);
-            stmt.bindLong(2, style.getId());
+            if (BuildConfig.DEBUG && DEBUG_SWITCHES.BOB_NODE_STATE) {
+                LoggerFactory.getLogger().d(TAG, "saveState", "runs=" + runs[0]);
+            }
 
-            stmt.bindLong(3, startRowIncl);
-            stmt.bindLong(4, endRowExcl);
+            saveAllNodes();
 
-            rowsUpdated = stmt.executeUpdateDelete();
+            if (txLock != null) {
+                db.setTransactionSuccessful();
+            }
+        } finally {
+            if (txLock != null) {
+                db.endTransaction(txLock);
+            }
         }
-
-        if (BuildConfig.DEBUG && DEBUG_SWITCHES.BOB_NODE_STATE) {
-            LoggerFactory.getLogger().d(TAG, "saveNodesBetween", "rowsInserted=" + rowsUpdated);
-            DbDebugUtils.dumpTable(db, TBL_BOOK_LIST_NODE_STATE, 10, DBKey.PK_ID,
-                                   "saveNodesBetween", "insert done");
+        if (txLock != null) {
+            tree.clearDirty();
         }
     }
 
-
     /**
      * Restore the expanded and/or visible node status.
      * The logic here assumes the target table {@link #listTable} will have ALL rows
@@ -680,6 +480,7 @@ public class BooklistNodeDao {
 
         private static final String SELECT_DISTINCT_ = "SELECT DISTINCT ";
         private static final String SELECT_ = "SELECT ";
+        private static final String SELECT_COUNT_FROM_ = "SELECT COUNT(*) FROM ";
         private static final String _FROM_ = " FROM ";
         private static final String _WHERE_ = " WHERE ";
         private static final String _AND_ = " AND ";
@@ -724,63 +525,21 @@ public class BooklistNodeDao {
                 + _FROM_ + /* listTable.getName() */ "%s"
                 + _WHERE_ + "(" + DBKey.BL_NODE_EXPANDED + "=1 OR "
                 + DBKey.BL_NODE_VISIBLE + "=1)";
-        /** Insert statement for {@link #saveNodesBetween}. */
-        private static final String SAVE_NODES_BETWEEN =
-                SAVE_ALL_NODES + _AND_ + DBKey.PK_ID + ">=? AND " + DBKey.PK_ID + "<?";
-        /** {@link #saveNodesBetween}. */
-        private static final String DELETE_NODES_BETWEEN =
-                // delete the rows for the current bookshelf/style
-                DELETE_FROM_ + TBL_BOOK_LIST_NODE_STATE.getName()
-                + _WHERE_ + DBKey.FK_BOOKSHELF + "=?" + _AND_ + DBKey.FK_STYLE + "=?"
-                // but leave the parent levels untouched
-                + _AND_ + DBKey.BL_NODE_LEVEL + ">=?"
-                // and only between the given nodes
-                + _AND_ + DBKey.BL_NODE_KEY + " IN ("
-                + SELECT_DISTINCT_ + DBKey.BL_NODE_KEY + _FROM_
-                + /* listTable.getName() */ "%s"
-                + _WHERE_ + DBKey.PK_ID + ">=? AND " + DBKey.PK_ID + "<? )";
-        /** {@link #findNextNode}. */
-        private static final String FIND_NEXT_NODE =
-                SELECT_ + DBKey.PK_ID + _FROM_ + /* listTable.getName() */ "%s"
-                + _WHERE_ + DBKey.PK_ID + ">?" + _AND_ + DBKey.BL_NODE_LEVEL + "<=?"
-                + _ORDER_BY_ + DBKey.PK_ID + " LIMIT 1";
-
-        /**
-         * {@link #collapseAndHideNodesBetween}.
-         * Simply set all of them to invisible/unexpanded.
-         */
-        private static final String COLLAPSE_AND_HIDE_NODES_BETWEEN =
-                UPDATE_ + /* listTable.getName() */ "%s"
-                + _SET_ + DBKey.BL_NODE_VISIBLE + "=0," + DBKey.BL_NODE_EXPANDED + "=0"
-                + _WHERE_ + DBKey.PK_ID + ">?" + _AND_ + DBKey.PK_ID + "<?";
-
-        /**
-         * {@link #showAndExpandNodesBetween}.
-         * Handle all levels except the lowest level.
-         */
-        private static final String UPDATE_NODES_BETWEEN_1 =
-                UPDATE_ + /* listTable.getName() */ "%s"
-                + _SET_ + DBKey.BL_NODE_VISIBLE + "=1," + DBKey.BL_NODE_EXPANDED + "=1"
-                + _WHERE_ + DBKey.PK_ID + ">?" + _AND_ + DBKey.PK_ID + "<?"
-                + _AND_ + DBKey.BL_NODE_LEVEL + "<?";
-
-        /**
-         * {@link #showAndExpandNodesBetween}.
-         * The lowest level we want visible but not expanded.
-         */
-        private static final String UPDATE_NODES_BETWEEN_2 =
-                UPDATE_ + /* listTable.getName() */ "%s"
-                + _SET_ + DBKey.BL_NODE_VISIBLE + "=1," + DBKey.BL_NODE_EXPANDED + "=0"
-                + _WHERE_ + DBKey.PK_ID + ">?" + _AND_ + DBKey.PK_ID + "<?"
-                + _AND_ + DBKey.BL_NODE_LEVEL + "=?";
 
+        /** {@link #loadTree()}. */
+        private static final String LOAD_TREE =
+                SELECT_ + DBKey.PK_ID
+                + ',' + DBKey.BL_NODE_LEVEL
+                + ',' + DBKey.BL_NODE_EXPANDED
+                + ',' + DBKey.BL_NODE_VISIBLE
+                + _FROM_ + /* listTable.getName() */ "%s"
+                + _ORDER_BY_ + DBKey.PK_ID;
 
-        /** {@link #updateNode}. */
-        private static final String UPDATE_NODE =
+        /** {@link #saveState(BooklistNodeTree)}. */
+        private static final String UPDATE_NODES_RANGE =
                 UPDATE_ + /* listTable.getName() */ "%s"
-                + _SET_ + DBKey.BL_NODE_EXPANDED + "=?"
-                + ',' + DBKey.BL_NODE_VISIBLE + "=1"
-                + _WHERE_ + DBKey.PK_ID + "=?";
+                + _SET_ + DBKey.BL_NODE_EXPANDED + "=?," + DBKey.BL_NODE_VISIBLE + "=?"
+                + _WHERE_ + DBKey.PK_ID + " BETWEEN ? AND ?";
 
         /** {@link #adjustVisibility()}. */
         private static final String ADJUST_VISIBILITY_1 =
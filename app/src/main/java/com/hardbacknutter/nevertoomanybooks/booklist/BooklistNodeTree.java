@@ -0,0 +1,373 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.booklist;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * In-memory model of the expansion state of all rows (nodes) in the list-table.
+ * <p>
+ * Built once per {@link Booklist}, this is the authoritative source for the
+ * expanded/visible state of each node and for the mapping between
+ * list positions (i.e. visible rows) and row ids.
+ * Expanding or collapsing nodes is done in memory; the changes are tracked
+ * and written back to the list-table and the node-state table in batches
+ * by {@link BooklistNodeDao#saveState(BooklistNodeTree)}.
+ * <p>
+ * Rows are addressed by their index, i.e. the row order in the list-table;
+ * the row ids are ascending.
+ * The tree structure is derived from the row levels: the parent of a row is the
+ * closest preceding row with a lower level, and the subtree of a row ends at
+ * the next row with the same or a lower level.
+ */
+class BooklistNodeTree {
+
+    /** The "_id" of each row in the list-table. */
+    @NonNull
+    private final long[] rowIds;
+    /** The level of each row. */
+    @NonNull
+    private final byte[] levels;
+    /** The index of the parent row; {@code -1} for level 1 rows. */
+    @NonNull
+    private final int[] parents;
+    /** The index of the first row no longer part of the subtree of each row. */
+    @NonNull
+    private final int[] subtreeEnds;
+    /** The highest level in the list (i.e. the book level). */
+    private final int maxLevel;
+
+    @NonNull
+    private final BitSet expanded;
+    @NonNull
+    private final BitSet visible;
+    /** The rows changed since the last {@link #clearDirty()}. */
+    @NonNull
+    private final BitSet dirty = new BitSet();
+
+    /** The indexes of the visible rows; lazily (re)build after a change. */
+    @NonNull
+    private int[] visibleIndexes = new int[0];
+    private boolean visibleIndexesValid;
+
+    /**
+     * Constructor.
+     *
+     * @param rowIds   the row ids in ascending order
+     * @param levels   the level for each row
+     * @param expanded the initial expanded state; will be taken over
+     * @param visible  the initial visibility; will be taken over
+     *
+     * @throws IllegalArgumentException if the arrays have different lengths
+     */
+    BooklistNodeTree(@NonNull final long[] rowIds,
+                     @NonNull final byte[] levels,
+                     @NonNull final BitSet expanded,
+                     @NonNull final BitSet visible) {
+        if (rowIds.length != levels.length) {
+            throw new IllegalArgumentException("rowIds.length != levels.length");
+        }
+        this.rowIds = rowIds;
+        this.levels = levels;
+        this.expanded = expanded;
+        this.visible = visible;
+
+        final int size = rowIds.length;
+        parents = new int[size];
+        subtreeEnds = new int[size];
+
+        // Single pass with a stack of the currently 'open' rows
+        final int[] stack = new int[Byte.MAX_VALUE + 1];
+        int depth = 0;
+        int max = 0;
+        for (int i = 0; i < size; i++) {
+            final int level = levels[i];
+            max = Math.max(max, level);
+            while (depth > 0 && levels[stack[depth - 1]] >= level) {
+                subtreeEnds[stack[--depth]] = i;
+            }
+            parents[i] = depth > 0 ? stack[depth - 1] : -1;
+            stack[depth++] = i;
+        }
+        while (depth > 0) {
+            subtreeEnds[stack[--depth]] = size;
+        }
+        maxLevel = max;
+    }
+
+    /**
+     * Get the number of rows, both visible and invisible.
+     *
+     * @return size
+     */
+    int size() {
+        return rowIds.length;
+    }
+
+    /**
+     * Find the index of the given row.
+     *
+     * @param rowId to find
+     *
+     * @return index, or a negative value if not found
+     */
+    int indexOf(final long rowId) {
+        return Arrays.binarySearch(rowIds, rowId);
+    }
+
+    long getRowId(final int index) {
+        return rowIds[index];
+    }
+
+    int getLevel(final int index) {
+        return levels[index];
+    }
+
+    boolean isExpanded(final int index) {
+        return expanded.get(index);
+    }
+
+    boolean isVisible(final int index) {
+        return visible.get(index);
+    }
+
+    /**
+     * Get the number of visible rows, i.e. the number of rows in the list cursor.
+     *
+     * @return count
+     */
+    int getVisibleCount() {
+        return getVisibleIndexes().length;
+    }
+
+    /**
+     * Get the row ids for a range of list positions.
+     *
+     * @param position the first list position
+     * @param count    the maximum number of rows
+     *
+     * @return row ids; can be empty
+     */
+    @NonNull
+    long[] getVisibleRowIds(@IntRange(from = 0) final int position,
+                            @IntRange(from = 0) final int count) {
+        final int[] indexes = getVisibleIndexes();
+        final int from = Math.min(position, indexes.length);
+        final int to = Math.min(from + count, indexes.length);
+        final long[] ids = new long[to - from];
+        for (int i = from; i < to; i++) {
+            ids[i - from] = rowIds[indexes[i]];
+        }
+        return ids;
+    }
+
+    /**
+     * Get the list position for the given row.
+     * If the row is not visible, the position of the closest preceding visible row
+     * is returned (or {@code 0} if there is none).
+     *
+     * @param index of the row
+     *
+     * @return position
+     */
+    int getListPosition(final int index) {
+        final int pos = Arrays.binarySearch(getVisibleIndexes(), index);
+        if (pos >= 0) {
+            return pos;
+        }
+        // (-(insertion point) - 1); the insertion point is the count of visible rows before.
+        final int count = -pos - 1;
+        return count > 0 ? count - 1 : 0;
+    }
+
+    /**
+     * Get the index of the row at the given list position.
+     *
+     * @param position the list position
+     *
+     * @return index
+     */
+    int getIndexAtPosition(@IntRange(from = 0) final int position) {
+        return getVisibleIndexes()[position];
+    }
+
+    /**
+     * Expand or collapse <strong>all</strong> nodes.
+     *
+     * @param topLevel the desired top-level which must be kept visible
+     * @param expand   the state to apply to levels 'below' the topLevel (level > topLevel),
+     */
+    void setAllNodes(@IntRange(from = 1) final int topLevel,
+                     final boolean expand) {
+        for (int i = 0; i < levels.length; i++) {
+            final int level = levels[i];
+            if (level < topLevel) {
+                // always expand and show levels less than the defined top-level.
+                setState(i, true, true);
+            } else if (level == topLevel) {
+                // the top-level itself is expanded only when everything is (topLevel 1)
+                setState(i, expand && topLevel == 1, true);
+            } else {
+                setState(i, expand, expand);
+            }
+        }
+    }
+
+    /**
+     * Expand/collapse the given node.
+     * <p>
+     * The node will always be kept visible.
+     * <p>
+     * If the resulting state of the node is:<br>
+     * 'Expand': we set the children to the desired child state/visibility
+     * (recurse up to the desired max child level)<br>
+     * 'Collapse': all children will be set to Collapse/hidden
+     *
+     * @param index              of the node
+     * @param expandNode         the state to set for this node
+     * @param relativeChildLevel up to and including this (relative to the node) child level.
+     *
+     * @throws IllegalArgumentException if the relativeChildLevel is larger than the group count
+     */
+    void setNode(final int index,
+                 final boolean expandNode,
+                 @IntRange(from = 0) final int relativeChildLevel) {
+        if (relativeChildLevel > maxLevel - 1) {
+            throw new IllegalArgumentException("groupCount=" + (maxLevel - 1)
+                                               + "|relativeChildLevel=" + relativeChildLevel);
+        }
+
+        setState(index, expandNode, true);
+
+        final int end = subtreeEnds[index];
+        if (expandNode) {
+            final int level = Math.min(levels[index] + relativeChildLevel, maxLevel);
+            for (int i = index + 1; i < end; i++) {
+                if (levels[i] < level) {
+                    setState(i, true, true);
+                } else if (levels[i] == level) {
+                    // The lowest level we want visible but not expanded.
+                    setState(i, false, true);
+                }
+            }
+        } else {
+            for (int i = index + 1; i < end; i++) {
+                setState(i, false, false);
+            }
+        }
+    }
+
+    /**
+     * Expand all parent nodes, starting at the root, to make the given node visible.
+     *
+     * @param index of the node
+     */
+    void ensureVisible(final int index) {
+        final int[] path = new int[levels[index]];
+        int depth = 0;
+        for (int p = parents[index]; p >= 0; p = parents[p]) {
+            path[depth++] = p;
+        }
+        // root first
+        while (depth > 0) {
+            setNode(path[--depth], true, 1);
+        }
+    }
+
+    private void setState(final int index,
+                          final boolean expand,
+                          final boolean show) {
+        if (expanded.get(index) != expand) {
+            expanded.set(index, expand);
+            dirty.set(index);
+        }
+        if (visible.get(index) != show) {
+            visible.set(index, show);
+            dirty.set(index);
+            visibleIndexesValid = false;
+        }
+    }
+
+    boolean isDirty() {
+        return !dirty.isEmpty();
+    }
+
+    void clearDirty() {
+        dirty.clear();
+    }
+
+    /**
+     * Pass all changed rows to the consumer, grouped in runs of consecutive rows
+     * with the same state.
+     *
+     * @param consumer to receive the runs
+     */
+    void forEachDirtyRun(@NonNull final RunConsumer consumer) {
+        int start = dirty.nextSetBit(0);
+        while (start >= 0) {
+            final boolean exp = expanded.get(start);
+            final boolean vis = visible.get(start);
+            int end = start;
+            while (end + 1 < rowIds.length
+                   && dirty.get(end + 1)
+                   && expanded.get(end + 1) == exp
+                   && visible.get(end + 1) == vis) {
+                end++;
+            }
+            consumer.accept(rowIds[start], rowIds[end], exp, vis);
+            start = dirty.nextSetBit(end + 1);
+        }
+    }
+
+    @NonNull
+    private int[] getVisibleIndexes() {
+        if (!visibleIndexesValid) {
+            final int[] indexes = new int[visible.cardinality()];
+            int count = 0;
+            for (int i = visible.nextSetBit(0); i >= 0; i = visible.nextSetBit(i + 1)) {
+                indexes[count++] = i;
+            }
+            visibleIndexes = indexes;
+            visibleIndexesValid = true;
+        }
+        return visibleIndexes;
+    }
+
+    @FunctionalInterface
+    interface RunConsumer {
+
+        /**
+         * Receive a run of rows.
+         *
+         * @param firstRowId the first row id of the run (inclusive)
+         * @param lastRowId  the last row id of the run (inclusive)
+         * @param expanded   state for all rows in the run
+         * @param visible    state for all rows in the run
+         */
+        void accept(long firstRowId,
+                    long lastRowId,
+                    boolean expanded,
+                    boolean visible);
+    }
+}
@@ -45,13 +45,12 @@ import com.hardbacknutter.nevertoomanybooks.booklist.style.FieldVisibility;
 import com.hardbacknutter.nevertoomanybooks.booklist.style.MapDBKey;
 import com.hardbacknutter.nevertoomanybooks.booklist.style.Style;
 import com.hardbacknutter.nevertoomanybooks.booklist.style.groups.BooklistGroup;
-import com.hardbacknutter.nevertoomanybooks.core.parsers.RealNumberParser;
 import com.hardbacknutter.nevertoomanybooks.core.utils.PartialDate;
 import com.hardbacknutter.nevertoomanybooks.covers.ImageViewLoader;
+import com.hardbacknutter.nevertoomanybooks.database.CursorRow;
 import com.hardbacknutter.nevertoomanybooks.database.DBKey;
 import com.hardbacknutter.nevertoomanybooks.databinding.BooksonbookshelfRowBookBinding;
 import com.hardbacknutter.nevertoomanybooks.entities.Book;
-import com.hardbacknutter.nevertoomanybooks.entities.DataHolder;
 import com.hardbacknutter.nevertoomanybooks.fields.formatters.FieldFormatter;
 import com.hardbacknutter.nevertoomanybooks.fields.formatters.PagesFormatter;
 import com.hardbacknutter.nevertoomanybooks.widgets.adapters.BindableViewHolder;
@@ -60,10 +59,14 @@ import com.hardbacknutter.nevertoomanybooks.widgets.adapters.RowViewHolder;
 
 /**
  * ViewHolder for a {@link BooklistGroup#BOOK} row.
+ * <p>
+ * The column indexes are resolved once for each {@link CursorRow} (i.e. once for each
+ * booklist cursor) and cached in {@link Columns}; binding a row is then a series
+ * of plain index based reads.
  */
 public class BookHolder
         extends RowViewHolder
-        implements BindableViewHolder<DataHolder> {
+        implements BindableViewHolder<CursorRow> {
 
     /**
      * The length of a series number is considered short if it's 4 character or less.
@@ -82,8 +85,6 @@ public class BookHolder
     @NonNull
     private final String[] conditionDescriptions;
     @NonNull
-    private final RealNumberParser realNumberParser;
-    @NonNull
     private final Style style;
     @Nullable
     private final CoverHelper coverHelper;
@@ -97,25 +98,26 @@ public class BookHolder
     @Nullable
     private FieldFormatter<String> pagesFormatter;
 
+    /** The resolved column indexes for the {@link CursorRow} we last bound to. */
+    @Nullable
+    private Columns columns;
+
     /**
      * Constructor.
      *
-     * @param itemView         the view specific for this holder
-     * @param style            to use
-     * @param coverScale       to use
-     * @param realNumberParser the shared parser
+     * @param itemView   the view specific for this holder
+     * @param style      to use
+     * @param coverScale to use
      */
     BookHolder(@NonNull final View itemView,
                @NonNull final Style style,
-               @NonNull final CoverScale coverScale,
-               @NonNull final RealNumberParser realNumberParser) {
+               @NonNull final CoverScale coverScale) {
         super(itemView);
         vb = BooksonbookshelfRowBookBinding.bind(itemView);
 
         final Context context = itemView.getContext();
 
         this.style = style;
-        this.realNumberParser = realNumberParser;
 
         final Resources res = context.getResources();
         conditionDescriptions = res.getStringArray(R.array.conditions_book);
@@ -180,7 +182,7 @@ public class BookHolder
     }
 
     @Override
-    public void onBind(@NonNull final DataHolder rowData) {
+    public void onBind(@NonNull final CursorRow rowData) {
         if (use == null) {
             // init once
             use = style.getFieldVisibilityKeys(FieldVisibility.Screen.List, false)
@@ -194,12 +196,18 @@ public class BookHolder
             }
         }
 
+        // The adapter creates a new CursorRow for each new cursor.
+        if (columns == null || columns.rowData != rowData) {
+            columns = new Columns(rowData);
+        }
+        final Columns col = columns;
+
         // Titles (book/series) are NOT reordered here.
         // It does not make much sense in this particular view/holder,
         // and slows down scrolling to much.
-        vb.title.setText(rowData.getString(DBKey.TITLE));
+        vb.title.setText(rowData.getString(col.title));
         // Always show the 'read' icon.
-        showOrHide(vb.iconRead, rowData.getBoolean(DBKey.READ__BOOL));
+        showOrHide(vb.iconRead, rowData.getBoolean(col.read));
 
         /*
          * USE SAME ORDER AS BookLevelFieldVisibility FOR EASE OF UPDATES
@@ -207,7 +215,7 @@ public class BookHolder
         if (use.contains(DBKey.COVER[0])) {
             //noinspection DataFlowIssue
             final boolean hasImage = coverHelper.setImageView(vb.coverImage0,
-                                                              rowData.getString(DBKey.BOOK_UUID));
+                                                              rowData.getString(col.uuid));
             if (!hasImage) {
                 vb.coverImage0.setVisibility(View.GONE);
             }
@@ -215,36 +223,36 @@ public class BookHolder
 
         if (use.contains(DBKey.FK_AUTHOR)) {
             //ENHANCE: maybe add support for real-name
-            showOrHide(vb.author, rowData.getString(DBKey.AUTHOR_FORMATTED));
+            showOrHide(vb.author, rowData.getString(col.author));
         }
 
         if (use.contains(DBKey.FK_SERIES)) {
             if (style.hasGroup(BooklistGroup.SERIES)) {
                 vb.seriesTitle.setVisibility(View.GONE);
-                showOrHideSeriesNumber(rowData);
+                showOrHideSeriesNumber(rowData, col);
             } else {
                 vb.seriesNum.setVisibility(View.GONE);
                 vb.seriesNumLong.setVisibility(View.GONE);
-                showOrHideSeriesText(rowData);
+                showOrHideSeriesText(rowData, col);
             }
         }
 
         final boolean usePub = use.contains(DBKey.FK_PUBLISHER);
         final boolean usePubDate = use.contains(DBKey.BOOK_PUBLICATION__DATE);
         if (usePub || usePubDate) {
-            showOrHidePublisher(rowData, usePub, usePubDate);
+            showOrHidePublisher(rowData, col, usePub, usePubDate);
         }
 
         if (use.contains(DBKey.FK_BOOKSHELF)) {
-            showOrHide(vb.shelves, rowData.getString(DBKey.BOOKSHELF_NAME_CSV));
+            showOrHide(vb.shelves, rowData.getString(col.bookshelves));
         }
 
         if (use.contains(DBKey.TITLE_ORIGINAL_LANG)) {
-            showOrHide(vb.originalTitle, rowData.getString(DBKey.TITLE_ORIGINAL_LANG));
+            showOrHide(vb.originalTitle, rowData.getString(col.originalTitle));
         }
 
         if (use.contains(DBKey.BOOK_CONDITION)) {
-            final int condition = rowData.getInt(DBKey.BOOK_CONDITION);
+            final int condition = rowData.getInt(col.condition);
             if (condition > 0) {
                 showOrHide(vb.condition, conditionDescriptions[condition]);
             } else {
@@ -254,27 +262,27 @@ public class BookHolder
         }
 
         if (use.contains(DBKey.BOOK_ISBN)) {
-            showOrHide(vb.isbn, rowData.getString(DBKey.BOOK_ISBN));
+            showOrHide(vb.isbn, rowData.getString(col.isbn));
         }
 
         if (use.contains(DBKey.FORMAT)) {
-            showOrHide(vb.format, rowData.getString(DBKey.FORMAT));
+            showOrHide(vb.format, rowData.getString(col.format));
         }
 
         if (use.contains(DBKey.LANGUAGE)) {
             // We could use the LanguageFormatter but there is really no point here
             final String language = ServiceLocator
                     .getInstance().getLanguages().getDisplayNameFromISO3(
-                            vb.language.getContext(), rowData.getString(DBKey.LANGUAGE));
+                            vb.language.getContext(), rowData.getString(col.language));
             showOrHide(vb.language, language);
         }
 
         if (use.contains(DBKey.LOCATION)) {
-            showOrHide(vb.location, rowData.getString(DBKey.LOCATION));
+            showOrHide(vb.location, rowData.getString(col.location));
         }
 
         if (use.contains(DBKey.RATING)) {
-            final float rating = rowData.getFloat(DBKey.RATING, realNumberParser);
+            final float rating = rowData.getFloat(col.rating);
             if (rating > 0) {
                 vb.rating.setRating(rating);
                 vb.rating.setVisibility(View.VISIBLE);
@@ -284,22 +292,22 @@ public class BookHolder
         }
 
         if (use.contains(DBKey.PAGE_COUNT)) {
-            final String pages = rowData.getString(DBKey.PAGE_COUNT);
+            final String pages = rowData.getString(col.pages);
             //noinspection DataFlowIssue
             showOrHide(vb.pages, pagesFormatter.format(itemView.getContext(), pages));
         }
 
         if (use.contains(DBKey.SIGNED__BOOL)) {
-            showOrHide(vb.iconSigned, rowData.getBoolean(DBKey.SIGNED__BOOL));
+            showOrHide(vb.iconSigned, rowData.getBoolean(col.signed));
         }
 
         if (use.contains(DBKey.EDITION__BITMASK)) {
-            showOrHide(vb.iconFirstEdition, (rowData.getLong(DBKey.EDITION__BITMASK)
+            showOrHide(vb.iconFirstEdition, (rowData.getLong(col.edition)
                                              & Book.Edition.FIRST) != 0);
         }
 
         if (use.contains(DBKey.LOANEE_NAME)) {
-            showOrHide(vb.iconLendOut, !rowData.getString(DBKey.LOANEE_NAME).isEmpty());
+            showOrHide(vb.iconLendOut, !rowData.getString(col.loanee).isEmpty());
         }
 
         if (BuildConfig.DEBUG && DEBUG_SWITCHES.BOB_NODE_POSITIONS) {
@@ -345,13 +353,15 @@ public class BookHolder
      * The views {@code vb.seriesNum} and {@code vb.seriesNumLong} will are hidden.
      *
      * @param rowData with the data
+     * @param col     the resolved column indexes
      */
-    private void showOrHideSeriesText(@NonNull final DataHolder rowData) {
-        if (rowData.contains(DBKey.SERIES_TITLE)) {
-            String seriesTitle = rowData.getString(DBKey.SERIES_TITLE);
+    private void showOrHideSeriesText(@NonNull final CursorRow rowData,
+                                      @NonNull final Columns col) {
+        if (col.seriesTitle >= 0) {
+            String seriesTitle = rowData.getString(col.seriesTitle);
             if (!seriesTitle.isBlank()) {
-                if (rowData.contains(DBKey.SERIES_BOOK_NUMBER)) {
-                    final String number = rowData.getString(DBKey.SERIES_BOOK_NUMBER);
+                if (col.seriesNumber >= 0) {
+                    final String number = rowData.getString(col.seriesNumber);
                     if (!number.isBlank()) {
                         seriesTitle = String.format(a_bracket_b_bracket, seriesTitle, number);
                     }
@@ -374,10 +384,12 @@ public class BookHolder
      * we show it in {@code vb.seriesNumLong}.
      *
      * @param rowData with the data
+     * @param col     the resolved column indexes
      */
-    private void showOrHideSeriesNumber(@NonNull final DataHolder rowData) {
-        if (rowData.contains(DBKey.SERIES_BOOK_NUMBER)) {
-            final String number = rowData.getString(DBKey.SERIES_BOOK_NUMBER);
+    private void showOrHideSeriesNumber(@NonNull final CursorRow rowData,
+                                        @NonNull final Columns col) {
+        if (col.seriesNumber >= 0) {
+            final String number = rowData.getString(col.seriesNumber);
             if (!number.isBlank()) {
                 // Display it in one of the views, based on the size of the text.
                 if (number.length() > SHORT_SERIES_NUMBER) {
@@ -400,10 +412,12 @@ public class BookHolder
      * Show a suitable combination of the publisher name and book publication date.
      *
      * @param rowData     with the data
+     * @param col         the resolved column indexes
      * @param showPubName flag
      * @param showPubDate flag
      */
-    private void showOrHidePublisher(@NonNull final DataHolder rowData,
+    private void showOrHidePublisher(@NonNull final CursorRow rowData,
+                                     @NonNull final Columns col,
                                      final boolean showPubName,
                                      final boolean showPubDate) {
 
@@ -412,13 +426,13 @@ public class BookHolder
 
         String name = null;
         if (showPubName) {
-            name = rowData.getString(DBKey.PUBLISHER_NAME);
+            name = rowData.getString(col.publisher);
             showName = !name.isBlank();
         }
 
         String date = null;
         if (showPubDate) {
-            final String dateStr = rowData.getString(DBKey.BOOK_PUBLICATION__DATE);
+            final String dateStr = rowData.getString(col.publicationDate);
             date = new PartialDate(dateStr).toDisplay(itemView.getContext().getResources()
                                                               .getConfiguration().getLocales()
                                                               .get(0),
@@ -436,4 +450,62 @@ public class BookHolder
             vb.publisher.setVisibility(View.GONE);
         }
     }
+
+    /**
+     * The column indexes used by {@link #onBind(CursorRow)}.
+     * <p>
+     * Columns which are not part of the current style are {@code -1};
+     * they are only read when the corresponding field is in use.
+     */
+    private static final class Columns {
+
+        @NonNull
+        final CursorRow rowData;
+
+        final int title;
+        final int read;
+        final int uuid;
+        final int author;
+        final int seriesTitle;
+        final int seriesNumber;
+        final int publisher;
+        final int publicationDate;
+        final int bookshelves;
+        final int originalTitle;
+        final int condition;
+        final int isbn;
+        final int format;
+        final int language;
+        final int location;
+        final int rating;
+        final int pages;
+        final int signed;
+        final int edition;
+        final int loanee;
+
+        Columns(@NonNull final CursorRow rowData) {
+            this.rowData = rowData;
+
+            title = rowData.getColumnIndex(DBKey.TITLE);
+            read = rowData.getColumnIndex(DBKey.READ__BOOL);
+            uuid = rowData.getColumnIndex(DBKey.BOOK_UUID);
+            author = rowData.getColumnIndex(DBKey.AUTHOR_FORMATTED);
+            seriesTitle = rowData.getColumnIndex(DBKey.SERIES_TITLE);
+            seriesNumber = rowData.getColumnIndex(DBKey.SERIES_BOOK_NUMBER);
+            publisher = rowData.getColumnIndex(DBKey.PUBLISHER_NAME);
+            publicationDate = rowData.getColumnIndex(DBKey.BOOK_PUBLICATION__DATE);
+            bookshelves = rowData.getColumnIndex(DBKey.BOOKSHELF_NAME_CSV);
+            originalTitle = rowData.getColumnIndex(DBKey.TITLE_ORIGINAL_LANG);
+            condition = rowData.getColumnIndex(DBKey.BOOK_CONDITION);
+            isbn = rowData.getColumnIndex(DBKey.BOOK_ISBN);
+            format = rowData.getColumnIndex(DBKey.FORMAT);
+            language = rowData.getColumnIndex(DBKey.LANGUAGE);
+            location = rowData.getColumnIndex(DBKey.LOCATION);
+            rating = rowData.getColumnIndex(DBKey.RATING);
+            pages = rowData.getColumnIndex(DBKey.PAGE_COUNT);
+            signed = rowData.getColumnIndex(DBKey.SIGNED__BOOL);
+            edition = rowData.getColumnIndex(DBKey.EDITION__BITMASK);
+            loanee = rowData.getColumnIndex(DBKey.LOANEE_NAME);
+        }
+    }
 }
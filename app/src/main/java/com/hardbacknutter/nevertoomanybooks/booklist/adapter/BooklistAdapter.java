@@ -52,7 +52,6 @@ import com.hardbacknutter.nevertoomanybooks.booklist.style.Style;
 import com.hardbacknutter.nevertoomanybooks.booklist.style.TextScale;
 import com.hardbacknutter.nevertoomanybooks.booklist.style.groups.BooklistGroup;
 import com.hardbacknutter.nevertoomanybooks.core.LoggerFactory;
-import com.hardbacknutter.nevertoomanybooks.core.parsers.RealNumberParser;
 import com.hardbacknutter.nevertoomanybooks.core.utils.LocaleListUtils;
 import com.hardbacknutter.nevertoomanybooks.database.CursorRow;
 import com.hardbacknutter.nevertoomanybooks.database.DBKey;
@@ -84,8 +83,6 @@ public class BooklistAdapter
     @NonNull
     private final Formatter formatter;
 
-    /** Shared across all {@link BookHolder}s. */
-    private final RealNumberParser realNumberParser;
     @NonNull
     private final Style.Layout layout;
     @NonNull
@@ -95,9 +92,19 @@ public class BooklistAdapter
     private Cursor cursor;
     @Nullable
     private Booklist booklist;
-    /** provides read only access to the row data. */
+    /**
+     * Provides read only access to the row data.
+     * One instance per cursor, so the column indexes are only resolved once.
+     */
     @Nullable
-    private DataHolder rowData;
+    private CursorRow rowData;
+    /**
+     * The header texts for the fast scroller popup.
+     * Build in the background together with the list; reset whenever the list data changes.
+     * When {@code null}, the texts are read from the list cursor.
+     */
+    @Nullable
+    private SectionIndex sectionIndex;
     @Nullable
     private OnRowClickListener rowClickListener;
     @Nullable
@@ -123,7 +130,6 @@ public class BooklistAdapter
         this.coverScale = coverScale;
 
         final List<Locale> locales = LocaleListUtils.asList(context);
-        realNumberParser = new RealNumberParser(locales);
         formatter = new Formatter(context, style, locales);
 
         final Resources res = context.getResources();
@@ -146,10 +152,14 @@ public class BooklistAdapter
      * <p>
      * This will trigger a {@link #notifyDataSetChanged()}.
      *
-     * @param booklist the 'list of items' or {@code null} to clear
+     * @param booklist     the 'list of items' or {@code null} to clear
+     * @param sectionIndex (optional) the index for the fast scroller popup
+     *
+     * @see SectionIndex#create(Context, Style, Booklist)
      */
     @SuppressLint("NotifyDataSetChanged")
-    public void setBooklist(@Nullable final Booklist booklist) {
+    public void setBooklist(@Nullable final Booklist booklist,
+                            @Nullable final SectionIndex sectionIndex) {
         if (booklist == null) {
             this.booklist = null;
             cursor = null;
@@ -159,6 +169,7 @@ public class BooklistAdapter
             cursor = booklist.getNewListCursor();
             rowData = new CursorRow(cursor);
         }
+        this.sectionIndex = booklist == null ? null : sectionIndex;
         notifyDataSetChanged();
     }
 
@@ -209,6 +220,8 @@ public class BooklistAdapter
         // Yes, requery() is deprecated but see BooklistCursor were we do the right thing.
         //noinspection deprecation,DataFlowIssue
         cursor.requery();
+        // The row data changed; the popup texts will be read from the cursor.
+        sectionIndex = null;
 
         for (final int pos : positions) {
             notifyItemChanged(pos);
@@ -313,8 +326,7 @@ public class BooklistAdapter
             case BooklistGroup.BOOK:
                 switch (layout) {
                     case List:
-                        holder = new BookHolder(itemView, style, coverScale,
-                                                realNumberParser);
+                        holder = new BookHolder(itemView, style, coverScale);
                         break;
                     case Grid:
                         holder = new BookGridHolder(itemView, style, coverScale);
@@ -363,7 +375,7 @@ public class BooklistAdapter
         cursor.moveToPosition(position);
 
         //noinspection unchecked,DataFlowIssue
-        ((BindableViewHolder<DataHolder>) holder).onBind(rowData);
+        ((BindableViewHolder<CursorRow>) holder).onBind(rowData);
     }
 
     private void scaleTextViews(@NonNull final View view,
@@ -407,15 +419,33 @@ public class BooklistAdapter
 
     /**
      * Get the full set of 'level' texts for the given position.
+     * <p>
+     * Group levels are looked up in the {@link SectionIndex} and do not move the cursor.
+     * Only when a level is the book level (i.e. a style with less than two groups),
+     * or when there is no index, the text is read from the cursor.
      *
      * <br><br>{@inheritDoc}
      */
     @Override
     @NonNull
     public CharSequence[] getPopupText(final int position) {
-        return new CharSequence[]{
-                getLevelText(1, position),
-                getLevelText(2, position)};
+        if (booklist == null || sectionIndex == null || getItemCount() == 0) {
+            return new CharSequence[]{
+                    getLevelText(1, position),
+                    getLevelText(2, position)};
+        }
+
+        final int clampedPosition = MathUtils.clamp(position, 0, getItemCount() - 1);
+        final int rowIndex = booklist.getRowIndexAtPosition(clampedPosition);
+        final CharSequence[] lines = new CharSequence[SectionIndex.MAX_LEVELS];
+        for (int level = 1; level <= SectionIndex.MAX_LEVELS; level++) {
+            if (level <= sectionIndex.getLevelCount()) {
+                lines[level - 1] = sectionIndex.getText(level, rowIndex);
+            } else {
+                lines[level - 1] = getLevelText(level, clampedPosition);
+            }
+        }
+        return lines;
     }
 
     /**
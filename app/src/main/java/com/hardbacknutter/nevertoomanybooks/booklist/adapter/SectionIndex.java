@@ -0,0 +1,243 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.booklist.adapter;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import java.util.Arrays;
+
+import com.hardbacknutter.nevertoomanybooks.booklist.Booklist;
+import com.hardbacknutter.nevertoomanybooks.booklist.style.Style;
+import com.hardbacknutter.nevertoomanybooks.booklist.style.groups.BooklistGroup;
+import com.hardbacknutter.nevertoomanybooks.core.utils.LocaleListUtils;
+import com.hardbacknutter.nevertoomanybooks.database.CursorRow;
+import com.hardbacknutter.nevertoomanybooks.database.DBKey;
+
+/**
+ * The texts of the group header rows, indexed by row index and level.
+ * <p>
+ * Used by the fast scroller popup so it does not need to move the list cursor
+ * to arbitrary positions while the thumb is being dragged.
+ * Memory use is proportional to the number of header rows; book rows are not stored.
+ * <p>
+ * Rows are addressed by their index in the list-table, see
+ * {@link Booklist#getRowIndexAtPosition(int)}. All header rows are indexed, visible or not,
+ * so expanding or collapsing nodes does not invalidate the index.
+ * <p>
+ * The text for a given level at a given row is the text of the closest header row
+ * of that level at or before the row, as long as no header row of a higher level
+ * (i.e. a lower level number) was found in between.
+ */
+public final class SectionIndex {
+
+    /** The maximum number of levels shown in the fast scroller popup. */
+    static final int MAX_LEVELS = 2;
+
+    /** Per level (index 0 == level 1), the ascending row indexes of the header rows. */
+    @NonNull
+    private final int[][] rowIndexes;
+    /** Per level (index 0 == level 1), the texts matching {@link #rowIndexes}. */
+    @NonNull
+    private final CharSequence[][] texts;
+
+    private SectionIndex(@NonNull final int[][] rowIndexes,
+                         @NonNull final CharSequence[][] texts) {
+        this.rowIndexes = rowIndexes;
+        this.texts = texts;
+    }
+
+    /**
+     * Create the section index for the given list.
+     * This reads all header rows and should be called right after building the list.
+     *
+     * @param context  Current context
+     * @param style    the list was build with
+     * @param booklist to read
+     *
+     * @return new index, or {@code null} if the style has no groups
+     */
+    @WorkerThread
+    @Nullable
+    public static SectionIndex create(@NonNull final Context context,
+                                      @NonNull final Style style,
+                                      @NonNull final Booklist booklist) {
+        final int maxLevel = Math.min(MAX_LEVELS, style.getGroupCount());
+        if (maxLevel == 0) {
+            return null;
+        }
+
+        final Formatter formatter = new Formatter(context, style,
+                                                  LocaleListUtils.asList(context));
+        final Builder builder = new Builder(maxLevel);
+
+        final String[] keys = new String[maxLevel];
+        final int[] groupIds = new int[maxLevel];
+        for (int level = 1; level <= maxLevel; level++) {
+            final BooklistGroup group = style.getGroupByLevel(level);
+            keys[level - 1] = group.getDisplayDomainExpression().getDomain().getName();
+            groupIds[level - 1] = group.getId();
+        }
+
+        try (Cursor headerCursor = booklist.getHeaderCursor(maxLevel)) {
+            final CursorRow headerRow = new CursorRow(headerCursor);
+            final int levelCol = headerRow.getColumnIndex(DBKey.BL_NODE_LEVEL);
+            final int rowIdCol = headerRow.getColumnIndex(DBKey.BL_LIST_VIEW_NODE_ROW_ID);
+            while (headerCursor.moveToNext()) {
+                final int level = headerCursor.getInt(levelCol);
+                final int rowIndex = booklist.getRowIndex(headerCursor.getLong(rowIdCol));
+                builder.add(level, rowIndex,
+                            formatter.format(groupIds[level - 1], headerRow, keys[level - 1]));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Get the number of levels in this index.
+     *
+     * @return level count
+     */
+    int getLevelCount() {
+        return rowIndexes.length;
+    }
+
+    /**
+     * Get the text for the given level at the given row.
+     *
+     * @param level    the level in the Booklist tree
+     * @param rowIndex the row index
+     *
+     * @return the text, or {@code null} if none present.
+     */
+    @Nullable
+    CharSequence getText(@IntRange(from = 1) final int level,
+                         final int rowIndex) {
+        if (level > rowIndexes.length) {
+            return null;
+        }
+
+        final int index = lastAtOrBefore(rowIndexes[level - 1], rowIndex);
+        if (index < 0) {
+            return null;
+        }
+
+        final int headerRowIndex = rowIndexes[level - 1][index];
+        // The section is closed if a parent level header started after our header.
+        for (int parent = level - 1; parent >= 1; parent--) {
+            final int[] parentRowIndexes = rowIndexes[parent - 1];
+            final int parentIndex = lastAtOrBefore(parentRowIndexes, rowIndex);
+            if (parentIndex >= 0 && parentRowIndexes[parentIndex] > headerRowIndex) {
+                return null;
+            }
+        }
+        return texts[level - 1][index];
+    }
+
+    /**
+     * Find the index of the last element which is less than or equal to the given value.
+     *
+     * @param sorted array in ascending order
+     * @param value  to find
+     *
+     * @return the index, or {@code -1} if all elements are larger
+     */
+    private static int lastAtOrBefore(@NonNull final int[] sorted,
+                                      final int value) {
+        final int index = Arrays.binarySearch(sorted, value);
+        if (index >= 0) {
+            return index;
+        }
+        // binarySearch returns (-(insertion point) - 1)
+        return -index - 2;
+    }
+
+    static class Builder {
+
+        @NonNull
+        private final int[][] rowIndexes;
+        @NonNull
+        private final CharSequence[][] texts;
+        @NonNull
+        private final int[] counts;
+
+        /**
+         * Constructor.
+         *
+         * @param levelCount the number of levels to index
+         */
+        Builder(@IntRange(from = 1) final int levelCount) {
+            rowIndexes = new int[levelCount][16];
+            texts = new CharSequence[levelCount][16];
+            counts = new int[levelCount];
+        }
+
+        /**
+         * Add a header row. Rows <strong>must</strong> be added in list order.
+         *
+         * @param level    of the header row
+         * @param rowIndex the row index of the header row
+         * @param text     to show for the header row
+         *
+         * @return {@code this} (for chaining)
+         *
+         * @throws IllegalArgumentException if the level is out of range, or the
+         *                                  rowIndex is before the previous one of that level
+         */
+        @NonNull
+        Builder add(@IntRange(from = 1) final int level,
+                    final int rowIndex,
+                    @Nullable final CharSequence text) {
+            if (level < 1 || level > rowIndexes.length) {
+                throw new IllegalArgumentException("level=" + level);
+            }
+            final int idx = level - 1;
+            final int count = counts[idx];
+            if (count > 0 && rowIndexes[idx][count - 1] >= rowIndex) {
+                throw new IllegalArgumentException("rowIndex=" + rowIndex);
+            }
+            if (count == rowIndexes[idx].length) {
+                rowIndexes[idx] = Arrays.copyOf(rowIndexes[idx], count * 2);
+                texts[idx] = Arrays.copyOf(texts[idx], count * 2);
+            }
+            rowIndexes[idx][count] = rowIndex;
+            texts[idx][count] = text;
+            counts[idx]++;
+            return this;
+        }
+
+        @NonNull
+        SectionIndex build() {
+            final int levelCount = rowIndexes.length;
+            final int[][] p = new int[levelCount][];
+            final CharSequence[][] t = new CharSequence[levelCount][];
+            for (int i = 0; i < levelCount; i++) {
+                p[i] = Arrays.copyOf(rowIndexes[i], counts[i]);
+                t[i] = Arrays.copyOf(texts[i], counts[i]);
+            }
+            return new SectionIndex(p, t);
+        }
+    }
+}
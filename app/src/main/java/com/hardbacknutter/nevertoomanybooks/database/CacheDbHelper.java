@@ -57,13 +57,19 @@ public class CacheDbHelper
     /** The resolved name if any. */
     public static final String BDT_AUTHOR_RESOLVED_NAME = "res_name";
     public static final String BDT_AUTHOR_RESOLVED_NAME_OB = "res_name_ob";
+    /**
+     * The time (UTC epoch millis) of the last failed lookup; {@code 0} if none.
+     * A failed lookup of a name which is not listed on the site at all is stored
+     * with an empty {@link #BDT_AUTHOR_URL}.
+     */
+    public static final String BDT_AUTHOR_LOOKUP_FAILED = "lookup_failed";
     /** pre-scaled images. */
     public static final TableDefinition TBL_IMAGE;
     /** author page urls from Bedetheque. */
     public static final TableDefinition TBL_BDT_AUTHORS;
     /** DB name. */
     private static final String DATABASE_NAME = "cache.db";
-    private static final int DATABASE_VERSION = 2;
+    private static final int DATABASE_VERSION = 3;
     private static final Domain DOM_PK_ID;
     /** {@link #TBL_IMAGE}. */
     private static final Domain DOM_IMAGE_ID;
@@ -83,6 +89,8 @@ public class CacheDbHelper
     private static final Domain DOM_BDT_AUTHOR_RESOLVED_NAME;
     /** {@link #TBL_BDT_AUTHORS}. */
     private static final Domain DOM_BDT_AUTHOR_RESOLVED_NAME_OB;
+    /** {@link #TBL_BDT_AUTHORS}. */
+    private static final Domain DOM_BDT_AUTHOR_LOOKUP_FAILED;
 
     /** Readers/Writer lock for <strong>this</strong> database. */
     private static final Synchronizer SYNCHRONIZER = new Synchronizer();
@@ -142,6 +150,12 @@ public class CacheDbHelper
                         .withDefault(false)
                         .build();
 
+        DOM_BDT_AUTHOR_LOOKUP_FAILED =
+                new Domain.Builder(BDT_AUTHOR_LOOKUP_FAILED, SqLiteDataType.Integer)
+                        .notNull()
+                        .withDefault(0)
+                        .build();
+
         TBL_IMAGE =
                 new TableDefinition("image", "image")
                         .addDomains(DOM_PK_ID,
@@ -162,7 +176,8 @@ public class CacheDbHelper
                                     DOM_BDT_AUTHOR_IS_RESOLVED,
                                     DOM_BDT_AUTHOR_RESOLVED_NAME,
                                     DOM_BDT_AUTHOR_RESOLVED_NAME_OB,
-                                    DOM_BDT_AUTHOR_URL)
+                                    DOM_BDT_AUTHOR_URL,
+                                    DOM_BDT_AUTHOR_LOOKUP_FAILED)
                         .setPrimaryKey(DOM_PK_ID)
                         .addIndex(BDT_AUTHOR_NAME_OB, true, DOM_BDT_AUTHOR_NAME_OB)
                         .addIndex(BDT_AUTHOR_RESOLVED_NAME_OB, false,
@@ -27,6 +27,8 @@ import androidx.annotation.Nullable;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 import com.hardbacknutter.nevertoomanybooks.core.database.ColumnNotPresentException;
@@ -42,6 +44,12 @@ import com.hardbacknutter.nevertoomanybooks.entities.DataHolder;
  * {@link com.hardbacknutter.nevertoomanybooks.entities.Bookshelf#Bookshelf(long, DataHolder)}
  * always pass the id additionally/separately. This gives the calling code a change to use
  * for example the foreign key id.
+ * <p>
+ * The column indexes are resolved once per column name, and cached for the lifetime
+ * of this object; for most cursors {@link Cursor#getColumnIndex(String)} does a linear scan
+ * of all column names on each call. Code which reads the same columns for many rows,
+ * e.g. the booklist view holders, can resolve the index itself with
+ * {@link #getColumnIndex(String)} and use the index based getters.
  */
 public class CursorRow
         implements DataHolder {
@@ -50,6 +58,10 @@ public class CursorRow
     @NonNull
     private final Cursor cursor;
 
+    /** Lazy initialized cache with the column indexes; {@code -1} for absent columns. */
+    @Nullable
+    private Map<String, Integer> columnIndexes;
+
     /**
      * Constructor.
      *
@@ -65,6 +77,44 @@ public class CursorRow
         return Set.copyOf(Arrays.asList(cursor.getColumnNames()));
     }
 
+    /**
+     * Get the index for the given column name.
+     *
+     * @param key the domain to get
+     *
+     * @return the zero-based column index, or {@code -1} if the column does not exist.
+     */
+    public int getColumnIndex(@NonNull final String key) {
+        if (columnIndexes == null) {
+            columnIndexes = new HashMap<>();
+        }
+        // Cache both hits and misses; a miss is just as expensive to resolve.
+        Integer col = columnIndexes.get(key);
+        if (col == null) {
+            col = cursor.getColumnIndex(key);
+            columnIndexes.put(key, col);
+        }
+        return col;
+    }
+
+    /**
+     * Get the index for the given column name.
+     *
+     * @param key the domain to get
+     *
+     * @return the zero-based column index
+     *
+     * @throws ColumnNotPresentException if the column was not present.
+     */
+    private int getColumnIndexOrThrow(@NonNull final String key)
+            throws ColumnNotPresentException {
+        final int col = getColumnIndex(key);
+        if (col == -1) {
+            throw new ColumnNotPresentException(key);
+        }
+        return col;
+    }
+
     /**
      * @param key the domain to get
      *
@@ -72,7 +122,7 @@ public class CursorRow
      */
     @Override
     public boolean contains(@NonNull final String key) {
-        return cursor.getColumnIndex(key) > -1;
+        return getColumnIndex(key) > -1;
     }
 
     @Override
@@ -81,16 +131,72 @@ public class CursorRow
                             @Nullable final String defValue)
             throws ColumnNotPresentException {
 
-        final int col = cursor.getColumnIndex(key);
-        if (col == -1) {
-            throw new ColumnNotPresentException(key);
-        }
+        final int col = getColumnIndexOrThrow(key);
         if (cursor.isNull(col)) {
             return defValue;
         }
         return cursor.getString(col);
     }
 
+    /**
+     * Index based version of {@link #getString(String)}.
+     *
+     * @param col the zero-based column index as returned by {@link #getColumnIndex(String)}
+     *
+     * @return the String value of the column ({@code null} comes back as an empty String).
+     */
+    @NonNull
+    public String getString(final int col) {
+        if (cursor.isNull(col)) {
+            return "";
+        }
+        return cursor.getString(col);
+    }
+
+    /**
+     * Index based version of {@link #getBoolean(String)}.
+     *
+     * @param col the zero-based column index as returned by {@link #getColumnIndex(String)}
+     *
+     * @return the boolean value of the column ({@code null} comes back as false).
+     */
+    public boolean getBoolean(final int col) {
+        return cursor.getInt(col) == 1;
+    }
+
+    /**
+     * Index based version of {@link #getInt(String)}.
+     *
+     * @param col the zero-based column index as returned by {@link #getColumnIndex(String)}
+     *
+     * @return the int value of the column ({@code null} comes back as 0)
+     */
+    public int getInt(final int col) {
+        return cursor.getInt(col);
+    }
+
+    /**
+     * Index based version of {@link #getLong(String)}.
+     *
+     * @param col the zero-based column index as returned by {@link #getColumnIndex(String)}
+     *
+     * @return the long value of the column ({@code null} comes back as 0)
+     */
+    public long getLong(final int col) {
+        return cursor.getLong(col);
+    }
+
+    /**
+     * Index based version of {@link #getFloat(String, RealNumberParser)}.
+     *
+     * @param col the zero-based column index as returned by {@link #getColumnIndex(String)}
+     *
+     * @return the float value of the column ({@code null} comes back as 0)
+     */
+    public float getFloat(final int col) {
+        return cursor.getFloat(col);
+    }
+
     /**
      * @param key to get
      *
@@ -115,10 +221,7 @@ public class CursorRow
     public int getInt(@NonNull final String key)
             throws ColumnNotPresentException {
 
-        final int col = cursor.getColumnIndex(key);
-        if (col == -1) {
-            throw new ColumnNotPresentException(key);
-        }
+        final int col = getColumnIndexOrThrow(key);
         // if (cursor.isNull(col)) {
         //     return 0;
         // }
@@ -136,10 +239,7 @@ public class CursorRow
     public long getLong(@NonNull final String key)
             throws ColumnNotPresentException {
 
-        final int col = cursor.getColumnIndex(key);
-        if (col == -1) {
-            throw new ColumnNotPresentException(key);
-        }
+        final int col = getColumnIndexOrThrow(key);
         // if (cursor.isNull(col)) {
         //     return 0;
         // }
@@ -158,10 +258,7 @@ public class CursorRow
                             @NonNull final RealNumberParser parser)
             throws NumberFormatException {
 
-        final int col = cursor.getColumnIndex(key);
-        if (col == -1) {
-            throw new ColumnNotPresentException(key);
-        }
+        final int col = getColumnIndexOrThrow(key);
         // if (cursor.isNull(col)) {
         //     return 0;
         // }
@@ -181,10 +278,7 @@ public class CursorRow
                           @NonNull final RealNumberParser parser)
             throws NumberFormatException {
 
-        final int col = cursor.getColumnIndex(key);
-        if (col == -1) {
-            throw new ColumnNotPresentException(key);
-        }
+        final int col = getColumnIndexOrThrow(key);
         // if (cursor.isNull(col)) {
         //     return 0;
         // }
@@ -512,6 +512,9 @@ public final class DBDefinitions {
     /**
      * reminder: no need for a type nor constraints.
      * <a href="https://sqlite.org/fts3.html">SqLite FTS3</a>
+     * <p>
+     * This definition is FTS4. The actual table is created with the best
+     * {@link FtsFlavor} the device supports; use this definition for its name only.
      */
     public static final TableDefinition TBL_FTS_BOOKS;
 
@@ -1753,10 +1756,48 @@ public final class DBDefinitions {
     private DBDefinitions() {
     }
 
+    /**
+     * Create an FTS4 table definition.
+     *
+     * @param name of the table
+     *
+     * @return definition
+     */
     @NonNull
     public static TableDefinition createFtsTableDefinition(@NonNull final String name) {
-        return new TableDefinition(name, name)
-                .setType(TableDefinition.TableType.FTS)
+        return createFtsTableDefinition(name, FtsFlavor.Fts4);
+    }
+
+    /**
+     * Create an FTS table definition.
+     * <p>
+     * The FTS5 flavors get prefix indexes for 2 and 3 character prefixes
+     * to speed up search-as-you-type.
+     *
+     * @param name   of the table
+     * @param flavor to use
+     *
+     * @return definition
+     */
+    @NonNull
+    public static TableDefinition createFtsTableDefinition(@NonNull final String name,
+                                                           @NonNull final FtsFlavor flavor) {
+        final TableDefinition table = new TableDefinition(name, name);
+        switch (flavor) {
+            case Fts5:
+                table.setType(TableDefinition.TableType.FTS5)
+                     .setVirtualTableOptions("prefix='2 3'");
+                break;
+            case Fts5Contentless:
+                table.setType(TableDefinition.TableType.FTS5)
+                     .setVirtualTableOptions("prefix='2 3', content='', contentless_delete=1");
+                break;
+            case Fts4:
+            default:
+                table.setType(TableDefinition.TableType.FTS);
+                break;
+        }
+        return table
                 .addDomains(DOM_TITLE,
                             DOM_FTS_AUTHOR_NAME,
                             DOM_SERIES_TITLE,
@@ -68,6 +68,7 @@ import com.hardbacknutter.nevertoomanybooks.core.database.UpgradeFailedException
 import com.hardbacknutter.nevertoomanybooks.core.storage.FileUtils;
 import com.hardbacknutter.nevertoomanybooks.database.dao.impl.BookshelfDaoImpl;
 import com.hardbacknutter.nevertoomanybooks.database.dao.impl.CalibreCustomFieldDaoImpl;
+import com.hardbacknutter.nevertoomanybooks.database.dao.impl.FtsDaoImpl;
 import com.hardbacknutter.nevertoomanybooks.database.dao.impl.StyleDaoImpl;
 import com.hardbacknutter.nevertoomanybooks.database.tasks.RebuildIndexesTask;
 import com.hardbacknutter.nevertoomanybooks.entities.Author;
@@ -107,7 +108,7 @@ public class DBHelper
      * <p>
      * Current version.
      */
-    public static final int DATABASE_VERSION = 31;
+    public static final int DATABASE_VERSION = 32;
 
     /** NEVER change this name. */
     private static final String DATABASE_NAME = "nevertoomanybooks.db";
@@ -412,8 +413,7 @@ public class DBHelper
 
         CalibreCustomFieldDaoImpl.onPostCreate(db);
 
-        //IMPORTANT: withDomainConstraints MUST BE false (FTS columns don't use a type/constraints)
-        TBL_FTS_BOOKS.create(db, false);
+        FtsDaoImpl.onCreate(db);
 
         Triggers.create(db);
     }
@@ -774,6 +774,14 @@ public class DBHelper
             TBL_BOOKLIST_STYLES.alterTableAddColumns(
                     db, DBDefinitions.DOM_STYLE_COVER_LONG_CLICK_ACTION);
         }
+        if (oldVersion < 32) {
+            // Move to FTS5 if available. The old FTS4 table used the implicit 'docid'
+            // while the triggers now use 'rowid' which works for both.
+            // The new table is empty until the rebuild has run.
+            db.execSQL("DROP TABLE IF EXISTS " + TBL_FTS_BOOKS.getName());
+            FtsDaoImpl.onCreate(db);
+            StartupViewModel.schedule(context, StartupViewModel.PK_REBUILD_FTS, true);
+        }
 
         // SqLite 3.35.0 from 2021-03-12 adds ALTER TABLE DROP COLUMN
         // SqLite 3.25.0 from 2018-09-15 added ALTER TABLE RENAME COLUMN
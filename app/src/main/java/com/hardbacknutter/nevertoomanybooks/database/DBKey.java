@@ -328,7 +328,7 @@ public final class DBKey {
     public static final String AUTHOR_WORK_TYPE = "work_type";
 
     /** FTS Primary key. */
-    public static final String FTS_BOOK_ID = "docid";
+    public static final String FTS_BOOK_ID = "rowid";
     /** {@link DBDefinitions#TBL_FTS_BOOKS}. Semi-colon concatenated authors. */
     public static final String FTS_AUTHOR_NAME = "author_name";
     /** {@link DBDefinitions#TBL_FTS_BOOKS}. Semi-colon concatenated titles. */
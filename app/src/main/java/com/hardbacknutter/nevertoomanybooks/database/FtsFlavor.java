@@ -0,0 +1,116 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.database;
+
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Locale;
+
+/**
+ * The full-text-search implementations we can use for {@link DBDefinitions#TBL_FTS_BOOKS}.
+ * <p>
+ * FTS5 is preferred, but not all SQLite builds include it, hence we probe for it
+ * and fall back to FTS4 which is always available on Android.
+ * <p>
+ * All flavors use the book id as the {@code rowid}.
+ */
+public enum FtsFlavor {
+    /** FTS4; unranked. */
+    Fts4,
+    /** FTS5 with bm25 ranking and prefix indexes. Stores a copy of the indexed text. */
+    Fts5,
+    /**
+     * As {@link #Fts5}, but without storing the indexed text.
+     * Needs 'contentless_delete' support, i.e. SQLite 3.43 or later.
+     */
+    Fts5Contentless;
+
+    private static final String PROBE_TABLE = "temp.fts_probe";
+
+    /** The best flavor the SQLite library supports. Probed once. */
+    @Nullable
+    private static volatile FtsFlavor supported;
+
+    /**
+     * Find the best flavor the SQLite library supports.
+     *
+     * @param db Underlying database
+     *
+     * @return flavor
+     */
+    @NonNull
+    public static FtsFlavor getSupported(@NonNull final SQLiteDatabase db) {
+        FtsFlavor flavor = supported;
+        if (flavor == null) {
+            if (canCreate(db, "fts5(x, content='', contentless_delete=1)")) {
+                flavor = Fts5Contentless;
+            } else if (canCreate(db, "fts5(x)")) {
+                flavor = Fts5;
+            } else {
+                flavor = Fts4;
+            }
+            supported = flavor;
+        }
+        return flavor;
+    }
+
+    private static boolean canCreate(@NonNull final SQLiteDatabase db,
+                                     @NonNull final String module) {
+        try {
+            db.execSQL("CREATE VIRTUAL TABLE " + PROBE_TABLE + " USING " + module);
+            db.execSQL("DROP TABLE " + PROBE_TABLE);
+            return true;
+        } catch (@NonNull final SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Determine the flavor of an existing table.
+     *
+     * @param createSql the sql from {@code sqlite_master} for the table
+     *
+     * @return flavor
+     */
+    @NonNull
+    public static FtsFlavor fromCreateStatement(@Nullable final String createSql) {
+        if (createSql == null) {
+            return Fts4;
+        }
+        final String sql = createSql.toLowerCase(Locale.ROOT).replace(" ", "");
+        if (sql.contains("usingfts5")) {
+            return sql.contains("content=''") ? Fts5Contentless : Fts5;
+        }
+        return Fts4;
+    }
+
+    /**
+     * Check if this is one of the FTS5 flavors.
+     *
+     * @return {@code true} for FTS5
+     */
+    public boolean isFts5() {
+        return this != Fts4;
+    }
+}
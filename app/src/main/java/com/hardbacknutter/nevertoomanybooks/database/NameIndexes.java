@@ -0,0 +1,121 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.database;
+
+import androidx.annotation.NonNull;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import com.hardbacknutter.nevertoomanybooks.ServiceLocator;
+import com.hardbacknutter.nevertoomanybooks.core.widgets.adapters.PrefixIndex;
+
+/**
+ * The autocomplete lists for the edit screens, each with a {@link PrefixIndex}.
+ * <p>
+ * A list is loaded from the database when first needed and then shared by all screens.
+ * The DAOs call {@link #invalidate(Domain...)} when they write to the underlying table;
+ * the next request will then reload the list.
+ * An index built while it was being invalidated is used once, but not kept.
+ */
+public class NameIndexes {
+
+    private final Map<Domain, PrefixIndex> indexes = new EnumMap<>(Domain.class);
+    /** Incremented for a domain each time it's invalidated. */
+    private final int[] generations = new int[Domain.values().length];
+
+    @NonNull
+    private static List<String> load(@NonNull final Domain domain) {
+        final ServiceLocator serviceLocator = ServiceLocator.getInstance();
+        switch (domain) {
+            case AuthorFormatted:
+                return serviceLocator.getAuthorDao().getNames(DBKey.AUTHOR_FORMATTED);
+            case AuthorFamilyName:
+                return serviceLocator.getAuthorDao().getNames(DBKey.AUTHOR_FAMILY_NAME);
+            case AuthorGivenNames:
+                return serviceLocator.getAuthorDao().getNames(DBKey.AUTHOR_GIVEN_NAMES);
+            case SeriesTitle:
+                return serviceLocator.getSeriesDao().getNames();
+            case PublisherName:
+                return serviceLocator.getPublisherDao().getNames();
+            case Location:
+                return serviceLocator.getLocationDao().getList();
+            default:
+                throw new IllegalArgumentException(domain.name());
+        }
+    }
+
+    /**
+     * Get the index for the given domain, loading it if needed.
+     *
+     * @param domain to get
+     *
+     * @return index
+     */
+    @NonNull
+    public PrefixIndex get(@NonNull final Domain domain) {
+        final int generation;
+        synchronized (indexes) {
+            final PrefixIndex index = indexes.get(domain);
+            if (index != null) {
+                return index;
+            }
+            generation = generations[domain.ordinal()];
+        }
+
+        // Load outside the lock so we don't block a writer
+        final PrefixIndex index = new PrefixIndex(load(domain));
+
+        synchronized (indexes) {
+            if (generation == generations[domain.ordinal()]) {
+                indexes.put(domain, index);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Drop the indexes for the given domains.
+     *
+     * @param domains to drop
+     */
+    public void invalidate(@NonNull final Domain... domains) {
+        synchronized (indexes) {
+            for (final Domain domain : domains) {
+                indexes.remove(domain);
+                generations[domain.ordinal()]++;
+            }
+        }
+    }
+
+    public enum Domain {
+        AuthorFormatted,
+        AuthorFamilyName,
+        AuthorGivenNames,
+        SeriesTitle,
+        PublisherName,
+        Location;
+
+        /** All {@link com.hardbacknutter.nevertoomanybooks.entities.Author} domains. */
+        public static final Domain[] AUTHOR = {AuthorFormatted, AuthorFamilyName,
+                                               AuthorGivenNames};
+    }
+}
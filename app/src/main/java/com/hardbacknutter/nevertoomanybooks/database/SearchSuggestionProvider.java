@@ -33,7 +33,6 @@ import androidx.annotation.Nullable;
 
 import com.hardbacknutter.nevertoomanybooks.R;
 import com.hardbacknutter.nevertoomanybooks.ServiceLocator;
-import com.hardbacknutter.nevertoomanybooks.database.dao.impl.FtsDaoHelper;
 import com.hardbacknutter.nevertoomanybooks.utils.MenuUtils;
 
 /**
@@ -78,19 +77,6 @@ import com.hardbacknutter.nevertoomanybooks.utils.MenuUtils;
 public class SearchSuggestionProvider
         extends ContentProvider {
 
-    /** Standard Local-search. */
-    private static final String SEARCH_SUGGESTIONS =
-            // FTS_BOOK_ID is the _id into the books table.
-            "SELECT " + DBKey.FTS_BOOK_ID + " AS " + DBKey.PK_ID
-            + ',' + (DBDefinitions.TBL_FTS_BOOKS.dot(DBKey.TITLE)
-                     + " AS " + SearchManager.SUGGEST_COLUMN_TEXT_1)
-            + ',' + (DBDefinitions.TBL_FTS_BOOKS.dot(DBKey.FTS_AUTHOR_NAME)
-                     + " AS " + SearchManager.SUGGEST_COLUMN_TEXT_2)
-            + ',' + (DBDefinitions.TBL_FTS_BOOKS.dot(DBKey.TITLE)
-                     + " AS " + SearchManager.SUGGEST_COLUMN_INTENT_DATA)
-            + " FROM " + DBDefinitions.TBL_FTS_BOOKS.getName()
-            + " WHERE " + DBDefinitions.TBL_FTS_BOOKS.getName() + " MATCH ?";
-
     /** Uri and query support. Arbitrary code to indicate a match. */
     private static final int SUGGEST_URI_PATH_ID = 1;
 
@@ -121,11 +107,8 @@ public class SearchSuggestionProvider
                 return null;
             }
 
-            final String query = FtsDaoHelper.prepareSearchText(selectionArgs[0], null);
-            if (!query.isEmpty()) {
-                return ServiceLocator.getInstance().getDb()
-                                     .rawQuery(SEARCH_SUGGESTIONS, new String[]{query});
-            }
+            return ServiceLocator.getInstance().getFtsDao()
+                                 .getSearchSuggestions(selectionArgs[0]);
         }
 
         return null;
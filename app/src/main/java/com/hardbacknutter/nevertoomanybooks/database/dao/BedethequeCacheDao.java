@@ -86,7 +86,32 @@ public interface BedethequeCacheDao {
             throws DaoWriteException;
 
     /**
-     * Check if there is at least one {@link BdtAuthor} in the database whose name
+     * Remember a failed lookup for a listed {@link BdtAuthor}; i.e. the site lists
+     * the author, but there is no usable details page.
+     *
+     * @param bdtAuthor which failed to resolve
+     * @param time      UTC epoch millis of the failure
+     *
+     * @throws DaoWriteException on failure
+     */
+    void setLookupFailed(@NonNull BdtAuthor bdtAuthor,
+                         long time)
+            throws DaoWriteException;
+
+    /**
+     * Remember the given name is not listed on the site.
+     * A listed entry for the same name is never modified.
+     *
+     * @param name   which failed to resolve
+     * @param locale to use
+     * @param time   UTC epoch millis of the failure
+     */
+    void setNotListed(@NonNull String name,
+                      @NonNull Locale locale,
+                      long time);
+
+    /**
+     * Check if there is at least one listed {@link BdtAuthor} in the database whose name
      * starts with the given character.
      * <p>
      * This makes the assumption if there is one, then the whole list-page for that character
@@ -27,6 +27,7 @@ import androidx.annotation.NonNull;
 import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 
 import com.hardbacknutter.nevertoomanybooks.booklist.filters.PFilter;
@@ -150,6 +151,17 @@ public interface BookshelfDao
     @NonNull
     List<Bookshelf> getByBookId(@IntRange(from = 1) long bookId);
 
+    /**
+     * Get the lists of {@link Bookshelf}s for a set of books using a single query.
+     *
+     * @param bookIds of the books
+     *
+     * @return map with the book id as the key; books without any {@link Bookshelf}s
+     *         will not be present in the map.
+     */
+    @NonNull
+    Map<Long, List<Bookshelf>> getByBookIds(@NonNull Collection<Long> bookIds);
+
     /**
      * Insert or update a list of {@link Bookshelf}'s linked to a single {@link Book}.
      * <p>
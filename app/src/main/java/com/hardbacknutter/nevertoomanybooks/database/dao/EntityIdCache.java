@@ -0,0 +1,381 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.database.dao;
+
+import android.database.sqlite.SQLiteTransactionListener;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import com.hardbacknutter.nevertoomanybooks.BuildConfig;
+import com.hardbacknutter.nevertoomanybooks.core.LoggerFactory;
+import com.hardbacknutter.nevertoomanybooks.core.database.SynchronizedDb;
+import com.hardbacknutter.nevertoomanybooks.entities.Entity;
+
+/**
+ * An import-scoped cache mapping the name of an {@link Entity} to its database id.
+ * <p>
+ * While importing, the same few thousand Authors, Series, Publishers and Bookshelves
+ * are resolved by name over and over again for tens of thousands of books.
+ * When a cache is active for the current thread, the DAOs consult it in their
+ * {@code fixId} methods before running their {@code FIND_BY_NAME} query.
+ * <p>
+ * The key is built from the exact arguments passed to the {@code FIND_BY_NAME} query,
+ * i.e. the same key will always produce the same query result
+ * as long as the table did not change in the meantime:
+ * <ul>
+ *     <li>'not found' results are cached as well; they are all dropped
+ *         as soon as a new entity of the same type is inserted.</li>
+ *     <li>an insert adds the new id to the cache.</li>
+ *     <li>an update or delete drops all keys pointing to that id.</li>
+ *     <li>a purge drops all entries for that type.</li>
+ * </ul>
+ * Anything learned during a transaction is kept aside until that transaction commits,
+ * and discarded if it is rolled back. Dropping entries is done immediately.
+ * <p>
+ * The cache is bound to the thread which called {@link #begin(SynchronizedDb)};
+ * other threads never see it.
+ * <pre>{@code
+ *     try (EntityIdCache idCache = EntityIdCache.begin(db)) {
+ *         // loop over the books to import
+ *     }
+ * }</pre>
+ */
+public final class EntityIdCache
+        implements SQLiteTransactionListener, AutoCloseable {
+
+    /** Log tag. */
+    private static final String TAG = "EntityIdCache";
+
+    /** Separates the parts of a key; cannot be present in a normalized name. */
+    private static final String KEY_SEPARATOR = "\u0000";
+
+    private static final ThreadLocal<EntityIdCache> CURRENT = new ThreadLocal<>();
+
+    /** Committed entries; valid as long as the table is not changed. */
+    private final Map<Class<? extends Entity>, Entries> committed = new HashMap<>();
+    /** Entries collected during the current transaction. */
+    private final Map<Class<? extends Entity>, Entries> pending = new HashMap<>();
+
+    @NonNull
+    private final Thread owner;
+    @Nullable
+    private final SynchronizedDb db;
+
+    private boolean inTransaction;
+
+    private int lookupCount;
+    private int hitCount;
+
+    /**
+     * Constructor.
+     *
+     * @param db            to listen to; can be {@code null} for testing
+     * @param inTransaction whether the current thread is already inside a transaction
+     */
+    @VisibleForTesting
+    EntityIdCache(@Nullable final SynchronizedDb db,
+                  final boolean inTransaction) {
+        this.db = db;
+        this.inTransaction = inTransaction;
+        owner = Thread.currentThread();
+    }
+
+    /**
+     * Start a cache for the current thread.
+     * It <strong>must</strong> be closed when the import is done.
+     *
+     * @param db the database the import is using
+     *
+     * @return the new cache
+     *
+     * @throws IllegalStateException if a cache is already active for the current thread
+     */
+    @NonNull
+    public static EntityIdCache begin(@NonNull final SynchronizedDb db) {
+        if (CURRENT.get() != null) {
+            throw new IllegalStateException("already active");
+        }
+        final EntityIdCache idCache = new EntityIdCache(db, db.inTransaction());
+        db.addTransactionListener(idCache);
+        CURRENT.set(idCache);
+        return idCache;
+    }
+
+    /**
+     * Get the cache for the current thread.
+     *
+     * @return cache, or {@code null} if there is none active
+     */
+    @Nullable
+    public static EntityIdCache current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Find the id for the given type and query arguments.
+     * If no cache is active on the current thread, this simply runs the lookup.
+     *
+     * @param type   of the entity
+     * @param args   the arguments for the {@code FIND_BY_NAME} query
+     * @param lookup the function running the query; must return {@code 0} if not found
+     *
+     * @return the id, or {@code 0} if not found
+     */
+    public static long lookup(@NonNull final Class<? extends Entity> type,
+                              @NonNull final String[] args,
+                              @NonNull final ToLongFunction<String[]> lookup) {
+        final EntityIdCache idCache = CURRENT.get();
+        if (idCache == null) {
+            return lookup.applyAsLong(args);
+        }
+        return idCache.findId(type, args, lookup);
+    }
+
+    /**
+     * Notify the cache for the current thread (if any) that a new entity was inserted.
+     *
+     * @param type the type of the entity
+     * @param args supplier for the arguments as the {@code FIND_BY_NAME} query would use them.
+     *             Only called if a cache is active.
+     * @param id   the new id
+     */
+    public static void inserted(@NonNull final Class<? extends Entity> type,
+                                @NonNull final Supplier<String[]> args,
+                                final long id) {
+        final EntityIdCache idCache = CURRENT.get();
+        if (idCache != null) {
+            idCache.put(type, args.get(), id);
+        }
+    }
+
+    /**
+     * Notify the cache for the current thread (if any) that an entity
+     * was updated or deleted.
+     *
+     * @param type the type of the entity
+     * @param id   of the entity
+     */
+    public static void changed(@NonNull final Class<? extends Entity> type,
+                               final long id) {
+        final EntityIdCache idCache = CURRENT.get();
+        if (idCache != null) {
+            idCache.forget(type, id);
+        }
+    }
+
+    /**
+     * Notify the cache for the current thread (if any) that an unknown number
+     * of entities of the given type were deleted.
+     *
+     * @param type the type of the entity
+     */
+    public static void purged(@NonNull final Class<? extends Entity> type) {
+        final EntityIdCache idCache = CURRENT.get();
+        if (idCache != null) {
+            idCache.clear(type);
+        }
+    }
+
+    @NonNull
+    private static String createKey(@NonNull final String[] args) {
+        return String.join(KEY_SEPARATOR, args);
+    }
+
+    @VisibleForTesting
+    long findId(@NonNull final Class<? extends Entity> type,
+                @NonNull final String[] args,
+                @NonNull final ToLongFunction<String[]> lookup) {
+        lookupCount++;
+
+        final String key = createKey(args);
+        final Entries pendingEntries = pending.get(type);
+        if (pendingEntries != null) {
+            final long id = pendingEntries.get(key);
+            if (id >= 0) {
+                hitCount++;
+                return id;
+            }
+        }
+        final Entries committedEntries = committed.get(type);
+        if (committedEntries != null) {
+            final long id = committedEntries.get(key);
+            if (id >= 0) {
+                hitCount++;
+                return id;
+            }
+        }
+
+        final long id = lookup.applyAsLong(args);
+        getEntries(type).put(key, id);
+        return id;
+    }
+
+    @VisibleForTesting
+    void put(@NonNull final Class<? extends Entity> type,
+             @NonNull final String[] args,
+             final long id) {
+        // A new entity can turn any previous 'not found' into a 'found'
+        dropMisses(committed.get(type));
+        dropMisses(pending.get(type));
+
+        getEntries(type).put(createKey(args), id);
+    }
+
+    @VisibleForTesting
+    void forget(@NonNull final Class<? extends Entity> type,
+                final long id) {
+        forget(committed.get(type), id);
+        forget(pending.get(type), id);
+    }
+
+    @VisibleForTesting
+    void clear(@NonNull final Class<? extends Entity> type) {
+        committed.remove(type);
+        pending.remove(type);
+    }
+
+    private void dropMisses(@Nullable final Entries entries) {
+        if (entries != null) {
+            entries.misses.clear();
+        }
+    }
+
+    private void forget(@Nullable final Entries entries,
+                        final long id) {
+        if (entries != null) {
+            entries.ids.values().removeIf(value -> value == id);
+            // The name might have changed to one we previously did not find.
+            entries.misses.clear();
+        }
+    }
+
+    @NonNull
+    private Entries getEntries(@NonNull final Class<? extends Entity> type) {
+        if (inTransaction) {
+            return pending.computeIfAbsent(type, k -> new Entries());
+        } else {
+            return committed.computeIfAbsent(type, k -> new Entries());
+        }
+    }
+
+    /**
+     * Get the number of lookups done through this cache.
+     *
+     * @return count
+     */
+    public int getLookupCount() {
+        return lookupCount;
+    }
+
+    /**
+     * Get the number of lookups which were answered from the cache,
+     * i.e. the number of queries saved.
+     *
+     * @return count
+     */
+    public int getHitCount() {
+        return hitCount;
+    }
+
+    @Override
+    public void onBegin() {
+        if (Thread.currentThread() == owner) {
+            inTransaction = true;
+        }
+    }
+
+    @Override
+    public void onCommit() {
+        if (Thread.currentThread() == owner) {
+            inTransaction = false;
+            pending.forEach((type, entries) -> {
+                final Entries target = committed.computeIfAbsent(type, k -> new Entries());
+                target.ids.putAll(entries.ids);
+                target.misses.addAll(entries.misses);
+            });
+            pending.clear();
+        }
+    }
+
+    @Override
+    public void onRollback() {
+        if (Thread.currentThread() == owner) {
+            inTransaction = false;
+            pending.clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (db != null) {
+            db.removeTransactionListener(this);
+        }
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+
+        if (BuildConfig.DEBUG /* always */) {
+            LoggerFactory.getLogger().d(TAG, "close", "lookups=" + lookupCount,
+                                        "hits=" + hitCount);
+        }
+    }
+
+    private static final class Entries {
+
+        /** Key to id for all found entities. */
+        private final Map<String, Long> ids = new HashMap<>();
+        /** Keys which were not found. */
+        private final Set<String> misses = new HashSet<>();
+
+        /**
+         * Get the cached id.
+         *
+         * @param key to get
+         *
+         * @return the id; {@code 0} for a cached 'not found', or {@code -1} if not cached
+         */
+        long get(@NonNull final String key) {
+            final Long id = ids.get(key);
+            if (id != null) {
+                return id;
+            }
+            return misses.contains(key) ? 0 : -1;
+        }
+
+        void put(@NonNull final String key,
+                 final long id) {
+            if (id > 0) {
+                ids.put(key, id);
+                misses.remove(key);
+            } else {
+                misses.add(key);
+            }
+        }
+    }
+}
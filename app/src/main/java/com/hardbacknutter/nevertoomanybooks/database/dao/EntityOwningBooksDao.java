@@ -28,6 +28,7 @@ import androidx.annotation.NonNull;
 import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.function.Function;
 
 import com.hardbacknutter.nevertoomanybooks.core.database.DaoWriteException;
@@ -83,6 +84,17 @@ public interface EntityOwningBooksDao<T extends Entity> {
     @NonNull
     List<T> getByBookId(@IntRange(from = 1) long bookId);
 
+    /**
+     * Get the lists of {@link T} for a set of books using a single query.
+     *
+     * @param bookIds of the books
+     *
+     * @return map with the book id as the key; books without any {@link T}
+     *         will not be present in the map.
+     */
+    @NonNull
+    Map<Long, List<T>> getByBookIds(@NonNull Collection<Long> bookIds);
+
     /**
      * Insert or update a list of {@link T}'s linked to a single {@link Book}.
      * <p>
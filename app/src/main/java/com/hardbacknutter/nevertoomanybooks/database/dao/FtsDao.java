@@ -53,6 +53,30 @@ public interface FtsDao {
                       @Nullable String keywords,
                       int limit);
 
+    /**
+     * Convert a match clause as created by
+     * {@link com.hardbacknutter.nevertoomanybooks.database.dao.impl.FtsDaoHelper}
+     * to the query syntax of the FTS table in use.
+     *
+     * @param matchClause to convert
+     *
+     * @return the query to use with {@code MATCH}; can be empty
+     */
+    @NonNull
+    String toMatchQuery(@NonNull String matchClause);
+
+    /**
+     * Return a {@link Cursor} with suggestions for the given text,
+     * suited for the {@link android.app.SearchManager}.
+     * With FTS5, the best matches come first.
+     *
+     * @param searchText as entered by the user
+     *
+     * @return a cursor, or {@code null} if the text did not contain anything to search for
+     */
+    @Nullable
+    Cursor getSearchSuggestions(@NonNull String searchText);
+
     /**
      * Rebuild the entire FTS database.
      */
@@ -80,4 +104,11 @@ public interface FtsDao {
      * @param bookId the book id
      */
     void update(@IntRange(from = 1) long bookId);
+
+    /**
+     * Called after books were deleted.
+     * The FTS records are removed by the delete trigger on the books table;
+     * this only discards any cached search results.
+     */
+    void onBooksDeleted();
 }
@@ -24,8 +24,17 @@ import android.content.Context;
 import androidx.annotation.NonNull;
 import androidx.annotation.WorkerThread;
 
+import com.hardbacknutter.nevertoomanybooks.core.tasks.ProgressListener;
+
 public interface MaintenanceDao {
 
+    /**
+     * String preference with the position where an interrupted
+     * {@link #rebuildOrderByTitleColumns(Context, ProgressListener)} will resume.
+     * Removed when the rebuild is finished.
+     */
+    String PK_REBUILD_TITLE_OB_RESUME = "maintenance.rebuild.title.ob.resume";
+
     /**
      * Purge anything that is no longer in use.
      * <p>
@@ -47,9 +56,17 @@ public interface MaintenanceDao {
      * Repopulate all OrderBy columns.
      * Cleans up whitespace and non-ascii characters.
      * Optional reordering or restoring
+     * <p>
+     * The rows are processed in chunks, each written in its own transaction.
+     * After each chunk the position is stored in {@link #PK_REBUILD_TITLE_OB_RESUME},
+     * so that an interrupted (or cancelled) rebuild will resume where it left off.
+     *
+     * @param context          Current context
+     * @param progressListener to report progress to, and to check for cancellation
      *
-     * @param context Current context
+     * @return {@code true} when finished, {@code false} if cancelled
      */
     @WorkerThread
-    void rebuildOrderByTitleColumns(@NonNull Context context);
+    boolean rebuildOrderByTitleColumns(@NonNull Context context,
+                                       @NonNull ProgressListener progressListener);
 }
@@ -28,6 +28,7 @@ import androidx.annotation.WorkerThread;
 import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.function.Function;
 
 import com.hardbacknutter.nevertoomanybooks.core.database.DaoWriteException;
@@ -90,6 +91,17 @@ public interface TocEntryDao
     @NonNull
     List<TocEntry> getByBookId(@IntRange(from = 1) long bookId);
 
+    /**
+     * Get the lists of {@link TocEntry}s for a set of books using a single query.
+     *
+     * @param bookIds of the books
+     *
+     * @return map with the book id as the key; books without any {@link TocEntry}s
+     *         will not be present in the map.
+     */
+    @NonNull
+    Map<Long, List<TocEntry>> getByBookIds(@NonNull Collection<Long> bookIds);
+
     /**
      * Count the {@link TocEntry}'s for the given {@link Author}.
      *
@@ -22,6 +22,7 @@ package com.hardbacknutter.nevertoomanybooks.database.dao.impl;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.text.TextUtils;
 
 import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
@@ -30,12 +31,15 @@ import androidx.annotation.WorkerThread;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
 
 import com.hardbacknutter.nevertoomanybooks.BuildConfig;
+import com.hardbacknutter.nevertoomanybooks.ServiceLocator;
 import com.hardbacknutter.nevertoomanybooks.core.database.DaoInsertException;
 import com.hardbacknutter.nevertoomanybooks.core.database.DaoUpdateException;
 import com.hardbacknutter.nevertoomanybooks.core.database.DaoWriteException;
@@ -46,7 +50,9 @@ import com.hardbacknutter.nevertoomanybooks.core.database.Synchronizer;
 import com.hardbacknutter.nevertoomanybooks.core.database.TransactionException;
 import com.hardbacknutter.nevertoomanybooks.database.CursorRow;
 import com.hardbacknutter.nevertoomanybooks.database.DBKey;
+import com.hardbacknutter.nevertoomanybooks.database.NameIndexes;
 import com.hardbacknutter.nevertoomanybooks.database.dao.AuthorDao;
+import com.hardbacknutter.nevertoomanybooks.database.dao.EntityIdCache;
 import com.hardbacknutter.nevertoomanybooks.entities.Author;
 import com.hardbacknutter.nevertoomanybooks.entities.AuthorMergeHelper;
 import com.hardbacknutter.nevertoomanybooks.entities.AuthorWork;
@@ -160,9 +166,8 @@ public class AuthorDaoImpl
                                        @NonNull final Author author,
                                        @NonNull final Locale locale) {
 
-        try (Cursor cursor = db.rawQuery(Sql.FIND_BY_NAME, new String[]{
-                SqlEncode.orderByColumn(author.getFamilyName(), locale),
-                SqlEncode.orderByColumn(author.getGivenNames(), locale)})) {
+        try (Cursor cursor = db.rawQuery(Sql.FIND_BY_NAME,
+                                         getFindByNameArgs(author, locale))) {
             if (cursor.moveToFirst()) {
                 final CursorRow rowData = new CursorRow(cursor);
                 return Optional.of(new Author(rowData.getLong(DBKey.PK_ID), rowData));
@@ -172,6 +177,22 @@ public class AuthorDaoImpl
         }
     }
 
+    /**
+     * Get the arguments for {@link Sql#FIND_BY_NAME}.
+     *
+     * @param author to find
+     * @param locale to use
+     *
+     * @return arguments
+     */
+    @NonNull
+    private String[] getFindByNameArgs(@NonNull final Author author,
+                                       @NonNull final Locale locale) {
+        return new String[]{
+                SqlEncode.orderByColumn(author.getFamilyName(), locale),
+                SqlEncode.orderByColumn(author.getGivenNames(), locale)};
+    }
+
     @Override
     @NonNull
     public List<String> getNames(@NonNull final String key) {
@@ -207,6 +228,25 @@ public class AuthorDaoImpl
         return list;
     }
 
+    @Override
+    @NonNull
+    public Map<Long, List<Author>> getByBookIds(@NonNull final Collection<Long> bookIds) {
+        final Map<Long, List<Author>> map = new HashMap<>();
+        if (bookIds.isEmpty()) {
+            return map;
+        }
+
+        final String sql = String.format(Sql.FIND_BY_BOOK_IDS, TextUtils.join(",", bookIds));
+        try (Cursor cursor = db.rawQuery(sql, null)) {
+            final CursorRow rowData = new CursorRow(cursor);
+            while (cursor.moveToNext()) {
+                map.computeIfAbsent(rowData.getLong(DBKey.FK_BOOK), k -> new ArrayList<>())
+                   .add(new Author(rowData.getLong(DBKey.PK_ID), rowData));
+            }
+        }
+        return map;
+    }
+
     @Override
     @NonNull
     public List<Long> getBookIds(final long authorId) {
@@ -373,8 +413,9 @@ public class AuthorDaoImpl
     public void fixId(@NonNull final Context context,
                       @NonNull final Author author,
                       @NonNull final Locale locale) {
-        final long found = findByName(context, author, locale)
-                .map(Author::getId).orElse(0L);
+        final long found = EntityIdCache.lookup(Author.class,
+                                                getFindByNameArgs(author, locale),
+                                                args -> findIdByName(Sql.FIND_BY_NAME, args));
         author.setId(found);
 
         final Author realAuthor = author.getRealAuthor();
@@ -493,6 +534,9 @@ public class AuthorDaoImpl
 
             if (iId != -1) {
                 author.setId(iId);
+                EntityIdCache.inserted(Author.class, () -> getFindByNameArgs(author, locale), iId);
+                ServiceLocator.getInstance().getNameIndexes()
+                              .invalidate(NameIndexes.Domain.AUTHOR);
                 insertOrUpdateRealAuthor(context, author, locale);
 
                 if (txLock != null) {
@@ -538,6 +582,9 @@ public class AuthorDaoImpl
             }
 
             if (rowsAffected > 0) {
+                EntityIdCache.changed(Author.class, author.getId());
+                ServiceLocator.getInstance().getNameIndexes()
+                              .invalidate(NameIndexes.Domain.AUTHOR);
                 insertOrUpdateRealAuthor(context, author, locale);
 
                 if (txLock != null) {
@@ -629,6 +676,9 @@ public class AuthorDaoImpl
                 rowsAffected = stmt.executeUpdateDelete();
             }
             if (rowsAffected > 0) {
+                EntityIdCache.changed(Author.class, author.getId());
+                ServiceLocator.getInstance().getNameIndexes()
+                              .invalidate(NameIndexes.Domain.AUTHOR);
                 author.setId(0);
                 fixPositions(context);
 
@@ -732,6 +782,9 @@ public class AuthorDaoImpl
         try (SynchronizedStatement stmt = db.compileStatement(Sql.PURGE)) {
             stmt.executeUpdateDelete();
         }
+        EntityIdCache.purged(Author.class);
+        ServiceLocator.getInstance().getNameIndexes()
+                      .invalidate(NameIndexes.Domain.AUTHOR);
     }
 
     @Override
@@ -893,6 +946,28 @@ public class AuthorDaoImpl
                 + _WHERE_ + TBL_BOOK_AUTHOR.dot(DBKey.FK_BOOK) + "=?"
                 + _ORDER_BY_ + TBL_BOOK_AUTHOR.dot(DBKey.BOOK_AUTHOR_POSITION);
 
+        /**
+         * All {@link Author}s for a set of {@link Book}s; ordered by book.
+         * Must be formatted with a comma separated list of book ids.
+         */
+        static final String FIND_BY_BOOK_IDS =
+                SELECT_DISTINCT_ + TBL_AUTHORS.dotAs(DBKey.PK_ID,
+                                                     DBKey.AUTHOR_FAMILY_NAME,
+                                                     DBKey.AUTHOR_GIVEN_NAMES,
+                                                     DBKey.AUTHOR_IS_COMPLETE)
+                + ',' + TBL_BOOK_AUTHOR.dotAs(DBKey.BOOK_AUTHOR_POSITION,
+                                              DBKey.AUTHOR_TYPE__BITMASK)
+
+                + ',' + TBL_PSEUDONYM_AUTHOR.dotAs(DBKey.AUTHOR_REAL_AUTHOR)
+
+                + ',' + TBL_BOOK_AUTHOR.dotAs(DBKey.FK_BOOK)
+
+                + _FROM_ + TBL_BOOK_AUTHOR.startJoin(TBL_AUTHORS)
+                + TBL_AUTHORS.leftOuterJoin(TBL_PSEUDONYM_AUTHOR)
+                + _WHERE_ + TBL_BOOK_AUTHOR.dot(DBKey.FK_BOOK) + " IN (%s)"
+                + _ORDER_BY_ + TBL_BOOK_AUTHOR.dot(DBKey.FK_BOOK)
+                + ',' + TBL_BOOK_AUTHOR.dot(DBKey.BOOK_AUTHOR_POSITION);
+
         /** All {@link Book}s (id only!) for a given {@link Author}. */
         static final String FIND_BOOK_IDS_BY_AUTHOR_ID =
                 SELECT_ + TBL_BOOK_AUTHOR.dotAs(DBKey.FK_BOOK)
@@ -29,6 +29,7 @@ import java.util.List;
 import com.hardbacknutter.nevertoomanybooks.BuildConfig;
 import com.hardbacknutter.nevertoomanybooks.core.LoggerFactory;
 import com.hardbacknutter.nevertoomanybooks.core.database.SynchronizedDb;
+import com.hardbacknutter.nevertoomanybooks.database.DBKey;
 
 abstract class BaseDaoImpl {
 
@@ -126,4 +127,22 @@ abstract class BaseDaoImpl {
             return list;
         }
     }
+
+    /**
+     * Execute the given 'find by name' SQL, and fetch the id of the first row found.
+     *
+     * @param sql  SQL to execute
+     * @param args the selection arguments
+     *
+     * @return the id, or {@code 0} if not found
+     */
+    long findIdByName(@NonNull final String sql,
+                      @NonNull final String[] args) {
+        try (Cursor cursor = db.rawQuery(sql, args)) {
+            if (cursor.moveToFirst()) {
+                return cursor.getLong(cursor.getColumnIndexOrThrow(DBKey.PK_ID));
+            }
+            return 0;
+        }
+    }
 }
@@ -25,7 +25,9 @@ import android.os.Build;
 
 import androidx.annotation.NonNull;
 
+import java.util.LinkedHashMap;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Supplier;
 
@@ -49,6 +51,31 @@ public class BedethequeCacheDaoImpl
     private static final String ERROR_INSERT_FROM = "Insert from\n";
     private static final String ERROR_UPDATE_FROM = "Update from\n";
 
+    /** The maximum number of lookups kept in {@link #recentLookups}. */
+    private static final int MAX_RECENT_LOOKUPS = 500;
+
+    /**
+     * In-memory front of the database table; all resolver instances share this dao.
+     * Key: the 'order-by' name as used for the lookup. Value: the result, including misses.
+     * <p>
+     * The values are never handed out directly; callers get a copy.
+     */
+    private final Map<String, Optional<BdtAuthor>> recentLookups =
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(
+                        @NonNull final Map.Entry<String, Optional<BdtAuthor>> eldest) {
+                    return size() > MAX_RECENT_LOOKUPS;
+                }
+            };
+
+    /**
+     * Incremented (while holding the {@link #recentLookups} lock) each time entries are
+     * removed from {@link #recentLookups}.
+     * A database read is only stored if no invalidation happened while it was running.
+     */
+    private long generation;
+
     /**
      * Constructor.
      *
@@ -64,14 +91,33 @@ public class BedethequeCacheDaoImpl
                                           @NonNull final Locale locale) {
         final String nameOb = SqlEncode.orderByColumn(name, locale);
 
+        final long readGeneration;
+        synchronized (recentLookups) {
+            final Optional<BdtAuthor> recent = recentLookups.get(nameOb);
+            //noinspection OptionalAssignedToNull
+            if (recent != null) {
+                return recent.map(BdtAuthor::new);
+            }
+            readGeneration = generation;
+        }
+
+        final Optional<BdtAuthor> result;
         try (Cursor cursor = db.rawQuery(Sql.FIND_BY_NAME, new String[]{nameOb, nameOb})) {
             if (cursor.moveToFirst()) {
                 final CursorRow rowData = new CursorRow(cursor);
-                return Optional.of(new BdtAuthor(rowData.getLong(CacheDbHelper.PK_ID), rowData));
+                result = Optional.of(new BdtAuthor(rowData.getLong(CacheDbHelper.PK_ID), rowData));
             } else {
-                return Optional.empty();
+                result = Optional.empty();
             }
         }
+
+        synchronized (recentLookups) {
+            // Don't store a result which might have been read before a concurrent write.
+            if (readGeneration == generation) {
+                recentLookups.put(nameOb, result.map(BdtAuthor::new));
+            }
+        }
+        return result;
     }
 
     @Override
@@ -86,11 +132,21 @@ public class BedethequeCacheDaoImpl
     public void insert(@NonNull final Locale locale,
                        @NonNull final Supplier<BdtAuthor> recordSupplier)
             throws DaoInsertException, DaoUpdateException {
-
-        if (Build.VERSION.SDK_INT < 30) {
-            insertApiPre30(locale, recordSupplier);
-            return;
+        try {
+            if (Build.VERSION.SDK_INT < 30) {
+                insertApiPre30(locale, recordSupplier);
+            } else {
+                insertApi30(locale, recordSupplier);
+            }
+        } finally {
+            // New names can turn previous misses into hits.
+            clearRecentLookups();
         }
+    }
+
+    private void insertApi30(@NonNull final Locale locale,
+                             @NonNull final Supplier<BdtAuthor> recordSupplier)
+            throws DaoInsertException {
 
         BdtAuthor bdtAuthor;
 
@@ -145,6 +201,7 @@ public class BedethequeCacheDaoImpl
 
             final String sqlUpdate = UPDATE_ + CacheDbHelper.TBL_BDT_AUTHORS.getName()
                                      + _SET_ + CacheDbHelper.BDT_AUTHOR_URL + "=?"
+                                     + ',' + CacheDbHelper.BDT_AUTHOR_LOOKUP_FAILED + "=0"
                                      + _WHERE_ + DBKey.PK_ID + "=?";
 
             long iId;
@@ -220,6 +277,7 @@ public class BedethequeCacheDaoImpl
                 if (txLock != null) {
                     db.setTransactionSuccessful();
                 }
+                forget(bdtAuthor.getId());
                 return;
             }
 
@@ -231,6 +289,70 @@ public class BedethequeCacheDaoImpl
         }
     }
 
+    @Override
+    public void setLookupFailed(@NonNull final BdtAuthor bdtAuthor,
+                                final long time)
+            throws DaoUpdateException {
+
+        final int rowsAffected;
+        try (SynchronizedStatement stmt = db.compileStatement(Sql.SET_LOOKUP_FAILED)) {
+            stmt.bindLong(1, time);
+            stmt.bindLong(2, bdtAuthor.getId());
+            rowsAffected = stmt.executeUpdateDelete();
+        }
+        forget(bdtAuthor.getId());
+
+        if (rowsAffected <= 0) {
+            throw new DaoUpdateException(ERROR_UPDATE_FROM + bdtAuthor);
+        }
+    }
+
+    @Override
+    public void setNotListed(@NonNull final String name,
+                             @NonNull final Locale locale,
+                             final long time) {
+
+        final String nameOb = SqlEncode.orderByColumn(name, locale);
+
+        Synchronizer.SyncLock txLock = null;
+        try {
+            if (!db.inTransaction()) {
+                txLock = db.beginTransaction(true);
+            }
+
+            // Only ever touch a negative entry; a listed row keeps its url and state.
+            final int rowsAffected;
+            try (SynchronizedStatement stmt = db.compileStatement(Sql.SET_NOT_LISTED)) {
+                stmt.bindLong(1, time);
+                stmt.bindString(2, nameOb);
+                rowsAffected = stmt.executeUpdateDelete();
+            }
+
+            if (rowsAffected == 0) {
+                // Ignored if the name is (now) listed.
+                try (SynchronizedStatement stmt = db.compileStatement(Sql.INSERT_NOT_LISTED)) {
+                    stmt.bindString(1, name);
+                    stmt.bindString(2, nameOb);
+                    stmt.bindLong(3, time);
+                    stmt.executeInsert();
+                }
+            }
+
+            if (txLock != null) {
+                db.setTransactionSuccessful();
+            }
+        } finally {
+            if (txLock != null) {
+                db.endTransaction(txLock);
+            }
+        }
+
+        synchronized (recentLookups) {
+            generation++;
+            recentLookups.remove(nameOb);
+        }
+    }
+
     @Override
     public boolean isAuthorPageCached(final char c1) {
         try (SynchronizedStatement stmt = db.compileStatement(Sql.IS_PAGE_CACHED)) {
@@ -241,8 +363,7 @@ public class BedethequeCacheDaoImpl
 
     @Override
     public int countAuthors() {
-        try (SynchronizedStatement stmt = db.compileStatement(
-                SELECT_COUNT_FROM_ + CacheDbHelper.TBL_BDT_AUTHORS.getName())) {
+        try (SynchronizedStatement stmt = db.compileStatement(Sql.COUNT_LISTED)) {
             return (int) stmt.simpleQueryForLongOrZero();
         }
     }
@@ -250,6 +371,26 @@ public class BedethequeCacheDaoImpl
     @Override
     public void clearCache() {
         db.execSQL(DELETE_FROM_ + CacheDbHelper.TBL_BDT_AUTHORS.getName());
+        clearRecentLookups();
+    }
+
+    private void clearRecentLookups() {
+        synchronized (recentLookups) {
+            generation++;
+            recentLookups.clear();
+        }
+    }
+
+    /**
+     * Remove all in-memory entries for the given row; i.e. found by either name.
+     *
+     * @param id of the row
+     */
+    private void forget(final long id) {
+        synchronized (recentLookups) {
+            generation++;
+            recentLookups.values().removeIf(v -> v.isPresent() && v.get().getId() == id);
+        }
     }
 
     private static final class Sql {
@@ -266,10 +407,36 @@ public class BedethequeCacheDaoImpl
                 + ',' + CacheDbHelper.BDT_AUTHOR_URL
                 + ") VALUES(?,?,?) ON CONFLICT(" + CacheDbHelper.BDT_AUTHOR_NAME_OB
                 + ") DO UPDATE SET " + CacheDbHelper.BDT_AUTHOR_URL
-                + "=excluded." + CacheDbHelper.BDT_AUTHOR_URL;
+                + "=excluded." + CacheDbHelper.BDT_AUTHOR_URL
+                + ',' + CacheDbHelper.BDT_AUTHOR_LOOKUP_FAILED + "=0";
+
+        /** Negative entry for a name which is not listed on the site. */
+        static final String INSERT_NOT_LISTED =
+                "INSERT OR IGNORE INTO " + CacheDbHelper.TBL_BDT_AUTHORS.getName()
+                + '(' + CacheDbHelper.BDT_AUTHOR_NAME
+                + ',' + CacheDbHelper.BDT_AUTHOR_NAME_OB
+                + ',' + CacheDbHelper.BDT_AUTHOR_URL
+                + ',' + CacheDbHelper.BDT_AUTHOR_LOOKUP_FAILED
+                + ") VALUES(?,?,'',?)";
+
+        static final String SET_LOOKUP_FAILED =
+                UPDATE_ + CacheDbHelper.TBL_BDT_AUTHORS.getName()
+                + _SET_ + CacheDbHelper.BDT_AUTHOR_LOOKUP_FAILED + "=?"
+                + _WHERE_ + CacheDbHelper.PK_ID + "=?";
+
+        static final String SET_NOT_LISTED =
+                UPDATE_ + CacheDbHelper.TBL_BDT_AUTHORS.getName()
+                + _SET_ + CacheDbHelper.BDT_AUTHOR_LOOKUP_FAILED + "=?"
+                + _WHERE_ + CacheDbHelper.BDT_AUTHOR_NAME_OB + "=?"
+                + _AND_ + CacheDbHelper.BDT_AUTHOR_URL + "=''";
+
+        static final String COUNT_LISTED =
+                SELECT_COUNT_FROM_ + CacheDbHelper.TBL_BDT_AUTHORS.getName()
+                + _WHERE_ + CacheDbHelper.BDT_AUTHOR_URL + "<>''";
         static final String IS_PAGE_CACHED =
                 "SELECT DISTINCT 1 FROM " + CacheDbHelper.TBL_BDT_AUTHORS.getName()
-                + _WHERE_ + CacheDbHelper.BDT_AUTHOR_NAME + " LIKE ?";
+                + _WHERE_ + CacheDbHelper.BDT_AUTHOR_NAME + " LIKE ?"
+                + _AND_ + CacheDbHelper.BDT_AUTHOR_URL + "<>''";
         static final String FIND_BY_NAME =
                 SELECT_
                 + CacheDbHelper.PK_ID
@@ -277,6 +444,7 @@ public class BedethequeCacheDaoImpl
                 + ',' + CacheDbHelper.BDT_AUTHOR_IS_RESOLVED
                 + ',' + CacheDbHelper.BDT_AUTHOR_RESOLVED_NAME
                 + ',' + CacheDbHelper.BDT_AUTHOR_URL
+                + ',' + CacheDbHelper.BDT_AUTHOR_LOOKUP_FAILED
                 + _FROM_ + CacheDbHelper.TBL_BDT_AUTHORS.getName()
                 + _WHERE_ + CacheDbHelper.BDT_AUTHOR_NAME_OB + "=?"
                 + _OR_ + CacheDbHelper.BDT_AUTHOR_RESOLVED_NAME_OB + "=?";
@@ -289,6 +457,8 @@ public class BedethequeCacheDaoImpl
                 + ',' + CacheDbHelper.BDT_AUTHOR_IS_RESOLVED + "=?"
                 + ',' + CacheDbHelper.BDT_AUTHOR_RESOLVED_NAME + "=?"
                 + ',' + CacheDbHelper.BDT_AUTHOR_RESOLVED_NAME_OB + "=?"
+                // an update is the result of a successful lookup
+                + ',' + CacheDbHelper.BDT_AUTHOR_LOOKUP_FAILED + "=0"
                 + _WHERE_ + CacheDbHelper.PK_ID + "=?";
     }
 }
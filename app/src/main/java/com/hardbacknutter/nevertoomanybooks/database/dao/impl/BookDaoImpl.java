@@ -57,6 +57,7 @@ import com.hardbacknutter.nevertoomanybooks.core.storage.StorageException;
 import com.hardbacknutter.nevertoomanybooks.core.utils.ISBN;
 import com.hardbacknutter.nevertoomanybooks.covers.CoverStorage;
 import com.hardbacknutter.nevertoomanybooks.database.DBKey;
+import com.hardbacknutter.nevertoomanybooks.database.NameIndexes;
 import com.hardbacknutter.nevertoomanybooks.database.dao.AuthorDao;
 import com.hardbacknutter.nevertoomanybooks.database.dao.BookDao;
 import com.hardbacknutter.nevertoomanybooks.database.dao.BookshelfDao;
@@ -132,6 +133,8 @@ public class BookDaoImpl
     private final Supplier<CoverStorage> coverStorageSupplier;
     @NonNull
     private final Supplier<ReorderHelper> reorderHelperSupplier;
+    @NonNull
+    private final Supplier<NameIndexes> nameIndexesSupplier;
 
     /**
      * Constructor.
@@ -149,6 +152,7 @@ public class BookDaoImpl
      * @param ftsDaoSupplier        deferred supplier for the {@link FtsDao}
      * @param coverStorageSupplier  deferred supplier for the {@link CoverStorage}
      * @param reorderHelperSupplier deferred supplier for the {@link ReorderHelper}
+     * @param nameIndexesSupplier   deferred supplier for the {@link NameIndexes}
      */
     public BookDaoImpl(@NonNull final SynchronizedDb db,
                        @NonNull final Locale systemLocale,
@@ -162,7 +166,8 @@ public class BookDaoImpl
                        @NonNull final Supplier<StripInfoDao> stripInfoDaoSupplier,
                        @NonNull final Supplier<FtsDao> ftsDaoSupplier,
                        @NonNull final Supplier<CoverStorage> coverStorageSupplier,
-                       @NonNull final Supplier<ReorderHelper> reorderHelperSupplier) {
+                       @NonNull final Supplier<ReorderHelper> reorderHelperSupplier,
+                       @NonNull final Supplier<NameIndexes> nameIndexesSupplier) {
         super(db, TAG);
         dateParser = new ISODateParser(systemLocale);
         this.authorDaoSupplier = authorDaoSupplier;
@@ -176,6 +181,7 @@ public class BookDaoImpl
         this.ftsDaoSupplier = ftsDaoSupplier;
         this.coverStorageSupplier = coverStorageSupplier;
         this.reorderHelperSupplier = reorderHelperSupplier;
+        this.nameIndexesSupplier = nameIndexesSupplier;
     }
 
     /**
@@ -280,6 +286,9 @@ public class BookDaoImpl
 
             // and populate the search suggestions table
             ftsDaoSupplier.get().insert(newBookId);
+            if (book.contains(DBKey.LOCATION)) {
+                nameIndexesSupplier.get().invalidate(NameIndexes.Domain.Location);
+            }
 
             // lastly we move the covers from the cache dir to their permanent dir/name
             try {
@@ -363,6 +372,9 @@ public class BookDaoImpl
                 insertBookLinks(context, book, flags);
 
                 ftsDaoSupplier.get().update(book.getId());
+                if (book.contains(DBKey.LOCATION)) {
+                    nameIndexesSupplier.get().invalidate(NameIndexes.Domain.Location);
+                }
 
                 try {
                     bookDaoHelper.persistCovers();
@@ -469,6 +481,12 @@ public class BookDaoImpl
             }
         }
 
+        if (!actuallyDeleted.isEmpty()) {
+            // the delete trigger has removed the FTS rows
+            ftsDaoSupplier.get().onBooksDeleted();
+            // the last book with a given location might be gone
+            nameIndexesSupplier.get().invalidate(NameIndexes.Domain.Location);
+        }
         return actuallyDeleted.size();
     }
 
@@ -23,6 +23,7 @@ import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.text.TextUtils;
 
 import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
@@ -30,8 +31,10 @@ import androidx.preference.PreferenceManager;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Supplier;
 
@@ -50,6 +53,7 @@ import com.hardbacknutter.nevertoomanybooks.core.database.TransactionException;
 import com.hardbacknutter.nevertoomanybooks.database.CursorRow;
 import com.hardbacknutter.nevertoomanybooks.database.DBKey;
 import com.hardbacknutter.nevertoomanybooks.database.dao.BookshelfDao;
+import com.hardbacknutter.nevertoomanybooks.database.dao.EntityIdCache;
 import com.hardbacknutter.nevertoomanybooks.database.dao.StylesHelper;
 import com.hardbacknutter.nevertoomanybooks.entities.Book;
 import com.hardbacknutter.nevertoomanybooks.entities.Bookshelf;
@@ -341,8 +345,9 @@ public class BookshelfDaoImpl
     public void fixId(@NonNull final Context context,
                       @NonNull final Bookshelf bookshelf,
                       @NonNull final Locale locale) {
-        final long found = findByName(context, bookshelf, locale)
-                .map(Bookshelf::getId).orElse(0L);
+        final long found = EntityIdCache.lookup(Bookshelf.class,
+                                                new String[]{bookshelf.getName()},
+                                                args -> findIdByName(Sql.FIND_BY_NAME, args));
         bookshelf.setId(found);
     }
 
@@ -443,6 +448,8 @@ public class BookshelfDaoImpl
 
             if (iId != -1) {
                 bookshelf.setId(iId);
+                EntityIdCache.inserted(Bookshelf.class,
+                                       () -> new String[]{bookshelf.getName()}, iId);
                 storeFilters(context, bookshelf);
 
                 if (txLock != null) {
@@ -491,6 +498,7 @@ public class BookshelfDaoImpl
             }
 
             if (rowsAffected > 0) {
+                EntityIdCache.changed(Bookshelf.class, bookshelf.getId());
                 storeFilters(context, bookshelf);
 
                 if (txLock != null) {
@@ -524,6 +532,7 @@ public class BookshelfDaoImpl
                 rowsAffected = stmt.executeUpdateDelete();
             }
             if (rowsAffected > 0) {
+                EntityIdCache.changed(Bookshelf.class, bookshelf.getId());
                 bookshelf.setId(0);
 
                 if (txLock != null) {
@@ -609,6 +618,25 @@ public class BookshelfDaoImpl
         }
     }
 
+    @Override
+    @NonNull
+    public Map<Long, List<Bookshelf>> getByBookIds(@NonNull final Collection<Long> bookIds) {
+        final Map<Long, List<Bookshelf>> map = new HashMap<>();
+        if (bookIds.isEmpty()) {
+            return map;
+        }
+
+        final String sql = String.format(Sql.FIND_BY_BOOK_IDS, TextUtils.join(",", bookIds));
+        try (Cursor cursor = db.rawQuery(sql, null)) {
+            final CursorRow rowData = new CursorRow(cursor);
+            while (cursor.moveToNext()) {
+                map.computeIfAbsent(rowData.getLong(DBKey.FK_BOOK), k -> new ArrayList<>())
+                   .add(new Bookshelf(rowData.getLong(DBKey.PK_ID), rowData));
+            }
+        }
+        return map;
+    }
+
     private static final class Sql {
         /** Insert a {@link Bookshelf}. */
         static final String INSERT =
@@ -699,6 +727,25 @@ public class BookshelfDaoImpl
                 + _WHERE_ + TBL_BOOK_BOOKSHELF.dot(DBKey.FK_BOOK) + "=?"
                 + _ORDER_BY_ + TBL_BOOKSHELF.dot(DBKey.BOOKSHELF_NAME) + _COLLATION;
 
+        /**
+         * All {@link Bookshelf}s for a set of {@link Book}s; ordered by book.
+         * Must be formatted with a comma separated list of book ids.
+         */
+        static final String FIND_BY_BOOK_IDS =
+                SELECT_DISTINCT_ + TBL_BOOKSHELF.dotAs(DBKey.PK_ID,
+                                                       DBKey.BOOKSHELF_NAME,
+                                                       DBKey.BOOKSHELF_BL_TOP_POS,
+                                                       DBKey.BOOKSHELF_BL_TOP_OFFSET,
+                                                       DBKey.FK_STYLE)
+                + ',' + TBL_BOOKLIST_STYLES.dotAs(DBKey.STYLE_UUID)
+
+                + ',' + TBL_BOOK_BOOKSHELF.dotAs(DBKey.FK_BOOK)
+
+                + _FROM_ + TBL_BOOK_BOOKSHELF.startJoin(TBL_BOOKSHELF, TBL_BOOKLIST_STYLES)
+                + _WHERE_ + TBL_BOOK_BOOKSHELF.dot(DBKey.FK_BOOK) + " IN (%s)"
+                + _ORDER_BY_ + TBL_BOOK_BOOKSHELF.dot(DBKey.FK_BOOK)
+                + ',' + TBL_BOOKSHELF.dot(DBKey.BOOKSHELF_NAME) + _COLLATION;
+
 
         /** All {@link Book}s (id only!) for a given {@link Bookshelf}. */
         static final String FIND_BOOK_IDS_BY_BOOKSHELF_ID =
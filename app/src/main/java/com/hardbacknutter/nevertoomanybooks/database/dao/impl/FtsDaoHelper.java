@@ -23,12 +23,11 @@ package com.hardbacknutter.nevertoomanybooks.database.dao.impl;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import java.text.Normalizer;
 import java.util.List;
 import java.util.Optional;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import com.hardbacknutter.nevertoomanybooks.core.database.TextNormalizer;
 import com.hardbacknutter.nevertoomanybooks.database.DBKey;
 
 /**
@@ -44,16 +43,15 @@ public final class FtsDaoHelper {
      *
      * @see #normalize(CharSequence)
      */
-    private static final Pattern NORMALIZER_PATTERN =
-            Pattern.compile("[^\\p{Alpha}\\d ]");
+    private static final TextNormalizer NORMALIZER = new TextNormalizer(" ");
 
     /**
      * Keep only alpha/digit, space and the '-' characters.
      *
      * @see #prepareSearchText(String, String)
      */
-    private static final Pattern PREPARE_SEARCH_TEXT_PATTERN =
-            Pattern.compile("[^\\p{Alpha}\\d -]");
+    private static final TextNormalizer PREPARE_SEARCH_TEXT_NORMALIZER =
+            new TextNormalizer(" -");
 
     private FtsDaoHelper() {
     }
@@ -82,10 +80,7 @@ public final class FtsDaoHelper {
         }
 
         // Convert the text to pure alpha/digits. We'll use an array to loop over it.
-        final String normalized = Normalizer.normalize(searchText, Normalizer.Form.NFD);
-        final char[] chars = PREPARE_SEARCH_TEXT_PATTERN.matcher(normalized)
-                                                        .replaceAll("")
-                                                        .toCharArray();
+        final char[] chars = PREPARE_SEARCH_TEXT_NORMALIZER.normalize(searchText).toCharArray();
         // Initial position
         int pos = 0;
         // 'previous' character
@@ -176,6 +171,49 @@ public final class FtsDaoHelper {
         return Optional.of(query);
     }
 
+    /**
+     * Convert a match clause as created by {@link #createMatchClause} or
+     * {@link #prepareSearchText(String, String)} to the FTS5 query syntax.
+     * <p>
+     * The two syntaxes are the same, except for the negation:
+     * FTS4 uses a prefix {@code "-word"} while FTS5 uses a binary {@code "a NOT word"}.
+     * Negated words are moved to the end. If there are only negated words,
+     * they are dropped as FTS5 does not support a query which only excludes.
+     *
+     * @param matchClause in FTS4 syntax
+     *
+     * @return the FTS5 query; can be empty
+     */
+    @NonNull
+    static String toFts5(@NonNull final String matchClause) {
+        final StringBuilder include = new StringBuilder();
+        final StringBuilder exclude = new StringBuilder();
+        for (final String word : matchClause.split(" ")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            // "-word" or "column:-word"
+            final int colon = word.indexOf(':');
+            final int minus = word.indexOf('-');
+            if (minus == 0 || minus > 0 && minus == colon + 1) {
+                final String term = word.substring(0, minus) + word.substring(minus + 1);
+                if (!term.isEmpty() && term.charAt(term.length() - 1) != ':') {
+                    exclude.append(" NOT ").append(term);
+                }
+            } else {
+                if (include.length() > 0) {
+                    include.append(' ');
+                }
+                include.append(word);
+            }
+        }
+
+        if (include.length() == 0) {
+            return "";
+        }
+        return include.append(exclude).toString();
+    }
+
     /**
      * Normalize the given text by stripping all non-alpha/digits.
      *
@@ -185,8 +223,7 @@ public final class FtsDaoHelper {
      */
     @NonNull
     static String normalize(@NonNull final CharSequence text) {
-        final String normalized = Normalizer.normalize(text, Normalizer.Form.NFD);
-        return NORMALIZER_PATTERN.matcher(normalized).replaceAll("");
+        return NORMALIZER.normalize(text);
     }
 
     /**
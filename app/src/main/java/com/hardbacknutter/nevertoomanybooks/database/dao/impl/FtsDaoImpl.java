@@ -19,7 +19,9 @@
  */
 package com.hardbacknutter.nevertoomanybooks.database.dao.impl;
 
+import android.app.SearchManager;
 import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
 
 import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
@@ -29,6 +31,7 @@ import androidx.annotation.WorkerThread;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import com.hardbacknutter.nevertoomanybooks.BuildConfig;
 import com.hardbacknutter.nevertoomanybooks.core.LoggerFactory;
@@ -40,6 +43,7 @@ import com.hardbacknutter.nevertoomanybooks.core.database.TransactionException;
 import com.hardbacknutter.nevertoomanybooks.database.CursorRow;
 import com.hardbacknutter.nevertoomanybooks.database.DBDefinitions;
 import com.hardbacknutter.nevertoomanybooks.database.DBKey;
+import com.hardbacknutter.nevertoomanybooks.database.FtsFlavor;
 import com.hardbacknutter.nevertoomanybooks.database.dao.FtsDao;
 import com.hardbacknutter.nevertoomanybooks.database.dao.StylesHelper;
 
@@ -70,9 +74,21 @@ public class FtsDaoImpl
     /** Name of the temporary table used during {@link #rebuild()}. */
     private static final String TMP_TABLE_FOR_REBUILDING = "books_fts_rebuilding";
 
+    /** The maximum number of search suggestions returned. */
+    private static final int MAX_SUGGESTIONS = 50;
+
     @NonNull
     private final Supplier<StylesHelper> stylesHelperSupplier;
 
+    /** The flavor of the current FTS table. Lazy initialized. */
+    @Nullable
+    private volatile FtsFlavor flavor;
+
+    /** Recent results of {@link #search}. */
+    private final FtsResultCache searchCache = new FtsResultCache();
+    /** Recent results of {@link #getSearchSuggestions(String)}. */
+    private final FtsResultCache suggestionsCache = new FtsResultCache();
+
     /**
      * Constructor.
      *
@@ -85,6 +101,51 @@ public class FtsDaoImpl
         this.stylesHelperSupplier = stylesHelperSupplier;
     }
 
+    /**
+     * Create the FTS table using the best {@link FtsFlavor} the device supports.
+     * Called when the database is created or upgraded.
+     * <p>
+     * <strong>WARNING: do NOT use SynchronizedDb here!</strong>
+     *
+     * @param db Underlying database
+     */
+    public static void onCreate(@NonNull final SQLiteDatabase db) {
+        final FtsFlavor ftsFlavor = FtsFlavor.getSupported(db);
+        final String name = TBL_FTS_BOOKS.getName();
+        //IMPORTANT: withDomainConstraints MUST BE false (FTS columns don't use a type/constraints)
+        DBDefinitions.createFtsTableDefinition(name, ftsFlavor).create(db, false);
+        if (ftsFlavor.isFts5()) {
+            db.execSQL(Sql.configureRank(name));
+        }
+    }
+
+    /**
+     * Get the flavor of the current FTS table.
+     *
+     * @return flavor
+     */
+    @NonNull
+    private FtsFlavor getFlavor() {
+        FtsFlavor ftsFlavor = flavor;
+        if (ftsFlavor == null) {
+            try (SynchronizedStatement stmt = db.compileStatement(Sql.GET_CREATE_STATEMENT)) {
+                stmt.bindString(1, TBL_FTS_BOOKS.getName());
+                ftsFlavor = FtsFlavor.fromCreateStatement(stmt.simpleQueryForStringOrNull());
+            }
+            flavor = ftsFlavor;
+        }
+        return ftsFlavor;
+    }
+
+    @Override
+    @NonNull
+    public String toMatchQuery(@NonNull final String matchClause) {
+        if (getFlavor().isFts5()) {
+            return FtsDaoHelper.toFts5(matchClause);
+        }
+        return matchClause;
+    }
+
     /**
      * Bind a string or {@code null} value to a parameter since binding a {@code null}
      * in bindString produces an error.
@@ -129,21 +190,73 @@ public class FtsDaoImpl
                              @Nullable final String keywords,
                              final int limit) {
 
-        final List<Long> result = new ArrayList<>();
+        final String matchClause = FtsDaoHelper
+                .createMatchClause(title, seriesTitle, author, publisherName, keywords)
+                .orElse("");
+        final String query = toMatchQuery(matchClause);
+        if (query.isEmpty()) {
+            return new ArrayList<>();
+        }
 
-        FtsDaoHelper.createMatchClause(title, seriesTitle, author, publisherName, keywords)
-                    .ifPresent(matchClause -> {
-                        try (Cursor cursor = db.rawQuery(Sql.SEARCH, new String[]
-                                {matchClause, String.valueOf(limit)})) {
-                            while (cursor.moveToNext()) {
-                                result.add(cursor.getLong(0));
-                            }
-                        }
-                    });
+        List<Long> result = searchCache.get(matchClause, limit);
+        if (result != null) {
+            return result;
+        }
 
+        final int generation = searchCache.getGeneration();
+        final List<Long> candidates = searchCache.getCandidates(matchClause);
+        result = new ArrayList<>();
+        if (candidates == null || !candidates.isEmpty()) {
+            final String sql = Sql.search(getFlavor().isFts5(), candidates);
+            try (Cursor cursor = db.rawQuery(sql, new String[]
+                    {query, String.valueOf(limit)})) {
+                while (cursor.moveToNext()) {
+                    result.add(cursor.getLong(0));
+                }
+            }
+        }
+        searchCache.put(matchClause, limit, result, generation);
         return result;
     }
 
+    @Override
+    @Nullable
+    public Cursor getSearchSuggestions(@NonNull final String searchText) {
+        final String matchClause = FtsDaoHelper.prepareSearchText(searchText, null);
+        final String query = toMatchQuery(matchClause);
+        if (query.isEmpty()) {
+            return null;
+        }
+
+        final int generation = suggestionsCache.getGeneration();
+        final List<Long> candidates = suggestionsCache.getCandidates(matchClause);
+        if (candidates != null && candidates.isEmpty()) {
+            // a shorter text already found nothing
+            return null;
+        }
+
+        final Cursor cursor = db.rawQuery(Sql.searchSuggestions(getFlavor().isFts5(),
+                                                                candidates),
+                                          new String[]{query,
+                                                       String.valueOf(MAX_SUGGESTIONS)});
+        // The suggestions list is short; remember the ids and rewind for the caller.
+        final List<Long> ids = new ArrayList<>();
+        while (cursor.moveToNext()) {
+            ids.add(cursor.getLong(0));
+        }
+        cursor.moveToPosition(-1);
+        suggestionsCache.put(matchClause, MAX_SUGGESTIONS, ids, generation);
+        return cursor;
+    }
+
+    /**
+     * The FTS table was modified; forget all cached results.
+     */
+    private void clearCache() {
+        searchCache.clear();
+        suggestionsCache.clear();
+    }
+
     @Override
     @WorkerThread
     public void rebuild() {
@@ -153,9 +266,7 @@ public class FtsDaoImpl
             t0 = System.nanoTime();
         }
 
-        final TableDefinition ftsTemp = DBDefinitions
-                .createFtsTableDefinition(TMP_TABLE_FOR_REBUILDING);
-
+        final FtsFlavor ftsFlavor;
         Synchronizer.SyncLock txLock = null;
         //noinspection CheckStyle,OverlyBroadCatchBlock
         try {
@@ -163,8 +274,16 @@ public class FtsDaoImpl
                 txLock = db.beginTransaction(true);
             }
 
+            // It IS safe here to get the underlying database, as we're in a SyncLock.
+            ftsFlavor = FtsFlavor.getSupported(db.getSQLiteDatabase());
+            final TableDefinition ftsTemp = DBDefinitions
+                    .createFtsTableDefinition(TMP_TABLE_FOR_REBUILDING, ftsFlavor);
+
             //IMPORTANT: withDomainConstraints MUST BE false
             db.recreate(ftsTemp, false);
+            if (ftsFlavor.isFts5()) {
+                db.execSQL(Sql.configureRank(TMP_TABLE_FOR_REBUILDING));
+            }
 
             try (Cursor cursor = db.rawQuery(Sql.ALL_BOOKS, null)) {
                 processBooks(cursor, INSERT_INTO_ + TMP_TABLE_FOR_REBUILDING + Sql.INSERT_BODY);
@@ -190,6 +309,8 @@ public class FtsDaoImpl
         db.drop(TBL_FTS_BOOKS.getName());
         db.execSQL("ALTER TABLE " + TMP_TABLE_FOR_REBUILDING
                    + " RENAME TO " + TBL_FTS_BOOKS.getName());
+        flavor = ftsFlavor;
+        clearCache();
 
         if (BuildConfig.DEBUG /* always */) {
             LoggerFactory.getLogger().d(TAG, "rebuild",
@@ -207,6 +328,7 @@ public class FtsDaoImpl
             }
         }
 
+        clearCache();
         //noinspection CheckStyle
         try (Cursor cursor = db.rawQuery(Sql.BOOK_BY_ID, new String[]{String.valueOf(bookId)})) {
             processBooks(cursor, Sql.INSERT);
@@ -226,6 +348,7 @@ public class FtsDaoImpl
             }
         }
 
+        clearCache();
         //noinspection CheckStyle
         try (Cursor cursor = db.rawQuery(Sql.BOOK_BY_ID, new String[]{String.valueOf(bookId)})) {
             processBooks(cursor, Sql.UPDATE);
@@ -236,6 +359,11 @@ public class FtsDaoImpl
         }
     }
 
+    @Override
+    public void onBooksDeleted() {
+        clearCache();
+    }
+
     /**
      * Process the book details from the cursor using the passed fts query.
      * <p>
@@ -465,11 +593,101 @@ public class FtsDaoImpl
                 + _ORDER_BY_ + TBL_BOOK_SERIES.dot(DBKey.BOOK_SERIES_POSITION);
 
         /** Advanced Local-search. */
-        static final String SEARCH =
+        private static final String SEARCH =
                 // FTS_BOOK_ID is the _id into the books table.
                 SELECT_ + DBKey.FTS_BOOK_ID
                 + _FROM_ + TBL_FTS_BOOKS.getName()
                 + _WHERE_ + TBL_FTS_BOOKS.getName()
-                + " MATCH ? LIMIT ?";
+                + " MATCH ?";
+
+        /**
+         * Standard Local-search suggestions.
+         * The text is taken from the books/authors tables as an FTS5 table
+         * might not store it.
+         */
+        private static final String SEARCH_SUGGESTIONS =
+                SELECT_ + TBL_BOOKS.dotAs(DBKey.PK_ID)
+                + ',' + TBL_BOOKS.dot(DBKey.TITLE) + _AS_ + SearchManager.SUGGEST_COLUMN_TEXT_1
+                + ",(" + SELECT_ + TBL_AUTHORS.dot(DBKey.AUTHOR_FAMILY_NAME)
+                + "||CASE WHEN " + TBL_AUTHORS.dot(DBKey.AUTHOR_GIVEN_NAMES) + "=''"
+                + " THEN '' ELSE ', '||" + TBL_AUTHORS.dot(DBKey.AUTHOR_GIVEN_NAMES) + " END"
+                + _FROM_ + TBL_BOOK_AUTHOR.startJoin(TBL_AUTHORS)
+                + _WHERE_ + TBL_BOOK_AUTHOR.dot(DBKey.FK_BOOK) + '=' + TBL_BOOKS.dot(DBKey.PK_ID)
+                + _ORDER_BY_ + TBL_BOOK_AUTHOR.dot(DBKey.BOOK_AUTHOR_POSITION) + " LIMIT 1)"
+                + _AS_ + SearchManager.SUGGEST_COLUMN_TEXT_2
+                + ',' + TBL_BOOKS.dot(DBKey.TITLE)
+                + _AS_ + SearchManager.SUGGEST_COLUMN_INTENT_DATA
+                + _FROM_ + TBL_FTS_BOOKS.getName()
+                + " JOIN " + TBL_BOOKS.ref()
+                + " ON " + TBL_BOOKS.dot(DBKey.PK_ID) + '='
+                + TBL_FTS_BOOKS.getName() + '.' + DBKey.FTS_BOOK_ID
+                + _WHERE_ + TBL_FTS_BOOKS.getName() + " MATCH ?";
+
+        /**
+         * Get the sql for an advanced Local-search.
+         * Parameters: the query, and the limit.
+         *
+         * @param ranked     {@code true} to return the best matches first; FTS5 only
+         * @param candidates (optional) the only book ids to consider
+         *
+         * @return sql
+         */
+        @NonNull
+        static String search(final boolean ranked,
+                             @Nullable final List<Long> candidates) {
+            return SEARCH
+                   + whereIdIn(TBL_FTS_BOOKS.getName() + '.' + DBKey.FTS_BOOK_ID, candidates)
+                   + (ranked ? " ORDER BY rank" : "")
+                   + " LIMIT ?";
+        }
+
+        /**
+         * Get the sql for the Local-search suggestions.
+         * Parameters: the query, and the limit.
+         *
+         * @param ranked     {@code true} to return the best matches first; FTS5 only
+         * @param candidates (optional) the only book ids to consider
+         *
+         * @return sql
+         */
+        @NonNull
+        static String searchSuggestions(final boolean ranked,
+                                        @Nullable final List<Long> candidates) {
+            return SEARCH_SUGGESTIONS
+                   + whereIdIn(TBL_BOOKS.dot(DBKey.PK_ID), candidates)
+                   + (ranked ? " ORDER BY rank" : "")
+                   + " LIMIT ?";
+        }
+
+        @NonNull
+        private static String whereIdIn(@NonNull final String column,
+                                        @Nullable final List<Long> ids) {
+            if (ids == null) {
+                return "";
+            }
+            return " AND " + column + " IN ("
+                   + ids.stream().map(String::valueOf).collect(Collectors.joining(","))
+                   + ')';
+        }
+
+        /** Get the sql used to create a table. */
+        static final String GET_CREATE_STATEMENT =
+                "SELECT sql FROM sqlite_master WHERE type='table' AND name=?";
+
+        /**
+         * Get the sql to set the bm25 column weights on an FTS5 table.
+         * The order MUST match the column order in
+         * {@link DBDefinitions#createFtsTableDefinition(String, FtsFlavor)}.
+         * Title and author matches count most; notes and location the least.
+         *
+         * @param tableName the FTS5 table
+         *
+         * @return sql
+         */
+        @NonNull
+        static String configureRank(@NonNull final String tableName) {
+            return INSERT_INTO_ + tableName + " (" + tableName + ",rank)"
+                   + " VALUES('rank','bm25(10.0, 8.0, 5.0, 2.0, 1.0, 1.0, 2.0, 1.0, 5.0, 3.0)')";
+        }
     }
 }
@@ -0,0 +1,252 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.database.dao.impl;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A small LRU cache of FTS match clauses and the book ids they found.
+ * <p>
+ * When searching as-you-type, each query is usually the previous one with
+ * a few more characters. Such a refined query can only find a subset of the
+ * books found before, so if that previous result was complete (i.e. not cut off
+ * by the limit), the new search only needs to check those candidates.
+ * <p>
+ * The keys are match clauses as created by {@link FtsDaoHelper}, i.e. in FTS4 syntax.
+ * The cache MUST be cleared whenever the FTS table is modified.
+ */
+final class FtsResultCache {
+
+    /** The number of queries we remember. */
+    private static final int MAX_ENTRIES = 16;
+    /**
+     * The maximum number of ids we will hand out as candidates.
+     * They are inlined in the sql; a larger list costs more than the search it avoids.
+     */
+    @VisibleForTesting
+    static final int MAX_CANDIDATES = 200;
+
+    @NonNull
+    private final Map<String, Entry> entries =
+            new LinkedHashMap<>(MAX_ENTRIES, 0.75f, true) {
+                private static final long serialVersionUID = -2867424587398226043L;
+
+                @Override
+                protected boolean removeEldestEntry(
+                        @NonNull final Map.Entry<String, FtsResultCache.Entry> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            };
+
+    /** Incremented each time the cache is cleared. */
+    private int generation;
+
+    /**
+     * Check if the given match clause can only find books which are also found by
+     * the previous clause.
+     * <p>
+     * This is the case when each positive term of the previous clause is implied by
+     * a term of the new clause (the same word, or a longer word for a prefix search,
+     * in the same column), and all negated terms are still present.
+     *
+     * @param matchClause the new clause
+     * @param previous    the clause of an earlier search
+     *
+     * @return {@code true} if the result of the new clause is a subset of the previous one
+     */
+    @VisibleForTesting
+    static boolean isRefinementOf(@NonNull final String matchClause,
+                                  @NonNull final String previous) {
+        final List<Term> terms = Term.parse(matchClause);
+        for (final Term prev : Term.parse(previous)) {
+            if (terms.stream().noneMatch(term -> term.implies(prev))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the cached result for the given match clause.
+     *
+     * @param matchClause to lookup
+     * @param limit       the maximum number of ids wanted
+     *
+     * @return the ids, or {@code null} if the cache cannot answer this query
+     */
+    @Nullable
+    synchronized List<Long> get(@NonNull final String matchClause,
+                                final int limit) {
+        final Entry entry = entries.get(matchClause);
+        if (entry == null || !entry.isComplete() && entry.limit < limit) {
+            return null;
+        }
+        return new ArrayList<>(entry.ids.subList(0, Math.min(limit, entry.ids.size())));
+    }
+
+    /**
+     * Get the smallest complete result of an earlier query which the given
+     * match clause refines. Results with more than {@link #MAX_CANDIDATES} ids
+     * are not used.
+     *
+     * @param matchClause to lookup
+     *
+     * @return the candidate ids, or {@code null} if there are none
+     */
+    @Nullable
+    synchronized List<Long> getCandidates(@NonNull final String matchClause) {
+        List<Long> candidates = null;
+        for (final Map.Entry<String, Entry> me : entries.entrySet()) {
+            final Entry entry = me.getValue();
+            if (entry.isComplete()
+                && entry.ids.size() <= MAX_CANDIDATES
+                && (candidates == null || entry.ids.size() < candidates.size())
+                && isRefinementOf(matchClause, me.getKey())) {
+                candidates = entry.ids;
+            }
+        }
+        return candidates == null ? null : new ArrayList<>(candidates);
+    }
+
+    /**
+     * Get the current generation; to be passed to {@link #put} after running the query.
+     *
+     * @return generation
+     */
+    synchronized int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Store the result of a query.
+     * The result is ignored if the cache was cleared while the query was running.
+     *
+     * @param matchClause the query
+     * @param limit       the limit used for the query
+     * @param ids         the result
+     * @param generation  as returned by {@link #getGeneration()} before the query was run
+     */
+    synchronized void put(@NonNull final String matchClause,
+                          final int limit,
+                          @NonNull final List<Long> ids,
+                          final int generation) {
+        if (generation == this.generation) {
+            entries.put(matchClause, new Entry(new ArrayList<>(ids), limit));
+        }
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        generation++;
+    }
+
+    private static final class Entry {
+
+        @NonNull
+        final List<Long> ids;
+        final int limit;
+
+        Entry(@NonNull final List<Long> ids,
+              final int limit) {
+            this.ids = ids;
+            this.limit = limit;
+        }
+
+        /**
+         * Check if the query found all matching books.
+         *
+         * @return {@code true} if the result was not cut off by the limit
+         */
+        boolean isComplete() {
+            return ids.size() < limit;
+        }
+    }
+
+    /**
+     * A single term of a match clause: {@code "[column:][-]word[*]"}.
+     */
+    private static final class Term {
+
+        @NonNull
+        final String text;
+        @Nullable
+        final String column;
+        @NonNull
+        final String word;
+        final boolean negated;
+        final boolean prefix;
+
+        private Term(@NonNull final String text) {
+            this.text = text;
+            final int colon = text.indexOf(':');
+            column = colon > 0 ? text.substring(0, colon) : null;
+            String w = text.substring(colon + 1);
+            negated = w.startsWith("-");
+            if (negated) {
+                w = w.substring(1);
+            }
+            prefix = w.endsWith("*");
+            if (prefix) {
+                w = w.substring(0, w.length() - 1);
+            }
+            word = w;
+        }
+
+        @NonNull
+        static List<Term> parse(@NonNull final String matchClause) {
+            final List<Term> terms = new ArrayList<>();
+            for (final String text : matchClause.split(" ")) {
+                if (!text.isEmpty()) {
+                    terms.add(new Term(text));
+                }
+            }
+            return terms;
+        }
+
+        /**
+         * Check if every book matching this term also matches the other term.
+         *
+         * @param other term
+         *
+         * @return {@code true} if this term implies the other
+         */
+        boolean implies(@NonNull final Term other) {
+            if (other.negated || negated) {
+                // a longer excluded word excludes less; only accept the exact same term
+                return text.equals(other.text);
+            }
+            if (other.column != null && !other.column.equals(column)) {
+                return false;
+            }
+            if (other.prefix) {
+                return word.startsWith(other.word);
+            } else {
+                return !prefix && word.equals(other.word);
+            }
+        }
+    }
+}
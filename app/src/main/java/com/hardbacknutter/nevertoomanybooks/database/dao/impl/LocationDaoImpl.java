@@ -21,8 +21,10 @@ package com.hardbacknutter.nevertoomanybooks.database.dao.impl;
 
 import androidx.annotation.NonNull;
 
+import com.hardbacknutter.nevertoomanybooks.ServiceLocator;
 import com.hardbacknutter.nevertoomanybooks.core.database.SynchronizedDb;
 import com.hardbacknutter.nevertoomanybooks.database.DBKey;
+import com.hardbacknutter.nevertoomanybooks.database.NameIndexes;
 import com.hardbacknutter.nevertoomanybooks.database.dao.LocationDao;
 
 public class LocationDaoImpl
@@ -40,4 +42,11 @@ public class LocationDaoImpl
     public LocationDaoImpl(@NonNull final SynchronizedDb db) {
         super(db, TAG, DBKey.LOCATION);
     }
+
+    @Override
+    public void rename(@NonNull final String from,
+                       @NonNull final String to) {
+        super.rename(from, to);
+        ServiceLocator.getInstance().getNameIndexes().invalidate(NameIndexes.Domain.Location);
+    }
 }
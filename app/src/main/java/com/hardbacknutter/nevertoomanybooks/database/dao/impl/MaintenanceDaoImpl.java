@@ -19,24 +19,34 @@
  */
 package com.hardbacknutter.nevertoomanybooks.database.dao.impl;
 
-import android.content.ContentValues;
 import android.content.Context;
+import android.content.SharedPreferences;
 import android.database.Cursor;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.WorkerThread;
+import androidx.preference.PreferenceManager;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Supplier;
 
-import com.hardbacknutter.nevertoomanybooks.BuildConfig;
+import com.hardbacknutter.nevertoomanybooks.R;
 import com.hardbacknutter.nevertoomanybooks.core.LoggerFactory;
 import com.hardbacknutter.nevertoomanybooks.core.database.SqlEncode;
 import com.hardbacknutter.nevertoomanybooks.core.database.SynchronizedDb;
+import com.hardbacknutter.nevertoomanybooks.core.database.SynchronizedStatement;
 import com.hardbacknutter.nevertoomanybooks.core.database.Synchronizer;
 import com.hardbacknutter.nevertoomanybooks.core.database.TableDefinition;
-import com.hardbacknutter.nevertoomanybooks.core.database.TransactionException;
+import com.hardbacknutter.nevertoomanybooks.core.tasks.ProgressListener;
 import com.hardbacknutter.nevertoomanybooks.core.utils.LocaleListUtils;
 import com.hardbacknutter.nevertoomanybooks.database.DBKey;
 import com.hardbacknutter.nevertoomanybooks.database.dao.AuthorDao;
@@ -58,6 +68,28 @@ public class MaintenanceDaoImpl
     /** Log tag. */
     private static final String TAG = "MaintenanceDaoImpl";
 
+    /**
+     * The number of rows read, computed and written as a single unit.
+     * Each chunk is written in its own transaction.
+     */
+    private static final int CHUNK_SIZE = 500;
+
+    /** Rows are selected in chunks, in {@link DBKey#PK_ID} order. */
+    private static final String _CHUNK =
+            _WHERE_ + DBKey.PK_ID + ">?"
+            + _ORDER_BY_ + DBKey.PK_ID
+            + " LIMIT " + CHUNK_SIZE;
+
+    /** All Book titles for a rebuild of the {@link DBKey#TITLE_OB} column. */
+    private static final String BOOK_TITLES =
+            // The index of PK_ID, TITLE, TITLE_OB is hardcoded - don't change!
+            SELECT_ + DBKey.PK_ID
+            + ',' + DBKey.TITLE
+            + ',' + DBKey.TITLE_OB
+            + ',' + DBKey.LANGUAGE
+            + _FROM_ + TBL_BOOKS.getName()
+            + _CHUNK;
+
     /** All Series for a rebuild of the {@link DBKey#SERIES_TITLE_OB} column. */
     private static final String SELECT_SERIES_FOR_ORDER_BY_REBUILD =
             // The index of PK_ID, SERIES_TITLE, SERIES_TITLE_OB is hardcoded
@@ -65,7 +97,8 @@ public class MaintenanceDaoImpl
             SELECT_ + DBKey.PK_ID
             + ',' + DBKey.SERIES_TITLE
             + ',' + DBKey.SERIES_TITLE_OB
-            + _FROM_ + TBL_SERIES.getName();
+            + _FROM_ + TBL_SERIES.getName()
+            + _CHUNK;
 
     /** All Publishers for a rebuild of the {@link DBKey#PUBLISHER_NAME_OB} column. */
     private static final String SELECT_PUBLISHERS_FOR_ORDER_BY_REBUILD =
@@ -74,16 +107,8 @@ public class MaintenanceDaoImpl
             SELECT_ + DBKey.PK_ID
             + ',' + DBKey.PUBLISHER_NAME
             + ',' + DBKey.PUBLISHER_NAME_OB
-            + _FROM_ + TBL_PUBLISHERS.getName();
-
-    /** All Book titles for a rebuild of the {@link DBKey#TITLE_OB} column. */
-    private static final String BOOK_TITLES =
-            // The index of PK_ID, TITLE, TITLE_OB is hardcoded - don't change!
-            SELECT_ + DBKey.PK_ID
-            + ',' + DBKey.TITLE
-            + ',' + DBKey.TITLE_OB
-            + ',' + DBKey.LANGUAGE
-            + _FROM_ + TBL_BOOKS.getName();
+            + _FROM_ + TBL_PUBLISHERS.getName()
+            + _CHUNK;
 
     /** All TocEntry titles for a rebuild of the {@link DBKey#TITLE_OB} column. */
     private static final String TOC_ENTRY_TITLES =
@@ -91,7 +116,28 @@ public class MaintenanceDaoImpl
             SELECT_ + DBKey.PK_ID
             + ',' + DBKey.TITLE
             + ',' + DBKey.TITLE_OB
-            + _FROM_ + TBL_TOC_ENTRIES.getName();
+            + _FROM_ + TBL_TOC_ENTRIES.getName()
+            + _CHUNK;
+
+    /**
+     * The steps of the OrderBy rebuild, in the order they are executed.
+     * The index in this array is used as the step number in
+     * {@link MaintenanceDao#PK_REBUILD_TITLE_OB_RESUME}.
+     */
+    private static final ObStep[] OB_STEPS = {
+            // Books use their own language.
+            new ObStep(TBL_BOOKS, DBKey.TITLE_OB, BOOK_TITLES, true),
+            // We should use the locale from the 1st book in the series...
+            // but that is a huge overhead so we use the user-locale directly.
+            new ObStep(TBL_SERIES, DBKey.SERIES_TITLE_OB,
+                       SELECT_SERIES_FOR_ORDER_BY_REBUILD, false),
+            // A publisher is not linked to a Locale, so we use the user-locale directly.
+            new ObStep(TBL_PUBLISHERS, DBKey.PUBLISHER_NAME_OB,
+                       SELECT_PUBLISHERS_FOR_ORDER_BY_REBUILD, false),
+            // We should use primary book or Author Locale...
+            // but that is a huge overhead, so we use the user-locale directly.
+            new ObStep(TBL_TOC_ENTRIES, DBKey.TITLE_OB, TOC_ENTRY_TITLES, false),
+    };
 
     @NonNull
     private final Supplier<AuthorDao> authorDaoSupplier;
@@ -152,54 +198,114 @@ public class MaintenanceDaoImpl
 
     @Override
     @WorkerThread
-    public void rebuildOrderByTitleColumns(@NonNull final Context context) {
+    public boolean rebuildOrderByTitleColumns(@NonNull final Context context,
+                                              @NonNull final ProgressListener progressListener) {
+        final SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(context);
+
+        // Where to start; i.e. resume an interrupted rebuild.
+        int firstStep = 0;
+        long firstId = 0;
+        final String resume = prefs.getString(PK_REBUILD_TITLE_OB_RESUME, null);
+        if (resume != null) {
+            final String[] parts = resume.split(":");
+            try {
+                firstStep = Integer.parseInt(parts[0]);
+                firstId = Long.parseLong(parts[1]);
+            } catch (@NonNull final NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                firstStep = 0;
+                firstId = 0;
+            }
+        }
+
+        int total = 0;
+        for (int step = firstStep; step < OB_STEPS.length; step++) {
+            total += countRows(OB_STEPS[step], step == firstStep ? firstId : 0);
+        }
+        progressListener.setIndeterminate(false);
+        progressListener.setMaxPos(total);
+
         final Locale userLocale = context.getResources().getConfiguration().getLocales().get(0);
         final List<Locale> locales = LocaleListUtils.asList(context);
+        final ReorderHelper reorderHelper = reorderHelperSupplier.get();
+        final int threads = Math.max(1, Math.min(4, Runtime.getRuntime()
+                                                           .availableProcessors() - 1));
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        int updated = 0;
+        try {
+            for (int step = firstStep; step < OB_STEPS.length; step++) {
+                final ObStep obStep = OB_STEPS[step];
+                final ObRebuilder rebuilder = new ObRebuilder(
+                        context, userLocale, locales, reorderHelper, executor, threads);
 
-        // Books
-        String language;
-        Locale bookLocale;
+                try (SynchronizedStatement stmt = db.compileStatement(
+                        UPDATE_ + obStep.table.getName()
+                        + _SET_ + obStep.domainName + "=?"
+                        + _WHERE_ + DBKey.PK_ID + "=?")) {
 
-        Synchronizer.SyncLock txLock = null;
-        try {
-            if (!db.inTransaction()) {
-                txLock = db.beginTransaction(true);
-            }
+                    long lastId = step == firstStep ? firstId : 0;
+                    // Read and compute the first chunk; then loop: read and start computing
+                    // the next chunk on the worker threads while writing the current one.
+                    List<Future<List<ObRow>>> current = rebuilder.submit(obStep, lastId);
+                    while (!current.isEmpty()) {
+                        if (progressListener.isCancelled()) {
+                            return false;
+                        }
+                        final List<ObRow> rows = await(current);
+                        lastId = rows.get(rows.size() - 1).id;
+                        final List<Future<List<ObRow>>> next = rows.size() < CHUNK_SIZE
+                                ? List.of() : rebuilder.submit(obStep, lastId);
 
-            try (Cursor cursor = db.rawQuery(BOOK_TITLES, null)) {
-                final int langIdx = cursor.getColumnIndex(DBKey.LANGUAGE);
-                while (cursor.moveToNext()) {
-                    language = cursor.getString(langIdx);
-                    bookLocale = appLocaleSupplier.get().getLocale(context, language)
-                                                  .orElse(userLocale);
-                    rebuildOrderByTitleColumns(context, bookLocale, locales,
-                                               cursor, TBL_BOOKS, DBKey.TITLE_OB);
-                }
-            }
+                        updated += writeChunk(stmt, rows);
+                        prefs.edit().putString(PK_REBUILD_TITLE_OB_RESUME, step + ":" + lastId)
+                             .apply();
+                        progressListener.publishProgress(rows.size(), context.getString(
+                                R.string.progress_msg_x_updated, updated));
 
-            // We should use the locale from the 1st book in the series...
-            // but that is a huge overhead so we use the user-locale directly.
-            try (Cursor cursor = db.rawQuery(SELECT_SERIES_FOR_ORDER_BY_REBUILD, null)) {
-                while (cursor.moveToNext()) {
-                    rebuildOrderByTitleColumns(context, userLocale, locales,
-                                               cursor, TBL_SERIES, DBKey.SERIES_TITLE_OB);
+                        current = next;
+                    }
                 }
             }
+        } finally {
+            executor.shutdownNow();
+        }
 
-            // A publisher is not linked to a Locale, so we use the user-locale directly.
-            try (Cursor cursor = db.rawQuery(SELECT_PUBLISHERS_FOR_ORDER_BY_REBUILD, null)) {
-                while (cursor.moveToNext()) {
-                    rebuildOrderByTitleColumns(context, userLocale, locales,
-                                               cursor, TBL_PUBLISHERS, DBKey.PUBLISHER_NAME_OB);
-                }
+        prefs.edit().remove(PK_REBUILD_TITLE_OB_RESUME).apply();
+        return true;
+    }
+
+    private int countRows(@NonNull final ObStep obStep,
+                          final long fromId) {
+        try (SynchronizedStatement stmt = db.compileStatement(
+                SELECT_COUNT_FROM_ + obStep.table.getName()
+                + _WHERE_ + DBKey.PK_ID + ">?")) {
+            stmt.bindLong(1, fromId);
+            return (int) stmt.simpleQueryForLongOrZero();
+        }
+    }
+
+    /**
+     * Write a single chunk in its own (short) transaction,
+     * so other threads are not starved while we rebuild.
+     *
+     * @param stmt the UPDATE statement; {@code 1}: the new OrderBy value, {@code 2}: the id
+     * @param rows to write; only rows with a new value are written
+     *
+     * @return the number of rows updated
+     */
+    private int writeChunk(@NonNull final SynchronizedStatement stmt,
+                           @NonNull final List<ObRow> rows) {
+        int count = 0;
+        Synchronizer.SyncLock txLock = null;
+        try {
+            if (!db.inTransaction()) {
+                txLock = db.beginTransaction(true);
             }
 
-            // We should use primary book or Author Locale...
-            // but that is a huge overhead, so we use the user-locale directly.
-            try (Cursor cursor = db.rawQuery(TOC_ENTRY_TITLES, null)) {
-                while (cursor.moveToNext()) {
-                    rebuildOrderByTitleColumns(context, userLocale, locales,
-                                               cursor, TBL_TOC_ENTRIES, DBKey.TITLE_OB);
+            for (final ObRow row : rows) {
+                if (row.orderBy != null) {
+                    stmt.bindString(1, row.orderBy);
+                    stmt.bindLong(2, row.id);
+                    count += stmt.executeUpdateDelete();
                 }
             }
 
@@ -211,46 +317,185 @@ public class MaintenanceDaoImpl
                 db.endTransaction(txLock);
             }
         }
+        return count;
+    }
+
+    @NonNull
+    private static List<ObRow> await(@NonNull final List<Future<List<ObRow>>> futures) {
+        final List<ObRow> rows = new ArrayList<>(CHUNK_SIZE);
+        try {
+            for (final Future<List<ObRow>> future : futures) {
+                rows.addAll(future.get());
+            }
+        } catch (@NonNull final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (@NonNull final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        return rows;
     }
 
     /**
-     * Process a <strong>single row</strong> from the cursor.
-     *
-     * @param context    Current context
-     * @param locale     the locale of the title
-     * @param locales    all user locales to use for parsing
-     * @param cursor     positioned on the row to handle
-     * @param table      to update
-     * @param domainName to update
+     * A table and its OrderBy column to rebuild.
      */
-    @WorkerThread
-    private void rebuildOrderByTitleColumns(@NonNull final Context context,
-                                            @NonNull final Locale locale,
-                                            @NonNull final List<Locale> locales,
-                                            @NonNull final Cursor cursor,
-                                            @NonNull final TableDefinition table,
-                                            @NonNull final String domainName) {
-
-        if (BuildConfig.DEBUG /* always */) {
-            if (!db.inTransaction()) {
-                //noinspection CheckStyle
-                throw new TransactionException(TransactionException.REQUIRED);
-            }
+    private static final class ObStep {
+
+        @NonNull
+        final TableDefinition table;
+        @NonNull
+        final String domainName;
+        /** Selects {@link #CHUNK_SIZE} rows: id, title, current OrderBy [, language]. */
+        @NonNull
+        final String sql;
+        /** Whether the 4th column is the language to use for the row. */
+        final boolean hasLanguage;
+
+        ObStep(@NonNull final TableDefinition table,
+               @NonNull final String domainName,
+               @NonNull final String sql,
+               final boolean hasLanguage) {
+            this.table = table;
+            this.domainName = domainName;
+            this.sql = sql;
+            this.hasLanguage = hasLanguage;
+        }
+    }
+
+    /**
+     * A single row; the new OrderBy value is computed on a worker thread.
+     */
+    private static final class ObRow {
+
+        final long id;
+        @NonNull
+        final String title;
+        @NonNull
+        final String currentOrderBy;
+        @NonNull
+        final Locale locale;
+        /** The new value; or {@code null} if unchanged. */
+        @Nullable
+        String orderBy;
+
+        ObRow(final long id,
+              @NonNull final String title,
+              @NonNull final String currentOrderBy,
+              @NonNull final Locale locale) {
+            this.id = id;
+            this.title = title;
+            this.currentOrderBy = currentOrderBy;
+            this.locale = locale;
+        }
+    }
+
+    /**
+     * Reads chunks of rows on the calling thread, and computes the new OrderBy values
+     * on the worker threads.
+     * <p>
+     * Reading must be done on the calling thread, as the database does not allow
+     * another thread to read while we hold the exclusive lock for writing.
+     * The Locale for each row is resolved while reading, as {@link AppLocale}
+     * lookups are cached per language.
+     */
+    private final class ObRebuilder {
+
+        @NonNull
+        private final Context context;
+        @NonNull
+        private final Locale userLocale;
+        @NonNull
+        private final List<Locale> locales;
+        @NonNull
+        private final ReorderHelper reorderHelper;
+        @NonNull
+        private final ExecutorService executor;
+        private final int threads;
+        /** Cache for the language of a Book to the Locale. */
+        private final Map<String, Locale> localeMap = new HashMap<>();
+
+        ObRebuilder(@NonNull final Context context,
+                    @NonNull final Locale userLocale,
+                    @NonNull final List<Locale> locales,
+                    @NonNull final ReorderHelper reorderHelper,
+                    @NonNull final ExecutorService executor,
+                    final int threads) {
+            this.context = context;
+            this.userLocale = userLocale;
+            this.locales = locales;
+            this.reorderHelper = reorderHelper;
+            this.executor = executor;
+            this.threads = threads;
         }
 
-        final long id = cursor.getLong(0);
-        final String title = cursor.getString(1);
-        final String currentObTitle = cursor.getString(2);
+        /**
+         * Read the next chunk, and submit it for computing.
+         *
+         * @param obStep to process
+         * @param fromId read rows with an id larger than this one
+         *
+         * @return the futures for the slices of the chunk; empty when there are no more rows
+         */
+        @NonNull
+        List<Future<List<ObRow>>> submit(@NonNull final ObStep obStep,
+                                         final long fromId) {
+            final List<ObRow> rows = new ArrayList<>(CHUNK_SIZE);
+            try (Cursor cursor = db.rawQuery(obStep.sql, new String[]{String.valueOf(fromId)})) {
+                while (cursor.moveToNext()) {
+                    final Locale locale;
+                    if (obStep.hasLanguage) {
+                        locale = getLocale(cursor.getString(3));
+                    } else {
+                        locale = userLocale;
+                    }
+                    rows.add(new ObRow(cursor.getLong(0), cursor.getString(1),
+                                       cursor.getString(2), locale));
+                }
+            }
 
-        final String rebuildObTitle = reorderHelperSupplier
-                .get().reorderForSorting(context, title, locale, locales);
+            final List<Future<List<ObRow>>> futures = new ArrayList<>(threads);
+            if (rows.isEmpty()) {
+                return futures;
+            }
+            final int sliceSize = (rows.size() + threads - 1) / threads;
+            for (int start = 0; start < rows.size(); start += sliceSize) {
+                final List<ObRow> slice = rows.subList(start, Math.min(start + sliceSize,
+                                                                       rows.size()));
+                futures.add(executor.submit(() -> compute(slice)));
+            }
+            return futures;
+        }
 
-        // only update the database if actually needed.
-        if (!currentObTitle.equals(rebuildObTitle)) {
-            final ContentValues cv = new ContentValues();
-            cv.put(domainName, SqlEncode.orderByColumn(rebuildObTitle, locale));
-            db.update(table.getName(), cv, DBKey.PK_ID + "=?",
-                      new String[]{String.valueOf(id)});
+        @NonNull
+        private Locale getLocale(@Nullable final String language) {
+            if (language == null || language.isEmpty()) {
+                return userLocale;
+            }
+            Locale locale = localeMap.get(language);
+            if (locale == null) {
+                locale = appLocaleSupplier.get().getLocale(context, language)
+                                          .orElse(userLocale);
+                localeMap.put(language, locale);
+            }
+            return locale;
+        }
+
+        @NonNull
+        private List<ObRow> compute(@NonNull final List<ObRow> slice) {
+            for (final ObRow row : slice) {
+                final String rebuilt = reorderHelper.reorderForSorting(
+                        context, row.title, row.locale, locales);
+                final String orderBy = SqlEncode.orderByColumn(rebuilt, row.locale);
+                // only update the database if actually needed.
+                if (!row.currentOrderBy.equals(orderBy)) {
+                    row.orderBy = orderBy;
+                }
+            }
+            return slice;
         }
     }
 }
@@ -21,6 +21,7 @@ package com.hardbacknutter.nevertoomanybooks.database.dao.impl;
 
 import android.content.Context;
 import android.database.Cursor;
+import android.text.TextUtils;
 
 import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
@@ -28,8 +29,10 @@ import androidx.annotation.WorkerThread;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -47,6 +50,8 @@ import com.hardbacknutter.nevertoomanybooks.core.database.TransactionException;
 import com.hardbacknutter.nevertoomanybooks.core.utils.LocaleListUtils;
 import com.hardbacknutter.nevertoomanybooks.database.CursorRow;
 import com.hardbacknutter.nevertoomanybooks.database.DBKey;
+import com.hardbacknutter.nevertoomanybooks.database.NameIndexes;
+import com.hardbacknutter.nevertoomanybooks.database.dao.EntityIdCache;
 import com.hardbacknutter.nevertoomanybooks.database.dao.PublisherDao;
 import com.hardbacknutter.nevertoomanybooks.entities.Book;
 import com.hardbacknutter.nevertoomanybooks.entities.Publisher;
@@ -98,13 +103,8 @@ public class PublisherDaoImpl
                                           @NonNull final Publisher publisher,
                                           @NonNull final Locale locale) {
 
-        final ReorderHelper reorderHelper = reorderHelperSupplier.get();
-        final String text = publisher.getName();
-        final String obName = reorderHelper.reorderForSorting(context, text, locale);
-
-        try (Cursor cursor = db.rawQuery(Sql.FIND_BY_NAME, new String[]{
-                SqlEncode.orderByColumn(publisher.getName(), locale),
-                SqlEncode.orderByColumn(obName, locale)})) {
+        try (Cursor cursor = db.rawQuery(Sql.FIND_BY_NAME,
+                                         getFindByNameArgs(context, publisher, locale))) {
             if (cursor.moveToFirst()) {
                 final CursorRow rowData = new CursorRow(cursor);
                 return Optional.of(new Publisher(rowData.getLong(DBKey.PK_ID), rowData));
@@ -114,6 +114,28 @@ public class PublisherDaoImpl
         }
     }
 
+    /**
+     * Get the arguments for {@link Sql#FIND_BY_NAME}.
+     *
+     * @param context Current context
+     * @param publisher to find
+     * @param locale  to use
+     *
+     * @return arguments
+     */
+    @NonNull
+    private String[] getFindByNameArgs(@NonNull final Context context,
+                                       @NonNull final Publisher publisher,
+                                       @NonNull final Locale locale) {
+        final ReorderHelper reorderHelper = reorderHelperSupplier.get();
+        final String text = publisher.getName();
+        final String obName = reorderHelper.reorderForSorting(context, text, locale);
+
+        return new String[]{
+                SqlEncode.orderByColumn(text, locale),
+                SqlEncode.orderByColumn(obName, locale)};
+    }
+
     @Override
     @NonNull
     public List<String> getNames() {
@@ -134,6 +156,25 @@ public class PublisherDaoImpl
         return list;
     }
 
+    @Override
+    @NonNull
+    public Map<Long, List<Publisher>> getByBookIds(@NonNull final Collection<Long> bookIds) {
+        final Map<Long, List<Publisher>> map = new HashMap<>();
+        if (bookIds.isEmpty()) {
+            return map;
+        }
+
+        final String sql = String.format(Sql.FIND_BY_BOOK_IDS, TextUtils.join(",", bookIds));
+        try (Cursor cursor = db.rawQuery(sql, null)) {
+            final CursorRow rowData = new CursorRow(cursor);
+            while (cursor.moveToNext()) {
+                map.computeIfAbsent(rowData.getLong(DBKey.FK_BOOK), k -> new ArrayList<>())
+                   .add(new Publisher(rowData.getLong(DBKey.PK_ID), rowData));
+            }
+        }
+        return map;
+    }
+
     @Override
     @NonNull
     public List<Long> getBookIds(final long publisherId) {
@@ -198,8 +239,9 @@ public class PublisherDaoImpl
     public void fixId(@NonNull final Context context,
                       @NonNull final Publisher publisher,
                       @NonNull final Locale locale) {
-        final long found = findByName(context, publisher, locale)
-                .map(Publisher::getId).orElse(0L);
+        final long found = EntityIdCache.lookup(Publisher.class,
+                                                getFindByNameArgs(context, publisher, locale),
+                                                args -> findIdByName(Sql.FIND_BY_NAME, args));
         publisher.setId(found);
     }
 
@@ -308,6 +350,10 @@ public class PublisherDaoImpl
 
         if (iId != -1) {
             publisher.setId(iId);
+            EntityIdCache.inserted(Publisher.class,
+                                   () -> getFindByNameArgs(context, publisher, locale), iId);
+            ServiceLocator.getInstance().getNameIndexes()
+                          .invalidate(NameIndexes.Domain.PublisherName);
             return iId;
         }
 
@@ -335,6 +381,9 @@ public class PublisherDaoImpl
         }
 
         if (rowsAffected > 0) {
+            EntityIdCache.changed(Publisher.class, publisher.getId());
+            ServiceLocator.getInstance().getNameIndexes()
+                          .invalidate(NameIndexes.Domain.PublisherName);
             return;
         }
 
@@ -356,6 +405,9 @@ public class PublisherDaoImpl
                 rowsAffected = stmt.executeUpdateDelete();
             }
             if (rowsAffected > 0) {
+                EntityIdCache.changed(Publisher.class, publisher.getId());
+                ServiceLocator.getInstance().getNameIndexes()
+                              .invalidate(NameIndexes.Domain.PublisherName);
                 publisher.setId(0);
                 fixPositions(context);
 
@@ -430,6 +482,9 @@ public class PublisherDaoImpl
         try (SynchronizedStatement stmt = db.compileStatement(Sql.PURGE)) {
             stmt.executeUpdateDelete();
         }
+        EntityIdCache.purged(Publisher.class);
+        ServiceLocator.getInstance().getNameIndexes()
+                      .invalidate(NameIndexes.Domain.PublisherName);
     }
 
     @Override
@@ -548,6 +603,23 @@ public class PublisherDaoImpl
                 + _WHERE_ + TBL_BOOK_PUBLISHER.dot(DBKey.FK_BOOK) + "=?"
                 + _ORDER_BY_ + TBL_BOOK_PUBLISHER.dot(DBKey.BOOK_PUBLISHER_POSITION);
 
+        /**
+         * All {@link Publisher}s for a set of {@link Book}s; ordered by book.
+         * Must be formatted with a comma separated list of book ids.
+         */
+        static final String FIND_BY_BOOK_IDS =
+                SELECT_DISTINCT_ + TBL_PUBLISHERS.dotAs(DBKey.PK_ID,
+                                                        DBKey.PUBLISHER_NAME,
+                                                        DBKey.PUBLISHER_NAME_OB)
+                + ',' + TBL_BOOK_PUBLISHER.dotAs(DBKey.BOOK_PUBLISHER_POSITION)
+
+                + ',' + TBL_BOOK_PUBLISHER.dotAs(DBKey.FK_BOOK)
+
+                + _FROM_ + TBL_BOOK_PUBLISHER.startJoin(TBL_PUBLISHERS)
+                + _WHERE_ + TBL_BOOK_PUBLISHER.dot(DBKey.FK_BOOK) + " IN (%s)"
+                + _ORDER_BY_ + TBL_BOOK_PUBLISHER.dot(DBKey.FK_BOOK)
+                + ',' + TBL_BOOK_PUBLISHER.dot(DBKey.BOOK_PUBLISHER_POSITION);
+
         /** All {@link Book}s (id only!) for a given {@link Publisher}. */
         static final String FIND_BOOK_IDS_BY_PUBLISHER_ID =
                 SELECT_ + TBL_BOOK_PUBLISHER.dotAs(DBKey.FK_BOOK)
@@ -21,6 +21,7 @@ package com.hardbacknutter.nevertoomanybooks.database.dao.impl;
 
 import android.content.Context;
 import android.database.Cursor;
+import android.text.TextUtils;
 
 import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
@@ -28,8 +29,10 @@ import androidx.annotation.WorkerThread;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -47,6 +50,8 @@ import com.hardbacknutter.nevertoomanybooks.core.database.TransactionException;
 import com.hardbacknutter.nevertoomanybooks.core.utils.LocaleListUtils;
 import com.hardbacknutter.nevertoomanybooks.database.CursorRow;
 import com.hardbacknutter.nevertoomanybooks.database.DBKey;
+import com.hardbacknutter.nevertoomanybooks.database.NameIndexes;
+import com.hardbacknutter.nevertoomanybooks.database.dao.EntityIdCache;
 import com.hardbacknutter.nevertoomanybooks.database.dao.SeriesDao;
 import com.hardbacknutter.nevertoomanybooks.entities.Book;
 import com.hardbacknutter.nevertoomanybooks.entities.Series;
@@ -99,13 +104,8 @@ public class SeriesDaoImpl
                                        @NonNull final Series series,
                                        @NonNull final Locale locale) {
 
-        final ReorderHelper reorderHelper = reorderHelperSupplier.get();
-        final String text = series.getTitle();
-        final String obTitle = reorderHelper.reorderForSorting(context, text, locale);
-
-        try (Cursor cursor = db.rawQuery(Sql.FIND_BY_NAME, new String[]{
-                SqlEncode.orderByColumn(series.getTitle(), locale),
-                SqlEncode.orderByColumn(obTitle, locale)})) {
+        try (Cursor cursor = db.rawQuery(Sql.FIND_BY_NAME,
+                                         getFindByNameArgs(context, series, locale))) {
             if (cursor.moveToFirst()) {
                 final CursorRow rowData = new CursorRow(cursor);
                 return Optional.of(new Series(rowData.getLong(DBKey.PK_ID), rowData));
@@ -115,6 +115,28 @@ public class SeriesDaoImpl
         }
     }
 
+    /**
+     * Get the arguments for {@link Sql#FIND_BY_NAME}.
+     *
+     * @param context Current context
+     * @param series  to find
+     * @param locale  to use
+     *
+     * @return arguments
+     */
+    @NonNull
+    private String[] getFindByNameArgs(@NonNull final Context context,
+                                       @NonNull final Series series,
+                                       @NonNull final Locale locale) {
+        final ReorderHelper reorderHelper = reorderHelperSupplier.get();
+        final String text = series.getTitle();
+        final String obTitle = reorderHelper.reorderForSorting(context, text, locale);
+
+        return new String[]{
+                SqlEncode.orderByColumn(text, locale),
+                SqlEncode.orderByColumn(obTitle, locale)};
+    }
+
     @Override
     @NonNull
     public List<String> getNames() {
@@ -135,6 +157,25 @@ public class SeriesDaoImpl
         return list;
     }
 
+    @Override
+    @NonNull
+    public Map<Long, List<Series>> getByBookIds(@NonNull final Collection<Long> bookIds) {
+        final Map<Long, List<Series>> map = new HashMap<>();
+        if (bookIds.isEmpty()) {
+            return map;
+        }
+
+        final String sql = String.format(Sql.FIND_BY_BOOK_IDS, TextUtils.join(",", bookIds));
+        try (Cursor cursor = db.rawQuery(sql, null)) {
+            final CursorRow rowData = new CursorRow(cursor);
+            while (cursor.moveToNext()) {
+                map.computeIfAbsent(rowData.getLong(DBKey.FK_BOOK), k -> new ArrayList<>())
+                   .add(new Series(rowData.getLong(DBKey.PK_ID), rowData));
+            }
+        }
+        return map;
+    }
+
     @Override
     @NonNull
     public String getLanguage(@IntRange(from = 1) final long id) {
@@ -247,8 +288,9 @@ public class SeriesDaoImpl
     public void fixId(@NonNull final Context context,
                       @NonNull final Series series,
                       @NonNull final Locale locale) {
-        final long found = findByName(context, series, locale)
-                .map(Series::getId).orElse(0L);
+        final long found = EntityIdCache.lookup(Series.class,
+                                                getFindByNameArgs(context, series, locale),
+                                                args -> findIdByName(Sql.FIND_BY_NAME, args));
         series.setId(found);
     }
 
@@ -361,6 +403,10 @@ public class SeriesDaoImpl
 
         if (iId != -1) {
             series.setId(iId);
+            EntityIdCache.inserted(Series.class,
+                                   () -> getFindByNameArgs(context, series, locale), iId);
+            ServiceLocator.getInstance().getNameIndexes()
+                          .invalidate(NameIndexes.Domain.SeriesTitle);
             return iId;
         }
 
@@ -392,6 +438,9 @@ public class SeriesDaoImpl
         }
 
         if (rowsAffected > 0) {
+            EntityIdCache.changed(Series.class, series.getId());
+            ServiceLocator.getInstance().getNameIndexes()
+                          .invalidate(NameIndexes.Domain.SeriesTitle);
             return;
         }
 
@@ -413,6 +462,9 @@ public class SeriesDaoImpl
                 rowsAffected = stmt.executeUpdateDelete();
             }
             if (rowsAffected > 0) {
+                EntityIdCache.changed(Series.class, series.getId());
+                ServiceLocator.getInstance().getNameIndexes()
+                              .invalidate(NameIndexes.Domain.SeriesTitle);
                 series.setId(0);
                 fixPositions(context);
 
@@ -488,6 +540,9 @@ public class SeriesDaoImpl
         try (SynchronizedStatement stmt = db.compileStatement(Sql.PURGE)) {
             stmt.executeUpdateDelete();
         }
+        EntityIdCache.purged(Series.class);
+        ServiceLocator.getInstance().getNameIndexes()
+                      .invalidate(NameIndexes.Domain.SeriesTitle);
     }
 
     @Override
@@ -614,6 +669,25 @@ public class SeriesDaoImpl
                 + _WHERE_ + TBL_BOOK_SERIES.dot(DBKey.FK_BOOK) + "=?"
                 + _ORDER_BY_ + TBL_BOOK_SERIES.dot(DBKey.BOOK_SERIES_POSITION);
 
+        /**
+         * All {@link Series}s for a set of {@link Book}s; ordered by book.
+         * Must be formatted with a comma separated list of book ids.
+         */
+        static final String FIND_BY_BOOK_IDS =
+                SELECT_DISTINCT_ + TBL_SERIES.dotAs(DBKey.PK_ID,
+                                                    DBKey.SERIES_TITLE,
+                                                    DBKey.SERIES_TITLE_OB,
+                                                    DBKey.SERIES_IS_COMPLETE)
+                + ',' + TBL_BOOK_SERIES.dotAs(DBKey.SERIES_BOOK_NUMBER,
+                                              DBKey.BOOK_SERIES_POSITION)
+
+                + ',' + TBL_BOOK_SERIES.dotAs(DBKey.FK_BOOK)
+
+                + _FROM_ + TBL_BOOK_SERIES.startJoin(TBL_SERIES)
+                + _WHERE_ + TBL_BOOK_SERIES.dot(DBKey.FK_BOOK) + " IN (%s)"
+                + _ORDER_BY_ + TBL_BOOK_SERIES.dot(DBKey.FK_BOOK)
+                + ',' + TBL_BOOK_SERIES.dot(DBKey.BOOK_SERIES_POSITION);
+
 
         /** All {@link Book}s (id only) for a given {@link Series}. */
         static final String FIND_BOOK_IDS_BY_SERIES_ID =
@@ -22,6 +22,7 @@ package com.hardbacknutter.nevertoomanybooks.database.dao.impl;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteConstraintException;
+import android.text.TextUtils;
 
 import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
@@ -29,8 +30,10 @@ import androidx.annotation.WorkerThread;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -233,6 +236,25 @@ public class TocEntryDaoImpl
         return list;
     }
 
+    @Override
+    @NonNull
+    public Map<Long, List<TocEntry>> getByBookIds(@NonNull final Collection<Long> bookIds) {
+        final Map<Long, List<TocEntry>> map = new HashMap<>();
+        if (bookIds.isEmpty()) {
+            return map;
+        }
+
+        final String sql = String.format(Sql.FIND_BY_BOOK_IDS, TextUtils.join(",", bookIds));
+        try (Cursor cursor = db.rawQuery(sql, null)) {
+            final CursorRow rowData = new CursorRow(cursor);
+            while (cursor.moveToNext()) {
+                map.computeIfAbsent(rowData.getLong(DBKey.FK_BOOK), k -> new ArrayList<>())
+                   .add(new TocEntry(rowData.getLong(DBKey.PK_ID), rowData));
+            }
+        }
+        return map;
+    }
+
     @Override
     @NonNull
     public List<Long> getBookIds(final long tocId) {
@@ -580,6 +602,21 @@ public class TocEntryDaoImpl
                 + _WHERE_ + TBL_BOOK_TOC_ENTRIES.dot(DBKey.FK_BOOK) + "=?"
                 + _ORDER_BY_ + TBL_BOOK_TOC_ENTRIES.dot(DBKey.BOOK_TOC_ENTRY_POSITION);
 
+        /**
+         * All {@link TocEntry}s for a set of {@link Book}s; ordered by book.
+         * Must be formatted with a comma separated list of book ids.
+         */
+        static final String FIND_BY_BOOK_IDS =
+                SELECT_ + TOC_FULL_SET_OF_COLUMNS
+                + ',' + TBL_BOOK_TOC_ENTRIES.dotAs(DBKey.FK_BOOK)
+                + _FROM_
+                // start the join with the books!
+                + TBL_TOC_ENTRIES.startJoin(TBL_BOOK_TOC_ENTRIES)
+                + TBL_TOC_ENTRIES.join(TBL_AUTHORS)
+                + _WHERE_ + TBL_BOOK_TOC_ENTRIES.dot(DBKey.FK_BOOK) + " IN (%s)"
+                + _ORDER_BY_ + TBL_BOOK_TOC_ENTRIES.dot(DBKey.FK_BOOK)
+                + ',' + TBL_BOOK_TOC_ENTRIES.dot(DBKey.BOOK_TOC_ENTRY_POSITION);
+
 
         /** All Book id's for a given {@link TocEntry}. */
         static final String FIND_BOOK_IDS_BY_TOC_ENTRY_ID =
@@ -25,18 +25,17 @@ import androidx.annotation.NonNull;
 import androidx.annotation.UiThread;
 import androidx.annotation.WorkerThread;
 
-import java.util.regex.Pattern;
-
 import com.hardbacknutter.nevertoomanybooks.R;
 import com.hardbacknutter.nevertoomanybooks.ServiceLocator;
 import com.hardbacknutter.nevertoomanybooks.StartupViewModel;
-import com.hardbacknutter.nevertoomanybooks.core.storage.StorageException;
 import com.hardbacknutter.nevertoomanybooks.core.tasks.LTask;
 import com.hardbacknutter.nevertoomanybooks.core.tasks.TaskListener;
-import com.hardbacknutter.nevertoomanybooks.tasks.TaskFileUtils;
 
 /**
  * Run 'PRAGMA optimize' on our databases.
+ * <p>
+ * The temporary cover files are deleted by the
+ * {@link com.hardbacknutter.nevertoomanybooks.tasks.CleanTempCoversTask}.
  */
 public class OptimizeDbTask
         extends LTask<Boolean>
@@ -61,24 +60,15 @@ public class OptimizeDbTask
         execute();
     }
 
-    @SuppressWarnings("OverlyBroadThrowsClause")
     @NonNull
     @Override
     @WorkerThread
-    protected Boolean doWork()
-            throws StorageException {
+    protected Boolean doWork() {
         final ServiceLocator serviceLocator = ServiceLocator.getInstance();
         final Context context = serviceLocator.getLocalizedAppContext();
 
         publishProgress(1, context.getString(R.string.progress_msg_optimizing));
 
-        // Cleanup temp files. Out of precaution we only trash ".jpg", ".jpg.1", ... files
-        final Pattern p = Pattern.compile(".+\\.jpg\\d*|.+\\.jpg\\.\\d*",
-                                          Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
-        TaskFileUtils.deleteDirectory(serviceLocator.getCoverStorage().getTempDir(),
-                                      file -> p.matcher(file.getName()).matches(),
-                                      this);
-
         serviceLocator.getDb().optimize();
         serviceLocator.getCacheDb().optimize();
 
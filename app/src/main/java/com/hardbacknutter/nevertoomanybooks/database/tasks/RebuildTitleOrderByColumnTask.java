@@ -33,6 +33,8 @@ import com.hardbacknutter.nevertoomanybooks.core.tasks.TaskListener;
 
 /**
  * Rebuild all OrderBy columns. Can take several seconds.
+ * <p>
+ * If the app is stopped while running, the rebuild will resume at the next startup.
  */
 public class RebuildTitleOrderByColumnTask
         extends LTask<Boolean>
@@ -66,13 +68,19 @@ public class RebuildTitleOrderByColumnTask
         // incorrect progress message, but it's half-true.
         publishProgress(1, context.getString(R.string.progress_msg_rebuilding_search_index));
 
+        boolean finished = false;
         try {
-            ServiceLocator.getInstance().getMaintenanceDao().rebuildOrderByTitleColumns(context);
-            return true;
+            finished = ServiceLocator.getInstance().getMaintenanceDao()
+                                     .rebuildOrderByTitleColumns(context, this);
+            return finished;
 
         } finally {
-            // regardless of result, always disable as we do not want to rebuild/fail/rebuild...
-            StartupViewModel.schedule(context, StartupViewModel.PK_REBUILD_TITLE_OB, false);
+            // When cancelled, keep the flag so we resume at the next startup.
+            // Otherwise, regardless of result, always disable as we do not
+            // want to rebuild/fail/rebuild...
+            if (finished || !isCancelled()) {
+                StartupViewModel.schedule(context, StartupViewModel.PK_REBUILD_TITLE_OB, false);
+            }
         }
     }
 }
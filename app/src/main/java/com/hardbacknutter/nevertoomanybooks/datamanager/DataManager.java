@@ -57,7 +57,13 @@ import com.hardbacknutter.nevertoomanybooks.entities.DataHolder;
  * It's basically an extended Bundle with support for Money and Bit types,
  * parsing, easier list handling, nullability...
  * <p>
- * The actual data is stored in a single member variable {@link #rawData}.
+ * The actual data is stored in a single member variable {@link #rawData}
+ * which is a typed, array-backed {@link FieldStore}.
+ * Primitive values are kept unboxed, and the getters for them avoid the
+ * generic parser path when the stored type already matches.
+ * <p>
+ * When parcelled, the data is written/read as a {@link Bundle} so the
+ * parcel format is unchanged.
  */
 public class DataManager
         implements DataHolder, Parcelable {
@@ -84,26 +90,82 @@ public class DataManager
 
     /** Raw data storage. */
     @NonNull
-    private final Bundle rawData;
+    private final FieldStore rawData = new FieldStore();
+
+    /**
+     * Constructor.
+     */
+    protected DataManager() {
+    }
 
     /**
      * Constructor. Loads the data <strong>without</strong> type checks.
      *
-     * @param rawData to use as-is
+     * @param rawData to copy
      */
     protected DataManager(@NonNull final Bundle rawData) {
-        this.rawData = rawData;
+        copyFrom(rawData);
     }
 
     protected DataManager(@NonNull final Parcel in) {
-        //noinspection DataFlowIssue
-        rawData = in.readBundle(getClass().getClassLoader());
+        final Bundle bundle = in.readBundle(getClass().getClassLoader());
+        if (bundle != null) {
+            copyFrom(bundle);
+        }
     }
 
     @Override
     public void writeToParcel(@NonNull final Parcel dest,
                               final int flags) {
-        dest.writeBundle(rawData);
+        dest.writeBundle(toBundle());
+    }
+
+    private void copyFrom(@NonNull final Bundle bundle) {
+        for (final String key : bundle.keySet()) {
+            rawData.put(key, bundle.get(key));
+        }
+    }
+
+    /**
+     * Copy the data to a new {@link Bundle}; used for parcelling.
+     *
+     * @return new Bundle
+     */
+    @NonNull
+    private Bundle toBundle() {
+        final Bundle bundle = new Bundle(rawData.size());
+        for (final String key : rawData.keySet()) {
+            final Object value = rawData.get(key);
+            if (value == null) {
+                bundle.putString(key, null);
+            } else if (value instanceof CharSequence) {
+                bundle.putCharSequence(key, (CharSequence) value);
+            } else if (value instanceof Integer) {
+                bundle.putInt(key, (int) value);
+            } else if (value instanceof Long) {
+                bundle.putLong(key, (long) value);
+            } else if (value instanceof Double) {
+                bundle.putDouble(key, (double) value);
+            } else if (value instanceof Float) {
+                bundle.putFloat(key, (float) value);
+            } else if (value instanceof Boolean) {
+                bundle.putBoolean(key, (boolean) value);
+            } else if (value instanceof Parcelable) {
+                bundle.putParcelable(key, (Parcelable) value);
+            } else if (value instanceof Parcelable[]) {
+                bundle.putParcelableArray(key, (Parcelable[]) value);
+            } else if (value instanceof ArrayList) {
+                //noinspection unchecked,rawtypes
+                bundle.putParcelableArrayList(key, (ArrayList) value);
+            } else if (value instanceof Serializable) {
+                bundle.putSerializable(key, (Serializable) value);
+            } else {
+                throw new IllegalArgumentException("toBundle|key=`" + key
+                                                   + "|type=" + value.getClass().getName()
+                                                   + "`|value=" + value);
+            }
+        }
+        return bundle;
     }
 
     @Override
@@ -134,7 +196,7 @@ public class DataManager
     @NonNull
     @Override
     public Set<String> keySet() {
-        return Set.copyOf(rawData.keySet());
+        return rawData.keySet();
     }
 
     /**
@@ -193,7 +255,7 @@ public class DataManager
             final String name = cursor.getColumnName(i);
             switch (cursor.getType(i)) {
                 case Cursor.FIELD_TYPE_STRING:
-                    rawData.putString(name, cursor.getString(i));
+                    rawData.putObject(name, cursor.getString(i));
                     break;
 
                 case Cursor.FIELD_TYPE_INTEGER:
@@ -239,7 +301,7 @@ public class DataManager
             putMoney(key, (Money) value);
 
         } else if (value instanceof CharSequence) {
-            rawData.putCharSequence(key, (CharSequence) value);
+            rawData.putObject(key, (CharSequence) value);
         } else if (value instanceof Integer) {
             rawData.putInt(key, (int) value);
         } else if (value instanceof Long) {
@@ -259,12 +321,12 @@ public class DataManager
             rawData.putDouble(key, ((Number) value).doubleValue());
 
         } else if (value instanceof Parcelable) {
-            rawData.putParcelable(key, (Parcelable) value);
+            rawData.putObject(key, (Parcelable) value);
         } else if (value instanceof Parcelable[]) {
-            rawData.putParcelableArray(key, (Parcelable[]) value);
+            rawData.putObject(key, (Parcelable[]) value);
         } else if (value instanceof ArrayList) {
             //noinspection unchecked,rawtypes
-            rawData.putParcelableArrayList(key, (ArrayList) value);
+            rawData.putObject(key, (ArrayList) value);
 
         } else if (value instanceof Serializable) {
             putSerializable(key, (Serializable) value);
@@ -284,7 +346,7 @@ public class DataManager
 
     @VisibleForTesting
     @NonNull
-    public Bundle getRawData() {
+    public FieldStore getRawData() {
         return rawData;
     }
 
@@ -325,6 +387,9 @@ public class DataManager
      */
     public boolean getBoolean(@NonNull final String key)
             throws NumberFormatException {
+        if (rawData.isBoolean(key)) {
+            return rawData.getBoolean(key);
+        }
         return BooleanParser.toBoolean(rawData.get(key));
     }
 
@@ -351,6 +416,9 @@ public class DataManager
     @Override
     public int getInt(@NonNull final String key)
             throws NumberFormatException {
+        if (rawData.isIntegral(key)) {
+            return (int) rawData.getIntegral(key);
+        }
         return (int) NumberParser.toLong(rawData.get(key));
     }
 
@@ -377,6 +445,9 @@ public class DataManager
     @Override
     public long getLong(@NonNull final String key)
             throws NumberFormatException {
+        if (rawData.isIntegral(key)) {
+            return rawData.getIntegral(key);
+        }
         return NumberParser.toLong(rawData.get(key));
     }
 
@@ -404,6 +475,9 @@ public class DataManager
     public double getDouble(@NonNull final String key,
                             @NonNull final RealNumberParser parser)
             throws NumberFormatException {
+        if (rawData.isDouble(key)) {
+            return rawData.getDouble(key);
+        }
         return parser.toDouble(rawData.get(key));
     }
 
@@ -466,7 +540,7 @@ public class DataManager
      */
     public void putString(@NonNull final String key,
                           @NonNull final String value) {
-        rawData.putString(key, value);
+        rawData.putObject(key, value);
     }
 
     /**
@@ -511,7 +585,7 @@ public class DataManager
         rawData.putDouble(key, money.getValue().doubleValue());
         final Currency currency = money.getCurrency();
         if (currency != null) {
-            rawData.putString(key + DBKey.CURRENCY_SUFFIX, currency.getCurrencyCode());
+            rawData.putObject(key + DBKey.CURRENCY_SUFFIX, currency.getCurrencyCode());
         }
     }
 
@@ -527,7 +601,8 @@ public class DataManager
     protected Optional<LocalDateTime> getLocalDateTime(@NonNull final String key,
                                                        @NonNull final DateParser dateParser) {
         if (rawData.containsKey(key)) {
-            return dateParser.parse(rawData.getString(key));
+            final Object value = rawData.get(key);
+            return dateParser.parse(value instanceof String ? (String) value : null);
         } else {
             return Optional.empty();
         }
@@ -541,7 +616,7 @@ public class DataManager
      */
     protected void putLocalDateTime(@NonNull final String key,
                                     @NonNull final LocalDateTime dateTime) {
-        rawData.putString(key, SqlEncode.date(dateTime));
+        rawData.putObject(key, SqlEncode.date(dateTime));
     }
 
     /**
@@ -560,7 +635,7 @@ public class DataManager
         if (o == null) {
             o = new ArrayList<>();
             //noinspection unchecked
-            rawData.putStringArrayList(key, (ArrayList<String>) o);
+            rawData.putObject(key, (ArrayList<String>) o);
         }
         //noinspection unchecked
         return (List<String>) o;
@@ -574,7 +649,7 @@ public class DataManager
      */
     public void putStringArrayList(@NonNull final String key,
                                    @NonNull final ArrayList<String> value) {
-        rawData.putStringArrayList(key, value);
+        rawData.putObject(key, value);
     }
 
     /**
@@ -594,7 +669,7 @@ public class DataManager
         if (o == null) {
             o = new ArrayList<>();
             //noinspection unchecked
-            rawData.putParcelableArrayList(key, (ArrayList<T>) o);
+            rawData.putObject(key, (ArrayList<T>) o);
         }
         //noinspection unchecked
         return (ArrayList<T>) o;
@@ -612,15 +687,28 @@ public class DataManager
     public <T extends Parcelable> void putParcelableArrayList(@NonNull final String key,
                                                               @NonNull final List<T> value) {
         if (value instanceof ArrayList) {
-            rawData.putParcelableArrayList(key, (ArrayList<T>) value);
+            rawData.putObject(key, (ArrayList<T>) value);
         } else {
-            rawData.putParcelableArrayList(key, new ArrayList<>(value));
+            rawData.putObject(key, new ArrayList<>(value));
         }
     }
 
+    /**
+     * Get a {@link Parcelable} from the collection.
+     *
+     * @param key Key of data object
+     * @param <T> type of object
+     *
+     * @return the object, or {@code null} if not present or not a {@link Parcelable}
+     */
     @Nullable
     public <T extends Parcelable> T getParcelable(@NonNull final String key) {
-        return rawData.getParcelable(key);
+        final Object o = rawData.get(key);
+        if (o instanceof Parcelable) {
+            //noinspection unchecked
+            return (T) o;
+        }
+        return null;
     }
 
     /**
@@ -634,7 +722,7 @@ public class DataManager
      */
     public <T extends Parcelable> void putParcelable(@NonNull final String key,
                                                      @NonNull final T value) {
-        rawData.putParcelable(key, value);
+        rawData.putObject(key, value);
     }
 
     /**
@@ -649,7 +737,7 @@ public class DataManager
     @Nullable
     protected <T extends Serializable> T getSerializable(@NonNull final String key) {
         //noinspection unchecked
-        return (T) rawData.getSerializable(key);
+        return (T) rawData.get(key);
     }
 
     /**
@@ -666,7 +754,7 @@ public class DataManager
                             "putSerializable|key=" + key
                             + "|type=" + value.getClass().getCanonicalName());
         }
-        rawData.putSerializable(key, value);
+        rawData.putObject(key, value);
     }
 
     /**
@@ -675,7 +763,7 @@ public class DataManager
      * @param key Key of data object
      */
     public void putNull(@NonNull final String key) {
-        rawData.putString(key, null);
+        rawData.putObject(key, null);
     }
 
     @Override
@@ -0,0 +1,386 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.datamanager;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Typed, array-backed key/value storage used by {@link DataManager}.
+ * <p>
+ * Every key is mapped (once, globally) to a small integer field-id.
+ * The values are stored in arrays indexed by that id:
+ * primitives (boolean, int, long, float, double) in a {@code long[]} without boxing,
+ * everything else (Strings, lists, Parcelables, ...) in an {@code Object[]}.
+ * The arrays only grow up to the highest field-id actually used by an instance,
+ * and as the database columns are the first keys to be used, they get the lowest ids.
+ * <p>
+ * The original type of a value is preserved, i.e. {@link #get(String)} returns
+ * the same boxed type as was stored, exactly like a {@code Bundle} would do.
+ * <p>
+ * Not thread-safe; same as a {@code Bundle}.
+ */
+public final class FieldStore {
+
+    /** Slot is not in use. */
+    private static final byte NONE = 0;
+    private static final byte BOOLEAN = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte FLOAT = 4;
+    private static final byte DOUBLE = 5;
+    /** An Object, which can be {@code null}. */
+    private static final byte OBJECT = 6;
+
+    /** Global key to field-id mapping. */
+    private static final Map<String, Integer> FIELD_IDS = new ConcurrentHashMap<>();
+    /** Global field-id to key mapping. Only ever grows. */
+    @NonNull
+    private static volatile String[] fieldNames = new String[128];
+    private static int fieldCount;
+
+    @NonNull
+    private byte[] types;
+    @NonNull
+    private long[] primitives;
+    @NonNull
+    private Object[] objects;
+    private int size;
+
+    /**
+     * Constructor.
+     */
+    public FieldStore() {
+        types = new byte[0];
+        primitives = new long[0];
+        objects = new Object[0];
+    }
+
+    /**
+     * Get the field-id for the given key, allocating a new one if needed.
+     *
+     * @param key to lookup
+     *
+     * @return field-id
+     */
+    @VisibleForTesting
+    static int getFieldId(@NonNull final String key) {
+        final Integer id = FIELD_IDS.get(key);
+        if (id != null) {
+            return id;
+        }
+        return register(key);
+    }
+
+    private static synchronized int register(@NonNull final String key) {
+        // re-check inside the lock
+        final Integer existing = FIELD_IDS.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        final int id = fieldCount++;
+        if (id >= fieldNames.length) {
+            fieldNames = Arrays.copyOf(fieldNames, fieldNames.length * 2);
+        }
+        fieldNames[id] = key;
+        FIELD_IDS.put(key, id);
+        return id;
+    }
+
+    /**
+     * Get the slot for the given key if the key is <strong>in use</strong> in this instance.
+     *
+     * @param key to lookup
+     *
+     * @return slot, or {@code -1} if not present
+     */
+    private int slotOf(@NonNull final String key) {
+        final Integer id = FIELD_IDS.get(key);
+        if (id == null || id >= types.length || types[id] == NONE) {
+            return -1;
+        }
+        return id;
+    }
+
+    /**
+     * Get the slot for the given key, growing the arrays as needed.
+     *
+     * @param key to lookup
+     *
+     * @return slot
+     */
+    private int slotForWriting(@NonNull final String key) {
+        final int id = getFieldId(key);
+        if (id >= types.length) {
+            final int newLength = Math.max(id + 1, Math.min(fieldCount, id + 16));
+            types = Arrays.copyOf(types, newLength);
+            primitives = Arrays.copyOf(primitives, newLength);
+            objects = Arrays.copyOf(objects, newLength);
+        }
+        if (types[id] == NONE) {
+            size++;
+        }
+        return id;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(types, NONE);
+        Arrays.fill(objects, null);
+        size = 0;
+    }
+
+    public boolean containsKey(@NonNull final String key) {
+        return slotOf(key) >= 0;
+    }
+
+    public void remove(@NonNull final String key) {
+        final int slot = slotOf(key);
+        if (slot >= 0) {
+            types[slot] = NONE;
+            objects[slot] = null;
+            size--;
+        }
+    }
+
+    /**
+     * Get the set of keys in use. The set is a copy.
+     *
+     * @return keys, ordered by their field-id.
+     */
+    @NonNull
+    public Set<String> keySet() {
+        if (size == 0) {
+            return Collections.emptySet();
+        }
+        final String[] names = fieldNames;
+        final Set<String> keys = new LinkedHashSet<>(size * 2);
+        for (int i = 0; i < types.length; i++) {
+            if (types[i] != NONE) {
+                keys.add(names[i]);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Get the value as originally stored; primitives are boxed.
+     *
+     * @param key to get
+     *
+     * @return value, or {@code null} if not present or if the value was {@code null}.
+     */
+    @Nullable
+    public Object get(@NonNull final String key) {
+        final int slot = slotOf(key);
+        if (slot < 0) {
+            return null;
+        }
+        return box(slot);
+    }
+
+    @Nullable
+    private Object box(final int slot) {
+        final long value = primitives[slot];
+        switch (types[slot]) {
+            case BOOLEAN:
+                return value != 0;
+            case INT:
+                return (int) value;
+            case LONG:
+                return value;
+            case FLOAT:
+                return Float.intBitsToFloat((int) value);
+            case DOUBLE:
+                return Double.longBitsToDouble(value);
+            case OBJECT:
+                return objects[slot];
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Store a value, unboxing the common primitive wrappers.
+     *
+     * @param key   to store
+     * @param value to store; can be {@code null}
+     */
+    public void put(@NonNull final String key,
+                    @Nullable final Object value) {
+        if (value instanceof Boolean) {
+            putBoolean(key, (Boolean) value);
+        } else if (value instanceof Integer) {
+            putInt(key, (Integer) value);
+        } else if (value instanceof Long) {
+            putLong(key, (Long) value);
+        } else if (value instanceof Float) {
+            putFloat(key, (Float) value);
+        } else if (value instanceof Double) {
+            putDouble(key, (Double) value);
+        } else {
+            putObject(key, value);
+        }
+    }
+
+    public void putBoolean(@NonNull final String key,
+                           final boolean value) {
+        putPrimitive(key, BOOLEAN, value ? 1 : 0);
+    }
+
+    public void putInt(@NonNull final String key,
+                       final int value) {
+        putPrimitive(key, INT, value);
+    }
+
+    public void putLong(@NonNull final String key,
+                        final long value) {
+        putPrimitive(key, LONG, value);
+    }
+
+    public void putFloat(@NonNull final String key,
+                         final float value) {
+        putPrimitive(key, FLOAT, Float.floatToRawIntBits(value));
+    }
+
+    public void putDouble(@NonNull final String key,
+                          final double value) {
+        putPrimitive(key, DOUBLE, Double.doubleToRawLongBits(value));
+    }
+
+    public void putObject(@NonNull final String key,
+                          @Nullable final Object value) {
+        final int slot = slotForWriting(key);
+        types[slot] = OBJECT;
+        objects[slot] = value;
+    }
+
+    private void putPrimitive(@NonNull final String key,
+                              final byte type,
+                              final long value) {
+        final int slot = slotForWriting(key);
+        types[slot] = type;
+        primitives[slot] = value;
+        objects[slot] = null;
+    }
+
+    /**
+     * Check if the value is stored as an {@code int} or {@code long}.
+     *
+     * @param key to check
+     *
+     * @return {@code true} if {@link #getIntegral(String)} can be used
+     */
+    public boolean isIntegral(@NonNull final String key) {
+        final int slot = slotOf(key);
+        return slot >= 0 && (types[slot] == INT || types[slot] == LONG);
+    }
+
+    /**
+     * Get an {@code int} or {@code long} value without boxing.
+     * The caller must check {@link #isIntegral(String)} first.
+     *
+     * @param key to get
+     *
+     * @return value
+     */
+    public long getIntegral(@NonNull final String key) {
+        return primitives[slotOf(key)];
+    }
+
+    /**
+     * Check if the value is stored as a {@code double}.
+     *
+     * @param key to check
+     *
+     * @return {@code true} if {@link #getDouble(String)} can be used
+     */
+    public boolean isDouble(@NonNull final String key) {
+        final int slot = slotOf(key);
+        return slot >= 0 && types[slot] == DOUBLE;
+    }
+
+    /**
+     * Get a {@code double} value without boxing.
+     * The caller must check {@link #isDouble(String)} first.
+     *
+     * @param key to get
+     *
+     * @return value
+     */
+    public double getDouble(@NonNull final String key) {
+        return Double.longBitsToDouble(primitives[slotOf(key)]);
+    }
+
+    /**
+     * Check if the value is stored as a {@code boolean}.
+     *
+     * @param key to check
+     *
+     * @return {@code true} if {@link #getBoolean(String)} can be used
+     */
+    public boolean isBoolean(@NonNull final String key) {
+        final int slot = slotOf(key);
+        return slot >= 0 && types[slot] == BOOLEAN;
+    }
+
+    /**
+     * Get a {@code boolean} value.
+     * The caller must check {@link #isBoolean(String)} first.
+     *
+     * @param key to get
+     *
+     * @return value
+     */
+    public boolean getBoolean(@NonNull final String key) {
+        return primitives[slotOf(key)] != 0;
+    }
+
+    @Override
+    @NonNull
+    public String toString() {
+        final String[] names = fieldNames;
+        final StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < types.length; i++) {
+            if (types[i] != NONE) {
+                if (sb.length() > 1) {
+                    sb.append(", ");
+                }
+                sb.append(names[i]).append('=').append(box(i));
+            }
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -54,6 +54,7 @@ import java.util.zip.ZipOutputStream;
 import com.hardbacknutter.nevertoomanybooks.BuildConfig;
 import com.hardbacknutter.nevertoomanybooks.ServiceLocator;
 import com.hardbacknutter.nevertoomanybooks.core.LoggerFactory;
+import com.hardbacknutter.nevertoomanybooks.core.database.QueryStats;
 import com.hardbacknutter.nevertoomanybooks.core.storage.FileUtils;
 import com.hardbacknutter.nevertoomanybooks.core.utils.LocaleListUtils;
 import com.hardbacknutter.nevertoomanybooks.database.DBHelper;
@@ -71,6 +72,8 @@ public class DebugReport {
     private String message;
     @Nullable
     private String preferences;
+    @Nullable
+    private String queryStats;
 
     /**
      * Constructor.
@@ -168,6 +171,13 @@ public class DebugReport {
                          .collect(Collectors.joining("\n"));
     }
 
+    /**
+     * Add the current {@link QueryStats} as a tab-separated text file.
+     */
+    public void addQueryStats() {
+        queryStats = QueryStats.getSnapshot().toText();
+    }
+
     public void sendToFile(@NonNull final Uri destUri)
             throws IOException {
 
@@ -190,6 +200,9 @@ public class DebugReport {
         if (preferences != null) {
             writeAndAddFile("preferences.txt", preferences);
         }
+        if (queryStats != null) {
+            writeAndAddFile("querystats.txt", queryStats);
+        }
 
         final File zipFile = new File(context.getCacheDir(), "NTMBBugReport-" + dateTime + ".zip");
         zipFile.deleteOnExit();
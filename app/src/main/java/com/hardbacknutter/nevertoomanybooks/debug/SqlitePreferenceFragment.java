@@ -19,15 +19,32 @@
  */
 package com.hardbacknutter.nevertoomanybooks.debug;
 
+import android.content.SharedPreferences;
 import android.os.Bundle;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.preference.PreferenceManager;
 
 import com.hardbacknutter.nevertoomanybooks.R;
+import com.hardbacknutter.nevertoomanybooks.core.database.QueryStats;
 import com.hardbacknutter.nevertoomanybooks.settings.BasePreferenceFragment;
+import com.hardbacknutter.nevertoomanybooks.settings.Prefs;
 
 public class SqlitePreferenceFragment
-        extends BasePreferenceFragment {
+        extends BasePreferenceFragment
+        implements SharedPreferences.OnSharedPreferenceChangeListener {
+
+    /**
+     * Configure the {@link QueryStats} from the user preferences.
+     *
+     * @param prefs to read
+     */
+    public static void applyQueryStats(@NonNull final SharedPreferences prefs) {
+        QueryStats.setSlowQueryThreshold(prefs.getInt(Prefs.pk_sqlite_stats_slow_ms,
+                                                      QueryStats.DEFAULT_SLOW_QUERY_MS));
+        QueryStats.setEnabled(prefs.getBoolean(Prefs.pk_sqlite_stats_enabled, false));
+    }
 
     @Override
     public void onCreatePreferences(@Nullable final Bundle savedInstanceState,
@@ -35,4 +52,29 @@ public class SqlitePreferenceFragment
         super.onCreatePreferences(savedInstanceState, rootKey);
         setPreferencesFromResource(R.xml.preferences_sqlite_shell, rootKey);
     }
+
+    @Override
+    public void onResume() {
+        super.onResume();
+        //noinspection DataFlowIssue
+        PreferenceManager.getDefaultSharedPreferences(getContext())
+                         .registerOnSharedPreferenceChangeListener(this);
+    }
+
+    @Override
+    public void onPause() {
+        //noinspection DataFlowIssue
+        PreferenceManager.getDefaultSharedPreferences(getContext())
+                         .unregisterOnSharedPreferenceChangeListener(this);
+        super.onPause();
+    }
+
+    @Override
+    public void onSharedPreferenceChanged(@NonNull final SharedPreferences prefs,
+                                          @Nullable final String key) {
+        if (Prefs.pk_sqlite_stats_enabled.equals(key)
+            || Prefs.pk_sqlite_stats_slow_ms.equals(key)) {
+            applyQueryStats(prefs);
+        }
+    }
 }
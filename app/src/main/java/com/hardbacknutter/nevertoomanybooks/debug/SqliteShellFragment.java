@@ -22,6 +22,7 @@ package com.hardbacknutter.nevertoomanybooks.debug;
 import android.content.Intent;
 import android.database.Cursor;
 import android.os.Bundle;
+import android.text.Html;
 import android.view.LayoutInflater;
 import android.view.Menu;
 import android.view.MenuInflater;
@@ -38,13 +39,16 @@ import androidx.fragment.app.Fragment;
 import androidx.preference.PreferenceManager;
 
 import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 
 import com.hardbacknutter.nevertoomanybooks.BaseFragment;
 import com.hardbacknutter.nevertoomanybooks.FragmentHostActivity;
 import com.hardbacknutter.nevertoomanybooks.R;
 import com.hardbacknutter.nevertoomanybooks.ServiceLocator;
+import com.hardbacknutter.nevertoomanybooks.core.database.QueryStats;
 import com.hardbacknutter.nevertoomanybooks.core.database.SynchronizedDb;
 import com.hardbacknutter.nevertoomanybooks.core.database.SynchronizedStatement;
+import com.hardbacknutter.nevertoomanybooks.core.database.Synchronizer;
 import com.hardbacknutter.nevertoomanybooks.databinding.FragmentSqliteShellBinding;
 import com.hardbacknutter.nevertoomanybooks.settings.Prefs;
 
@@ -72,6 +76,8 @@ public class SqliteShellFragment
             + " ORDER BY tbl_name";
     private static final String TR_START = "<tr>";
     private static final String TR_END = "</tr>";
+    private static final String TD_START = "<td>";
+    private static final String TD_END = "</td>";
     private static final int TEXT_ZOOM = 75;
 
     private boolean allowUpdates;
@@ -150,6 +156,68 @@ public class SqliteShellFragment
 //        settings.setTextZoom(settings.getTextZoom() + 10);
 //    }
 
+    /**
+     * Show the {@link QueryStats}; the most expensive statements first.
+     */
+    private void showQueryStats() {
+        final QueryStats.Snapshot snapshot = QueryStats.getSnapshot();
+        getToolbar().setTitle(STR_LAST_COUNT + snapshot.getTemplates().size());
+
+        final StringBuilder sb = new StringBuilder();
+        if (!QueryStats.isEnabled()) {
+            sb.append("<p>Disabled</p>");
+        }
+        sb.append("<table>");
+        for (final Synchronizer.LockType type : Synchronizer.LockType.values()) {
+            sb.append(TR_START)
+              .append("<td><i>").append(type).append(" locks</i></td>")
+              .append(TD_START).append(snapshot.getLockCount(type)).append(TD_END)
+              .append(TD_START).append(toMillis(snapshot.getLockWaitNanos(type)))
+              .append(" ms</td>")
+              .append(TR_END);
+        }
+        sb.append("</table><br><table>")
+          .append(TR_START);
+        for (final String column : new String[]{"count", "total ms", "p50 µs", "p90 µs",
+                "p99 µs", "max ms", "lock ms", "rows", "sql"}) {
+            sb.append("<td><i>").append(column).append("</i></td>");
+        }
+        sb.append(TR_END);
+
+        int lines = this.maxLines;
+        for (final QueryStats.TemplateStats t : snapshot.getTemplates()) {
+            if (lines-- <= 0) {
+                break;
+            }
+            sb.append(TR_START)
+              .append(TD_START).append(t.getCount()).append(TD_END)
+              .append(TD_START).append(toMillis(t.getTotalNanos())).append(TD_END)
+              .append(TD_START).append(t.getPercentileMicros(50)).append(TD_END)
+              .append(TD_START).append(t.getPercentileMicros(90)).append(TD_END)
+              .append(TD_START).append(t.getPercentileMicros(99)).append(TD_END)
+              .append(TD_START).append(toMillis(t.getMaxNanos())).append(TD_END)
+              .append(TD_START).append(toMillis(t.getLockWaitNanos())).append(TD_END)
+              .append(TD_START).append(t.getRows()).append(TD_END)
+              .append(TD_START).append(Html.escapeHtml(t.getSql())).append(TD_END)
+              .append(TR_END);
+        }
+        sb.append("</table><br><table>");
+        for (final QueryStats.SlowQuery q : snapshot.getSlowQueries()) {
+            sb.append(TR_START)
+              .append(TD_START).append(q.getTimestamp()).append(TD_END)
+              .append(TD_START).append(toMillis(q.getDurationNanos())).append(" ms</td>")
+              .append(TD_START).append(Html.escapeHtml(q.getSql())).append(TD_END)
+              .append(TR_END);
+        }
+        sb.append("</table>");
+
+        vb.output.loadDataWithBaseURL(null, sb.toString(), TEXT_HTML, UTF_8, null);
+    }
+
+    private static long toMillis(final long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
     private void execute() {
         executeSql(vb.input.getText().toString().trim());
     }
@@ -230,6 +298,13 @@ public class SqliteShellFragment
                 .setIcon(R.drawable.ic_baseline_table_rows_24)
                 .setShowAsAction(MenuItem.SHOW_AS_ACTION_NEVER);
 
+            menu.add(Menu.NONE, R.id.MENU_DEBUG_SQ_SHELL_QUERY_STATS, 0,
+                     R.string.debug_sq_query_stats)
+                .setShowAsAction(MenuItem.SHOW_AS_ACTION_NEVER);
+
+            menu.add(Menu.NONE, R.id.MENU_DEBUG_SQ_SHELL_QUERY_STATS_RESET, 0,
+                     R.string.debug_sq_query_stats_reset)
+                .setShowAsAction(MenuItem.SHOW_AS_ACTION_NEVER);
         }
 
         @Override
@@ -250,6 +325,15 @@ public class SqliteShellFragment
                         .createIntent(getContext(), SqlitePreferenceFragment.class);
                 startActivity(intent);
                 return true;
+
+            } else if (itemId == R.id.MENU_DEBUG_SQ_SHELL_QUERY_STATS) {
+                showQueryStats();
+                return true;
+
+            } else if (itemId == R.id.MENU_DEBUG_SQ_SHELL_QUERY_STATS_RESET) {
+                QueryStats.reset();
+                showQueryStats();
+                return true;
             }
             return false;
         }
@@ -39,7 +39,7 @@ import com.hardbacknutter.nevertoomanybooks.ServiceLocator;
 import com.hardbacknutter.nevertoomanybooks.core.LoggerFactory;
 import com.hardbacknutter.nevertoomanybooks.core.database.DaoWriteException;
 import com.hardbacknutter.nevertoomanybooks.core.widgets.adapters.ExtArrayAdapter;
-import com.hardbacknutter.nevertoomanybooks.database.DBKey;
+import com.hardbacknutter.nevertoomanybooks.database.NameIndexes;
 import com.hardbacknutter.nevertoomanybooks.database.dao.AuthorDao;
 import com.hardbacknutter.nevertoomanybooks.databinding.DialogEditAuthorContentBinding;
 import com.hardbacknutter.nevertoomanybooks.dialogs.EditInPlaceParcelableLauncher;
@@ -92,25 +92,23 @@ public class EditAuthorDialogFragment
         final Context context = getContext();
         final Author currentEdit = authorVm.getCurrentEdit();
 
-        final AuthorDao authorDao = ServiceLocator.getInstance().getAuthorDao();
+        final NameIndexes nameIndexes = ServiceLocator.getInstance().getNameIndexes();
 
         //noinspection DataFlowIssue
-        final ExtArrayAdapter<String> familyNameAdapter = new ExtArrayAdapter<>(
+        final ExtArrayAdapter<String> familyNameAdapter = ExtArrayAdapter.createFromIndex(
                 context, R.layout.popup_dropdown_menu_item,
-                ExtArrayAdapter.FilterType.Diacritic,
-                authorDao.getNames(DBKey.AUTHOR_FAMILY_NAME));
+                nameIndexes.get(NameIndexes.Domain.AuthorFamilyName));
         vb.familyName.setText(currentEdit.getFamilyName());
         vb.familyName.setAdapter(familyNameAdapter);
         autoRemoveError(vb.familyName, vb.lblFamilyName);
 
-        final ExtArrayAdapter<String> givenNameAdapter = new ExtArrayAdapter<>(
+        final ExtArrayAdapter<String> givenNameAdapter = ExtArrayAdapter.createFromIndex(
                 context, R.layout.popup_dropdown_menu_item,
-                ExtArrayAdapter.FilterType.Diacritic,
-                authorDao.getNames(DBKey.AUTHOR_GIVEN_NAMES));
+                nameIndexes.get(NameIndexes.Domain.AuthorGivenNames));
         vb.givenNames.setText(currentEdit.getGivenNames());
         vb.givenNames.setAdapter(givenNameAdapter);
 
-        setupRealAuthorField(context, authorDao);
+        setupRealAuthorField(context, nameIndexes);
 
         vb.cbxIsComplete.setChecked(currentEdit.isComplete());
 
@@ -118,15 +116,14 @@ public class EditAuthorDialogFragment
     }
 
     private void setupRealAuthorField(@NonNull final Context context,
-                                      @NonNull final AuthorDao authorDao) {
+                                      @NonNull final NameIndexes nameIndexes) {
         if (authorVm.useRealAuthorName()) {
             vb.lblRealAuthorHeader.setVisibility(View.VISIBLE);
             vb.lblRealAuthor.setVisibility(View.VISIBLE);
 
-            final ExtArrayAdapter<String> realNameAdapter = new ExtArrayAdapter<>(
+            final ExtArrayAdapter<String> realNameAdapter = ExtArrayAdapter.createFromIndex(
                     context, R.layout.popup_dropdown_menu_item,
-                    ExtArrayAdapter.FilterType.Diacritic,
-                    authorDao.getNames(DBKey.AUTHOR_FORMATTED));
+                    nameIndexes.get(NameIndexes.Domain.AuthorFormatted));
             vb.realAuthor.setText(authorVm.getCurrentRealAuthorName(), false);
             vb.realAuthor.setAdapter(realNameAdapter);
             autoRemoveError(vb.realAuthor, vb.lblRealAuthor);
@@ -36,6 +36,7 @@ import com.hardbacknutter.nevertoomanybooks.ServiceLocator;
 import com.hardbacknutter.nevertoomanybooks.core.LoggerFactory;
 import com.hardbacknutter.nevertoomanybooks.core.database.DaoWriteException;
 import com.hardbacknutter.nevertoomanybooks.core.widgets.adapters.ExtArrayAdapter;
+import com.hardbacknutter.nevertoomanybooks.database.NameIndexes;
 import com.hardbacknutter.nevertoomanybooks.database.dao.PublisherDao;
 import com.hardbacknutter.nevertoomanybooks.databinding.DialogEditPublisherContentBinding;
 import com.hardbacknutter.nevertoomanybooks.dialogs.EditInPlaceParcelableLauncher;
@@ -94,10 +95,10 @@ public class EditPublisherDialogFragment
         vb = DialogEditPublisherContentBinding.bind(view.findViewById(R.id.dialog_content));
 
         //noinspection DataFlowIssue
-        final ExtArrayAdapter<String> nameAdapter = new ExtArrayAdapter<>(
+        final ExtArrayAdapter<String> nameAdapter = ExtArrayAdapter.createFromIndex(
                 getContext(), R.layout.popup_dropdown_menu_item,
-                ExtArrayAdapter.FilterType.Diacritic,
-                ServiceLocator.getInstance().getPublisherDao().getNames());
+                ServiceLocator.getInstance().getNameIndexes()
+                              .get(NameIndexes.Domain.PublisherName));
 
         vb.publisherName.setText(currentEdit.getName());
         vb.publisherName.setAdapter(nameAdapter);
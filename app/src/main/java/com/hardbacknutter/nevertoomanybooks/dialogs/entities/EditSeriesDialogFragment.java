@@ -36,6 +36,7 @@ import com.hardbacknutter.nevertoomanybooks.ServiceLocator;
 import com.hardbacknutter.nevertoomanybooks.core.LoggerFactory;
 import com.hardbacknutter.nevertoomanybooks.core.database.DaoWriteException;
 import com.hardbacknutter.nevertoomanybooks.core.widgets.adapters.ExtArrayAdapter;
+import com.hardbacknutter.nevertoomanybooks.database.NameIndexes;
 import com.hardbacknutter.nevertoomanybooks.database.dao.SeriesDao;
 import com.hardbacknutter.nevertoomanybooks.databinding.DialogEditSeriesContentBinding;
 import com.hardbacknutter.nevertoomanybooks.dialogs.EditInPlaceParcelableLauncher;
@@ -94,10 +95,10 @@ public class EditSeriesDialogFragment
         vb = DialogEditSeriesContentBinding.bind(view.findViewById(R.id.dialog_content));
 
         //noinspection DataFlowIssue
-        final ExtArrayAdapter<String> titleAdapter = new ExtArrayAdapter<>(
+        final ExtArrayAdapter<String> titleAdapter = ExtArrayAdapter.createFromIndex(
                 getContext(), R.layout.popup_dropdown_menu_item,
-                ExtArrayAdapter.FilterType.Diacritic,
-                ServiceLocator.getInstance().getSeriesDao().getNames());
+                ServiceLocator.getInstance().getNameIndexes()
+                              .get(NameIndexes.Domain.SeriesTitle));
 
         vb.seriesTitle.setText(currentEdit.getTitle());
         vb.seriesTitle.setAdapter(titleAdapter);
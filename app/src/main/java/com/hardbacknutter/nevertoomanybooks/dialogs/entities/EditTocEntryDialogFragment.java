@@ -37,6 +37,7 @@ import com.hardbacknutter.nevertoomanybooks.ServiceLocator;
 import com.hardbacknutter.nevertoomanybooks.core.utils.PartialDate;
 import com.hardbacknutter.nevertoomanybooks.core.widgets.adapters.ExtArrayAdapter;
 import com.hardbacknutter.nevertoomanybooks.database.DBKey;
+import com.hardbacknutter.nevertoomanybooks.database.NameIndexes;
 import com.hardbacknutter.nevertoomanybooks.databinding.DialogEditBookTocContentBinding;
 import com.hardbacknutter.nevertoomanybooks.dialogs.FFBaseDialogFragment;
 import com.hardbacknutter.nevertoomanybooks.entities.Author;
@@ -128,11 +129,10 @@ public class EditTocEntryDialogFragment
 
         if (isAnthology) {
             //noinspection DataFlowIssue
-            final ExtArrayAdapter<String> authorAdapter = new ExtArrayAdapter<>(
+            final ExtArrayAdapter<String> authorAdapter = ExtArrayAdapter.createFromIndex(
                     getContext(), R.layout.popup_dropdown_menu_item,
-                    ExtArrayAdapter.FilterType.Diacritic,
-                    ServiceLocator.getInstance().getAuthorDao()
-                                  .getNames(DBKey.AUTHOR_FORMATTED));
+                    ServiceLocator.getInstance().getNameIndexes()
+                                  .get(NameIndexes.Domain.AuthorFormatted));
             vb.author.setAdapter(authorAdapter);
             vb.author.setText(authorName);
             vb.author.selectAll();
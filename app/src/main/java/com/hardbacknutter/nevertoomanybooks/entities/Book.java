@@ -217,7 +217,7 @@ public class Book
      * Constructor.
      */
     public Book() {
-        super(ServiceLocator.getInstance().newBundle());
+        super();
         stage = new EntityStage();
     }
 
@@ -318,12 +318,7 @@ public class Book
      */
     public void load(@IntRange(from = 1) final long bookId,
                      @NonNull final Cursor bookCursor) {
-        if (bookId <= 0) {
-            throw new IllegalArgumentException(ERROR_INVALID_BOOK_ID);
-        }
-
-        clearData();
-        putAll(bookCursor);
+        loadData(bookId, bookCursor);
 
         // load lists (or init with empty lists)
         final ServiceLocator serviceLocator = ServiceLocator.getInstance();
@@ -338,6 +333,28 @@ public class Book
         // see #getCalibreLibrary
     }
 
+    /**
+     * Load the book details from the cursor, but <strong>not</strong> the linked lists.
+     * The current book data is cleared before loading.
+     * <p>
+     * The caller is responsible for setting the Bookshelf, Author, Series,
+     * Publisher and TocEntry lists; see {@link BookBatchLoader}.
+     *
+     * @param bookId     of book must be != 0
+     * @param bookCursor an already positioned Cursor to read from
+     *
+     * @throws IllegalArgumentException if the book id is not valid
+     */
+    void loadData(@IntRange(from = 1) final long bookId,
+                  @NonNull final Cursor bookCursor) {
+        if (bookId <= 0) {
+            throw new IllegalArgumentException(ERROR_INVALID_BOOK_ID);
+        }
+
+        clearData();
+        putAll(bookCursor);
+    }
+
     /**
      * Duplicate a book by copying APPLICABLE (not simply all of them) fields.
      * i.o.w. this is <strong>NOT</strong> a copy constructor.
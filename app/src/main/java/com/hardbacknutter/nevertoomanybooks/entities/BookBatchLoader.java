@@ -0,0 +1,149 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.entities;
+
+import android.database.Cursor;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+import com.hardbacknutter.nevertoomanybooks.ServiceLocator;
+import com.hardbacknutter.nevertoomanybooks.database.DBKey;
+
+/**
+ * Reads fully populated {@link Book}s from a book cursor in batches.
+ * <p>
+ * {@link Book#from(Cursor)} runs a query per book for each of the linked
+ * Bookshelf, Author, Series, Publisher and TocEntry lists.
+ * When looping over a large cursor (e.g. an export) that adds up to
+ * five queries for every book.
+ * This class reads a window of rows from the cursor, and then fetches the
+ * linked lists for all books in that window with a single query per table.
+ * <p>
+ * Usage:
+ * <pre>{@code
+ *     final BookBatchLoader loader = new BookBatchLoader(cursor);
+ *     Book book;
+ *     while ((book = loader.next()) != null) {
+ *         ...
+ *     }
+ * }</pre>
+ * The cursor is moved forward by this class, but is still owned
+ * (and must be closed) by the caller.
+ */
+public class BookBatchLoader {
+
+    /** Default number of books fetched in a single batch. */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    @NonNull
+    private final Cursor bookCursor;
+    private final int batchSize;
+    private final int idCol;
+
+    /** The books loaded, but not yet handed out. */
+    @NonNull
+    private final Deque<Book> books;
+
+    /**
+     * Constructor.
+     *
+     * @param bookCursor a cursor as returned from one of the {@code BookDao} fetch methods;
+     *                   which is positioned <strong>before</strong> the first row to read.
+     */
+    public BookBatchLoader(@NonNull final Cursor bookCursor) {
+        this(bookCursor, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param bookCursor a cursor as returned from one of the {@code BookDao} fetch methods;
+     *                   which is positioned <strong>before</strong> the first row to read.
+     * @param batchSize  the number of books to load in one go
+     */
+    public BookBatchLoader(@NonNull final Cursor bookCursor,
+                           @IntRange(from = 1) final int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize=" + batchSize);
+        }
+        this.bookCursor = bookCursor;
+        this.batchSize = batchSize;
+        idCol = bookCursor.getColumnIndexOrThrow(DBKey.PK_ID);
+        books = new ArrayDeque<>(batchSize);
+    }
+
+    /**
+     * Get the next book.
+     *
+     * @return the book, or {@code null} when the cursor is exhausted
+     */
+    @Nullable
+    public Book next() {
+        if (books.isEmpty()) {
+            loadBatch();
+        }
+        return books.pollFirst();
+    }
+
+    private void loadBatch() {
+        final List<Long> bookIds = new ArrayList<>(batchSize);
+        while (bookIds.size() < batchSize && bookCursor.moveToNext()) {
+            final long bookId = bookCursor.getLong(idCol);
+            final Book book = new Book();
+            book.loadData(bookId, bookCursor);
+            books.add(book);
+            bookIds.add(bookId);
+        }
+
+        if (bookIds.isEmpty()) {
+            return;
+        }
+
+        final ServiceLocator serviceLocator = ServiceLocator.getInstance();
+        final Map<Long, List<Bookshelf>> bookshelves =
+                serviceLocator.getBookshelfDao().getByBookIds(bookIds);
+        final Map<Long, List<Author>> authors =
+                serviceLocator.getAuthorDao().getByBookIds(bookIds);
+        final Map<Long, List<Series>> series =
+                serviceLocator.getSeriesDao().getByBookIds(bookIds);
+        final Map<Long, List<Publisher>> publishers =
+                serviceLocator.getPublisherDao().getByBookIds(bookIds);
+        final Map<Long, List<TocEntry>> tocEntries =
+                serviceLocator.getTocEntryDao().getByBookIds(bookIds);
+
+        // Same as Book#load: always set the lists, even if empty.
+        for (final Book book : books) {
+            final long bookId = book.getId();
+            book.setBookshelves(bookshelves.computeIfAbsent(bookId, k -> new ArrayList<>()));
+            book.setAuthors(authors.computeIfAbsent(bookId, k -> new ArrayList<>()));
+            book.setSeries(series.computeIfAbsent(bookId, k -> new ArrayList<>()));
+            book.setPublishers(publishers.computeIfAbsent(bookId, k -> new ArrayList<>()));
+            book.setToc(tocEntries.computeIfAbsent(bookId, k -> new ArrayList<>()));
+        }
+    }
+}
@@ -41,6 +41,7 @@ import java.util.regex.Pattern;
 
 import com.hardbacknutter.nevertoomanybooks.BuildConfig;
 import com.hardbacknutter.nevertoomanybooks.R;
+import com.hardbacknutter.nevertoomanybooks.ServiceLocator;
 import com.hardbacknutter.nevertoomanybooks.backup.ExportResults;
 import com.hardbacknutter.nevertoomanybooks.backup.ImportResults;
 import com.hardbacknutter.nevertoomanybooks.backup.csv.CsvArchiveReader;
@@ -53,7 +54,6 @@ import com.hardbacknutter.nevertoomanybooks.backup.zip.ZipArchiveWriter;
 import com.hardbacknutter.nevertoomanybooks.core.LoggerFactory;
 import com.hardbacknutter.nevertoomanybooks.core.network.CredentialsException;
 import com.hardbacknutter.nevertoomanybooks.core.utils.UriInfo;
-import com.hardbacknutter.nevertoomanybooks.database.DBHelper;
 
 /**
  * Archive encoding (formats) (partially) supported.
@@ -268,7 +268,7 @@ public enum ArchiveEncoding
                 return new ZipArchiveWriter(recordTypes, sinceDateTime, destFile);
             }
             case SqLiteDb: {
-                return new DbArchiveWriter(DBHelper.getDatabasePath(context), destFile);
+                return new DbArchiveWriter(ServiceLocator.getInstance().getDb(), destFile);
             }
             case Json: {
                 return new JsonArchiveWriter(recordTypes, sinceDateTime, destFile
@@ -0,0 +1,261 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.search;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import com.hardbacknutter.nevertoomanybooks.core.database.Domain;
+import com.hardbacknutter.nevertoomanybooks.core.network.Throttler;
+import com.hardbacknutter.nevertoomanybooks.core.parsers.RealNumberParser;
+import com.hardbacknutter.nevertoomanybooks.core.tasks.TaskProgress;
+import com.hardbacknutter.nevertoomanybooks.database.DBKey;
+import com.hardbacknutter.nevertoomanybooks.entities.Author;
+import com.hardbacknutter.nevertoomanybooks.entities.Book;
+import com.hardbacknutter.nevertoomanybooks.searchengines.EngineId;
+import com.hardbacknutter.nevertoomanybooks.searchengines.SearchCoordinator;
+import com.hardbacknutter.nevertoomanybooks.searchengines.SearchEngineConfig;
+import com.hardbacknutter.nevertoomanybooks.searchengines.Site;
+import com.hardbacknutter.nevertoomanybooks.sync.SyncField;
+import com.hardbacknutter.nevertoomanybooks.sync.SyncReaderProcessor;
+
+/**
+ * One book being updated by {@link SearchBookUpdatesViewModel}.
+ * <p>
+ * Each lane is a private {@link SearchCoordinator} so several books can be searched
+ * at the same time. The lanes share the per-engine {@link Throttler},
+ * which is what regulates the actual requests to each site.
+ * <p>
+ * A lane is created directly by its owner and is never registered with a
+ * {@code ViewModelStore}, so {@link #onCleared()} will not be called by the framework.
+ * The owner is responsible for calling {@link #cancel()}.
+ * Results and progress are passed to the owner only; the inherited LiveData is never used.
+ */
+class BookUpdateLane
+        extends SearchCoordinator {
+
+    /** Receives the search result; called on the UI thread. */
+    @NonNull
+    private final Listener listener;
+
+    /**
+     * Current and original book data.
+     * The object gets cleared and reused for each book handled by this lane.
+     */
+    private final Book currentBook = new Book();
+
+    /** The (subset) of fields relevant to the current book. */
+    @Nullable
+    private Map<String, SyncField> currentFieldsWanted;
+
+    /** The book being searched, or {@code 0} if this lane is idle. */
+    private long currentBookId;
+
+    /**
+     * Constructor.
+     *
+     * @param context    Current context
+     * @param sites      the sites to search; shared with the owning view model
+     * @param strictIsbn Flag: set to {@code false} to allow invalid isbn numbers
+     * @param listener   to receive the results
+     */
+    BookUpdateLane(@NonNull final Context context,
+                   @NonNull final List<Site> sites,
+                   final boolean strictIsbn,
+                   @NonNull final Listener listener) {
+        this.listener = listener;
+        init(context, null);
+        setSiteList(sites);
+        setStrictIsbn(strictIsbn);
+    }
+
+    /**
+     * Load the book at the current cursor position and start searching for it.
+     *
+     * @param cursor        positioned on the book to update
+     * @param syncProcessor the fields to update and how
+     *
+     * @return {@code true} if a search was started; {@code false} if the book
+     *         needs no updates, or has no usable search criteria.
+     */
+    boolean start(@NonNull final Cursor cursor,
+                  @NonNull final SyncReaderProcessor syncProcessor) {
+        currentBookId = cursor.getLong(cursor.getColumnIndex(DBKey.PK_ID));
+        // populate the actual book based on the cursor data
+        currentBook.load(currentBookId, cursor);
+
+        // Check which fields this book needs.
+        currentFieldsWanted = syncProcessor.filter(currentBook);
+        if (currentFieldsWanted.isEmpty()) {
+            currentBookId = 0;
+            return false;
+        }
+
+        // remove all other criteria (this is CRUCIAL)
+        clearSearchCriteria();
+        boolean canSearch = false;
+
+        final String isbnStr = currentBook.getString(DBKey.BOOK_ISBN, null);
+        if (isbnStr != null && !isbnStr.isEmpty()) {
+            setIsbnSearchText(isbnStr);
+            canSearch = true;
+        }
+
+        final String title = currentBook.getTitle();
+        final Author author = currentBook.getPrimaryAuthor();
+        if (author != null) {
+            final String authorName = author.getFormattedName(true);
+            if (!authorName.isEmpty() && !title.isEmpty()) {
+                setAuthorSearchText(authorName);
+                setTitleSearchText(title);
+                canSearch = true;
+            }
+        }
+
+        // Collect external ID's we can use
+        final Map<EngineId, String> externalIds = new EnumMap<>(EngineId.class);
+        SearchEngineConfig.getAll().forEach(seConfig -> {
+            final Domain domain = seConfig.getExternalIdDomain();
+            if (domain != null) {
+                final String value = currentBook.getString(domain.getName(), null);
+                if (value != null && !value.isEmpty() && !"0".equals(value)) {
+                    externalIds.put(seConfig.getEngineId(), value);
+                }
+            }
+        });
+
+        if (!externalIds.isEmpty()) {
+            setExternalIds(externalIds);
+            canSearch = true;
+        }
+
+        if (canSearch) {
+            // optional: whether this is used will depend on SearchEngine/Preferences
+            currentBook.getPrimaryPublisher().ifPresent(publisher -> {
+                final String publisherName = publisher.getName();
+                if (!publisherName.isEmpty()) {
+                    setPublisherSearchText(publisherName);
+                }
+            });
+
+            // optional: whether this is used will depend on SearchEngine/Preferences
+            final boolean[] fetchCovers = new boolean[2];
+            for (int cIdx = 0; cIdx < 2; cIdx++) {
+                fetchCovers[cIdx] = currentFieldsWanted
+                        .containsKey(Book.BKEY_TMP_FILE_SPEC[cIdx]);
+            }
+            setFetchCover(fetchCovers);
+
+            if (search()) {
+                return true;
+            }
+        }
+
+        currentBookId = 0;
+        return false;
+    }
+
+    /**
+     * Get a user displayable label for the current book.
+     *
+     * @return the title, or the isbn if there is no title
+     */
+    @NonNull
+    String getLabel() {
+        final String title = currentBook.getTitle();
+        if (title.isEmpty()) {
+            return currentBook.getString(DBKey.BOOK_ISBN, "");
+        }
+        return title;
+    }
+
+    /**
+     * Get the id of the book being searched.
+     *
+     * @return book id, or {@code 0} if this lane is idle
+     */
+    long getBookId() {
+        return currentBookId;
+    }
+
+    /**
+     * Extract the delta between the current book and the search result.
+     *
+     * @param context          Current context
+     * @param syncProcessor    the fields to update and how
+     * @param remoteBook       results of the search
+     * @param realNumberParser shared parser
+     *
+     * @return the delta to write to the database, or {@code null} if there are no changes
+     *
+     * @throws IOException on <strong>very serious</strong> io issues.
+     */
+    @Nullable
+    Book process(@NonNull final Context context,
+                 @NonNull final SyncReaderProcessor syncProcessor,
+                 @NonNull final Book remoteBook,
+                 @NonNull final RealNumberParser realNumberParser)
+            throws IOException {
+        //noinspection DataFlowIssue
+        return syncProcessor.process(context, currentBookId, currentBook,
+                                     currentFieldsWanted, remoteBook,
+                                     realNumberParser);
+    }
+
+    /**
+     * Mark this lane as idle.
+     */
+    void setIdle() {
+        currentBookId = 0;
+        currentFieldsWanted = null;
+    }
+
+    @Override
+    protected void onSearchProgressChanged(@NonNull final TaskProgress progress) {
+        // The owner reports the overall progress based on the number of books done.
+    }
+
+    @Override
+    protected void onAllSearchesDone(@NonNull final Book book,
+                                     final boolean cancelled) {
+        listener.onBookSearched(this, cancelled ? null : book);
+    }
+
+    @FunctionalInterface
+    interface Listener {
+
+        /**
+         * Called when the search for the current book of the given lane is done.
+         *
+         * @param lane       which finished
+         * @param remoteBook the results of the search; {@code null} if cancelled
+         */
+        void onBookSearched(@NonNull BookUpdateLane lane,
+                            @Nullable Book remoteBook);
+    }
+}
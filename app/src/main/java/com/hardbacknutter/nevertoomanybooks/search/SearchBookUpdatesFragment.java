@@ -142,9 +142,6 @@ public class SearchBookUpdatesFragment
         // Progress from individual searches AND overall progress
         vm.onProgress().observe(getViewLifecycleOwner(), this::onProgress);
 
-        // An individual book search finished.
-        vm.onSearchFinished().observe(getViewLifecycleOwner(), this::onOneDone);
-
         // User cancelled the update
         vm.onSearchCancelled().observe(getViewLifecycleOwner(), message -> {
             // Unlikely to be seen...
@@ -252,11 +249,6 @@ public class SearchBookUpdatesFragment
         }
     }
 
-    private void onOneDone(@NonNull final LiveDataEvent<Book> message) {
-        //noinspection DataFlowIssue
-        message.process(book -> vm.processOne(getContext(), book));
-    }
-
     private void onAllDone(@NonNull final LiveDataEvent<Book> message) {
         closeProgressDialog();
 
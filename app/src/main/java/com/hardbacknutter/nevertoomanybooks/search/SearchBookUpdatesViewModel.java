@@ -23,6 +23,8 @@ import android.content.Context;
 import android.content.Intent;
 import android.database.Cursor;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -30,10 +32,9 @@ import androidx.fragment.app.Fragment;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.EnumMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.SortedMap;
 import java.util.TreeMap;
@@ -43,20 +44,20 @@ import com.hardbacknutter.nevertoomanybooks.ServiceLocator;
 import com.hardbacknutter.nevertoomanybooks.activityresultcontracts.EditBookOutput;
 import com.hardbacknutter.nevertoomanybooks.core.LoggerFactory;
 import com.hardbacknutter.nevertoomanybooks.core.database.DaoWriteException;
-import com.hardbacknutter.nevertoomanybooks.core.database.Domain;
+import com.hardbacknutter.nevertoomanybooks.core.database.SynchronizedDb;
+import com.hardbacknutter.nevertoomanybooks.core.database.Synchronizer;
 import com.hardbacknutter.nevertoomanybooks.core.parsers.RealNumberParser;
 import com.hardbacknutter.nevertoomanybooks.core.storage.StorageException;
+import com.hardbacknutter.nevertoomanybooks.core.tasks.ASyncExecutor;
 import com.hardbacknutter.nevertoomanybooks.core.tasks.LiveDataEvent;
 import com.hardbacknutter.nevertoomanybooks.core.tasks.TaskProgress;
 import com.hardbacknutter.nevertoomanybooks.core.utils.LocaleListUtils;
 import com.hardbacknutter.nevertoomanybooks.core.utils.ParcelUtils;
 import com.hardbacknutter.nevertoomanybooks.database.DBKey;
 import com.hardbacknutter.nevertoomanybooks.database.dao.BookDao;
-import com.hardbacknutter.nevertoomanybooks.entities.Author;
 import com.hardbacknutter.nevertoomanybooks.entities.Book;
-import com.hardbacknutter.nevertoomanybooks.searchengines.EngineId;
 import com.hardbacknutter.nevertoomanybooks.searchengines.SearchCoordinator;
-import com.hardbacknutter.nevertoomanybooks.searchengines.SearchEngineConfig;
+import com.hardbacknutter.nevertoomanybooks.searchengines.Site;
 import com.hardbacknutter.nevertoomanybooks.sync.SyncAction;
 import com.hardbacknutter.nevertoomanybooks.sync.SyncField;
 import com.hardbacknutter.nevertoomanybooks.sync.SyncReaderProcessor;
@@ -78,16 +79,33 @@ public class SearchBookUpdatesViewModel
     /** Ask confirmation if the number of covers to download exceeds this number. */
     private static final int WARN_FOR_NUMBER_OF_COVERS = 10;
 
+    /**
+     * The maximum number of books being searched at the same time.
+     * Each engine throttles its own requests, so while one book waits for a slow site,
+     * the other sites can already work on the next books.
+     */
+    private static final int MAX_BOOKS_IN_FLIGHT = 4;
+    /**
+     * The maximum number of search tasks (books * active sites) running concurrently.
+     * Keep this below the pool size of {@link ASyncExecutor#MAIN}.
+     */
+    private static final int MAX_CONCURRENT_TASKS = 16;
+    /** The number of updated books written to the database in a single transaction. */
+    private static final int BATCH_SIZE = 20;
+
     private final MutableLiveData<LiveDataEvent<Book>> listFinished =
             new MutableLiveData<>();
     private final MutableLiveData<LiveDataEvent<Throwable>> listFailed =
             new MutableLiveData<>();
 
-    /**
-     * Current and original book data.
-     * The object gets cleared and reused for each iteration of the loop.
-     */
-    private final Book currentBook = new Book();
+    /** The books being searched concurrently; each lane handles one book at a time. */
+    private final List<BookUpdateLane> lanes = new ArrayList<>();
+
+    /** Updates waiting to be written to the database. Only accessed on the UI thread. */
+    private final List<Book> pendingUpdates = new ArrayList<>();
+
+    /** Used to report back on the UI thread once the pending updates are written. */
+    private final Handler handler = new Handler(Looper.getMainLooper());
 
     /** The configuration on which fields to update and how. */
     private SyncReaderProcessor.Builder syncProcessorBuilder;
@@ -109,11 +127,12 @@ public class SearchBookUpdatesViewModel
     /** Allows restarting an update task from the given book id onwards. 0 for all. */
     private long lastBookIdProcessed;
 
-    /** The (subset) of fields relevant to the current book. */
-    private Map<String, SyncField> currentFieldsWanted;
-    /** Tracks the current book ID. */
-    private long currentBookId;
+    /** Tracks the last book ID read from the cursor. */
+    private long lastBookIdRead;
     private Cursor currentCursor;
+    /** Cached for the duration of the update. */
+    @Nullable
+    private RealNumberParser realNumberParser;
 
     private int currentProgressCounter;
     private int currentCursorCount;
@@ -131,6 +150,9 @@ public class SearchBookUpdatesViewModel
 
     @Override
     protected void onCleared() {
+        // The lanes are not managed by a ViewModelStore; cancel them ourselves.
+        lanes.forEach(BookUpdateLane::cancel);
+        lanes.clear();
         // sanity check, should already have been closed.
         if (currentCursor != null) {
             currentCursor.close();
@@ -302,6 +324,8 @@ public class SearchBookUpdatesViewModel
         syncProcessor = syncProcessorBuilder.build();
 
         currentProgressCounter = 0;
+        lastBookIdRead = 0;
+        pendingUpdates.clear();
 
         //noinspection OverlyBroadCatchBlock,CheckStyle
         try {
@@ -324,110 +348,74 @@ public class SearchBookUpdatesViewModel
             return false;
         }
 
-        // kick off the first book
-        return nextBook(context);
+        createLanes(context);
+
+        // kick off the first books
+        boolean started = false;
+        for (final BookUpdateLane lane : lanes) {
+            if (nextBook(context, lane)) {
+                started = true;
+            } else {
+                // No more books, or we failed.
+                break;
+            }
+        }
+        return started;
     }
 
     /**
-     * Move the cursor forward and update the next book.
+     * Create the lanes; each lane searches for one book at a time.
+     * <p>
+     * The number of lanes is limited so that the total number of concurrent
+     * search tasks stays within the bounds of the thread pool.
+     *
+     * @param context Current context
+     */
+    private void createLanes(@NonNull final Context context) {
+        lanes.forEach(BookUpdateLane::cancel);
+        lanes.clear();
+
+        final List<Site> sites = getSiteList();
+        final long activeSites = sites.stream().filter(Site::isActive).count();
+        final int nrOfLanes = (int) Math.max(1, Math.min(
+                Math.min(MAX_BOOKS_IN_FLIGHT, currentCursorCount),
+                MAX_CONCURRENT_TASKS / Math.max(1, activeSites)));
+
+        for (int i = 0; i < nrOfLanes; i++) {
+            lanes.add(new BookUpdateLane(context, sites, isStrictIsbn(), this::onBookSearched));
+        }
+    }
+
+    /**
+     * Move the cursor forward and start the search for the next book on the given lane.
+     * <p>
+     * When there are no more books and all lanes are idle,
+     * any pending updates are written and the final outcome is reported.
      *
      * @param context Current context
+     * @param lane    to use
      *
      * @return {@code true} if a search was started.
      */
-    private boolean nextBook(@NonNull final Context context) {
+    private boolean nextBook(@NonNull final Context context,
+                             @NonNull final BookUpdateLane lane) {
         //noinspection OverlyBroadCatchBlock,CheckStyle
         try {
-            final int idCol = currentCursor.getColumnIndex(DBKey.PK_ID);
-
             // loop/skip until we start a search for a book.
             while (currentCursor.moveToNext() && !isCancelled()) {
 
                 currentProgressCounter++;
 
-                //read the book ID
-                currentBookId = currentCursor.getLong(idCol);
-
-                // and populate the actual book based on the cursor data
-                currentBook.load(currentBookId, currentCursor);
-
-                // Check which fields this book needs.
                 //noinspection DataFlowIssue
-                currentFieldsWanted = syncProcessor.filter(currentBook);
-
-                final String title = currentBook.getTitle();
-
-                if (!currentFieldsWanted.isEmpty()) {
-                    // remove all other criteria (this is CRUCIAL)
-                    clearSearchCriteria();
-                    boolean canSearch = false;
-
-                    final String isbnStr = currentBook.getString(DBKey.BOOK_ISBN, null);
-                    if (isbnStr != null && !isbnStr.isEmpty()) {
-                        setIsbnSearchText(isbnStr);
-                        canSearch = true;
-                    }
-
-                    final Author author = currentBook.getPrimaryAuthor();
-                    if (author != null) {
-                        final String authorName = author.getFormattedName(true);
-                        if (!authorName.isEmpty() && !title.isEmpty()) {
-                            setAuthorSearchText(authorName);
-                            setTitleSearchText(title);
-                            canSearch = true;
-                        }
-                    }
-
-                    // Collect external ID's we can use
-                    final Map<EngineId, String> externalIds = new EnumMap<>(EngineId.class);
-                    SearchEngineConfig.getAll().forEach(seConfig -> {
-                        final Domain domain = seConfig.getExternalIdDomain();
-                        if (domain != null) {
-                            final String value = currentBook.getString(domain.getName(), null);
-                            if (value != null && !value.isEmpty() && !"0".equals(value)) {
-                                externalIds.put(seConfig.getEngineId(), value);
-                            }
-                        }
-                    });
-
-                    if (!externalIds.isEmpty()) {
-                        setExternalIds(externalIds);
-                        canSearch = true;
-                    }
-
-                    if (canSearch) {
-                        // optional: whether this is used will depend on SearchEngine/Preferences
-                        currentBook.getPrimaryPublisher().ifPresent(publisher -> {
-                            final String publisherName = publisher.getName();
-                            if (!publisherName.isEmpty()) {
-                                setPublisherSearchText(publisherName);
-                            }
-                        });
-
-                        // optional: whether this is used will depend on SearchEngine/Preferences
-                        final boolean[] fetchCovers = new boolean[2];
-                        for (int cIdx = 0; cIdx < 2; cIdx++) {
-                            fetchCovers[cIdx] = currentFieldsWanted
-                                    .containsKey(Book.BKEY_TMP_FILE_SPEC[cIdx]);
-                        }
-                        setFetchCover(fetchCovers);
-
-                        // Start searching
-                        if (search()) {
-                            // Update the progress base message.
-                            if (title.isEmpty()) {
-                                setBaseMessage(isbnStr);
-                            } else {
-                                setBaseMessage(title);
-                            }
-                            return true;
-                        }
-                        // else if no search was started, fall through and loop to the next book.
-                    }
+                if (lane.start(currentCursor, syncProcessor)) {
+                    lastBookIdRead = lane.getBookId();
+                    publishProgress(lane.getLabel());
+                    return true;
                 }
 
                 // no data needed, or no search-data available.
-                setBaseMessage(context.getString(R.string.progress_msg_skip_s, title));
+                publishProgress(context.getString(R.string.progress_msg_skip_s,
+                                                  lane.getLabel()));
             }
         } catch (@NonNull final Exception e) {
             postSearch(e);
@@ -435,58 +423,161 @@ public class SearchBookUpdatesViewModel
             return false;
         }
 
-        postSearch(true);
-        // we're done searching
+        lane.setIdle();
+        if (lanes.stream().allMatch(l -> l.getBookId() == 0)) {
+            writePendingUpdates(context);
+            whenWritten(() -> {
+                // cancel() has already reported the outcome.
+                if (!isCancelled()) {
+                    postSearch(true);
+                }
+            });
+        }
         return false;
     }
 
     /**
-     * Process the search-result data for one book.
-     *
-     * @param context    Current context
-     * @param remoteBook results of the search
+     * Process the search-result data for one book, and start the next book on the same lane.
+     * <p>
+     * Called on the UI thread.
      *
-     * @return {@code true} if a new search for the next book was started.
+     * @param lane       which finished
+     * @param remoteBook results of the search; {@code null} if the search was cancelled.
      */
-    @SuppressWarnings("UnusedReturnValue")
-    boolean processOne(@NonNull final Context context,
-                       @Nullable final Book remoteBook) {
+    private void onBookSearched(@NonNull final BookUpdateLane lane,
+                                @Nullable final Book remoteBook) {
+        if (isCancelled()) {
+            // cancel() has already reported the outcome.
+            return;
+        }
+
+        final Context context = ServiceLocator.getInstance().getLocalizedAppContext();
 
         //noinspection CheckStyle,OverlyBroadCatchBlock
         try {
-            if (!isCancelled() && remoteBook != null && !remoteBook.isEmpty()) {
-                final RealNumberParser realNumberParser =
-                        new RealNumberParser(LocaleListUtils.asList(context));
+            if (remoteBook != null && !remoteBook.isEmpty()) {
+                if (realNumberParser == null) {
+                    realNumberParser = new RealNumberParser(LocaleListUtils.asList(context));
+                }
                 //noinspection DataFlowIssue
-                final Book delta = syncProcessor.process(context, currentBookId, currentBook,
-                                                         currentFieldsWanted, remoteBook,
-                                                         realNumberParser);
+                final Book delta = lane.process(context, syncProcessor, remoteBook,
+                                                realNumberParser);
                 if (delta != null) {
-                    try {
-                        bookDao.update(context, delta);
-                    } catch (@NonNull final StorageException | DaoWriteException e) {
-                        // ignore, but log it.
-                        LoggerFactory.getLogger().e(TAG, e);
+                    pendingUpdates.add(delta);
+                    if (pendingUpdates.size() >= BATCH_SIZE) {
+                        writePendingUpdates(context);
                     }
                 }
             }
 
-            //update the counter, another one done.
-            final TaskProgress taskProgress = new TaskProgress(
-                    R.id.TASK_ID_UPDATE_FIELDS, null,
-                    currentProgressCounter, currentCursorCount, null);
-            synchronized (searchCoordinatorProgress) {
-                searchCoordinatorProgress.setValue(LiveDataEvent.of(taskProgress));
-            }
+            // On to the next book for this lane.
+            nextBook(context, lane);
 
-            // On to the next book in the list.
-            return nextBook(context);
         } catch (@NonNull final Exception e) {
             postSearch(e);
-            return false;
         }
     }
 
+    /**
+     * Hand all pending updates to a worker thread which writes them to the database
+     * using a single transaction.
+     * The batches are written one at a time, in the order they were handed over.
+     *
+     * @param context Current context
+     *
+     * @see #whenWritten(Runnable)
+     */
+    private void writePendingUpdates(@NonNull final Context context) {
+        if (pendingUpdates.isEmpty()) {
+            return;
+        }
+
+        final List<Book> batch = new ArrayList<>(pendingUpdates);
+        pendingUpdates.clear();
+        ASyncExecutor.SERIAL.execute(() -> {
+            //noinspection CheckStyle,OverlyBroadCatchBlock
+            try {
+                writeBatch(context, batch);
+            } catch (@NonNull final RuntimeException e) {
+                // log it; the batch was discarded.
+                LoggerFactory.getLogger().e(TAG, e);
+            }
+        });
+    }
+
+    /**
+     * Run the given action on the UI thread, once all batches handed over
+     * by {@link #writePendingUpdates(Context)} so far have been written.
+     *
+     * @param action to run
+     */
+    private void whenWritten(@NonNull final Runnable action) {
+        ASyncExecutor.SERIAL.execute(() -> handler.post(action));
+    }
+
+    /**
+     * Write the given updates to the database using a single transaction.
+     * Failures for individual books are logged, but otherwise ignored.
+     * <p>
+     * Called on a worker thread.
+     *
+     * @param context Current context
+     * @param batch   the updates to write
+     */
+    private void writeBatch(@NonNull final Context context,
+                            @NonNull final List<Book> batch) {
+        final SynchronizedDb db = ServiceLocator.getInstance().getDb();
+        Synchronizer.SyncLock txLock = null;
+        try {
+            if (!db.inTransaction()) {
+                txLock = db.beginTransaction(true);
+            }
+            for (final Book delta : batch) {
+                try {
+                    bookDao.update(context, delta);
+                } catch (@NonNull final StorageException | DaoWriteException e) {
+                    // ignore, but log it.
+                    LoggerFactory.getLogger().e(TAG, e);
+                }
+            }
+            if (txLock != null) {
+                db.setTransactionSuccessful();
+            }
+        } finally {
+            if (txLock != null) {
+                db.endTransaction(txLock);
+            }
+        }
+    }
+
+    /**
+     * Update the overall progress.
+     *
+     * @param message to show
+     */
+    private void publishProgress(@Nullable final String message) {
+        final TaskProgress taskProgress = new TaskProgress(
+                R.id.TASK_ID_UPDATE_FIELDS, message,
+                currentProgressCounter, currentCursorCount, null);
+        synchronized (searchCoordinatorProgress) {
+            searchCoordinatorProgress.setValue(LiveDataEvent.of(taskProgress));
+        }
+    }
+
+    /**
+     * Get the book id from which a restart should resume.
+     * This is the lowest id still being searched for, or if all lanes are idle,
+     * the last book read.
+     *
+     * @return book id
+     */
+    private long getResumeBookId() {
+        return lanes.stream()
+                    .mapToLong(BookUpdateLane::getBookId)
+                    .filter(id -> id > 0)
+                    .min()
+                    .orElse(lastBookIdRead);
+    }
 
     /**
      * Cleanup up and report the final outcome.
@@ -513,12 +604,13 @@ public class SearchBookUpdatesViewModel
             currentCursor.close();
         }
 
-        // Tell the SearchCoordinator we're done and it should clean up.
+        // the last book id which was handled; can be used to restart the update.
+        lastBookIdProcessed = getResumeBookId();
+
+        // Tell the lanes we're done and they should clean up.
         setBaseMessage(null);
         super.cancel();
-
-        // the last book id which was handled; can be used to restart the update.
-        lastBookIdProcessed = currentBookId;
+        lanes.forEach(BookUpdateLane::cancel);
 
         // See class docs above as to why this is not an EditBookOutput object!
         final Book book = new Book();
@@ -558,12 +650,15 @@ public class SearchBookUpdatesViewModel
             currentCursor.close();
         }
 
-        // Tell the SearchCoordinator we're done and it should clean up.
+        // the last book id which was handled; can be used to restart the update.
+        lastBookIdProcessed = getResumeBookId();
+
+        // Tell the lanes we're done and they should clean up.
         setBaseMessage(null);
         super.cancel();
-
-        // the last book id which was handled; can be used to restart the update.
-        lastBookIdProcessed = currentBookId;
+        lanes.forEach(BookUpdateLane::cancel);
+        // The books which completed before the failure are kept.
+        writePendingUpdates(ServiceLocator.getInstance().getLocalizedAppContext());
 
         //        final Bundle results = ServiceLocator.newBundle();
         //        results.putLong(BKEY_LAST_BOOK_ID_PROCESSED, lastBookIdProcessed);
@@ -580,6 +675,9 @@ public class SearchBookUpdatesViewModel
     @Override
     public void cancel() {
         super.cancel();
-        postSearch(false);
+        lanes.forEach(BookUpdateLane::cancel);
+        // The books which completed before the user cancelled are kept.
+        writePendingUpdates(ServiceLocator.getInstance().getLocalizedAppContext());
+        whenWritten(() -> postSearch(false));
     }
 }
@@ -22,6 +22,8 @@ package com.hardbacknutter.nevertoomanybooks.searchengines;
 
 import androidx.annotation.NonNull;
 
+import java.util.Collection;
+
 import com.hardbacknutter.nevertoomanybooks.core.network.CredentialsException;
 import com.hardbacknutter.nevertoomanybooks.entities.Author;
 
@@ -40,4 +42,21 @@ public interface AuthorResolver {
      */
     boolean resolve(@NonNull Author author)
             throws SearchException, CredentialsException;
+
+    /**
+     * Resolve all given {@link Author}s; e.g. all authors of a book.
+     * <p>
+     * The default implementation simply calls {@link #resolve(Author)} for each.
+     *
+     * @param authors to lookup
+     *
+     * @throws SearchException      on generic exceptions (wrapped) during search
+     * @throws CredentialsException on authentication/login failures
+     */
+    default void resolveAll(@NonNull final Collection<Author> authors)
+            throws SearchException, CredentialsException {
+        for (final Author author : authors) {
+            resolve(author);
+        }
+    }
 }
@@ -214,9 +214,7 @@ public class SearchCoordinator
         boolean searchStarted = false;
         if (!cancelRequested.get()) {
             //  update our listener with the current progress status
-            synchronized (searchCoordinatorProgress) {
-                searchCoordinatorProgress.setValue(LiveDataEvent.of(accumulateProgress()));
-            }
+            onSearchProgressChanged(accumulateProgress());
 
             if (waitingForIsbnOrCode) {
                 if (result != null && result.hasIsbn()) {
@@ -261,12 +259,7 @@ public class SearchCoordinator
             }
 
 
-            final LiveDataEvent<Book> message = LiveDataEvent.of(book);
-            if (cancelRequested.get()) {
-                searchCoordinatorCancelled.setValue(message);
-            } else {
-                searchCoordinatorFinished.setValue(message);
-            }
+            onAllSearchesDone(book, cancelRequested.get());
 
             if (BuildConfig.DEBUG && (DEBUG_SWITCHES.SEARCH_COORDINATOR
                                       || DEBUG_SWITCHES.SEARCH_COORDINATOR_TIMERS)) {
@@ -275,6 +268,25 @@ public class SearchCoordinator
         }
     }
 
+    /**
+     * Called on the UI thread when all searches are done, or after they were cancelled.
+     * <p>
+     * The default implementation posts the result to {@link #onSearchFinished()}
+     * or {@link #onSearchCancelled()}.
+     *
+     * @param book      the accumulated results
+     * @param cancelled {@code true} if the search was cancelled
+     */
+    protected void onAllSearchesDone(@NonNull final Book book,
+                                     final boolean cancelled) {
+        final LiveDataEvent<Book> message = LiveDataEvent.of(book);
+        if (cancelled) {
+            searchCoordinatorCancelled.setValue(message);
+        } else {
+            searchCoordinatorFinished.setValue(message);
+        }
+    }
+
     private synchronized void onSearchTaskFailed(final int taskId,
                                                  @Nullable final Throwable e) {
         synchronized (errorsByEngineId) {
@@ -301,8 +313,19 @@ public class SearchCoordinator
             progressByEngineId.put(engineId, message);
         }
         // forward the accumulated progress
+        onSearchProgressChanged(accumulateProgress());
+    }
+
+    /**
+     * Called on the UI thread with the accumulated progress of the active searches.
+     * <p>
+     * The default implementation posts the progress to {@link #onProgress()}.
+     *
+     * @param progress the accumulated progress
+     */
+    protected void onSearchProgressChanged(@NonNull final TaskProgress progress) {
         synchronized (searchCoordinatorProgress) {
-            searchCoordinatorProgress.setValue(LiveDataEvent.of(accumulateProgress()));
+            searchCoordinatorProgress.setValue(LiveDataEvent.of(progress));
         }
     }
 
@@ -68,10 +68,7 @@ public final class SearchEngineConfig {
     private final int domainMenuOrder;
     private final int connectTimeoutMs;
     private final int readTimeoutMs;
-    /**
-     * This is a reference to the <strong>static</strong> object created in the SearchEngine
-     * implementation class.
-     */
+    /** The token-bucket shared by all network access for this engine. */
     @Nullable
     private final Throttler throttler;
 
@@ -328,7 +325,8 @@ public final class SearchEngineConfig {
     /**
      * Get the throttler for regulating network access.
      * <p>
-     * The <strong>static</strong> Throttler is created in the SearchEngine implementation class.
+     * There is a single Throttler per engine. It is shared by all users of the engine,
+     * i.e. the searches, the cover downloads and the sync readers/writers.
      *
      * @return throttler to use, or {@code null} for none.
      */
@@ -36,6 +36,8 @@ public class BdtAuthor {
     private boolean resolved;
     @Nullable
     private String resolvedName;
+    /** UTC epoch millis of the last failed lookup; {@code 0} if none. */
+    private long lookupFailed;
 
     public BdtAuthor(final long id,
                      @NonNull final DataHolder rowData) {
@@ -44,6 +46,21 @@ public class BdtAuthor {
         this.resolved = rowData.getBoolean(CacheDbHelper.BDT_AUTHOR_IS_RESOLVED);
         this.resolvedName = rowData.getString(CacheDbHelper.BDT_AUTHOR_RESOLVED_NAME, null);
         this.url = rowData.getString(CacheDbHelper.BDT_AUTHOR_URL, null);
+        this.lookupFailed = rowData.getLong(CacheDbHelper.BDT_AUTHOR_LOOKUP_FAILED);
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param from to copy
+     */
+    public BdtAuthor(@NonNull final BdtAuthor from) {
+        this.id = from.id;
+        this.name = from.name;
+        this.url = from.url;
+        this.resolved = from.resolved;
+        this.resolvedName = from.resolvedName;
+        this.lookupFailed = from.lookupFailed;
     }
 
     BdtAuthor(@NonNull final String name,
@@ -70,6 +87,24 @@ public class BdtAuthor {
         return url;
     }
 
+    /**
+     * Check if the website lists this author.
+     *
+     * @return {@code false} if this is a negative entry for a name not found on the site
+     */
+    public boolean isListed() {
+        return url != null && !url.isEmpty();
+    }
+
+    /**
+     * Get the time of the last failed lookup.
+     *
+     * @return UTC epoch millis; {@code 0} if the last lookup did not fail
+     */
+    public long getLookupFailed() {
+        return lookupFailed;
+    }
+
     public boolean isResolved() {
         return resolved;
     }
@@ -103,6 +138,7 @@ public class BdtAuthor {
                + ", url='" + url + '\''
                + ", resolved=" + resolved
                + ", resolvedName='" + resolvedName + '\''
+               + ", lookupFailed=" + lookupFailed
                + '}';
     }
 }
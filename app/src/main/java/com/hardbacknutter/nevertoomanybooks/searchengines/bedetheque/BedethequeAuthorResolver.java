@@ -26,7 +26,21 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.hardbacknutter.nevertoomanybooks.ServiceLocator;
 import com.hardbacknutter.nevertoomanybooks.core.LoggerFactory;
@@ -56,6 +70,27 @@ public class BedethequeAuthorResolver
 
     private static final String TAG = "BedethequeAuthorResolver";
 
+    /** How long a failed lookup is remembered before we try the website again. */
+    private static final long LOOKUP_FAILED_TTL = TimeUnit.DAYS.toMillis(30);
+
+    /**
+     * The number of concurrent lookups done by {@link #resolveAll(Collection)}.
+     * The site Throttler still applies to all of them together.
+     */
+    private static final int WORKERS = 3;
+
+    /** Shared by all instances; the threads only ever do network/cache work. */
+    private static final ExecutorService EXECUTOR;
+
+    static {
+        final AtomicInteger threadNr = new AtomicInteger();
+        EXECUTOR = Executors.newFixedThreadPool(WORKERS, r -> {
+            final Thread t = new Thread(r, TAG + "-" + threadNr.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
     @NonNull
     private final Context context;
     @NonNull
@@ -126,30 +161,37 @@ public class BedethequeAuthorResolver
         final BedethequeCacheDao cacheDao = ServiceLocator.getInstance().getBedethequeCacheDao();
         // Check if we have the author in the cache
         BdtAuthor bdtAuthor = cacheDao.findByName(name, locale).orElse(null);
-        if (bdtAuthor == null) {
-            // If not resolved / not found,
-            final AuthorListLoader pageLoader = new AuthorListLoader(context, searchEngine);
+
+        // Did we try before and fail? Then don't bother the website again... for now.
+        if (bdtAuthor != null && isRecentFailure(bdtAuthor)) {
+            return false;
+        }
+
+        if (bdtAuthor == null || !bdtAuthor.isListed()) {
             final char c1 = firstChar(author.getFamilyName());
-            // and the list-page was never fetched before,
-            if (!cacheDao.isAuthorPageCached(c1)) {
+            // If the list-page was never fetched before,
+            // or the author was not on it when we last looked
+            if (bdtAuthor != null || !cacheDao.isAuthorPageCached(c1)) {
                 // go fetch the the list-page on which the author should/could be
+                final AuthorListLoader pageLoader = new AuthorListLoader(context, searchEngine);
                 if (pageLoader.fetch(c1)) {
                     // If the author was on the list page, we should find it in the cache now.
                     bdtAuthor = cacheDao.findByName(name, locale).orElse(null);
                 }
             }
-        }
 
-        // If the author is still not found in the cache, give up
-        if (bdtAuthor == null) {
-            return false;
+            // If the author is still not found, remember this and give up
+            if (bdtAuthor == null || !bdtAuthor.isListed()) {
+                setNotListed(name);
+                return false;
+            }
         }
 
         // we have it in the cache, check if it's fully resolved
         if (!bdtAuthor.isResolved()) {
             if (!lookup(bdtAuthor)) {
-                // The website list page had it, but there is no details page.
-                // We should never get here... flw
+                // The website list page had it, but there is no (usable) details page.
+                setLookupFailed(bdtAuthor);
                 return false;
             }
         }
@@ -180,6 +222,153 @@ public class BedethequeAuthorResolver
         return true;
     }
 
+    /**
+     * Pre-resolve all given authors, e.g. all authors of a book.
+     * <ol>
+     *     <li>Duplicate names are resolved only once.</li>
+     *     <li>Missing list-pages are fetched concurrently, one fetch per page.</li>
+     *     <li>The unique names are resolved concurrently.</li>
+     *     <li>The duplicates are then resolved from the (now populated) cache.</li>
+     * </ol>
+     * Each worker uses its own engine; the site throttling is shared.
+     *
+     * @param authors to lookup
+     *
+     * @throws SearchException      on generic exceptions (wrapped) during search
+     * @throws CredentialsException on authentication/login failures
+     */
+    @Override
+    public void resolveAll(@NonNull final Collection<Author> authors)
+            throws SearchException, CredentialsException {
+
+        // de-duplicate on name
+        final Map<String, List<Author>> byName = new LinkedHashMap<>();
+        for (final Author author : authors) {
+            byName.computeIfAbsent(author.getFormattedName(false), k -> new ArrayList<>())
+                  .add(author);
+        }
+
+        if (byName.size() < 2) {
+            AuthorResolver.super.resolveAll(authors);
+            return;
+        }
+
+        final BedethequeCacheDao cacheDao = ServiceLocator.getInstance().getBedethequeCacheDao();
+
+        // Find the list-pages we need, but do not have yet.
+        final Set<Character> pages = new LinkedHashSet<>();
+        for (final List<Author> list : byName.values()) {
+            final Author author = list.get(0);
+            final char c1 = firstChar(author.getFamilyName());
+            if (!pages.contains(c1)
+                && cacheDao.findByName(author.getFormattedName(false), locale).isEmpty()
+                && !cacheDao.isAuthorPageCached(c1)) {
+                pages.add(c1);
+            }
+        }
+
+        final List<Callable<Boolean>> pageTasks = new ArrayList<>();
+        for (final char c1 : pages) {
+            pageTasks.add(() -> new AuthorListLoader(context, createWorkerEngine()).fetch(c1));
+        }
+        invokeAll(pageTasks);
+
+        final List<Callable<Boolean>> resolveTasks = new ArrayList<>();
+        for (final List<Author> list : byName.values()) {
+            // Using the public constructor: each resolver creates its own engine.
+            resolveTasks.add(() -> new BedethequeAuthorResolver(context,
+                                                                (Cancellable) searchEngine)
+                    .resolve(list.get(0)));
+        }
+        invokeAll(resolveTasks);
+
+        // All lookups are now cached; resolving the duplicates does not need the network.
+        for (final List<Author> list : byName.values()) {
+            for (int i = 1; i < list.size(); i++) {
+                resolve(list.get(i));
+            }
+        }
+    }
+
+    @NonNull
+    private BedethequeSearchEngine createWorkerEngine() {
+        final BedethequeSearchEngine engine =
+                (BedethequeSearchEngine) EngineId.Bedetheque.createSearchEngine(context);
+        // forward cancellation
+        engine.setCaller(searchEngine);
+        return engine;
+    }
+
+    /**
+     * Run the given tasks on the shared pool and wait for all of them.
+     *
+     * @param tasks to run
+     *
+     * @throws SearchException      on generic exceptions (wrapped) during search
+     * @throws CredentialsException on authentication/login failures
+     */
+    private void invokeAll(@NonNull final List<Callable<Boolean>> tasks)
+            throws SearchException, CredentialsException {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        try {
+            for (final Future<Boolean> future : EXECUTOR.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (@NonNull final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SearchException(searchEngine.getEngineId(), e);
+        } catch (@NonNull final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof SearchException) {
+                throw (SearchException) cause;
+            } else if (cause instanceof CredentialsException) {
+                throw (CredentialsException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new SearchException(searchEngine.getEngineId(), cause);
+        }
+    }
+
+    private boolean isRecentFailure(@NonNull final BdtAuthor bdtAuthor) {
+        final long failed = bdtAuthor.getLookupFailed();
+        return failed > 0 && System.currentTimeMillis() - failed < LOOKUP_FAILED_TTL;
+    }
+
+    /**
+     * Remember the given listed author could not be resolved; unless we were cancelled,
+     * in which case we don't really know.
+     *
+     * @param bdtAuthor which failed to resolve
+     */
+    private void setLookupFailed(@NonNull final BdtAuthor bdtAuthor) {
+        if (searchEngine.isCancelled()) {
+            return;
+        }
+        try {
+            ServiceLocator.getInstance().getBedethequeCacheDao()
+                          .setLookupFailed(bdtAuthor, System.currentTimeMillis());
+        } catch (@NonNull final DaoWriteException e) {
+            // log, but ignore - should never happen unless disk full
+            LoggerFactory.getLogger().e(TAG, e);
+        }
+    }
+
+    /**
+     * Remember the given name is not listed on the site; unless we were cancelled,
+     * in which case we don't really know.
+     *
+     * @param name which failed to resolve
+     */
+    private void setNotListed(@NonNull final String name) {
+        if (searchEngine.isCancelled()) {
+            return;
+        }
+        ServiceLocator.getInstance().getBedethequeCacheDao()
+                      .setNotListed(name, locale, System.currentTimeMillis());
+    }
 
     /**
      * Lookup the author on the website.
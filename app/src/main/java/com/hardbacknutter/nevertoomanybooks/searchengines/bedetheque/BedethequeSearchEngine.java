@@ -431,9 +431,7 @@ public class BedethequeSearchEngine
             }
 
             if (authorResolver != null) {
-                for (final Author author : book.getAuthors()) {
-                    authorResolver.resolve(author);
-                }
+                authorResolver.resolveAll(book.getAuthors());
             }
 
             // Unless present, add the default language
@@ -535,9 +535,7 @@ public class LastDodoSearchEngine
         }
 
         if (authorResolver != null) {
-            for (final Author author : book.getAuthors()) {
-                authorResolver.resolve(author);
-            }
+            authorResolver.resolveAll(book.getAuthors());
         }
 
         // It's extremely unlikely, but should the language be missing, add dutch.
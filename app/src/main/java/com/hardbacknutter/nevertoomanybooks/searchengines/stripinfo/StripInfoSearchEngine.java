@@ -553,9 +553,7 @@ public class StripInfoSearchEngine
         }
 
         if (authorResolver != null) {
-            for (final Author author : book.getAuthors()) {
-                authorResolver.resolve(author);
-            }
+            authorResolver.resolveAll(book.getAuthors());
         }
 
         // It's extremely unlikely, but should the language be missing, add dutch.
@@ -64,6 +64,8 @@ public final class Prefs {
     public static final String pk_edit_book_tabs_external_id = "edit.book.tab.externalId";
 
     public static final String pk_sqlite_max_lines = "sqlite.shell.max.lines";
+    public static final String pk_sqlite_stats_enabled = "sqlite.stats.enabled";
+    public static final String pk_sqlite_stats_slow_ms = "sqlite.stats.slow.ms";
 
     public static final String pk_host_url = "host.url";
     public static final String pk_host_user = "host.user";
@@ -50,6 +50,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import com.hardbacknutter.nevertoomanybooks.R;
+import com.hardbacknutter.nevertoomanybooks.ServiceLocator;
 import com.hardbacknutter.nevertoomanybooks.StartupViewModel;
 import com.hardbacknutter.nevertoomanybooks.activityresultcontracts.SearchSitesAllListsContract;
 import com.hardbacknutter.nevertoomanybooks.activityresultcontracts.SettingsContract;
@@ -401,6 +402,7 @@ public class SettingsFragment
     public void onSharedPreferenceChanged(@NonNull final SharedPreferences prefs,
                                           @Nullable final String key) {
         if (ReorderHelper.PK_SORT_TITLE_REORDERED.equals(key)) {
+            ServiceLocator.getInstance().getReorderHelper().onPreferencesChanged();
             // Set the activity result so our caller will recreate itself
             vm.setOnBackRequiresActivityRecreation();
         }
@@ -0,0 +1,258 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.sync.calibre;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import com.hardbacknutter.nevertoomanybooks.core.parsers.DateParser;
+import com.hardbacknutter.org.json.JSONArray;
+import com.hardbacknutter.org.json.JSONObject;
+
+/**
+ * Compares the changes we would send to the Calibre server with the book data
+ * as fetched from that server, and removes the fields which are unchanged.
+ * <p>
+ * The comparison is conservative: when in doubt, a field is considered changed
+ * and will be send to the server.
+ */
+final class CalibreBookDiff {
+
+    /**
+     * Calibre stores an 'undefined' date as "0101-01-01T00:00:00+00:00".
+     * Any year up to and including this one is considered 'not set'.
+     */
+    private static final int CALIBRE_UNDEFINED_YEAR = 101;
+
+    @NonNull
+    private final DateParser dateParser;
+
+    /**
+     * Constructor.
+     *
+     * @param dateParser to use for comparing dates
+     */
+    CalibreBookDiff(@NonNull final DateParser dateParser) {
+        this.dateParser = dateParser;
+    }
+
+    /**
+     * Remove all fields from the given changes which are equal to
+     * the corresponding fields of the remote book.
+     * <p>
+     * {@link CalibreBookJsonKey#LAST_MODIFIED} and {@link CalibreBookJsonKey#COVER}
+     * are never removed.
+     *
+     * @param changes      the full set of changes; will be modified
+     * @param calibreBook  the book as fetched from the server
+     * @param customFields the custom fields for the library of the book
+     */
+    void removeUnchanged(@NonNull final JSONObject changes,
+                         @NonNull final JSONObject calibreBook,
+                         @NonNull final Collection<CalibreCustomField> customFields) {
+
+        final Set<String> dateKeys = new HashSet<>();
+        dateKeys.add(CalibreBookJsonKey.DATE_PUBLISHED);
+        final Set<String> customKeys = new HashSet<>();
+        for (final CalibreCustomField cf : customFields) {
+            customKeys.add(cf.getCalibreKey());
+            if (CalibreCustomField.TYPE_DATETIME.equals(cf.getType())) {
+                dateKeys.add(cf.getCalibreKey());
+            }
+        }
+
+        @Nullable
+        final JSONObject userMetaData = calibreBook.optJSONObject(
+                CalibreBookJsonKey.USER_METADATA);
+
+        // copy the keys, as we'll be removing entries while looping
+        final List<String> keys = new ArrayList<>(changes.keySet());
+        for (final String key : keys) {
+            if (CalibreBookJsonKey.LAST_MODIFIED.equals(key)
+                || CalibreBookJsonKey.COVER.equals(key)) {
+                continue;
+            }
+
+            @Nullable
+            final Object remote;
+            if (customKeys.contains(key)) {
+                if (userMetaData == null) {
+                    // we can't compare; send it
+                    continue;
+                }
+                final JSONObject data = userMetaData.optJSONObject(key);
+                if (data == null) {
+                    continue;
+                }
+                remote = data.opt(CalibreCustomField.VALUE);
+            } else {
+                if (!calibreBook.has(key)) {
+                    continue;
+                }
+                remote = calibreBook.opt(key);
+            }
+
+            final Object local = changes.opt(key);
+            final boolean same;
+            if (dateKeys.contains(key)) {
+                same = isSameDate(local, remote);
+            } else {
+                same = isSame(local, remote);
+            }
+            if (same) {
+                changes.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Check if there is anything left to send.
+     *
+     * @param changes as filtered by {@link #removeUnchanged(JSONObject, JSONObject, Collection)}
+     *
+     * @return {@code true} if there are changes other than the 'last-modified' date.
+     */
+    static boolean hasChanges(@NonNull final JSONObject changes) {
+        for (final String key : changes.keySet()) {
+            if (!CalibreBookJsonKey.LAST_MODIFIED.equals(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isSameDate(@Nullable final Object local,
+                               @Nullable final Object remote) {
+        final Optional<LocalDateTime> localDate = parseDate(local);
+        final Optional<LocalDateTime> remoteDate = parseDate(remote);
+        final boolean localUnset = isUnsetDate(local, localDate);
+        final boolean remoteUnset = isUnsetDate(remote, remoteDate);
+        if (localUnset || remoteUnset) {
+            return localUnset && remoteUnset;
+        }
+        // If a non-empty value could not be parsed, assume it changed.
+        return localDate.isPresent() && localDate.equals(remoteDate);
+    }
+
+    @NonNull
+    private Optional<LocalDateTime> parseDate(@Nullable final Object value) {
+        if (isEmpty(value)) {
+            return Optional.empty();
+        }
+        return dateParser.parse(value.toString());
+    }
+
+    private static boolean isUnsetDate(@Nullable final Object value,
+                                       @NonNull final Optional<LocalDateTime> date) {
+        return date.map(d -> d.getYear() <= CALIBRE_UNDEFINED_YEAR)
+                   .orElseGet(() -> isEmpty(value));
+    }
+
+    private static boolean isSame(@Nullable final Object local,
+                                  @Nullable final Object remote) {
+        if (isEmpty(local)) {
+            return isEmpty(remote);
+        }
+        if (isEmpty(remote)) {
+            return false;
+        }
+
+        if (local instanceof Number && remote instanceof Number) {
+            return Double.compare(((Number) local).doubleValue(),
+                                  ((Number) remote).doubleValue()) == 0;
+        }
+        if (local instanceof Boolean || remote instanceof Boolean) {
+            return local.equals(remote);
+        }
+        if (local instanceof JSONArray && remote instanceof JSONArray) {
+            final JSONArray la = (JSONArray) local;
+            final JSONArray ra = (JSONArray) remote;
+            if (la.length() != ra.length()) {
+                return false;
+            }
+            for (int i = 0; i < la.length(); i++) {
+                if (!isSame(la.opt(i), ra.opt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (local instanceof JSONObject && remote instanceof JSONObject) {
+            final JSONObject lo = (JSONObject) local;
+            final JSONObject ro = (JSONObject) remote;
+            // A key which is missing on one side is equal to an empty value on the other.
+            final Set<String> all = new HashSet<>(lo.keySet());
+            all.addAll(ro.keySet());
+            for (final String key : all) {
+                if (!isSame(lo.opt(key), ro.opt(key))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return local.toString().equals(remote.toString());
+    }
+
+    /**
+     * Check for the different ways a 'not set' value can show up.
+     * <p>
+     * A numeric zero is considered empty; this covers a rating of '0' versus
+     * a remote {@code null}.
+     *
+     * @param value to check
+     *
+     * @return {@code true} if empty
+     */
+    private static boolean isEmpty(@Nullable final Object value) {
+        if (value == null || JSONObject.NULL.equals(value)) {
+            return true;
+        }
+        if (value instanceof String) {
+            final String s = (String) value;
+            return s.isEmpty() || CalibreContentServer.VALUE_IS_NONE.equals(s);
+        }
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue() == 0;
+        }
+        if (value instanceof JSONArray) {
+            return ((JSONArray) value).isEmpty();
+        }
+        if (value instanceof JSONObject) {
+            final JSONObject o = (JSONObject) value;
+            final Iterator<String> it = o.keys();
+            while (it.hasNext()) {
+                if (!isEmpty(o.opt(it.next()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
@@ -54,7 +54,9 @@ import java.security.cert.CertificateEncodingException;
 import java.security.cert.CertificateException;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -94,6 +96,7 @@ import com.hardbacknutter.nevertoomanybooks.sync.SyncReaderMetaData;
 import com.hardbacknutter.org.json.JSONArray;
 import com.hardbacknutter.org.json.JSONException;
 import com.hardbacknutter.org.json.JSONObject;
+import com.hardbacknutter.org.json.JSONTokener;
 
 /**
  * <ul>
@@ -171,16 +174,6 @@ public final class CalibreContentServer
      * 8k is the same as the default in BufferedReader.
      */
     private static final int BUFFER_SMALL = 8_192;
-    /**
-     * The buffer used for a single book; it's usually just above 8k.
-     */
-    private static final int BUFFER_BOOK = 16_384;
-    /**
-     * We're using a larger read buffer for {@link #getBookIds(String, int, int)};
-     * The size is based on a rough minimum of
-     * 8K of data for a single book and we fetch 10 books at a time... hence 128k.
-     */
-    private static final int BUFFER_BOOK_LIST = 131_072;
     /**
      * And a huge buffer to download the eBook files themselves.
      */
@@ -208,14 +201,25 @@ public final class CalibreContentServer
     /** The header string: "Basic user:password". (in base64) */
     @Nullable
     private final String authHeader;
-    @Nullable
-    private FutureHttpPost<Void> futureHttpPost;
+    /**
+     * Cover downloads can run in parallel; each concurrent caller takes a downloader
+     * from the idle list, or creates a new one.
+     * All created downloaders are kept in {@link #imageDownloaders} for cancelling.
+     */
+    private final List<ImageDownloader> imageDownloaders = new ArrayList<>();
+    private final Deque<ImageDownloader> idleImageDownloaders = new ArrayDeque<>();
+    /**
+     * Updates can be pushed in parallel; same pooling as for {@link #imageDownloaders}.
+     */
+    private final List<FutureHttpPost<Void>> futureHttpPosts = new ArrayList<>();
+    private final Deque<FutureHttpPost<Void>> idleFutureHttpPosts = new ArrayDeque<>();
     @Nullable
     private FutureHttpGet<String> futureJsonFetchRequest;
+    /** JSON requests are done one at a time; there is no need for more than one instance. */
     @Nullable
-    private FutureHttpGet<Uri> futureFileFetchRequest;
+    private FutureHttpGet<JSONObject> futureJsonObjectFetchRequest;
     @Nullable
-    private ImageDownloader imageDownloader;
+    private FutureHttpGet<Uri> futureFileFetchRequest;
     /** As read from the Content Server. */
     @Nullable
     private CalibreLibrary defaultLibrary;
@@ -491,8 +495,7 @@ public final class CalibreContentServer
                                                     .map(Bookshelf::getId)
                                                     .orElse((long) Bookshelf.HARD_DEFAULT);
 
-        final JSONObject source = new JSONObject(
-                fetch(serverUri + ULR_AJAX_LIBRARY_INFO, BUFFER_SMALL));
+        final JSONObject source = fetchJson(serverUri + ULR_AJAX_LIBRARY_INFO);
 
         final JSONObject libraryMap = source.getJSONObject("library_map");
         final String defaultLibraryId = source.getString("default_library");
@@ -701,7 +704,7 @@ public final class CalibreContentServer
 
         final String url = serverUri + "/ntmb/virtual-libraries-for-books/"
                            + getCsvIds(calibreIds) + "/" + libraryStringId;
-        return new JSONObject(fetch(url, BUFFER_SMALL));
+        return fetchJson(url);
     }
 
     /**
@@ -739,7 +742,7 @@ public final class CalibreContentServer
     @WorkerThread
     @NonNull
     public JSONObject getBookIds(@NonNull final String libraryStringId,
-                                 @SuppressWarnings("SameParameterValue") final int num,
+                                 final int num,
                                  final int offset)
             throws StorageException,
                    IOException,
@@ -747,7 +750,7 @@ public final class CalibreContentServer
 
         final String url = serverUri + "/ajax/category/616c6c626f6f6b73/" + libraryStringId
                            + "?num=" + num + "&offset=" + offset;
-        return new JSONObject(fetch(url, BUFFER_SMALL));
+        return fetchJson(url);
     }
 
     /**
@@ -800,7 +803,7 @@ public final class CalibreContentServer
 
         final String url = serverUri + "/ajax/search/" + libraryId
                            + "?num=" + num + "&offset=" + offset + "&query=" + query;
-        return new JSONObject(fetch(url, BUFFER_BOOK_LIST));
+        return fetchJson(url);
     }
 
     /**
@@ -1087,7 +1090,7 @@ public final class CalibreContentServer
 
         final String url = serverUri + "/ajax/books/" + libraryStringId
                            + "?category_urls=false&ids=" + getCsvIds(calibreIds);
-        return new JSONObject(fetch(url, BUFFER_BOOK_LIST));
+        return fetchJson(url);
     }
 
     @NonNull
@@ -1130,7 +1133,7 @@ public final class CalibreContentServer
 
         final String url = serverUri + "/ajax/book/" + calibreUuid + '/' + libraryStringId
                            + "?id_is_uuid=true";
-        return new JSONObject(fetch(url, BUFFER_BOOK));
+        return fetchJson(url);
     }
 
     /**
@@ -1152,27 +1155,46 @@ public final class CalibreContentServer
             throws StorageException, IOException, JSONException {
 
         final String url = serverUri + "/ajax/book/" + calibreId + '/' + libraryStringId;
-        return new JSONObject(fetch(url, BUFFER_BOOK));
+        return fetchJson(url);
     }
 
+    /**
+     * Download a cover.
+     * <p>
+     * Thread-safe; multiple covers can be downloaded in parallel.
+     *
+     * @param calibreId of the book
+     * @param coverUrl  relative url of the cover
+     *
+     * @return the file
+     *
+     * @throws IOException      on generic/other IO failures
+     * @throws StorageException on storage related failures
+     */
     @WorkerThread
     @NonNull
     Optional<File> getCover(final int calibreId,
                             @NonNull final String coverUrl)
             throws StorageException, IOException {
 
+        ImageDownloader imageDownloader;
         synchronized (this) {
+            imageDownloader = idleImageDownloaders.poll();
             if (imageDownloader == null) {
-                imageDownloader =
-                        new ImageDownloader(createFutureGetRequest(true)
-                        );
+                imageDownloader = new ImageDownloader(createFutureGetRequest(true));
+                imageDownloaders.add(imageDownloader);
             }
         }
 
         final String tempFilename = ImageDownloader.getTempFilename(
                 FILENAME_SUFFIX, String.valueOf(calibreId), 0, null);
-
-        return imageDownloader.fetch(serverUri + coverUrl, tempFilename);
+        try {
+            return imageDownloader.fetch(serverUri + coverUrl, tempFilename);
+        } finally {
+            synchronized (this) {
+                idleImageDownloaders.push(imageDownloader);
+            }
+        }
     }
 
     /**
@@ -1210,6 +1232,49 @@ public final class CalibreContentServer
         });
     }
 
+    /**
+     * Fetch the given url content and parse it as a {@link JSONObject}.
+     * The response is parsed while it's being read; it's never held as a single string.
+     *
+     * @param url to read
+     *
+     * @return content
+     *
+     * @throws CancellationException  if the user cancelled us
+     * @throws SocketTimeoutException if the timeout expires before
+     *                                the connection can be established
+     * @throws IOException            on generic/other IO failures
+     * @throws StorageException       on storage related failures
+     * @throws JSONException          upon any parsing error
+     */
+    @NonNull
+    private JSONObject fetchJson(@NonNull final String url)
+            throws CancellationException,
+                   StorageException,
+                   SocketTimeoutException,
+                   IOException,
+                   JSONException {
+        synchronized (this) {
+            if (futureJsonObjectFetchRequest == null) {
+                futureJsonObjectFetchRequest = createFutureGetRequest(true);
+            }
+        }
+        try {
+            return futureJsonObjectFetchRequest.get(url, (con, is) -> {
+                // The JSONTokener does its own buffering
+                try (InputStreamReader isr = new InputStreamReader(is, StandardCharsets.UTF_8)) {
+                    return new JSONObject(new JSONTokener(isr));
+                }
+            });
+        } catch (@NonNull final IOException e) {
+            // The parsing is done inside the request; unwrap parsing errors
+            if (e.getCause() instanceof JSONException) {
+                throw (JSONException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
     /**
      * Download the main format file for the given book and store it in the given folder.
      *
@@ -1385,6 +1450,8 @@ public final class CalibreContentServer
 
     /**
      * Send updates to the server.
+     * <p>
+     * Thread-safe; multiple updates can be pushed in parallel.
      *
      * @param libraryStringId the Calibre native {@code stringId} for the library to write to
      * @param calibreId       book to update
@@ -1410,12 +1477,22 @@ public final class CalibreContentServer
         if (postBody == null) {
             throw new JSONException("postBody was null");
         }
+
+        FutureHttpPost<Void> futureHttpPost;
         synchronized (this) {
+            futureHttpPost = idleFutureHttpPosts.poll();
             if (futureHttpPost == null) {
                 futureHttpPost = createFuturePostRequest();
+                futureHttpPosts.add(futureHttpPost);
+            }
+        }
+        try {
+            futureHttpPost.post(url, postBody, null);
+        } finally {
+            synchronized (this) {
+                idleFutureHttpPosts.push(futureHttpPost);
             }
         }
-        futureHttpPost.post(url, postBody, null);
     }
 
     public void cancel() {
@@ -1423,15 +1500,14 @@ public final class CalibreContentServer
             if (futureJsonFetchRequest != null) {
                 futureJsonFetchRequest.cancel();
             }
+            if (futureJsonObjectFetchRequest != null) {
+                futureJsonObjectFetchRequest.cancel();
+            }
             if (futureFileFetchRequest != null) {
                 futureFileFetchRequest.cancel();
             }
-            if (imageDownloader != null) {
-                imageDownloader.cancel();
-            }
-            if (futureHttpPost != null) {
-                futureHttpPost.cancel();
-            }
+            imageDownloaders.forEach(ImageDownloader::cancel);
+            futureHttpPosts.forEach(FutureHttpPost::cancel);
         }
     }
 
@@ -42,6 +42,11 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.hardbacknutter.nevertoomanybooks.BuildConfig;
 import com.hardbacknutter.nevertoomanybooks.DEBUG_SWITCHES;
@@ -54,12 +59,14 @@ import com.hardbacknutter.nevertoomanybooks.core.parsers.DateParser;
 import com.hardbacknutter.nevertoomanybooks.core.parsers.ISODateParser;
 import com.hardbacknutter.nevertoomanybooks.core.parsers.RealNumberParser;
 import com.hardbacknutter.nevertoomanybooks.core.storage.StorageException;
+import com.hardbacknutter.nevertoomanybooks.core.tasks.ASyncExecutor;
 import com.hardbacknutter.nevertoomanybooks.core.tasks.ProgressListener;
 import com.hardbacknutter.nevertoomanybooks.core.utils.LocaleListUtils;
 import com.hardbacknutter.nevertoomanybooks.database.DBKey;
 import com.hardbacknutter.nevertoomanybooks.database.dao.BookDao;
 import com.hardbacknutter.nevertoomanybooks.database.dao.BookshelfDao;
 import com.hardbacknutter.nevertoomanybooks.database.dao.CalibreLibraryDao;
+import com.hardbacknutter.nevertoomanybooks.database.dao.EntityIdCache;
 import com.hardbacknutter.nevertoomanybooks.entities.Author;
 import com.hardbacknutter.nevertoomanybooks.entities.Book;
 import com.hardbacknutter.nevertoomanybooks.entities.Bookshelf;
@@ -117,8 +124,19 @@ public class CalibreContentServerReader
     private static final String TAG = "CalibreServerReader";
     private static final String BKEY_VIRTUAL_LIBRARY_LIST = TAG + ":vlibs";
 
-    /** The number of books we fetch per request. Tested with CCS running on a RaspberryPi 1b+. */
+    /**
+     * The initial number of books we fetch per request.
+     * Tested with CCS running on a RaspberryPi 1b+.
+     */
     private static final int NUM = 10;
+    /** The maximum number of books we fetch per request. */
+    private static final int NUM_MAX = 100;
+    /** If fetching a page of books takes less than this, the next page will be larger. */
+    private static final long PAGE_FAST_MS = 1_000;
+    /** If fetching a page of books takes more than this, the next page will be smaller. */
+    private static final long PAGE_SLOW_MS = 3_000;
+    /** The number of covers we download in parallel. */
+    private static final int COVER_THREADS = 3;
     /** error text for {@link #VALUE_IS_NULL}. */
     private static final String ERROR_NULL_STRING = "'null' string";
 
@@ -159,6 +177,12 @@ public class CalibreContentServerReader
     @NonNull
     private final DateParser dateParser;
 
+    /**
+     * Cover downloads started by the page fetcher; consumed when the book is converted.
+     * The key is the Calibre book id.
+     */
+    private final Map<Integer, Future<Optional<File>>> coverDownloads = new ConcurrentHashMap<>();
+
     /** The physical library from which we'll be importing. */
     @Nullable
     private CalibreLibrary library;
@@ -348,18 +372,12 @@ public class CalibreContentServerReader
         // reset; won't take effect until the next publish call.
         progressListener.setIndeterminate(null);
 
-        try {
+        // Cache the Author/Series/... name lookups for the duration of the import.
+        try (EntityIdCache ignored = EntityIdCache.begin(ServiceLocator.getInstance().getDb())) {
             // Always (re)read the meta data here.
             // Don't assume we still have the same instance as when readMetaData was called.
             readLibraryMetaData(context);
 
-            //noinspection DataFlowIssue
-            final int totalNum = library.getTotalBooks();
-
-            int num = 0;
-            int offset = 0;
-            boolean valid;
-
             String query = null;
             // If we want new-books-only (Updates.Skip)
             // or new-books-and-updates (Updates.OnlyNewer),
@@ -376,64 +394,47 @@ public class CalibreContentServerReader
                 }
             }
 
-            do {
-                // Reminder: the NUM for this first call might seem very low,
-                // but the full book data for each of the id's (max == NUM)
-                // will be fetched in ONE GO in the second call further below.
-                final JSONObject root;
-                if (query == null) {
-                    // all-books
-                    root = server.getBookIds(library.getLibraryStringId(), NUM, offset);
-                } else {
-                    // search based on the last-sync-date
-                    root = server.search(library.getLibraryStringId(), NUM, offset, query);
-                }
+            //noinspection DataFlowIssue
+            final String libraryStringId = library.getLibraryStringId();
+
+            // The pages are fetched in the background: while we import page N,
+            // page N+1 is being fetched and its covers are being downloaded.
+            final ExecutorService coverExecutor =
+                    doCovers ? Executors.newFixedThreadPool(COVER_THREADS) : null;
+            Future<Page> nextPage = null;
+            try {
+                int pageSize = NUM;
+                int offset = 0;
+                nextPage = fetchPageAsync(libraryStringId, query, offset, pageSize,
+                                          coverExecutor);
+                while (nextPage != null && !progressListener.isCancelled()) {
+                    final Page page = await(nextPage);
+                    nextPage = null;
+                    if (page == null) {
+                        break;
+                    }
 
-                // assume valid result if at least the "total_num" param is there.
-                valid = root.has(CalibreContentServer.RESPONSE_TAG_TOTAL_NUM);
-                if (valid) {
                     // yes, we're reading/setting this on every iteration... less code.
-                    progressListener.setMaxPos(root.getInt(
-                            CalibreContentServer.RESPONSE_TAG_TOTAL_NUM));
-
-                    num = root.getInt(CalibreContentServer.RESPONSE_TAG_NUM);
-                    // the list of books (id only) returned by the server
-                    final JSONArray bookIds = root.optJSONArray(
-                            CalibreContentServer.RESPONSE_TAG_BOOK_IDS);
-
-                    valid = bookIds != null && !bookIds.isEmpty();
-                    if (valid) {
-                        // with the above book-ids, get the full book objects
-                        final JSONObject bookList = server.getBooks(library.getLibraryStringId(),
-                                                                    bookIds);
-                        final JSONObject bookListVirtualLibs =
-                                server.getVirtualLibrariesForBooks(library.getLibraryStringId(),
-                                                                   bookIds);
-
-                        final Iterator<String> it = bookList.keys();
-                        while (it.hasNext() && !progressListener.isCancelled()) {
-                            final String key = it.next();
-                            final JSONObject calibreBook = bookList.getJSONObject(key);
-
-                            // inject the virtual library list into the main book object
-                            if (bookListVirtualLibs != null) {
-                                calibreBook.put(BKEY_VIRTUAL_LIBRARY_LIST,
-                                                bookListVirtualLibs.getJSONArray(key));
-                            }
-
-                            importBook(context, convert(context, calibreBook));
+                    progressListener.setMaxPos(page.totalNum);
 
-                            results.booksProcessed++;
-                            // Due to the network access, we're not adding
-                            // any additional interval/delay for each message
-                            progressListener.publishProgress(
-                                    1, results.createBooksSummaryLine(context));
-                        }
+                    offset += page.num;
+                    pageSize = page.getNextPageSize(pageSize);
+                    if (page.num > 0 && offset < page.totalNum) {
+                        nextPage = fetchPageAsync(libraryStringId, query, offset, pageSize,
+                                                  coverExecutor);
                     }
-                    offset += num;
+
+                    importPage(context, page, progressListener);
+                }
+            } finally {
+                if (nextPage != null) {
+                    nextPage.cancel(true);
+                }
+                if (coverExecutor != null) {
+                    coverExecutor.shutdownNow();
                 }
-            } while (valid && num > 0 && totalNum > offset + num
-                     && !progressListener.isCancelled());
+                coverDownloads.clear();
+            }
 
             // always set the sync date!
             library.setLastSyncDate(LocalDateTime.now(ZoneOffset.UTC));
@@ -446,6 +447,147 @@ public class CalibreContentServerReader
         return results;
     }
 
+    /**
+     * Start fetching a page of books in the background.
+     *
+     * @param libraryStringId the Calibre native {@code stringId} for the library to read from
+     * @param query           (optional) search query
+     * @param offset          to start fetching from
+     * @param pageSize        number of books to fetch
+     * @param coverExecutor   (optional) to download the covers of the fetched books with
+     *
+     * @return the future page
+     */
+    @NonNull
+    private Future<Page> fetchPageAsync(@NonNull final String libraryStringId,
+                                        @Nullable final String query,
+                                        final int offset,
+                                        final int pageSize,
+                                        @Nullable final ExecutorService coverExecutor) {
+        return ASyncExecutor.SERVICE.submit(() -> {
+            final long start = System.nanoTime();
+
+            // Reminder: the page size for this first call might seem low,
+            // but the full book data for each of the id's
+            // will be fetched in ONE GO in the second call further below.
+            final JSONObject root;
+            if (query == null) {
+                // all-books
+                root = server.getBookIds(libraryStringId, pageSize, offset);
+            } else {
+                // search based on the last-sync-date
+                root = server.search(libraryStringId, pageSize, offset, query);
+            }
+
+            // assume valid result if at least the "total_num" param is there.
+            if (!root.has(CalibreContentServer.RESPONSE_TAG_TOTAL_NUM)) {
+                return null;
+            }
+            // the list of books (id only) returned by the server
+            final JSONArray bookIds = root.optJSONArray(
+                    CalibreContentServer.RESPONSE_TAG_BOOK_IDS);
+            if (bookIds == null || bookIds.isEmpty()) {
+                return null;
+            }
+
+            // with the above book-ids, get the full book objects
+            final JSONObject bookList = server.getBooks(libraryStringId, bookIds);
+            final JSONObject bookListVirtualLibs =
+                    server.getVirtualLibrariesForBooks(libraryStringId, bookIds);
+
+            final Page page = new Page(root.getInt(CalibreContentServer.RESPONSE_TAG_TOTAL_NUM),
+                                       root.getInt(CalibreContentServer.RESPONSE_TAG_NUM),
+                                       bookList, bookListVirtualLibs,
+                                       (System.nanoTime() - start) / 1_000_000);
+
+            if (coverExecutor != null) {
+                final Iterator<String> it = bookList.keys();
+                while (it.hasNext()) {
+                    final JSONObject calibreBook = bookList.getJSONObject(it.next());
+                    if (!calibreBook.isNull(CalibreBookJsonKey.COVER)) {
+                        final String coverUrl = calibreBook.optString(CalibreBookJsonKey.COVER);
+                        if (coverUrl != null && !coverUrl.isEmpty()) {
+                            final int calibreBookId = calibreBook.getInt(CalibreBookJsonKey.ID);
+                            coverDownloads.put(calibreBookId, coverExecutor.submit(
+                                    () -> server.getCover(calibreBookId, coverUrl)));
+                        }
+                    }
+                }
+            }
+            return page;
+        });
+    }
+
+    /**
+     * Import all books on the given page.
+     *
+     * @param context          Current context
+     * @param page             to import
+     * @param progressListener Progress and cancellation interface
+     *
+     * @throws StorageException The covers directory is not available
+     * @throws IOException      on generic/other IO failures
+     */
+    private void importPage(@NonNull final Context context,
+                            @NonNull final Page page,
+                            @NonNull final ProgressListener progressListener)
+            throws StorageException,
+                   IOException {
+        final Iterator<String> it = page.bookList.keys();
+        while (it.hasNext() && !progressListener.isCancelled()) {
+            final String key = it.next();
+            final JSONObject calibreBook = page.bookList.getJSONObject(key);
+
+            // inject the virtual library list into the main book object
+            if (page.bookListVirtualLibs != null) {
+                calibreBook.put(BKEY_VIRTUAL_LIBRARY_LIST,
+                                page.bookListVirtualLibs.getJSONArray(key));
+            }
+
+            importBook(context, convert(context, calibreBook));
+
+            results.booksProcessed++;
+            // Due to the network access, we're not adding
+            // any additional interval/delay for each message
+            progressListener.publishProgress(1, results.createBooksSummaryLine(context));
+        }
+    }
+
+    /**
+     * Wait for a background fetch or push, and unwrap any exception it threw.
+     *
+     * @param future to wait for
+     * @param <T>    type of the result
+     *
+     * @return the result
+     *
+     * @throws StorageException The covers directory is not available
+     * @throws IOException      on generic/other IO failures
+     */
+    @Nullable
+    static <T> T await(@NonNull final Future<T> future)
+            throws StorageException,
+                   IOException {
+        try {
+            return future.get();
+        } catch (@NonNull final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof StorageException) {
+                throw (StorageException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                // JSONException, CancellationException, ...
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        } catch (@NonNull final InterruptedException e) {
+            throw new IOException(e);
+        }
+    }
+
     /**
      * Process the book, and update the local data if allowed, or insert if not present.
      *
@@ -897,8 +1039,13 @@ public class CalibreContentServerReader
         if (!calibreBook.isNull(CalibreBookJsonKey.COVER)) {
             final String coverUrl = calibreBook.optString(CalibreBookJsonKey.COVER);
             if (coverUrl != null && !coverUrl.isEmpty()) {
-                final File file = server.getCover(calibreBookId, coverUrl)
-                                        .orElse(null);
+                // Normally downloaded already, or in progress.
+                final Future<Optional<File>> download = coverDownloads.remove(calibreBookId);
+                final Optional<File> downloaded = download != null
+                                                  ? await(download)
+                                                  : server.getCover(calibreBookId, coverUrl);
+                //noinspection DataFlowIssue
+                final File file = downloaded.orElse(null);
                 try {
                     book.setCover(0, file);
                 } catch (@NonNull final IOException ignore) {
@@ -912,4 +1059,51 @@ public class CalibreContentServerReader
     public void close() {
         ServiceLocator.getInstance().getMaintenanceDao().purge();
     }
+
+    /**
+     * A page of books as fetched from the server.
+     */
+    private static final class Page {
+
+        /** The total number of books the server will return for the request. */
+        final int totalNum;
+        /** The number of books on this page. */
+        final int num;
+        /** The Calibre book objects; NOT an array. */
+        @NonNull
+        final JSONObject bookList;
+        /** The virtual libraries for each book; only present if our extension is installed. */
+        @Nullable
+        final JSONObject bookListVirtualLibs;
+        /** The time it took to fetch this page. */
+        private final long fetchTimeInMs;
+
+        Page(final int totalNum,
+             final int num,
+             @NonNull final JSONObject bookList,
+             @Nullable final JSONObject bookListVirtualLibs,
+             final long fetchTimeInMs) {
+            this.totalNum = totalNum;
+            this.num = num;
+            this.bookList = bookList;
+            this.bookListVirtualLibs = bookListVirtualLibs;
+            this.fetchTimeInMs = fetchTimeInMs;
+        }
+
+        /**
+         * Adapt the page size to how fast the server responded to this page.
+         *
+         * @param pageSize the size used for this page
+         *
+         * @return the size to use for the next page
+         */
+        int getNextPageSize(final int pageSize) {
+            if (fetchTimeInMs < PAGE_FAST_MS) {
+                return Math.min(pageSize * 2, NUM_MAX);
+            } else if (fetchTimeInMs > PAGE_SLOW_MS) {
+                return Math.max(pageSize / 2, NUM);
+            }
+            return pageSize;
+        }
+    }
 }
@@ -25,6 +25,7 @@ import android.util.Base64;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -32,9 +33,14 @@ import java.io.IOException;
 import java.security.cert.CertificateException;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.hardbacknutter.nevertoomanybooks.R;
 import com.hardbacknutter.nevertoomanybooks.ServiceLocator;
@@ -49,9 +55,9 @@ import com.hardbacknutter.nevertoomanybooks.core.tasks.ProgressListener;
 import com.hardbacknutter.nevertoomanybooks.core.utils.LocaleListUtils;
 import com.hardbacknutter.nevertoomanybooks.database.DBKey;
 import com.hardbacknutter.nevertoomanybooks.database.dao.BookDao;
-import com.hardbacknutter.nevertoomanybooks.database.dao.CalibreDao;
 import com.hardbacknutter.nevertoomanybooks.database.dao.CalibreLibraryDao;
 import com.hardbacknutter.nevertoomanybooks.entities.Book;
+import com.hardbacknutter.nevertoomanybooks.entities.BookBatchLoader;
 import com.hardbacknutter.nevertoomanybooks.entities.Publisher;
 import com.hardbacknutter.nevertoomanybooks.entities.Series;
 import com.hardbacknutter.nevertoomanybooks.io.DataWriter;
@@ -70,8 +76,10 @@ import com.hardbacknutter.org.json.JSONObject;
  * the 'last-sync-date' from the library is used to only fetch books added/modified
  * later then this timestamp FROM THE LOCAL DATABASE.
  * <p>
+ * The remote data is fetched in batches of {@link #BATCH_SIZE} books.
  * Each local book is compared to the remote book 'last-modified' date to
- * decide to update it or not.
+ * decide to update it or not. If it's newer, the fields are compared locally
+ * and only the changed fields are pushed; books without changes are skipped.
  * <p>
  * We only UPDATE books which exist on the server.
  * We're not pushing new books to the server !
@@ -82,18 +90,22 @@ public class CalibreContentServerWriter
 
     /** Log tag. */
     private static final String TAG = "CalibreServerWriter";
+    /** Number of books for which the remote data is fetched in a single request. */
+    private static final int BATCH_SIZE = 50;
+    /** Number of concurrent pushes to the server. */
+    private static final int PUSH_THREADS = 3;
 
     @NonNull
     private final CalibreContentServer server;
-    /** Export configuration. */
-    @NonNull
-    private final SyncWriterHelper helper;
     private final boolean doCovers;
     private final boolean deleteLocalBook;
+    private final boolean incremental;
 
     @NonNull
     private final DateParser dateParser;
     private final RealNumberParser realNumberParser;
+    @NonNull
+    private final CalibreBookDiff bookDiff;
 
     private SyncWriterResults results;
 
@@ -110,15 +122,38 @@ public class CalibreContentServerWriter
                                       @NonNull final SyncWriterHelper helper,
                                       @NonNull final Locale systemLocale)
             throws CertificateException {
+        this(context, new CalibreContentServer.Builder(context).build(),
+             helper.getRecordTypes().contains(RecordType.Cover),
+             helper.isDeleteLocalBooks(),
+             helper.isIncremental(),
+             systemLocale);
+    }
 
-        this.helper = helper;
-
-        server = new CalibreContentServer.Builder(context).build();
-        doCovers = this.helper.getRecordTypes().contains(RecordType.Cover);
-        deleteLocalBook = this.helper.isDeleteLocalBooks();
+    /**
+     * Constructor.
+     *
+     * @param context         Current context
+     * @param server          to write to
+     * @param doCovers        whether to send covers
+     * @param deleteLocalBook whether to delete local books which no longer exist on the server
+     * @param incremental     whether to send only books updated since the last sync
+     * @param systemLocale    to use for ISO date parsing
+     */
+    @VisibleForTesting
+    CalibreContentServerWriter(@NonNull final Context context,
+                               @NonNull final CalibreContentServer server,
+                               final boolean doCovers,
+                               final boolean deleteLocalBook,
+                               final boolean incremental,
+                               @NonNull final Locale systemLocale) {
+        this.server = server;
+        this.doCovers = doCovers;
+        this.deleteLocalBook = deleteLocalBook;
+        this.incremental = incremental;
 
         dateParser = new ISODateParser(systemLocale);
         realNumberParser = new RealNumberParser(LocaleListUtils.asList(context));
+        bookDiff = new CalibreBookDiff(dateParser);
     }
 
     @Override
@@ -150,7 +185,7 @@ public class CalibreContentServerWriter
 
                 @Nullable
                 final LocalDateTime dateSince;
-                if (helper.isIncremental()) {
+                if (incremental) {
                     dateSince = dateParser.parse(library.getLastSyncDateAsString()).orElse(null);
                 } else {
                     dateSince = null;
@@ -175,56 +210,152 @@ public class CalibreContentServerWriter
                              @NonNull final ProgressListener progressListener)
             throws StorageException, IOException {
         final BookDao bookDao = ServiceLocator.getInstance().getBookDao();
+        final ExecutorService pushExecutor = Executors.newFixedThreadPool(PUSH_THREADS);
         try (Cursor cursor = bookDao.fetchBooksForExportToCalibre(library.getId(), dateSince)) {
 
             int delta = 0;
             long lastUpdate = 0;
             progressListener.setMaxPos(cursor.getCount());
 
-            final CalibreDao calibreDao = ServiceLocator.getInstance().getCalibreDao();
-
-            while (cursor.moveToNext() && !progressListener.isCancelled()) {
-                final Book book = Book.from(cursor);
-                try {
-                    syncBook(library, book);
-
-                } catch (@NonNull final HttpNotFoundException e404) {
-                    // The book no longer exists on the server.
-                    if (deleteLocalBook) {
-                        bookDao.delete(book);
-                    } else {
-                        // keep the book but remove the calibre data for it
-                        calibreDao.delete(book);
-                        book.setCalibreLibrary(null);
-                    }
-                } catch (@NonNull final JSONException e) {
-                    // ignore, just move on to the next book
-                    LoggerFactory.getLogger()
-                                 .e(TAG, e, "bookId=" + book.getId());
+            final BookBatchLoader bookLoader = new BookBatchLoader(cursor, BATCH_SIZE);
+            final List<Book> batch = new ArrayList<>(BATCH_SIZE);
+            Book book = bookLoader.next();
+            while (!progressListener.isCancelled() && book != null) {
+                batch.clear();
+                while (book != null && batch.size() < BATCH_SIZE) {
+                    batch.add(book);
+                    book = bookLoader.next();
                 }
 
-                delta++;
+                syncBatch(library, batch, pushExecutor, progressListener);
+
+                delta += batch.size();
                 final long now = System.currentTimeMillis();
                 if ((now - lastUpdate) > progressListener.getUpdateIntervalInMs()) {
-                    progressListener.publishProgress(delta, book.getTitle());
+                    progressListener.publishProgress(delta, batch.get(batch.size() - 1)
+                                                              .getTitle());
                     lastUpdate = now;
                     delta = 0;
                 }
             }
+        } finally {
+            pushExecutor.shutdownNow();
         }
     }
 
-    private void syncBook(@NonNull final CalibreLibrary library,
-                          @NonNull final Book book)
-            throws IOException, StorageException, JSONException {
+    /**
+     * Sync a batch of books.
+     * <p>
+     * The remote data for the whole batch is fetched with a single request.
+     * The changes are calculated locally, and only books with actual changes
+     * are pushed to the server; these pushes run in parallel.
+     *
+     * @param library          the library to which the given books belongs
+     * @param batch            the books to sync
+     * @param pushExecutor     to use for pushing the changes
+     * @param progressListener to check for cancellation
+     *
+     * @throws IOException      on generic/other IO failures
+     * @throws StorageException on storage related failures
+     */
+    private void syncBatch(@NonNull final CalibreLibrary library,
+                           @NonNull final List<Book> batch,
+                           @NonNull final ExecutorService pushExecutor,
+                           @NonNull final ProgressListener progressListener)
+            throws IOException, StorageException {
+
+        final String libraryStringId = library.getLibraryStringId();
+
+        final JSONArray calibreIds = new JSONArray();
+        batch.forEach(book -> calibreIds.put(book.getInt(DBKey.CALIBRE_BOOK_ID)));
+
+        // Keyed by the Calibre id; a book which no longer exists will have a null value.
+        JSONObject calibreBooks;
+        try {
+            calibreBooks = server.getBooks(libraryStringId, calibreIds);
+        } catch (@NonNull final JSONException e) {
+            // Fall back to fetching the books one by one.
+            LoggerFactory.getLogger().e(TAG, e, "libraryStringId=" + libraryStringId);
+            calibreBooks = new JSONObject();
+        }
+
+        final List<Book> pushedBooks = new ArrayList<>();
+        final List<Future<Void>> pushes = new ArrayList<>();
+        for (final Book book : batch) {
+            if (progressListener.isCancelled()) {
+                break;
+            }
+            final int calibreId = book.getInt(DBKey.CALIBRE_BOOK_ID);
+            final String calibreUuid = book.getString(DBKey.CALIBRE_BOOK_UUID);
+            try {
+                JSONObject calibreBook = calibreBooks.optJSONObject(String.valueOf(calibreId));
+                if (calibreBook == null
+                    || !calibreUuid.equals(calibreBook.optString(CalibreBookJsonKey.UUID))) {
+                    // Not found by id, or the id was re-used for a different book.
+                    // Try to find it by uuid; this will throw a 404 if really gone.
+                    calibreBook = server.getBook(libraryStringId, calibreUuid);
+                }
+
+                final JSONObject changes = getChanges(library, calibreBook, book);
+                if (changes != null) {
+                    pushedBooks.add(book);
+                    pushes.add(pushExecutor.submit(() -> {
+                        server.pushChanges(libraryStringId, calibreId, changes);
+                        return null;
+                    }));
+                }
+            } catch (@NonNull final HttpNotFoundException e404) {
+                onBookNotFound(book);
+            } catch (@NonNull final JSONException e) {
+                // ignore, just move on to the next book
+                LoggerFactory.getLogger().e(TAG, e, "bookId=" + book.getId());
+            }
+        }
+
+        for (int i = 0; i < pushes.size(); i++) {
+            final Book book = pushedBooks.get(i);
+            try {
+                CalibreContentServerReader.await(pushes.get(i));
+                results.addBook(book.getId());
+            } catch (@NonNull final HttpNotFoundException e404) {
+                onBookNotFound(book);
+            } catch (@NonNull final JSONException e) {
+                LoggerFactory.getLogger().e(TAG, e, "bookId=" + book.getId());
+            }
+        }
+    }
 
-        final int calibreId = book.getInt(DBKey.CALIBRE_BOOK_ID);
-        final String calibreUuid = book.getString(DBKey.CALIBRE_BOOK_UUID);
+    /**
+     * The book no longer exists on the server.
+     *
+     * @param book to process
+     */
+    private void onBookNotFound(@NonNull final Book book) {
+        if (deleteLocalBook) {
+            ServiceLocator.getInstance().getBookDao().delete(book);
+        } else {
+            // keep the book but remove the calibre data for it
+            ServiceLocator.getInstance().getCalibreDao().delete(book);
+            book.setCalibreLibrary(null);
+        }
+    }
 
-        // ENHANCE: full sync in one go.
-        //  The logic below is slow as we fetch each book individually
-        //  but on a local/home network it's good enough
-        final JSONObject calibreBook = server.getBook(library.getLibraryStringId(), calibreUuid);
+    /**
+     * Compare the local book with the remote book.
+     *
+     * @param library     the library to which the given books belongs
+     * @param calibreBook the remote book
+     * @param book        the local book
+     *
+     * @return the changes to push, or {@code null} if there is nothing to push
+     *
+     * @throws IOException on generic/other IO failures
+     */
+    @Nullable
+    private JSONObject getChanges(@NonNull final CalibreLibrary library,
+                                  @NonNull final JSONObject calibreBook,
+                                  @NonNull final Book book)
+            throws IOException, JSONException {
 
         Optional<LocalDateTime> remoteDate = Optional.empty();
         if (!calibreBook.isNull(CalibreBookJsonKey.LAST_MODIFIED)) {
@@ -242,13 +373,17 @@ public class CalibreContentServerWriter
         final boolean isNewer = localDate.isPresent() && remoteDate.isPresent()
                                 // is our data newer then the server data ?
                                 && localDate.get().isAfter(remoteDate.get());
-        if (isNewer) {
-            final JSONObject identifiers =
-                    calibreBook.optJSONObject(CalibreBookJsonKey.IDENTIFIERS);
-            final JSONObject changes = collectChanges(library, identifiers, book);
-            server.pushChanges(library.getLibraryStringId(), calibreId, changes);
-            results.addBook(book.getId());
+        if (!isNewer) {
+            return null;
+        }
+
+        final JSONObject identifiers = calibreBook.optJSONObject(CalibreBookJsonKey.IDENTIFIERS);
+        final JSONObject changes = collectChanges(library, identifiers, book);
+        bookDiff.removeUnchanged(changes, calibreBook, library.getCustomFields());
+        if (CalibreBookDiff.hasChanges(changes)) {
+            return changes;
         }
+        return null;
     }
 
     /**
@@ -326,13 +461,21 @@ public class CalibreContentServerWriter
         final JSONObject localIdentifiers = collectIdentifiers(localBook);
         if (!localIdentifiers.isEmpty()) {
             if (calibreBookIdentifiers != null) {
+                // Start from a copy of the remotes; the original is still needed
+                // to compare against.
+                final JSONObject identifiers = new JSONObject();
+                Iterator<String> it = calibreBookIdentifiers.keys();
+                while (it.hasNext()) {
+                    final String key = it.next();
+                    identifiers.put(key, calibreBookIdentifiers.get(key));
+                }
                 // overwrite remotes with locals
-                final Iterator<String> it = localIdentifiers.keys();
+                it = localIdentifiers.keys();
                 while (it.hasNext()) {
                     final String key = it.next();
-                    calibreBookIdentifiers.put(key, localIdentifiers.get(key));
+                    identifiers.put(key, localIdentifiers.get(key));
                 }
-                changes.put(CalibreBookJsonKey.IDENTIFIERS, calibreBookIdentifiers);
+                changes.put(CalibreBookJsonKey.IDENTIFIERS, identifiers);
 
             } else {
                 // no remotes, just send all locals
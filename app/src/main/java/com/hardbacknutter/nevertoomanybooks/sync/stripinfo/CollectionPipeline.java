@@ -0,0 +1,407 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.sync.stripinfo;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A bounded producer/consumer pipeline for importing a paged collection.
+ * <ol>
+ *     <li>Pages are fetched by a single background thread, running at most
+ *         {@link #PAGES_AHEAD} pages ahead of the writer.</li>
+ *     <li>Each item on a page is turned into a job by the {@link Planner}
+ *         on the calling thread; i.e. local database lookups are done there.</li>
+ *     <li>Jobs are passed to the {@link Fetcher} on a small worker pool.
+ *         The fetcher is responsible for respecting the site throttling.</li>
+ *     <li>The jobs of a page are handed to the {@link Writer} on the calling thread,
+ *         in the original order, once they are all fetched.
+ *         The writer is never called while fetches of that same page are still running,
+ *         so it can hold a database transaction without blocking other threads for long.</li>
+ * </ol>
+ * While a page is being written, the jobs of the next page are already being fetched.
+ * <p>
+ * When cancelled, all running work is abandoned; the jobs handed to the writer
+ * are always the (ordered) leading part of the page being processed.
+ * When a page fails to load, the previous page is still written before the failure
+ * is reported; i.e. the same outcome as when fetching the pages one by one.
+ *
+ * @param <I> the type of the items on a page
+ * @param <J> the type of the jobs created from those items
+ */
+final class CollectionPipeline<I, J> {
+
+    /** The number of pages the page-fetcher can run ahead of the writer. */
+    private static final int PAGES_AHEAD = 2;
+
+    /** How long to wait for a result before checking the cancel status again. */
+    private static final long POLL_MS = 250;
+
+    @NonNull
+    private final PageSource<I> pageSource;
+    @NonNull
+    private final Planner<I, J> planner;
+    @NonNull
+    private final Fetcher<J> fetcher;
+    @NonNull
+    private final Writer<J> writer;
+    @NonNull
+    private final BooleanSupplier cancelled;
+    @IntRange(from = 1)
+    private final int workers;
+
+    /**
+     * Constructor.
+     *
+     * @param pageSource to fetch the pages
+     * @param planner    to create a job for each item; runs on the calling thread
+     * @param fetcher    to do the (network) work for each job; runs on the worker pool
+     * @param writer     to store a page worth of jobs; runs on the calling thread
+     * @param cancelled  to check if the import should be stopped
+     * @param workers    the number of concurrent fetches
+     */
+    CollectionPipeline(@NonNull final PageSource<I> pageSource,
+                       @NonNull final Planner<I, J> planner,
+                       @NonNull final Fetcher<J> fetcher,
+                       @NonNull final Writer<J> writer,
+                       @NonNull final BooleanSupplier cancelled,
+                       @IntRange(from = 1) final int workers) {
+        this.pageSource = pageSource;
+        this.planner = planner;
+        this.fetcher = fetcher;
+        this.writer = writer;
+        this.cancelled = cancelled;
+        this.workers = workers;
+    }
+
+    /**
+     * Run the pipeline until all pages are processed, or until cancelled.
+     *
+     * @throws ExecutionException   wrapping the first exception thrown by any of the stages
+     * @throws InterruptedException if the calling thread was interrupted
+     */
+    @WorkerThread
+    void run()
+            throws ExecutionException, InterruptedException {
+
+        final AtomicInteger threadNr = new AtomicInteger();
+        final ExecutorService fetchPool = Executors.newFixedThreadPool(workers, r -> {
+            final Thread t = new Thread(r, "CollectionPipeline-fetch-"
+                                           + threadNr.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        final ExecutorService pagePool = Executors.newSingleThreadExecutor(r -> {
+            final Thread t = new Thread(r, "CollectionPipeline-page");
+            t.setDaemon(true);
+            return t;
+        });
+
+        final BlockingQueue<Page<I>> pages = new ArrayBlockingQueue<>(PAGES_AHEAD);
+        final Future<?> pageTask = pagePool.submit(() -> producePages(pages));
+        try {
+            Batch<J> pending = submit(fetchPool, takePage(pages, pageTask));
+            while (pending != null) {
+                // Get the next page going before we block on the current one.
+                final Batch<J> next;
+                try {
+                    next = submit(fetchPool, takePage(pages, pageTask));
+                } catch (@NonNull final ExecutionException e) {
+                    // Same as a sequential import: the previous page is still stored
+                    write(pending);
+                    throw e;
+                }
+                write(pending);
+                pending = next;
+            }
+        } finally {
+            pageTask.cancel(true);
+            pagePool.shutdownNow();
+            fetchPool.shutdownNow();
+        }
+    }
+
+    /**
+     * Producer: runs on the page thread.
+     *
+     * @param pages the queue to put the pages on
+     *
+     * @return {@code null}
+     *
+     * @throws Exception from the {@link PageSource}
+     */
+    private Void producePages(@NonNull final BlockingQueue<Page<I>> pages)
+            throws Exception {
+        try {
+            int pageNr = 0;
+            // The number of pages is only known after the first one was fetched.
+            while (pageNr < pageSource.getMaxPages() && !cancelled.getAsBoolean()) {
+                pageNr++;
+                pages.put(new Page<>(pageNr, pageSource.fetchPage(pageNr)));
+            }
+        } finally {
+            // Always signal the end, even when failing.
+            // If we're interrupted the consumer is no longer listening anyhow.
+            if (!Thread.currentThread().isInterrupted()) {
+                pages.offer(Page.end());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the next page; poll so we can react to cancellation and producer failures.
+     *
+     * @param pages    the queue to take from
+     * @param pageTask the producer
+     *
+     * @return the next page, or the end-marker when there are no more pages (or when cancelled)
+     *
+     * @throws ExecutionException   if the producer failed
+     * @throws InterruptedException if the calling thread was interrupted
+     */
+    @NonNull
+    private Page<I> takePage(@NonNull final BlockingQueue<Page<I>> pages,
+                             @NonNull final Future<?> pageTask)
+            throws ExecutionException, InterruptedException {
+        while (!cancelled.getAsBoolean()) {
+            Page<I> page = pages.poll(POLL_MS, TimeUnit.MILLISECONDS);
+            if (page == null && pageTask.isDone()) {
+                // The producer might have failed without being able to queue the end-marker
+                page = pages.poll();
+                if (page == null) {
+                    page = Page.end();
+                }
+            }
+            if (page != null) {
+                if (page.isEnd()) {
+                    // Rethrows the producer failure if there was one
+                    pageTask.get();
+                }
+                return page;
+            }
+        }
+        return Page.end();
+    }
+
+    /**
+     * Plan all jobs on the given page, and submit them to the fetch pool.
+     *
+     * @param fetchPool to submit to
+     * @param page      to process
+     *
+     * @return the batch, or {@code null} at the end (or when cancelled)
+     *
+     * @throws ExecutionException if the planner failed
+     */
+    private Batch<J> submit(@NonNull final ExecutorService fetchPool,
+                            @NonNull final Page<I> page)
+            throws ExecutionException {
+        if (page.isEnd() || cancelled.getAsBoolean()) {
+            return null;
+        }
+
+        final Batch<J> batch = new Batch<>(page.pageNr);
+        for (final I item : page.items) {
+            final J job;
+            try {
+                job = planner.plan(item);
+            } catch (@NonNull final Exception e) {
+                throw new ExecutionException(e);
+            }
+            batch.jobs.add(job);
+            batch.futures.add(fetchPool.submit(() -> {
+                if (cancelled.getAsBoolean()) {
+                    return false;
+                }
+                fetcher.fetch(job);
+                return true;
+            }));
+        }
+        return batch;
+    }
+
+    /**
+     * Wait for all jobs of the given batch, and pass them to the writer.
+     *
+     * @param batch to write
+     *
+     * @throws ExecutionException   if a fetch or the writer failed
+     * @throws InterruptedException if the calling thread was interrupted
+     */
+    private void write(@NonNull final Batch<J> batch)
+            throws ExecutionException, InterruptedException {
+
+        // The number of leading jobs which are ready to be written
+        int ready = 0;
+        for (final Future<Boolean> future : batch.futures) {
+            if (!await(future)) {
+                break;
+            }
+            ready++;
+        }
+
+        if (ready > 0) {
+            try {
+                writer.write(batch.pageNr, batch.jobs.subList(0, ready));
+            } catch (@NonNull final Exception e) {
+                throw new ExecutionException(e);
+            }
+        }
+    }
+
+    /**
+     * Wait for a single job.
+     *
+     * @param future to wait for
+     *
+     * @return {@code true} when fetched, {@code false} when cancelled before or while waiting
+     *
+     * @throws ExecutionException   if the fetch failed
+     * @throws InterruptedException if the calling thread was interrupted
+     */
+    private boolean await(@NonNull final Future<Boolean> future)
+            throws ExecutionException, InterruptedException {
+        while (true) {
+            try {
+                return future.get(POLL_MS, TimeUnit.MILLISECONDS);
+            } catch (@NonNull final TimeoutException e) {
+                if (cancelled.getAsBoolean()) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Fetches pages. Called on the page thread.
+     *
+     * @param <I> the type of the items on a page
+     */
+    interface PageSource<I> {
+
+        /**
+         * Get the number of pages. This value is read again after each page fetched.
+         *
+         * @return the number of pages
+         */
+        int getMaxPages();
+
+        /**
+         * Fetch a single page.
+         *
+         * @param pageNr 1..
+         *
+         * @return the items on the page; can be empty
+         *
+         * @throws Exception on any failure; this will stop the import
+         */
+        @NonNull
+        List<I> fetchPage(@IntRange(from = 1) int pageNr)
+                throws Exception;
+    }
+
+    /**
+     * Creates a job for an item. Called on the calling thread.
+     *
+     * @param <I> the type of the items on a page
+     * @param <J> the type of the jobs
+     */
+    @FunctionalInterface
+    interface Planner<I, J> {
+
+        @NonNull
+        J plan(@NonNull I item)
+                throws Exception;
+    }
+
+    /**
+     * Does the work for a job. Called concurrently on the worker pool.
+     * Any results should be stored in the job itself.
+     *
+     * @param <J> the type of the jobs
+     */
+    @FunctionalInterface
+    interface Fetcher<J> {
+
+        void fetch(@NonNull J job)
+                throws Exception;
+    }
+
+    /**
+     * Stores the jobs of a single page. Called on the calling thread.
+     *
+     * @param <J> the type of the jobs
+     */
+    @FunctionalInterface
+    interface Writer<J> {
+
+        void write(int pageNr,
+                   @NonNull List<J> jobs)
+                throws Exception;
+    }
+
+    private static final class Page<I> {
+
+        private final int pageNr;
+        @NonNull
+        private final List<I> items;
+
+        private Page(final int pageNr,
+                     @NonNull final List<I> items) {
+            this.pageNr = pageNr;
+            this.items = items;
+        }
+
+        @NonNull
+        static <I> Page<I> end() {
+            return new Page<>(0, List.of());
+        }
+
+        boolean isEnd() {
+            return pageNr == 0;
+        }
+    }
+
+    private static final class Batch<J> {
+
+        private final int pageNr;
+        private final List<J> jobs = new ArrayList<>();
+        private final List<Future<Boolean>> futures = new ArrayList<>();
+
+        private Batch(final int pageNr) {
+            this.pageNr = pageNr;
+        }
+    }
+}
@@ -25,6 +25,7 @@ import android.database.sqlite.SQLiteDoneException;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import androidx.preference.PreferenceManager;
 
 import java.io.IOException;
@@ -32,12 +33,16 @@ import java.net.CookieManager;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
 
 import com.hardbacknutter.nevertoomanybooks.BuildConfig;
 import com.hardbacknutter.nevertoomanybooks.DEBUG_SWITCHES;
@@ -55,6 +60,7 @@ import com.hardbacknutter.nevertoomanybooks.core.tasks.ProgressListener;
 import com.hardbacknutter.nevertoomanybooks.core.utils.LocaleListUtils;
 import com.hardbacknutter.nevertoomanybooks.database.DBKey;
 import com.hardbacknutter.nevertoomanybooks.database.dao.BookDao;
+import com.hardbacknutter.nevertoomanybooks.database.dao.EntityIdCache;
 import com.hardbacknutter.nevertoomanybooks.entities.Book;
 import com.hardbacknutter.nevertoomanybooks.io.DataReader;
 import com.hardbacknutter.nevertoomanybooks.io.DataReaderException;
@@ -90,6 +96,13 @@ public class StripInfoReader
     public static final String SYNC_PROCESSOR_PREFIX = EngineId.StripInfoBe.getPreferenceKey()
                                                        + ".fields.update.";
     private static final String TAG = "StripInfoReader";
+    /**
+     * The number of concurrent book downloads.
+     * Kept small; the site {@link com.hardbacknutter.nevertoomanybooks.core.network.Throttler}
+     * still applies to all of them together.
+     */
+    @VisibleForTesting
+    static final int WORKERS = 3;
     @NonNull
     private final Updates updateOption;
     @NonNull
@@ -108,6 +121,9 @@ public class StripInfoReader
     /** Reused for each call to the {@link SyncReaderProcessor#process}. */
     private final RealNumberParser realNumberParser;
 
+    /** The per-worker engines; kept so we can cancel them. */
+    private final List<StripInfoSearchEngine> workerEngines = new ArrayList<>();
+
     private ReaderResults results;
 
     /**
@@ -238,40 +254,64 @@ public class StripInfoReader
 
         results = new ReaderResults();
 
-        int pageNr = 0;
-        try {
-            while (uc.getMaxPages() > pageNr
-                   && !searchEngine.isCancelled()) {
+        // Each worker needs its own engine instance; they all share the site Throttler.
+        final BlockingQueue<StripInfoSearchEngine> engines = new ArrayBlockingQueue<>(WORKERS);
+        for (int i = 0; i < WORKERS; i++) {
+            final StripInfoSearchEngine engine = createWorkerEngine(context);
+            engine.setCaller(progressListener);
+            engine.setLoginHelper(loginHelper);
+            engines.add(engine);
+        }
+
+        final CollectionPipeline<Book, Job> pipeline = new CollectionPipeline<>(
+                new CollectionPipeline.PageSource<>() {
+                    @Override
+                    public int getMaxPages() {
+                        return uc.getMaxPages();
+                    }
 
-                final List<Book> page = uc.fetchPage(context, ++pageNr, progressListener);
-                if (!page.isEmpty()) {
-                    // We're committing by page.
-                    Synchronizer.SyncLock txLock = null;
+                    @NonNull
+                    @Override
+                    public List<Book> fetchPage(final int pageNr)
+                            throws SearchException, IOException {
+                        return uc.fetchPage(context, pageNr, progressListener);
+                    }
+                },
+                this::planBook,
+                job -> {
+                    final StripInfoSearchEngine engine = engines.take();
                     try {
-                        txLock = db.beginTransaction(true);
+                        fetchBook(context, engine, job);
+                    } finally {
+                        engines.put(engine);
+                    }
+                },
+                (pageNr, jobs) -> writePage(context, db, jobs, progressListener),
+                searchEngine::isCancelled,
+                WORKERS);
 
-                        for (final Book siBook : page) {
-                            if (!searchEngine.isCancelled()) {
-                                importBook(context, siBook);
-                                results.booksProcessed++;
+        // Cache the Author/Series/... name lookups for the duration of the import.
+        try (EntityIdCache ignored = EntityIdCache.begin(db)) {
+            pipeline.run();
 
-                                // Due to the network access, we're not adding
-                                // any additional interval/delay for each message
-                                progressListener.publishProgress(
-                                        1, results.createBooksSummaryLine(context));
-                            }
-                        }
+        } catch (@NonNull final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataReaderException(e);
 
-                        db.setTransactionSuccessful();
-                    } finally {
-                        if (txLock != null) {
-                            db.endTransaction(txLock);
-                        }
-                    }
-                }
+        } catch (@NonNull final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof StorageException) {
+                throw (StorageException) cause;
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new DataReaderException(cause);
+        } finally {
+            synchronized (workerEngines) {
+                workerEngines.clear();
             }
-        } catch (@NonNull final CredentialsException | SearchException e) {
-            throw new DataReaderException(e);
         }
 
         // always set the sync date!
@@ -290,109 +330,237 @@ public class StripInfoReader
         synchronized (searchEngine) {
             searchEngine.cancel();
         }
+        synchronized (workerEngines) {
+            workerEngines.forEach(StripInfoSearchEngine::cancel);
+        }
+    }
+
+    @NonNull
+    private StripInfoSearchEngine createWorkerEngine(@NonNull final Context context) {
+        final StripInfoSearchEngine engine =
+                (StripInfoSearchEngine) EngineId.StripInfoBe.createSearchEngine(context);
+        synchronized (workerEngines) {
+            workerEngines.add(engine);
+        }
+        return engine;
     }
 
     /**
-     * Process the book, and update the local data if allowed, or insert if not present.
+     * Decide what to do with the given book by looking it up in the local database.
+     * <p>
+     * Runs on the reader thread.
      *
-     * @param context Current context
-     * @param siBook  the book data to import
+     * @param siBook the book data from the collection page
      *
-     * @throws StorageException The covers directory is not available
-     * @throws IOException      on generic/other IO failures
+     * @return the job
      */
-    private void importBook(@NonNull final Context context,
-                            @NonNull final Book siBook)
-            throws StorageException,
-                   SearchException,
-                   CredentialsException,
-                   IOException {
+    @NonNull
+    private Job planBook(@NonNull final Book siBook) {
+        final Job job = new Job(siBook);
 
-        final long externalId = siBook.getLong(DBKey.SID_STRIP_INFO);
         // lookup locally using the externalId column.
         try (Cursor cursor = bookDao.fetchByKey(DBKey.SID_STRIP_INFO,
-                                                String.valueOf(externalId))) {
+                                                String.valueOf(job.externalId))) {
             // check if we already have the StripInfo book in the local database
             if (cursor.moveToFirst()) {
                 // yes, we do - handle the update according to the users choice
                 switch (updateOption) {
                     case Overwrite: {
-                        final Book book = Book.from(cursor);
-                        final Book delta = createUpdateDelta(context, siBook, book);
-                        if (delta != null) {
-                            updateBook(context, externalId, book, delta);
-                        }
+                        job.book = Book.from(cursor);
+                        job.fieldsWanted = syncProcessor.filter(job.book);
+                        job.action = Job.Action.Update;
                         break;
                     }
                     case OnlyNewer: {
                         // The site does not provide a last-updated date.
                         // This option is disabled in SyncServer#StripInfo class
+                        job.action = Job.Action.None;
                         break;
                     }
                     case Skip: {
-                        skipBook(externalId);
+                        job.action = Job.Action.Skip;
                         break;
                     }
                 }
             } else {
-                // It's a new book. Download the full data set from the server.
-                final Book book = searchEngine
-                        .searchByExternalId(context, String.valueOf(externalId), coversForNewBooks);
-                CoverFileSpecArray.process(book);
-
-                insertBook(context, book);
+                job.action = Job.Action.Insert;
             }
+        }
+        return job;
+    }
 
-        } catch (@NonNull final DaoWriteException | SQLiteDoneException | JSONException e) {
+    /**
+     * Download whatever the job needs from the site.
+     * <p>
+     * Runs concurrently on the pipeline worker threads;
+     * must not touch the database or the {@link #results}.
+     *
+     * @param context Current context
+     * @param engine  the engine reserved for the calling thread
+     * @param job     to process
+     *
+     * @throws StorageException The covers directory is not available
+     * @throws IOException      on generic/other IO failures
+     */
+    private void fetchBook(@NonNull final Context context,
+                           @NonNull final StripInfoSearchEngine engine,
+                           @NonNull final Job job)
+            throws StorageException,
+                   SearchException,
+                   CredentialsException,
+                   IOException {
+        try {
+            switch (job.action) {
+                case Insert: {
+                    // It's a new book. Download the full data set from the server.
+                    job.data = engine.searchByExternalId(context, String.valueOf(job.externalId),
+                                                         coversForNewBooks);
+                    CoverFileSpecArray.process(job.data);
+                    break;
+                }
+                case Update: {
+                    job.data = fetchDataToMerge(context, engine, job);
+                    break;
+                }
+                case Skip:
+                case None:
+                default:
+                    break;
+            }
+        } catch (@NonNull final JSONException e) {
             // log, but don't fail
             LoggerFactory.getLogger().e(TAG, e);
-            results.booksFailed++;
+            job.failed = true;
         }
     }
 
-    @Nullable
-    private Book createUpdateDelta(@NonNull final Context context,
-                                   @NonNull final Book siBook,
-                                   @NonNull final Book book)
+    @NonNull
+    private Book fetchDataToMerge(@NonNull final Context context,
+                                  @NonNull final StripInfoSearchEngine engine,
+                                  @NonNull final Job job)
             throws StorageException,
                    SearchException,
                    CredentialsException,
                    IOException {
 
-        final Map<String, SyncField> fieldsWanted = syncProcessor.filter(book);
+        //noinspection DataFlowIssue
         final boolean[] coversWanted = {
-                fieldsWanted.containsKey(Book.BKEY_TMP_FILE_SPEC[0]),
-                fieldsWanted.containsKey(Book.BKEY_TMP_FILE_SPEC[1])
+                job.fieldsWanted.containsKey(Book.BKEY_TMP_FILE_SPEC[0]),
+                job.fieldsWanted.containsKey(Book.BKEY_TMP_FILE_SPEC[1])
         };
 
-        final String externalIdStr = String.valueOf(siBook.getLong(DBKey.SID_STRIP_INFO));
+        final String externalIdStr = String.valueOf(job.externalId);
 
         final Book dataToMerge;
         if (coversWanted[1]) {
             // The back cover is *not* available on the collection page.
             // Download the full data set from the server.
             // The siBook data is superseded by this new data.
-            dataToMerge = searchEngine.searchByExternalId(context, externalIdStr, coversWanted);
+            dataToMerge = engine.searchByExternalId(context, externalIdStr, coversWanted);
             CoverFileSpecArray.process(dataToMerge);
         } else {
             // We have all we need in the incoming siBook
-            dataToMerge = siBook;
+            dataToMerge = job.siBook;
             // but while we don't need the back cover, we might need the front cover
             // which *is* available on the collection page.
             // Try to get get it, and stick it straight into the BKEY_TMP_FILE_SPEC[0]
             if (coversWanted[0]) {
                 final String url = dataToMerge.getString(UserCollection.BKEY_FRONT_COVER_URL, null);
                 if (url != null && !url.isEmpty()) {
-                    searchEngine.saveImage(context, url, externalIdStr, 0, null)
-                                .ifPresent(fileSpec -> dataToMerge
-                                        .putString(Book.BKEY_TMP_FILE_SPEC[0], fileSpec));
+                    engine.saveImage(context, url, externalIdStr, 0, null)
+                          .ifPresent(fileSpec -> dataToMerge
+                                  .putString(Book.BKEY_TMP_FILE_SPEC[0], fileSpec));
                 }
             }
         }
+        return dataToMerge;
+    }
+
+    /**
+     * Store the (ordered) jobs of a single page. We're committing by page.
+     * <p>
+     * Runs on the reader thread.
+     *
+     * @param context          Current context
+     * @param db               Database Access
+     * @param jobs             to store
+     * @param progressListener Progress and cancellation interface
+     *
+     * @throws StorageException The covers directory is not available
+     */
+    private void writePage(@NonNull final Context context,
+                           @NonNull final SynchronizedDb db,
+                           @NonNull final List<Job> jobs,
+                           @NonNull final ProgressListener progressListener)
+            throws StorageException {
+
+        Synchronizer.SyncLock txLock = null;
+        try {
+            txLock = db.beginTransaction(true);
+
+            for (final Job job : jobs) {
+                writeBook(context, job);
+                results.booksProcessed++;
+
+                // Due to the network access, we're not adding
+                // any additional interval/delay for each message
+                progressListener.publishProgress(1, results.createBooksSummaryLine(context));
+            }
+
+            db.setTransactionSuccessful();
+        } finally {
+            if (txLock != null) {
+                db.endTransaction(txLock);
+            }
+        }
+    }
+
+    /**
+     * Update the local data if allowed, or insert if not present.
+     *
+     * @param context Current context
+     * @param job     the fetched book data to import
+     *
+     * @throws StorageException The covers directory is not available
+     */
+    private void writeBook(@NonNull final Context context,
+                           @NonNull final Job job)
+            throws StorageException {
+        if (job.failed) {
+            results.booksFailed++;
+            return;
+        }
 
-        // Extract the delta from the dataToMerge
-        return syncProcessor.process(context, book.getId(), book, fieldsWanted, dataToMerge,
-                                     realNumberParser);
+        try {
+            switch (job.action) {
+                case Insert: {
+                    //noinspection DataFlowIssue
+                    insertBook(context, job.data);
+                    break;
+                }
+                case Update: {
+                    //noinspection DataFlowIssue
+                    final Book delta = syncProcessor.process(context, job.book.getId(), job.book,
+                                                             job.fieldsWanted, job.data,
+                                                             realNumberParser);
+                    if (delta != null) {
+                        updateBook(context, job.externalId, job.book, delta);
+                    }
+                    break;
+                }
+                case Skip: {
+                    skipBook(job.externalId);
+                    break;
+                }
+                case None:
+                default:
+                    break;
+            }
+        } catch (@NonNull final DaoWriteException | SQLiteDoneException | JSONException e) {
+            // log, but don't fail
+            LoggerFactory.getLogger().e(TAG, e);
+            results.booksFailed++;
+        }
     }
 
     private void insertBook(@NonNull final Context context,
@@ -442,4 +610,38 @@ public class StripInfoReader
                                         "externalId=" + externalId);
         }
     }
+
+    /**
+     * The state of a single book as it moves through the {@link CollectionPipeline}.
+     */
+    private static final class Job {
+
+        @NonNull
+        final Book siBook;
+        final long externalId;
+        @NonNull
+        Action action = Action.None;
+        /** The local book; only set for {@link Action#Update}. */
+        @Nullable
+        Book book;
+        /** Only set for {@link Action#Update}. */
+        @Nullable
+        Map<String, SyncField> fieldsWanted;
+        /** The data as fetched from the site; the full book, or the data to merge. */
+        @Nullable
+        Book data;
+        boolean failed;
+
+        Job(@NonNull final Book siBook) {
+            this.siBook = siBook;
+            externalId = siBook.getLong(DBKey.SID_STRIP_INFO);
+        }
+
+        enum Action {
+            None,
+            Skip,
+            Insert,
+            Update
+        }
+    }
 }
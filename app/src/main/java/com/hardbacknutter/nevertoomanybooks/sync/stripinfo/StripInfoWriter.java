@@ -44,6 +44,7 @@ import com.hardbacknutter.nevertoomanybooks.core.tasks.ProgressListener;
 import com.hardbacknutter.nevertoomanybooks.database.dao.BookDao;
 import com.hardbacknutter.nevertoomanybooks.database.dao.StripInfoDao;
 import com.hardbacknutter.nevertoomanybooks.entities.Book;
+import com.hardbacknutter.nevertoomanybooks.entities.BookBatchLoader;
 import com.hardbacknutter.nevertoomanybooks.io.DataWriter;
 import com.hardbacknutter.nevertoomanybooks.sync.SyncWriterHelper;
 import com.hardbacknutter.nevertoomanybooks.sync.SyncWriterResults;
@@ -121,8 +122,9 @@ public class StripInfoWriter
             long lastUpdate = 0;
             progressListener.setMaxPos(cursor.getCount());
 
-            while (cursor.moveToNext() && !progressListener.isCancelled()) {
-                final Book book = Book.from(cursor);
+            final BookBatchLoader bookLoader = new BookBatchLoader(cursor);
+            Book book;
+            while (!progressListener.isCancelled() && (book = bookLoader.next()) != null) {
                 try {
                     collectionForm.send(book);
                     results.addBook(book.getId());
@@ -32,8 +32,9 @@ import com.hardbacknutter.nevertoomanybooks.core.tasks.LTask;
 import com.hardbacknutter.nevertoomanybooks.core.tasks.TaskListener;
 
 /**
- * Build the dedicated SharedPreferences file with the language mappings.
- * Only build once per Locale.
+ * Make sure the language name lookup table covers the users Locales.
+ * The table is cached on storage; this only does real work
+ * the first time a Locale is seen.
  */
 public class BuildLanguageMappingsTask
         extends LTask<Boolean>
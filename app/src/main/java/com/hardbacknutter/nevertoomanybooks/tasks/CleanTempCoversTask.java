@@ -0,0 +1,85 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.tasks;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.UiThread;
+import androidx.annotation.WorkerThread;
+
+import java.util.regex.Pattern;
+
+import com.hardbacknutter.nevertoomanybooks.R;
+import com.hardbacknutter.nevertoomanybooks.ServiceLocator;
+import com.hardbacknutter.nevertoomanybooks.StartupViewModel;
+import com.hardbacknutter.nevertoomanybooks.core.storage.StorageException;
+import com.hardbacknutter.nevertoomanybooks.core.tasks.LTask;
+import com.hardbacknutter.nevertoomanybooks.core.tasks.TaskListener;
+
+/**
+ * Delete the temporary cover files.
+ * <p>
+ * Must run before the main screen is displayed: once the user can open an edit screen,
+ * the cover browser, ... the temporary directory contains files which are in use.
+ */
+public class CleanTempCoversTask
+        extends LTask<Boolean>
+        implements StartupViewModel.StartupTask {
+
+    /** Log tag. */
+    private static final String TAG = "CleanTempCoversTask";
+
+    /**
+     * Constructor.
+     *
+     * @param taskListener for sending progress and finish messages to.
+     */
+    @UiThread
+    public CleanTempCoversTask(@NonNull final TaskListener<Boolean> taskListener) {
+        super(R.id.TASK_ID_CLEAN_TEMP_COVERS, TAG, taskListener);
+    }
+
+    @Override
+    @UiThread
+    public void start() {
+        execute();
+    }
+
+    @SuppressWarnings("OverlyBroadThrowsClause")
+    @NonNull
+    @Override
+    @WorkerThread
+    protected Boolean doWork()
+            throws StorageException {
+        final ServiceLocator serviceLocator = ServiceLocator.getInstance();
+        final Context context = serviceLocator.getLocalizedAppContext();
+
+        publishProgress(1, context.getString(R.string.progress_msg_cleaning_up));
+
+        // Out of precaution we only trash ".jpg", ".jpg.1", ... files
+        final Pattern p = Pattern.compile(".+\\.jpg\\d*|.+\\.jpg\\.\\d*",
+                                          Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+        TaskFileUtils.deleteDirectory(serviceLocator.getCoverStorage().getTempDir(),
+                                      file -> p.matcher(file.getName()).matches(),
+                                      this);
+        return true;
+    }
+}
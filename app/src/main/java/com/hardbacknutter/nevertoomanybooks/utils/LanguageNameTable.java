@@ -0,0 +1,243 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * An immutable, sorted table mapping lower-cased language display names
+ * to their ISO 639-2 code.
+ * <p>
+ * The names are kept in a sorted array and looked up with a binary search.
+ * Each name points to an entry in a (much smaller) array of distinct codes.
+ * <p>
+ * The table covers the display names as produced by one or more display Locales;
+ * new Locales are added with {@link #with(Locale, Locale[])} which returns a new table.
+ * <p>
+ * The binary form written by {@link #toBytes(int)} is a single block which is read back
+ * with {@link #fromBytes(byte[], int)}.
+ */
+final class LanguageNameTable {
+
+    /** Binary format version. Increment when the layout changes. */
+    private static final int VERSION = 1;
+
+    /** An empty table. */
+    static final LanguageNameTable EMPTY = new LanguageNameTable(
+            new String[0], new String[0], new short[0], new String[0]);
+
+    /** The {@link Locale#getLanguage()} of each display Locale included. */
+    @NonNull
+    private final String[] displayLanguages;
+    /** Sorted display names; all lower-case. */
+    @NonNull
+    private final String[] names;
+    /** For each name, the index into {@link #codes}. */
+    @NonNull
+    private final short[] codeIndex;
+    /** The distinct ISO 639-2 codes. */
+    @NonNull
+    private final String[] codes;
+
+    private LanguageNameTable(@NonNull final String[] displayLanguages,
+                              @NonNull final String[] names,
+                              @NonNull final short[] codeIndex,
+                              @NonNull final String[] codes) {
+        this.displayLanguages = displayLanguages;
+        this.names = names;
+        this.codeIndex = codeIndex;
+        this.codes = codes;
+    }
+
+    @NonNull
+    private static LanguageNameTable create(@NonNull final String[] displayLanguages,
+                                            @NonNull final SortedMap<String, String> map) {
+        final String[] names = new String[map.size()];
+        final short[] codeIndex = new short[map.size()];
+        final Map<String, Short> distinct = new HashMap<>();
+        int i = 0;
+        for (final Map.Entry<String, String> entry : map.entrySet()) {
+            names[i] = entry.getKey();
+            codeIndex[i] = distinct.computeIfAbsent(entry.getValue(),
+                                                    code -> (short) distinct.size());
+            i++;
+        }
+        final String[] codes = new String[distinct.size()];
+        distinct.forEach((code, index) -> codes[index] = code);
+        return new LanguageNameTable(displayLanguages, names, codeIndex, codes);
+    }
+
+    /**
+     * Read a table as written by {@link #toBytes(int)}.
+     *
+     * @param data        the binary form
+     * @param fingerprint the expected fingerprint of the Locale data
+     *
+     * @return the table, or {@code null} if the data is invalid or outdated
+     */
+    @Nullable
+    static LanguageNameTable fromBytes(@NonNull final byte[] data,
+                                       final int fingerprint) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            if (in.readInt() != VERSION || in.readInt() != fingerprint) {
+                return null;
+            }
+            final String[] displayLanguages = new String[in.readUnsignedShort()];
+            for (int i = 0; i < displayLanguages.length; i++) {
+                displayLanguages[i] = in.readUTF();
+            }
+            final String[] codes = new String[in.readUnsignedShort()];
+            for (int i = 0; i < codes.length; i++) {
+                codes[i] = in.readUTF();
+            }
+            final int size = in.readInt();
+            final String[] names = new String[size];
+            final short[] codeIndex = new short[size];
+            for (int i = 0; i < size; i++) {
+                names[i] = in.readUTF();
+                codeIndex[i] = in.readShort();
+                if (codeIndex[i] < 0 || codeIndex[i] >= codes.length
+                    || i > 0 && names[i - 1].compareTo(names[i]) >= 0) {
+                    return null;
+                }
+            }
+            return new LanguageNameTable(displayLanguages, names, codeIndex, codes);
+
+        } catch (@NonNull final IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Get the binary form of this table.
+     *
+     * @param fingerprint of the Locale data used to create this table
+     *
+     * @return the binary form
+     */
+    @NonNull
+    byte[] toBytes(final int fingerprint) {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream(names.length * 16);
+        try (DataOutputStream out = new DataOutputStream(bos)) {
+            out.writeInt(VERSION);
+            out.writeInt(fingerprint);
+            out.writeShort(displayLanguages.length);
+            for (final String language : displayLanguages) {
+                out.writeUTF(language);
+            }
+            out.writeShort(codes.length);
+            for (final String code : codes) {
+                out.writeUTF(code);
+            }
+            out.writeInt(names.length);
+            for (int i = 0; i < names.length; i++) {
+                out.writeUTF(names[i]);
+                out.writeShort(codeIndex[i]);
+            }
+        } catch (@NonNull final IOException e) {
+            // can't happen with a ByteArrayOutputStream
+            throw new IllegalStateException(e);
+        }
+        return bos.toByteArray();
+    }
+
+    /**
+     * Check if the display names for the given Locale are included.
+     *
+     * @param locale to check
+     *
+     * @return {@code true} if included
+     */
+    boolean contains(@NonNull final Locale locale) {
+        final String language = locale.getLanguage();
+        for (final String displayLanguage : displayLanguages) {
+            if (displayLanguage.equals(language)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Create a new table with the display names of the given Locales as
+     * produced by the given display Locale added.
+     * Names already present are replaced.
+     *
+     * @param displayLocale the Locale to use for the display names
+     * @param locales       the Locales to add
+     *
+     * @return a new table
+     */
+    @NonNull
+    LanguageNameTable with(@NonNull final Locale displayLocale,
+                           @NonNull final Locale[] locales) {
+        final SortedMap<String, String> map = new TreeMap<>();
+        for (int i = 0; i < names.length; i++) {
+            map.put(names[i], codes[codeIndex[i]]);
+        }
+        for (final Locale locale : locales) {
+            final String name = locale.getDisplayLanguage(displayLocale)
+                                      .toLowerCase(displayLocale);
+            if (!name.isEmpty()) {
+                map.put(name, locale.getISO3Language());
+            }
+        }
+
+        final String[] languages = Arrays.copyOf(displayLanguages,
+                                                 displayLanguages.length + 1);
+        languages[displayLanguages.length] = displayLocale.getLanguage();
+        return create(languages, map);
+    }
+
+    /**
+     * Find the ISO code for the given name.
+     *
+     * @param name a lower-case language display name
+     *
+     * @return the ISO 639-2 code, or {@code null} if not found
+     */
+    @Nullable
+    String find(@NonNull final String name) {
+        final int i = Arrays.binarySearch(names, name);
+        return i >= 0 ? codes[codeIndex[i]] : null;
+    }
+
+    /**
+     * Get the number of names in this table.
+     *
+     * @return size
+     */
+    int size() {
+        return names.length;
+    }
+}
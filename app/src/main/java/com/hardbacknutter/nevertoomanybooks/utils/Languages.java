@@ -20,13 +20,15 @@
 package com.hardbacknutter.nevertoomanybooks.utils;
 
 import android.content.Context;
-import android.content.SharedPreferences;
 import android.content.res.Resources;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -56,20 +58,29 @@ import com.hardbacknutter.nevertoomanybooks.tasks.BuildLanguageMappingsTask;
 public class Languages {
 
     /**
-     * The SharedPreferences name where we'll maintain our language to ISO mappings.
-     * Uses the {@link Locale#getDisplayName()} for the key,
-     * and {@link Locale#getISO3Language} for the value.
+     * The obsolete SharedPreferences file where we used to maintain
+     * the language to ISO mappings. Deleted when found.
      */
+    private static final String LANGUAGE_MAP = "language2iso3";
+    /** The cache file with the binary form of the {@link LanguageNameTable}. */
     @VisibleForTesting
-    public static final String LANGUAGE_MAP = "language2iso3";
-    /** Prefix added to the iso code for the 'done' flag in the language cache. */
-    private static final String LANG_CREATED_PREFIX = "___";
+    static final String NAME_TABLE_FILE = "language2iso3.bin";
 
     @NonNull
     private final Map<String, String> lang3ToLang2Map;
     @NonNull
     private final Supplier<AppLocale> appLocaleSupplier;
 
+    /** Used to serialize updates to {@link #nameTable}. */
+    @NonNull
+    private final Object nameTableLock = new Object();
+    /**
+     * The display name to ISO3 lookup table. Lazy loaded; replaced (never modified)
+     * when the mappings for a new Locale are added.
+     */
+    @Nullable
+    private volatile LanguageNameTable nameTable;
+
 
     /**
      * Constructor.
@@ -129,8 +140,8 @@ public class Languages {
 
     /**
      * Try to convert a Language DisplayName to an ISO3 code.
-     * At installation time we generated the users System Locale + Locale.ENGLISH
-     * Each time the user switches language, we generate an additional set.
+     * At startup we make sure the table covers the users Locales + Locale.ENGLISH
+     * Any other Locale passed in is added the first time it's seen.
      * That probably covers a lot if not all.
      *
      * @param context     Current context
@@ -149,9 +160,8 @@ public class Languages {
             return "";
         }
         // create the mappings for the given locale if they don't exist yet
-        createLanguageMappingCache(context, locale);
-
-        return getCacheFile(context).getString(source, source);
+        final String iso3 = getNameTable(context, locale).find(source);
+        return iso3 != null ? iso3 : source;
     }
 
     /**
@@ -404,54 +414,96 @@ public class Languages {
 
 
     /**
-     * Create all cache files. This method is called during startup
-     * from {@link BuildLanguageMappingsTask}.
+     * Make sure the lookup table covers the users Locales and English.
+     * This method is called during startup from {@link BuildLanguageMappingsTask}.
      *
      * @param context Current context
      */
     public void createLanguageMappingCache(@NonNull final Context context) {
+        // Remove the SharedPreferences based cache used by older versions.
+        context.deleteSharedPreferences(LANGUAGE_MAP);
+
         final List<Locale> locales = new ArrayList<>(LocaleListUtils.asList(context));
         // Always add English
         locales.add(Locale.ENGLISH);
-        locales.forEach(locale -> createLanguageMappingCache(context, locale));
+        locales.forEach(locale -> getNameTable(context, locale));
 
         // Locales from SearchEngine's are added automatically as/when needed
     }
 
     /**
-     * Generate language mappings for a given Locale.
+     * Get the lookup table, making sure it includes the display names
+     * as generated for the given Locale.
+     * <p>
+     * The first call loads the table from the cache file.
+     * If a Locale needs adding, the new table is written back to that file.
      *
      * @param context Current context
-     * @param locale  the Locale for which to create a mapping
+     * @param locale  the Locale for which the mappings must be present
+     *
+     * @return the table
      */
-    private void createLanguageMappingCache(@NonNull final Context context,
-                                            @NonNull final Locale locale) {
-        final SharedPreferences cacheFile = getCacheFile(context);
-
-        // just return if already done for this Locale.
-        if (cacheFile.getBoolean(LANG_CREATED_PREFIX + locale.getISO3Language(), false)) {
-            return;
+    @NonNull
+    private LanguageNameTable getNameTable(@NonNull final Context context,
+                                           @NonNull final Locale locale) {
+        LanguageNameTable table = nameTable;
+        if (table != null && table.contains(locale)) {
+            return table;
         }
-        final SharedPreferences.Editor ed = cacheFile.edit();
-        for (final Locale loc : Locale.getAvailableLocales()) {
-            ed.putString(loc.getDisplayLanguage(locale).toLowerCase(locale),
-                         loc.getISO3Language());
+
+        synchronized (nameTableLock) {
+            table = nameTable;
+            final Locale[] available = Locale.getAvailableLocales();
+            // The fingerprint detects changes to the system Locale data.
+            final int fingerprint = Arrays.hashCode(available);
+            @Nullable
+            final File file = getNameTableFile(context);
+
+            if (table == null) {
+                table = readNameTable(file, fingerprint);
+            }
+            if (!table.contains(locale)) {
+                table = table.with(locale, available);
+                writeNameTable(file, table, fingerprint);
+            }
+            nameTable = table;
+            return table;
         }
-        // signal this Locale was done
-        ed.putBoolean(LANG_CREATED_PREFIX + locale.getISO3Language(), true);
-        ed.apply();
     }
 
-    /**
-     * Convenience method to get the language SharedPreferences file.
-     *
-     * @param context Current context
-     *
-     * @return the SharedPreferences representing the language mapper
-     */
+    @Nullable
+    private File getNameTableFile(@NonNull final Context context) {
+        final File dir = context.getCacheDir();
+        return dir != null ? new File(dir, NAME_TABLE_FILE) : null;
+    }
+
     @NonNull
-    private SharedPreferences getCacheFile(@NonNull final Context context) {
-        return context.getSharedPreferences(LANGUAGE_MAP, Context.MODE_PRIVATE);
+    private LanguageNameTable readNameTable(@Nullable final File file,
+                                            final int fingerprint) {
+        if (file != null && file.exists()) {
+            try {
+                final LanguageNameTable table = LanguageNameTable
+                        .fromBytes(Files.readAllBytes(file.toPath()), fingerprint);
+                if (table != null) {
+                    return table;
+                }
+            } catch (@NonNull final IOException ignore) {
+                // ignore, we'll rebuild
+            }
+        }
+        return LanguageNameTable.EMPTY;
+    }
+
+    private void writeNameTable(@Nullable final File file,
+                                @NonNull final LanguageNameTable table,
+                                final int fingerprint) {
+        if (file != null) {
+            try {
+                Files.write(file.toPath(), table.toBytes(fingerprint));
+            } catch (@NonNull final IOException ignore) {
+                // ignore, it's only a cache; we'll rebuild next time
+            }
+        }
     }
 
     /**
@@ -26,10 +26,10 @@ import androidx.annotation.Nullable;
 import androidx.preference.PreferenceManager;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 import com.hardbacknutter.nevertoomanybooks.R;
@@ -66,15 +66,22 @@ public final class ReorderHelper {
      */
 
     public static final String PK_SORT_TITLE_REORDERED = "sort.title.reordered";
-    private static final String SUFFIX_SEPARATOR = ", ";
 
     /**
-     * Cache for the pv_reformat_titles_prefixes strings.
+     * Cache for the compiled pv_reformat_titles_prefixes strings.
+     * These are resources and never change while the app is running.
      */
-    private final Map<Locale, String> localePrefixMap = new HashMap<>();
+    private final Map<Locale, TitleArticles> articlesMap = new ConcurrentHashMap<>();
     @NonNull
     private final Supplier<AppLocale> appLocaleSupplier;
 
+    /**
+     * Cached value of {@link #PK_SORT_TITLE_REORDERED}.
+     * {@code null} when not read yet, or after {@link #onPreferencesChanged()}.
+     */
+    @Nullable
+    private volatile Boolean sortReordered;
+
     /**
      * Constructor.
      *
@@ -92,8 +99,21 @@ public final class ReorderHelper {
      * @return {@code true} if titles should be reordered. e.g. "The title" -> "title, The"
      */
     private boolean forSorting(@NonNull final Context context) {
-        return PreferenceManager.getDefaultSharedPreferences(context)
-                                .getBoolean(PK_SORT_TITLE_REORDERED, true);
+        Boolean reordered = sortReordered;
+        if (reordered == null) {
+            reordered = PreferenceManager.getDefaultSharedPreferences(context)
+                                         .getBoolean(PK_SORT_TITLE_REORDERED, true);
+            sortReordered = reordered;
+        }
+        return reordered;
+    }
+
+    /**
+     * Must be called after {@link #PK_SORT_TITLE_REORDERED} was changed;
+     * i.e. by the user or by importing the preferences.
+     */
+    public void onPreferencesChanged() {
+        sortReordered = null;
     }
 
     /**
@@ -218,29 +238,28 @@ public final class ReorderHelper {
                           @Nullable final Locale firstLocale,
                           @NonNull final List<Locale> localeList) {
 
-        final String[] titleWords = title.split(" ");
         // Single word titles (or empty titles).. just return.
-        if (titleWords.length < 2) {
+        if (title.indexOf(' ') <= 0) {
             return title;
         }
 
-        final List<Locale> locales = concatLocales(firstLocale, localeList);
-        for (final Locale locale : locales) {
-            // case sensitive, see notes in
-            // src/main/res/values/string.xml/pv_reformat_titles_prefixes
-            if (getWords(context, locale).contains(titleWords[0])) {
-                final StringBuilder newTitle = new StringBuilder();
-                for (int i = 1; i < titleWords.length; i++) {
-                    if (i != 1) {
-                        newTitle.append(' ');
-                    }
-                    newTitle.append(titleWords[i]);
-                }
-                newTitle.append(SUFFIX_SEPARATOR).append(titleWords[0]);
-                return newTitle.toString();
+        // Try the Locales in order: the optional firstLocale, the list, and English.
+        // Not using concatLocales() here as this is called for every title.
+        String reordered;
+        if (firstLocale != null) {
+            reordered = getArticles(context, firstLocale).reorder(title);
+            if (reordered != null) {
+                return reordered;
             }
         }
-        return title;
+        for (final Locale locale : localeList) {
+            reordered = getArticles(context, locale).reorder(title);
+            if (reordered != null) {
+                return reordered;
+            }
+        }
+        reordered = getArticles(context, Locale.ENGLISH).reorder(title);
+        return reordered != null ? reordered : title;
     }
 
 
@@ -262,24 +281,22 @@ public final class ReorderHelper {
                           @NonNull final List<Locale> localeList) {
         final List<Locale> locales = concatLocales(firstLocale, localeList);
         for (final Locale locale : locales) {
-            final String[] words = getWords(context, locale).split("\\|");
-            for (final String word : words) {
-                if (text.endsWith(SUFFIX_SEPARATOR + word)) {
-                    // This is the (hopefully) original/actual title.
-                    final String reconstructed =
-                            word + " " + text.substring(0, text.length()
-                                                           - SUFFIX_SEPARATOR.length()
-                                                           - word.length());
-                    // Now reorder it AGAIN, and check if it matches the original text.
-                    final String reordered =
-                            reorder(context, reconstructed, firstLocale, localeList);
-                    // IgnoreCase as the incoming text might have an uppercase character to start
-                    if (text.equalsIgnoreCase(reordered)) {
-                        // We have a good chance that this is the original title.
-                        // The case of the first character of the 'word' and the original 'text'
-                        // might however be wrong. Leave that to the user...
-                        return reconstructed;
-                    }
+            final String word = getArticles(context, locale).findTrailingArticle(text);
+            if (word != null) {
+                // This is the (hopefully) original/actual title.
+                final String reconstructed =
+                        word + " " + text.substring(0, text.length()
+                                                       - TitleArticles.SUFFIX_SEPARATOR.length()
+                                                       - word.length());
+                // Now reorder it AGAIN, and check if it matches the original text.
+                final String reordered =
+                        reorder(context, reconstructed, firstLocale, localeList);
+                // IgnoreCase as the incoming text might have an uppercase character to start
+                if (text.equalsIgnoreCase(reordered)) {
+                    // We have a good chance that this is the original title.
+                    // The case of the first character of the 'word' and the original 'text'
+                    // might however be wrong. Leave that to the user...
+                    return reconstructed;
                 }
             }
         }
@@ -290,29 +307,26 @@ public final class ReorderHelper {
 
 
     /**
-     * Get the '|' separated list of words to check for in the given Locale.
+     * Get the articles to check for in the given Locale.
      *
      * @param context Current context
      * @param locale  to lookup
      *
-     * @return word list; can be empty.
+     * @return articles; can be empty.
      */
     @NonNull
-    private String getWords(@NonNull final Context context,
-                            @NonNull final Locale locale) {
+    private TitleArticles getArticles(@NonNull final Context context,
+                                      @NonNull final Locale locale) {
         // getLocalizedResources is slow, so we cache it for every Locale.
-        String words = localePrefixMap.get(locale);
-        if (words == null) {
-            words = appLocaleSupplier.get()
-                                     .getLocalizedResources(context, locale)
-                                     .getString(R.string.pv_reformat_titles_prefixes);
-            // hack for WebLate removing empty Strings.
-            if ("|".equals(words)) {
-                words = "";
-            }
-            localePrefixMap.put(locale, words);
+        TitleArticles articles = articlesMap.get(locale);
+        if (articles == null) {
+            final String words = appLocaleSupplier.get()
+                                                  .getLocalizedResources(context, locale)
+                                                  .getString(R.string.pv_reformat_titles_prefixes);
+            articles = TitleArticles.create(words);
+            articlesMap.put(locale, articles);
         }
-        return words;
+        return articles;
     }
 
     /**
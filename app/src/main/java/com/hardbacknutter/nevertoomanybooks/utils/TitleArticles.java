@@ -0,0 +1,134 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The immutable set of leading articles for a single Locale.
+ * <p>
+ * Created once for each Locale by {@link ReorderHelper} from the '|' separated
+ * {@code R.string.pv_reformat_titles_prefixes} list, and safe to share between threads.
+ * <p>
+ * Matching is exact and case sensitive,
+ * see the notes in src/main/res/values/string.xml/pv_reformat_titles_prefixes
+ */
+final class TitleArticles {
+
+    /** Used for Locales without articles. */
+    static final TitleArticles EMPTY = new TitleArticles(Set.of(), 0);
+
+    /** The separator between the title and the article when reordered. */
+    static final String SUFFIX_SEPARATOR = ", ";
+
+    @NonNull
+    private final Set<String> articles;
+    /** The length of the longest article; used to avoid creating Strings to look up. */
+    private final int maxLength;
+
+    private TitleArticles(@NonNull final Set<String> articles,
+                          final int maxLength) {
+        this.articles = articles;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param words a '|' separated list of articles
+     *
+     * @return instance
+     */
+    @NonNull
+    static TitleArticles create(@NonNull final String words) {
+        final Set<String> set = new HashSet<>();
+        int maxLength = 0;
+        // Empty words are skipped; this also handles the hack for WebLate
+        // removing empty Strings which gives us a single "|"
+        for (final String word : words.split("\\|")) {
+            if (!word.isEmpty()) {
+                set.add(word);
+                maxLength = Math.max(maxLength, word.length());
+            }
+        }
+        if (set.isEmpty()) {
+            return EMPTY;
+        }
+        return new TitleArticles(Set.copyOf(set), maxLength);
+    }
+
+    /**
+     * Move a leading article to the end of the title. e.g. "The title" -> "title, The".
+     * <p>
+     * Trailing spaces are ignored, and a single word title is never reordered.
+     *
+     * @param title to reorder
+     *
+     * @return the reordered title, or {@code null} if the title does not start with an article
+     */
+    @Nullable
+    String reorder(@NonNull final String title) {
+        final int space = title.indexOf(' ');
+        // no space, a leading space, or a first word which is too long to be an article.
+        if (space <= 0 || space > maxLength) {
+            return null;
+        }
+
+        int end = title.length();
+        while (end > space && title.charAt(end - 1) == ' ') {
+            end--;
+        }
+        if (end == space) {
+            // A single word with trailing spaces
+            return null;
+        }
+
+        final String article = title.substring(0, space);
+        if (!articles.contains(article)) {
+            return null;
+        }
+        return title.substring(space + 1, end) + SUFFIX_SEPARATOR + article;
+    }
+
+    /**
+     * Find the article at the end of a reordered title. e.g. "title, The" -> "The".
+     *
+     * @param text to check
+     *
+     * @return the article, or {@code null} if the text does not end with an article
+     */
+    @Nullable
+    String findTrailingArticle(@NonNull final String text) {
+        final int sep = text.lastIndexOf(SUFFIX_SEPARATOR);
+        if (sep < 0) {
+            return null;
+        }
+        final int start = sep + SUFFIX_SEPARATOR.length();
+        if (start == text.length() || text.length() - start > maxLength) {
+            return null;
+        }
+        final String article = text.substring(start);
+        return articles.contains(article) ? article : null;
+    }
+}
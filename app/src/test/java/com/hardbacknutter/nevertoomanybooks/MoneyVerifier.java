@@ -20,8 +20,6 @@
 
 package com.hardbacknutter.nevertoomanybooks;
 
-import android.os.Bundle;
-
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
@@ -29,6 +27,7 @@ import java.math.BigDecimal;
 
 import com.hardbacknutter.nevertoomanybooks.database.DBKey;
 import com.hardbacknutter.nevertoomanybooks.datamanager.DataManager;
+import com.hardbacknutter.nevertoomanybooks.datamanager.FieldStore;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -41,7 +40,7 @@ public final class MoneyVerifier {
     public static void checkRawData(@NonNull final DataManager dataManager,
                                     @NonNull final BigDecimal value,
                                     @Nullable final String currency) {
-        final Bundle rawData = dataManager.getRawData();
+        final FieldStore rawData = dataManager.getRawData();
 
         final Object v = rawData.get(DBKey.PRICE_LISTED);
         assertTrue(v instanceof Double);
@@ -0,0 +1,172 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks;
+
+import androidx.annotation.NonNull;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import com.hardbacknutter.nevertoomanybooks.StartupTaskScheduler.Resource;
+import com.hardbacknutter.nevertoomanybooks.core.LoggerFactory;
+import com.hardbacknutter.nevertoomanybooks.core.tasks.TaskProgress;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StartupTaskSchedulerTest {
+
+    private static final Executor EXECUTOR = Runnable::run;
+
+    /** The task ids in the order they were started. */
+    private final List<Integer> started = new ArrayList<>();
+
+    private StartupTaskScheduler scheduler;
+
+    @BeforeEach
+    void setup(@TempDir final File tmpDir) {
+        LoggerFactory.setLogger(new TestLogger(tmpDir));
+        started.clear();
+        scheduler = new StartupTaskScheduler(EXECUTOR);
+    }
+
+    @Test
+    void independentTasksRunConcurrently() {
+        scheduler.add(new FakeTask(1), EnumSet.noneOf(Resource.class),
+                      EnumSet.of(Resource.Languages));
+        scheduler.add(new FakeTask(2), EnumSet.noneOf(Resource.class),
+                      EnumSet.of(Resource.Indexes));
+
+        assertTrue(scheduler.start());
+        assertEquals(List.of(1, 2), started);
+
+        scheduler.onTaskDone(2);
+        assertTrue(scheduler.isRunning());
+        scheduler.onTaskDone(1);
+        assertFalse(scheduler.isRunning());
+        assertEquals(2, scheduler.getTimings().size());
+        assertTrue(scheduler.getStartupMillis() >= 0);
+    }
+
+    @Test
+    void conflictingTasksRunInOrder() {
+        final List<Boolean> finished = new ArrayList<>();
+        scheduler.setListener(new StartupTaskScheduler.Listener() {
+            @Override
+            public void onProgress(@NonNull final TaskProgress message) {
+                // not used
+            }
+
+            @Override
+            public void onFinished() {
+                finished.add(true);
+            }
+        });
+
+        scheduler.add(new FakeTask(1), EnumSet.noneOf(Resource.class),
+                      EnumSet.of(Resource.Languages));
+        // reads what 1 writes
+        scheduler.add(new FakeTask(2), EnumSet.of(Resource.Languages),
+                      EnumSet.of(Resource.Data));
+        // writes what 2 writes
+        scheduler.add(new FakeTask(3), EnumSet.of(Resource.Languages),
+                      EnumSet.of(Resource.Data));
+
+        scheduler.start();
+        assertEquals(List.of(1), started);
+        scheduler.onTaskDone(1);
+        assertEquals(List.of(1, 2), started);
+        scheduler.onTaskDone(2);
+        assertEquals(List.of(1, 2, 3), started);
+        assertTrue(finished.isEmpty());
+        scheduler.onTaskDone(3);
+        assertEquals(1, finished.size());
+    }
+
+    @Test
+    void deferredTasksWaitForRelease() {
+        scheduler.add(new FakeTask(1), EnumSet.noneOf(Resource.class),
+                      EnumSet.of(Resource.Data));
+        scheduler.addDeferred(new FakeTask(2), EnumSet.of(Resource.Data),
+                              EnumSet.of(Resource.Fts));
+        scheduler.addDeferred(new FakeTask(3), EnumSet.allOf(Resource.class),
+                              EnumSet.of(Resource.Files));
+
+        assertTrue(scheduler.handOverDeferred());
+        scheduler.start();
+        scheduler.onTaskDone(1);
+        // The main screen no longer has to wait
+        assertFalse(scheduler.isRunning());
+        assertEquals(List.of(1), started);
+
+        StartupTaskScheduler.startDeferredTasks();
+        assertEquals(List.of(1, 2), started);
+        scheduler.onTaskDone(2);
+        assertEquals(List.of(1, 2, 3), started);
+        scheduler.onTaskDone(3);
+        assertEquals(3, scheduler.getTimings().size());
+
+        // a second call is a no-op
+        StartupTaskScheduler.startDeferredTasks();
+        assertEquals(3, started.size());
+    }
+
+    @Test
+    void normalTaskCannotDependOnDeferredTask() {
+        scheduler.addDeferred(new FakeTask(1), EnumSet.noneOf(Resource.class),
+                              EnumSet.of(Resource.Fts));
+        assertThrows(IllegalStateException.class, () -> scheduler.add(
+                new FakeTask(2), EnumSet.of(Resource.Fts), EnumSet.noneOf(Resource.class)));
+    }
+
+    private final class FakeTask
+            implements StartupViewModel.StartupTask {
+
+        private final int taskId;
+
+        FakeTask(final int taskId) {
+            this.taskId = taskId;
+        }
+
+        @Override
+        public int getTaskId() {
+            return taskId;
+        }
+
+        @Override
+        public void setExecutor(@NonNull final Executor executor) {
+            // not used
+        }
+
+        @Override
+        public void start() {
+            started.add(taskId);
+        }
+    }
+}
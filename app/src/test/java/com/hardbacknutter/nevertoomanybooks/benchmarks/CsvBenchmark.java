@@ -0,0 +1,97 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.hardbacknutter.nevertoomanybooks.backup.csv.coders.AuthorCoder;
+import com.hardbacknutter.nevertoomanybooks.backup.csv.coders.SeriesCoder;
+import com.hardbacknutter.nevertoomanybooks.backup.csv.coders.StringList;
+import com.hardbacknutter.nevertoomanybooks.entities.Author;
+import com.hardbacknutter.nevertoomanybooks.entities.Series;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The CSV field tokenizer ({@link StringList}) for the list-type columns.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CsvBenchmark {
+
+    /** Same data as used by AuthorStringListTest. */
+    private static final String AUTHORS =
+            "Winchester, Charles\\ Emerson"
+            + "|"
+            + "Wade, \\(ps\\ Jack\\ Vance\\)"
+            + "|"
+            + "Giroud, Frank"
+            + "|"
+            + "Meyer, Ralph * {\"author_type\":36864}"
+            + "|"
+            + "Van\\ der\\ Heide\\ Produkties, Zandvoort * {\"author_type\":16}"
+            + "|"
+            + "\\(\\\\*3\\), Don";
+
+    /** Same data as used by SeriesStringListTest. */
+    private static final String SERIES =
+            "Jerry Cornelius"
+            + "|"
+            + "Dancers (5) * {\"series_complete\":true}"
+            + "|"
+            + "Cornelius Chronicles, The (8\\|8 as includes The Alchemist's Question)"
+            + " * {\"series_complete\":true}"
+            + "|"
+            + "Eternal Champion, The (984\\|Jerry Cornelius Calendar 4 as includes"
+            + " The Alchemist's \\\\* Question)";
+
+    private StringList<Author> authorList;
+    private StringList<Series> seriesList;
+
+    @Setup
+    public void setup() {
+        authorList = new StringList<>(new AuthorCoder());
+        seriesList = new StringList<>(new SeriesCoder());
+    }
+
+    @Benchmark
+    public List<Author> decodeAuthors() {
+        return authorList.decodeList(AUTHORS);
+    }
+
+    @Benchmark
+    public List<Series> decodeSeries() {
+        return seriesList.decodeList(SERIES);
+    }
+}
@@ -0,0 +1,405 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.benchmarks;
+
+import android.content.ContentResolver;
+import android.database.CharArrayBuffer;
+import android.database.ContentObserver;
+import android.database.Cursor;
+import android.database.DataSetObserver;
+import android.net.Uri;
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.TimeUnit;
+
+import com.hardbacknutter.nevertoomanybooks.booklist.adapter.BookHolder;
+import com.hardbacknutter.nevertoomanybooks.database.CursorRow;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Reading a booklist row the way {@link BookHolder} binds it.
+ * Each invocation is one bind: move to the next row and read {@link #READ_COLUMNS} columns.
+ * <p>
+ * The cursor is a plain array backed {@link Cursor} which resolves column names with
+ * the same linear scan as the Android {@code AbstractCursor}, so the numbers only show
+ * the cost of the column lookups, not of the CursorWindow access.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CursorRowBenchmark {
+
+    /** Roughly the width of a booklist cursor with a style showing all fields. */
+    private static final int COLUMNS = 60;
+    private static final int ROWS = 2_000;
+    /** The number of columns a book row typically reads. */
+    private static final int READ_COLUMNS = 20;
+
+    private ArrayCursor cursor;
+    private CursorRow rowData;
+    /** The columns read by each bind; the ones at the far end, the worst case for a scan. */
+    private String[] keys;
+    /** The indexes of {@link #keys}, resolved once as {@link BookHolder} does. */
+    private int[] cols;
+
+    @Setup
+    public void setup() {
+        final String[] names = new String[COLUMNS];
+        for (int c = 0; c < COLUMNS; c++) {
+            names[c] = "column_" + c;
+        }
+        final Object[][] rows = new Object[ROWS][COLUMNS];
+        for (int r = 0; r < ROWS; r++) {
+            for (int c = 0; c < COLUMNS; c++) {
+                rows[r][c] = c % 2 == 0 ? "value " + r + '/' + c : String.valueOf(r + c);
+            }
+        }
+        cursor = new ArrayCursor(names, rows);
+        rowData = new CursorRow(cursor);
+
+        keys = new String[READ_COLUMNS];
+        System.arraycopy(names, COLUMNS - READ_COLUMNS, keys, 0, READ_COLUMNS);
+        cols = new int[READ_COLUMNS];
+        for (int i = 0; i < READ_COLUMNS; i++) {
+            cols[i] = rowData.getColumnIndex(keys[i]);
+        }
+    }
+
+    private void nextRow() {
+        if (!cursor.moveToNext()) {
+            cursor.moveToFirst();
+        }
+    }
+
+    /**
+     * The old way: resolve each column name on the cursor for every read.
+     */
+    @Benchmark
+    public void bindByKeyUncached(final Blackhole bh) {
+        nextRow();
+        for (final String key : keys) {
+            bh.consume(cursor.getString(cursor.getColumnIndex(key)));
+        }
+    }
+
+    /**
+     * The key based {@link CursorRow} getters, using the cached column indexes.
+     */
+    @Benchmark
+    public void bindByKeyCached(final Blackhole bh) {
+        nextRow();
+        for (final String key : keys) {
+            bh.consume(rowData.getString(key, null));
+        }
+    }
+
+    /**
+     * The {@link BookHolder} way: indexes resolved once, then read by index.
+     */
+    @Benchmark
+    public void bindByIndex(final Blackhole bh) {
+        nextRow();
+        for (final int col : cols) {
+            bh.consume(rowData.getString(col));
+        }
+    }
+
+    /**
+     * Minimal read-only {@link Cursor}; the unit-test android.jar only has stubs
+     * for the framework cursors.
+     */
+    private static final class ArrayCursor
+            implements Cursor {
+
+        @NonNull
+        private final String[] columnNames;
+        @NonNull
+        private final Object[][] rows;
+        private int position = -1;
+        private boolean closed;
+
+        ArrayCursor(@NonNull final String[] columnNames,
+                    @NonNull final Object[][] rows) {
+            this.columnNames = columnNames;
+            this.rows = rows;
+        }
+
+        @Override
+        public int getCount() {
+            return rows.length;
+        }
+
+        @Override
+        public int getPosition() {
+            return position;
+        }
+
+        @Override
+        public boolean move(final int offset) {
+            return moveToPosition(position + offset);
+        }
+
+        @Override
+        public boolean moveToPosition(final int newPosition) {
+            if (newPosition < 0) {
+                position = -1;
+                return false;
+            }
+            if (newPosition >= rows.length) {
+                position = rows.length;
+                return false;
+            }
+            position = newPosition;
+            return true;
+        }
+
+        @Override
+        public boolean moveToFirst() {
+            return moveToPosition(0);
+        }
+
+        @Override
+        public boolean moveToLast() {
+            return moveToPosition(rows.length - 1);
+        }
+
+        @Override
+        public boolean moveToNext() {
+            return moveToPosition(position + 1);
+        }
+
+        @Override
+        public boolean moveToPrevious() {
+            return moveToPosition(position - 1);
+        }
+
+        @Override
+        public boolean isFirst() {
+            return position == 0 && rows.length > 0;
+        }
+
+        @Override
+        public boolean isLast() {
+            return position == rows.length - 1 && rows.length > 0;
+        }
+
+        @Override
+        public boolean isBeforeFirst() {
+            return rows.length == 0 || position == -1;
+        }
+
+        @Override
+        public boolean isAfterLast() {
+            return rows.length == 0 || position == rows.length;
+        }
+
+        /**
+         * Same lookup as {@code AbstractCursor#getColumnIndex}.
+         */
+        @Override
+        public int getColumnIndex(@NonNull final String columnName) {
+            final int periodIndex = columnName.lastIndexOf('.');
+            final String name = periodIndex == -1 ? columnName
+                                                  : columnName.substring(periodIndex + 1);
+            for (int i = 0; i < columnNames.length; i++) {
+                if (columnNames[i].equalsIgnoreCase(name)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public int getColumnIndexOrThrow(@NonNull final String columnName) {
+            final int col = getColumnIndex(columnName);
+            if (col < 0) {
+                throw new IllegalArgumentException("column '" + columnName
+                                                   + "' does not exist");
+            }
+            return col;
+        }
+
+        @Override
+        @NonNull
+        public String getColumnName(final int columnIndex) {
+            return columnNames[columnIndex];
+        }
+
+        @Override
+        @NonNull
+        public String[] getColumnNames() {
+            return columnNames;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columnNames.length;
+        }
+
+        @Override
+        @Nullable
+        public byte[] getBlob(final int columnIndex) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        @Nullable
+        public String getString(final int columnIndex) {
+            final Object value = rows[position][columnIndex];
+            return value == null ? null : value.toString();
+        }
+
+        @Override
+        public void copyStringToBuffer(final int columnIndex,
+                                       @NonNull final CharArrayBuffer buffer) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public short getShort(final int columnIndex) {
+            return (short) getLong(columnIndex);
+        }
+
+        @Override
+        public int getInt(final int columnIndex) {
+            return (int) getLong(columnIndex);
+        }
+
+        @Override
+        public long getLong(final int columnIndex) {
+            final String value = getString(columnIndex);
+            return value == null ? 0 : Long.parseLong(value);
+        }
+
+        @Override
+        public float getFloat(final int columnIndex) {
+            return (float) getDouble(columnIndex);
+        }
+
+        @Override
+        public double getDouble(final int columnIndex) {
+            final String value = getString(columnIndex);
+            return value == null ? 0 : Double.parseDouble(value);
+        }
+
+        @Override
+        public int getType(final int columnIndex) {
+            return rows[position][columnIndex] == null ? FIELD_TYPE_NULL : FIELD_TYPE_STRING;
+        }
+
+        @Override
+        public boolean isNull(final int columnIndex) {
+            return rows[position][columnIndex] == null;
+        }
+
+        @Override
+        @Deprecated
+        public void deactivate() {
+            // no-op
+        }
+
+        @Override
+        @Deprecated
+        public boolean requery() {
+            return !closed;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public void registerContentObserver(@NonNull final ContentObserver observer) {
+            // no-op
+        }
+
+        @Override
+        public void unregisterContentObserver(@NonNull final ContentObserver observer) {
+            // no-op
+        }
+
+        @Override
+        public void registerDataSetObserver(@NonNull final DataSetObserver observer) {
+            // no-op
+        }
+
+        @Override
+        public void unregisterDataSetObserver(@NonNull final DataSetObserver observer) {
+            // no-op
+        }
+
+        @Override
+        public void setNotificationUri(@NonNull final ContentResolver cr,
+                                       @NonNull final Uri notifyUri) {
+            // no-op
+        }
+
+        @Override
+        @Nullable
+        public Uri getNotificationUri() {
+            return null;
+        }
+
+        @Override
+        public boolean getWantsAllOnMoveCalls() {
+            return false;
+        }
+
+        @Override
+        public void setExtras(@Nullable final Bundle extras) {
+            // no-op
+        }
+
+        @Override
+        @NonNull
+        public Bundle getExtras() {
+            return Bundle.EMPTY;
+        }
+
+        @Override
+        @NonNull
+        public Bundle respond(@NonNull final Bundle extras) {
+            return Bundle.EMPTY;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import com.hardbacknutter.nevertoomanybooks.core.utils.ISBN;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * {@link ISBN} parsing and validation, as done for every book on import and search.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IsbnBenchmark {
+
+    private static final String[] CODES = {
+            "9780306406157",
+            "978-0-306-40615-7",
+            "0306406152",
+            "0-306-40615-2",
+            "080442957X",
+            "9791032305690",
+            "978 1 86197 876 9",
+            // UPC and invalid codes
+            "036000291452",
+            "9780306406158",
+            "not an isbn"
+    };
+
+    @Benchmark
+    public void createStrict(final Blackhole bh) {
+        for (final String code : CODES) {
+            bh.consume(new ISBN(code, true));
+        }
+    }
+
+    @Benchmark
+    public void createAndValidate(final Blackhole bh) {
+        for (final String code : CODES) {
+            bh.consume(new ISBN(code, false).isValid(false));
+        }
+    }
+
+    @Benchmark
+    public void cleanText(final Blackhole bh) {
+        for (final String code : CODES) {
+            bh.consume(ISBN.cleanText(code));
+        }
+    }
+}
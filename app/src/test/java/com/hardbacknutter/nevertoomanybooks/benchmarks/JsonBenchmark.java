@@ -0,0 +1,121 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.benchmarks;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import com.hardbacknutter.org.json.JSONArray;
+import com.hardbacknutter.org.json.JSONObject;
+import com.hardbacknutter.org.json.JSONTokener;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parsing and serializing a backup-like payload with the repacked org.json library.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+
+    private static final int NR_OF_BOOKS = 500;
+
+    private String payload;
+    private JSONArray parsed;
+
+    @Setup
+    public void setup() {
+        final JSONArray books = new JSONArray();
+        for (int i = 0; i < NR_OF_BOOKS; i++) {
+            books.put(new JSONObject()
+                              .put("id", i)
+                              .put("uuid", "5b2fa2a4-7b6e-4bbf-8c2d-" + (100_000_000_000L + i))
+                              .put("title", "The title of book number " + i)
+                              .put("isbn", "978030640" + (1000 + i))
+                              .put("date_published", "2021-01-10")
+                              .put("price_listed", 12.34 + i)
+                              .put("price_listed_currency", "EUR")
+                              .put("rating", i % 6)
+                              .put("read", i % 2 == 0)
+                              .put("description", "A \"quoted\" description\nwith a newline"
+                                                  + " and some unicode: é ü ß €")
+                              .put("authors", new JSONArray()
+                                      .put(new JSONObject()
+                                                   .put("family_name", "Family" + i)
+                                                   .put("given_names", "Given")
+                                                   .put("type", 1))
+                                      .put(new JSONObject()
+                                                   .put("family_name", "Other" + i)
+                                                   .put("given_names", "")
+                                                   .put("type", 16)))
+                              .put("series", new JSONArray()
+                                      .put(new JSONObject()
+                                                   .put("title", "Series " + (i / 10))
+                                                   .put("number", String.valueOf(i % 10)))));
+        }
+        payload = books.toString();
+        parsed = new JSONArray(payload);
+    }
+
+    @Benchmark
+    public JSONArray parseString() {
+        return new JSONArray(payload);
+    }
+
+    @Benchmark
+    public JSONArray parseReader() {
+        return new JSONArray(new JSONTokener(new StringReader(payload)));
+    }
+
+    /**
+     * Parse and access all values, which includes any deferred number conversion.
+     *
+     * @param bh Blackhole
+     */
+    @Benchmark
+    public void parseAndReadAll(final Blackhole bh) {
+        final JSONArray books = new JSONArray(payload);
+        for (int i = 0; i < books.length(); i++) {
+            final JSONObject book = books.getJSONObject(i);
+            for (final String key : book.keySet()) {
+                bh.consume(book.opt(key));
+            }
+        }
+    }
+
+    @Benchmark
+    public String serialize() {
+        return parsed.toString();
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import com.hardbacknutter.nevertoomanybooks.entities.Author;
+import com.hardbacknutter.nevertoomanybooks.entities.Series;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Decoding of free-text {@link Author} and {@link Series} names, as done by the
+ * importers and most search engines.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NameParsingBenchmark {
+
+    private static final String[] AUTHORS = {
+            "Charles Emerson Winchester",
+            "Winchester, Charles Emerson",
+            "Tolkien, J.R.R.",
+            "Jack Vance (ps Jack Holbrook Vance)",
+            "Ursula K. Le Guin",
+            "Van der Heide Produkties, Zandvoort",
+            "Hergé",
+            "Martin Luther King Jr.",
+            "Gabriel García Márquez",
+            "Dumas, Alexandre (père)"
+    };
+
+    private static final String[] SERIES = {
+            "The Dark Tower (3)",
+            "Discworld #12",
+            "Foundation, 2",
+            "Foundation; 2",
+            "Les aventures de Tintin, 14",
+            "Blake & Mortimer 4b",
+            "Het Sinterklaasjournaal (2010) 7",
+            "A Song of Ice and Fire",
+            "Rama (2 - omnibus)",
+            "Valérian (nr. 21)"
+    };
+
+    @Benchmark
+    public void authorFrom(final Blackhole bh) {
+        for (final String name : AUTHORS) {
+            bh.consume(Author.from(name));
+        }
+    }
+
+    @Benchmark
+    public void seriesFrom(final Blackhole bh) {
+        for (final String name : SERIES) {
+            bh.consume(Series.from(name));
+        }
+    }
+}
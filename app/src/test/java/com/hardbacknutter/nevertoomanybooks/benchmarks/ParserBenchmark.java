@@ -0,0 +1,119 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.benchmarks;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import com.hardbacknutter.nevertoomanybooks.core.parsers.FullDateParser;
+import com.hardbacknutter.nevertoomanybooks.core.parsers.MoneyParser;
+import com.hardbacknutter.nevertoomanybooks.core.parsers.RealNumberParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The date, money and number parsers as used by the search engines and importers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParserBenchmark {
+
+    private static final String[] DATES = {
+            "2021-01-10",
+            "2021-01-10 12:34:56",
+            "2021-01",
+            "1987",
+            "10 January 2021",
+            "January 10, 2021",
+            "Jan 2021",
+            "10/01/2021",
+            "10 janvier 2021",
+            "not a date"
+    };
+
+    private static final String[] PRICES = {
+            "£12.34",
+            "GBP&nbsp;12.34",
+            "12,34 €",
+            "EUR 12,34",
+            "$9.99",
+            "USD 1,234.56",
+            "12/6",
+            "¥1500"
+    };
+
+    private static final String[] NUMBERS = {
+            "12",
+            "12.5",
+            "12,5",
+            "1,234.56",
+            "1.234,56",
+            "0.333",
+            "-7"
+    };
+
+    private FullDateParser dateParser;
+    private MoneyParser moneyParser;
+    private RealNumberParser realNumberParser;
+
+    @Setup
+    public void setup() {
+        final List<Locale> locales = List.of(Locale.UK, Locale.FRANCE, Locale.US);
+        dateParser = new FullDateParser(Locale.UK, locales);
+        realNumberParser = new RealNumberParser(locales);
+        moneyParser = new MoneyParser(Locale.UK, realNumberParser);
+    }
+
+    @Benchmark
+    public void fullDate(final Blackhole bh) {
+        for (final String date : DATES) {
+            bh.consume(dateParser.parse(date));
+        }
+    }
+
+    @Benchmark
+    public void money(final Blackhole bh) {
+        for (final String price : PRICES) {
+            bh.consume(moneyParser.parse(price));
+        }
+    }
+
+    @Benchmark
+    public void realNumber(final Blackhole bh) {
+        for (final String number : NUMBERS) {
+            bh.consume(realNumberParser.parseDouble(number));
+        }
+    }
+}
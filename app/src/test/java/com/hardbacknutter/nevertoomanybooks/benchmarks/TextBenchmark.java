@@ -0,0 +1,91 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import com.hardbacknutter.nevertoomanybooks.core.database.SqlEncode;
+import com.hardbacknutter.nevertoomanybooks.database.DBKey;
+import com.hardbacknutter.nevertoomanybooks.database.dao.impl.FtsDaoHelper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Text normalization as used for the "order-by" columns and the FTS search text.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TextBenchmark {
+
+    private static final String[] TITLES = {
+            "The Hitchhiker's Guide to the Galaxy",
+            "Les Misérables",
+            "Der Schatz im Silbersee",
+            "Ærø: Ein Reiseführer",
+            "L'Œuvre au noir",
+            "Cien años de soledad",
+            "Město v ohni",
+            "Tintin au pays des Soviets (1930) - édition intégrale",
+            "1984",
+            "Dune"
+    };
+
+    private static final String[] SEARCH_TEXTS = {
+            "galaxy",
+            "misérables hugo",
+            "tolkien -hobbit",
+            "\"silmarillion\" (tolkien), 1977!",
+            "L'Œuvre au noir"
+    };
+
+    @Benchmark
+    public void sqlEncodeNormalize(final Blackhole bh) {
+        for (final String title : TITLES) {
+            bh.consume(SqlEncode.normalize(title));
+        }
+    }
+
+    @Benchmark
+    public void ftsPrepareSearchText(final Blackhole bh) {
+        for (final String text : SEARCH_TEXTS) {
+            bh.consume(FtsDaoHelper.prepareSearchText(text, null));
+        }
+    }
+
+    @Benchmark
+    public void ftsPrepareSearchTextWithDomain(final Blackhole bh) {
+        for (final String text : SEARCH_TEXTS) {
+            bh.consume(FtsDaoHelper.prepareSearchText(text, DBKey.TITLE));
+        }
+    }
+}
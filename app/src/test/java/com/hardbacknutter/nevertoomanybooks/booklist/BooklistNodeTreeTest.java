@@ -0,0 +1,206 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.booklist;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SuppressWarnings("MissingJavadoc")
+class BooklistNodeTreeTest {
+
+    /**
+     * Two groups (author, series) and books. Row ids start at 10.
+     * <pre>
+     *  0  A1             level 1
+     *  1    S1           level 2
+     *  2      book       level 3
+     *  3      book       level 3
+     *  4    S2           level 2
+     *  5      book       level 3
+     *  6  A2             level 1
+     *  7    S3           level 2
+     *  8      book       level 3
+     * </pre>
+     */
+    private static final byte[] LEVELS = {1, 2, 3, 3, 2, 3, 1, 2, 3};
+
+    private BooklistNodeTree tree;
+
+    @NonNull
+    private static BooklistNodeTree create(@NonNull final byte[] levels) {
+        final long[] rowIds = new long[levels.length];
+        final BitSet visible = new BitSet();
+        for (int i = 0; i < levels.length; i++) {
+            rowIds[i] = 10 + i;
+            // level 1 is always visible
+            visible.set(i, levels[i] == 1);
+        }
+        return new BooklistNodeTree(rowIds, levels, new BitSet(), visible);
+    }
+
+    @BeforeEach
+    void setup() {
+        tree = create(LEVELS);
+    }
+
+    @Test
+    void collapsed() {
+        assertEquals(9, tree.size());
+        assertEquals(2, tree.getVisibleCount());
+        assertArrayEquals(new long[]{10, 16}, tree.getVisibleRowIds(0, 32));
+        assertEquals(4, tree.indexOf(14));
+        assertTrue(tree.indexOf(99) < 0);
+        // invisible rows map to the previous visible row
+        assertEquals(0, tree.getListPosition(3));
+        assertEquals(1, tree.getListPosition(8));
+        assertFalse(tree.isDirty());
+    }
+
+    @Test
+    void setNode() {
+        tree.setNode(0, true, 1);
+        assertArrayEquals(new long[]{10, 11, 14, 16}, tree.getVisibleRowIds(0, 32));
+        assertTrue(tree.isExpanded(0));
+        assertFalse(tree.isExpanded(1));
+        assertEquals(2, tree.getListPosition(4));
+        assertEquals(3, tree.getListPosition(6));
+
+        // expand the series too
+        tree.setNode(1, true, 1);
+        assertArrayEquals(new long[]{10, 11, 12, 13, 14, 16}, tree.getVisibleRowIds(0, 32));
+
+        // paging
+        assertArrayEquals(new long[]{13, 14}, tree.getVisibleRowIds(3, 2));
+        assertArrayEquals(new long[0], tree.getVisibleRowIds(10, 2));
+
+        // collapsing the author hides and collapses everything below it
+        tree.setNode(0, false, 1);
+        assertArrayEquals(new long[]{10, 16}, tree.getVisibleRowIds(0, 32));
+        assertFalse(tree.isExpanded(1));
+
+        // expand two levels in one go
+        tree.setNode(6, true, 2);
+        assertArrayEquals(new long[]{10, 16, 17, 18}, tree.getVisibleRowIds(0, 32));
+        assertTrue(tree.isExpanded(7));
+        assertFalse(tree.isExpanded(8));
+
+        assertThrows(IllegalArgumentException.class, () -> tree.setNode(0, true, 3));
+    }
+
+    @Test
+    void setAllNodes() {
+        tree.setAllNodes(1, true);
+        assertEquals(9, tree.getVisibleCount());
+        for (int i = 0; i < tree.size(); i++) {
+            assertTrue(tree.isExpanded(i));
+        }
+
+        tree.setAllNodes(1, false);
+        assertEquals(2, tree.getVisibleCount());
+
+        // show levels 1 and 2, level 2 collapsed
+        tree.setAllNodes(2, false);
+        assertArrayEquals(new long[]{10, 11, 14, 16, 17}, tree.getVisibleRowIds(0, 32));
+        assertTrue(tree.isExpanded(0));
+        assertFalse(tree.isExpanded(1));
+
+        tree.setAllNodes(2, true);
+        assertEquals(9, tree.getVisibleCount());
+        assertFalse(tree.isExpanded(1));
+        assertTrue(tree.isExpanded(2));
+    }
+
+    @Test
+    void ensureVisible() {
+        tree.ensureVisible(5);
+        assertArrayEquals(new long[]{10, 11, 14, 15, 16}, tree.getVisibleRowIds(0, 32));
+        assertEquals(3, tree.getListPosition(5));
+        assertTrue(tree.isExpanded(0));
+        assertTrue(tree.isExpanded(4));
+    }
+
+    @Test
+    void dirtyRuns() {
+        tree.setNode(0, true, 2);
+        assertTrue(tree.isDirty());
+
+        final List<String> runs = new ArrayList<>();
+        tree.forEachDirtyRun((first, last, expanded, visible) -> runs.add(
+                first + "-" + last + ":" + expanded + "/" + visible));
+        // row 0: expanded; rows 1 (series): expanded+visible; 2,3 books: visible;
+        // 4 series: expanded+visible; 5 book visible.
+        assertEquals(List.of("10-11:true/true",
+                             "12-13:false/true",
+                             "14-14:true/true",
+                             "15-15:false/true"), runs);
+
+        tree.clearDirty();
+        assertFalse(tree.isDirty());
+
+        // no actual change: stays clean
+        tree.setNode(0, true, 2);
+        assertFalse(tree.isDirty());
+    }
+
+    @Test
+    void large() {
+        // 2000 authors, each with 4 series of 5 books: 2000 * (1 + 4 * 6) = 50_000 rows
+        final int authors = 2000;
+        final byte[] levels = new byte[authors * 25];
+        int i = 0;
+        for (int a = 0; a < authors; a++) {
+            levels[i++] = 1;
+            for (int s = 0; s < 4; s++) {
+                levels[i++] = 2;
+                for (int b = 0; b < 5; b++) {
+                    levels[i++] = 3;
+                }
+            }
+        }
+        final BooklistNodeTree big = create(levels);
+        assertEquals(authors, big.getVisibleCount());
+
+        big.setAllNodes(1, true);
+        assertEquals(levels.length, big.getVisibleCount());
+        assertEquals(levels.length - 1, big.getListPosition(levels.length - 1));
+
+        big.setAllNodes(1, false);
+        assertEquals(authors, big.getVisibleCount());
+        assertEquals(authors - 1, big.getListPosition(levels.length - 1));
+
+        final int[] runs = {0};
+        big.forEachDirtyRun((first, last, expanded, visible) -> runs[0]++);
+        // everything below level 1 went back to collapsed/hidden,
+        // level 1 is collapsed/visible; each author row breaks the run.
+        assertEquals(authors * 2, runs[0]);
+    }
+}
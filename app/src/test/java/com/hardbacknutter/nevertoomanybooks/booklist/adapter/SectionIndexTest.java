@@ -0,0 +1,128 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.booklist.adapter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SectionIndexTest {
+
+    private SectionIndex index;
+
+    /**
+     * <pre>
+     *     0 A          level 1
+     *     1   A1       level 2
+     *     2     book
+     *     3     book
+     *     4   A2       level 2
+     *     5     book
+     *     6 B          level 1 (no children)
+     *     7 C          level 1
+     *     8   C1       level 2
+     *     9     book
+     * </pre>
+     */
+    @BeforeEach
+    void setup() {
+        index = new SectionIndex.Builder(2)
+                .add(1, 0, "A")
+                .add(2, 1, "A1")
+                .add(2, 4, "A2")
+                .add(1, 6, "B")
+                .add(1, 7, "C")
+                .add(2, 8, "C1")
+                .build();
+    }
+
+    @Test
+    void level1() {
+        assertEquals("A", index.getText(1, 0));
+        assertEquals("A", index.getText(1, 3));
+        assertEquals("A", index.getText(1, 5));
+        assertEquals("B", index.getText(1, 6));
+        assertEquals("C", index.getText(1, 7));
+        assertEquals("C", index.getText(1, 100));
+    }
+
+    @Test
+    void level2() {
+        // on a level 1 header there is no level 2 section yet
+        assertNull(index.getText(2, 0));
+        assertEquals("A1", index.getText(2, 1));
+        assertEquals("A1", index.getText(2, 3));
+        assertEquals("A2", index.getText(2, 4));
+        assertEquals("A2", index.getText(2, 5));
+        // A2 does not leak into B
+        assertNull(index.getText(2, 6));
+        assertNull(index.getText(2, 7));
+        assertEquals("C1", index.getText(2, 9));
+    }
+
+    /**
+     * Hidden rows are indexed as well; a collapsed node must not leak its children.
+     * <pre>
+     *     0 A          level 1
+     *     1   A1       level 2
+     *     2 B          level 1 (collapsed)
+     *     3   B1       level 2 (hidden)
+     *     4 C          level 1 (no children)
+     * </pre>
+     */
+    @Test
+    void hiddenRows() {
+        final SectionIndex withHidden = new SectionIndex.Builder(2)
+                .add(1, 0, "A")
+                .add(2, 1, "A1")
+                .add(1, 2, "B")
+                .add(2, 3, "B1")
+                .add(1, 4, "C")
+                .build();
+        assertEquals("B", withHidden.getText(1, 2));
+        assertNull(withHidden.getText(2, 2));
+        assertEquals("C", withHidden.getText(1, 4));
+        // B1 must not leak into C
+        assertNull(withHidden.getText(2, 4));
+    }
+
+    @Test
+    void outOfRange() {
+        assertNull(index.getText(1, -1));
+        assertNull(index.getText(3, 5));
+        assertEquals(2, index.getLevelCount());
+    }
+
+    @Test
+    void empty() {
+        final SectionIndex empty = new SectionIndex.Builder(1).build();
+        assertNull(empty.getText(1, 0));
+    }
+
+    @Test
+    void invalid() {
+        final SectionIndex.Builder builder = new SectionIndex.Builder(2).add(1, 5, "X");
+        assertThrows(IllegalArgumentException.class, () -> builder.add(1, 5, "Y"));
+        assertThrows(IllegalArgumentException.class, () -> builder.add(3, 6, "Z"));
+    }
+}
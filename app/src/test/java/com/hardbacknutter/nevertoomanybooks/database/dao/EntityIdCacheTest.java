@@ -0,0 +1,140 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.database.dao;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+import com.hardbacknutter.nevertoomanybooks.entities.Author;
+import com.hardbacknutter.nevertoomanybooks.entities.Series;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SuppressWarnings("MissingJavadoc")
+class EntityIdCacheTest {
+
+    private static final String[] ASIMOV = {"asimov", "isaac"};
+    private static final String[] HERBERT = {"herbert", "frank"};
+
+    /** Simulates the database table. */
+    private final Map<String, Long> table = new HashMap<>();
+    private int queries;
+    private final ToLongFunction<String[]> lookup = args -> {
+        queries++;
+        return table.getOrDefault(String.join("|", args), 0L);
+    };
+
+    private EntityIdCache idCache;
+
+    @BeforeEach
+    void setup() {
+        table.clear();
+        table.put("asimov|isaac", 1L);
+        queries = 0;
+        idCache = new EntityIdCache(null, false);
+    }
+
+    private void insert(final String[] args,
+                        final long id) {
+        table.put(String.join("|", args), id);
+        idCache.put(Author.class, args, id);
+    }
+
+    @Test
+    void hits() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(1, idCache.findId(Author.class, ASIMOV, lookup));
+        }
+        assertEquals(1, queries);
+        assertEquals(10, idCache.getLookupCount());
+        assertEquals(9, idCache.getHitCount());
+
+        // types are kept apart; i.e. this must query again
+        assertEquals(1, idCache.findId(Series.class, ASIMOV, lookup));
+        assertEquals(2, queries);
+    }
+
+    @Test
+    void misses() {
+        assertEquals(0, idCache.findId(Author.class, HERBERT, lookup));
+        assertEquals(0, idCache.findId(Author.class, HERBERT, lookup));
+        assertEquals(1, queries);
+
+        // an insert of any Author drops the cached misses
+        insert(new String[]{"le guin", "ursula"}, 3);
+        table.put("herbert|frank", 2L);
+        assertEquals(2, idCache.findId(Author.class, HERBERT, lookup));
+        assertEquals(2, queries);
+    }
+
+    @Test
+    void commit() {
+        idCache.onBegin();
+        assertEquals(0, idCache.findId(Author.class, HERBERT, lookup));
+        insert(HERBERT, 2);
+        assertEquals(2, idCache.findId(Author.class, HERBERT, lookup));
+        idCache.onCommit();
+
+        assertEquals(2, idCache.findId(Author.class, HERBERT, lookup));
+        assertEquals(1, queries);
+    }
+
+    @Test
+    void rollback() {
+        // known before the transaction
+        assertEquals(1, idCache.findId(Author.class, ASIMOV, lookup));
+
+        idCache.onBegin();
+        insert(HERBERT, 2);
+        assertEquals(2, idCache.findId(Author.class, HERBERT, lookup));
+        idCache.onRollback();
+        table.remove("herbert|frank");
+
+        // the insert was rolled back, so we must query again
+        assertEquals(0, idCache.findId(Author.class, HERBERT, lookup));
+        assertEquals(2, queries);
+        // committed entries survive
+        assertEquals(1, idCache.findId(Author.class, ASIMOV, lookup));
+        assertEquals(2, queries);
+    }
+
+    @Test
+    void changed() {
+        assertEquals(1, idCache.findId(Author.class, ASIMOV, lookup));
+        assertEquals(0, idCache.findId(Author.class, HERBERT, lookup));
+
+        // rename Asimov
+        table.remove("asimov|isaac");
+        table.put("herbert|frank", 1L);
+        idCache.forget(Author.class, 1);
+
+        assertEquals(1, idCache.findId(Author.class, HERBERT, lookup));
+        assertEquals(0, idCache.findId(Author.class, ASIMOV, lookup));
+        assertEquals(4, queries);
+
+        idCache.clear(Author.class);
+        assertEquals(1, idCache.findId(Author.class, HERBERT, lookup));
+        assertEquals(5, queries);
+    }
+}
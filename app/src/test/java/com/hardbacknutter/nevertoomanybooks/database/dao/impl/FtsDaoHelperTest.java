@@ -0,0 +1,43 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.database.dao.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FtsDaoHelperTest {
+
+    @Test
+    void toFts5() {
+        assertEquals("dune* herbert*", FtsDaoHelper.toFts5("dune* herbert*"));
+        assertEquals("author_name:frank* title:dune*",
+                     FtsDaoHelper.toFts5(" author_name:frank* title:dune*"));
+        // negation moves to the end
+        assertEquals("dune* NOT messiah", FtsDaoHelper.toFts5("-messiah dune*"));
+        assertEquals("dune* NOT title:messiah", FtsDaoHelper.toFts5("dune* title:-messiah"));
+        // only excluding is not supported
+        assertEquals("", FtsDaoHelper.toFts5("-messiah"));
+        // a lone '-' is dropped
+        assertEquals("dune*", FtsDaoHelper.toFts5("dune* -"));
+        // hyphenated words are not a negation
+        assertEquals("sci-fi*", FtsDaoHelper.toFts5("sci-fi*"));
+    }
+}
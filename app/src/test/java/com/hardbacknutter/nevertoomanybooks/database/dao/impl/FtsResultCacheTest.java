@@ -0,0 +1,283 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.database.dao.impl;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import com.hardbacknutter.nevertoomanybooks.TestLogger;
+import com.hardbacknutter.nevertoomanybooks.core.LoggerFactory;
+import com.hardbacknutter.nevertoomanybooks.core.database.SynchronizedCursor;
+import com.hardbacknutter.nevertoomanybooks.core.database.SynchronizedDb;
+import com.hardbacknutter.nevertoomanybooks.core.database.SynchronizedStatement;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The search tests run the real {@link FtsDaoImpl} on a mocked database,
+ * which answers the queries from {@link #books} using the candidate ids
+ * from the generated sql.
+ */
+class FtsResultCacheTest {
+
+    /** The candidate list as generated by {@code FtsDaoImpl.Sql#whereIdIn}. */
+    private static final Pattern ID_IN = Pattern.compile(" IN \\(([0-9,]*)\\)");
+
+    /** Book id, and the words in each column. */
+    private final Map<Long, Map<String, String>> books = new HashMap<>();
+
+    /** All sql sent to the database. */
+    private final List<String> queries = new ArrayList<>();
+
+    private FtsDaoImpl ftsDao;
+
+    @BeforeEach
+    void setup(@TempDir final File tmpDir) {
+        LoggerFactory.setLogger(new TestLogger(tmpDir));
+
+        books.clear();
+        books.put(1L, Map.of("title", "dune", "author_name", "frank herbert"));
+        books.put(2L, Map.of("title", "dune messiah", "author_name", "frank herbert"));
+        books.put(3L, Map.of("title", "children of dune", "author_name", "frank herbert"));
+        books.put(4L, Map.of("title", "dunwich horror", "author_name", "lovecraft"));
+        books.put(5L, Map.of("title", "the hobbit", "author_name", "tolkien"));
+        books.put(6L, Map.of("title", "herbert west reanimator", "author_name", "lovecraft"));
+        queries.clear();
+
+        final SynchronizedDb db = mock(SynchronizedDb.class);
+        // The flavor lookup finds no create-statement; i.e. FTS4 syntax, no ranking.
+        when(db.compileStatement(anyString())).thenAnswer(
+                invocation -> mock(SynchronizedStatement.class));
+        when(db.rawQuery(anyString(), any())).thenAnswer(invocation -> {
+            final String sql = invocation.getArgument(0);
+            final String[] args = invocation.getArgument(1);
+            queries.add(sql);
+            List<Long> candidates = null;
+            final Matcher matcher = ID_IN.matcher(sql);
+            if (matcher.find()) {
+                candidates = Arrays.stream(matcher.group(1).split(","))
+                                   .map(Long::parseLong)
+                                   .collect(Collectors.toList());
+            }
+            return cursorOf(search(candidates, args[0], Integer.parseInt(args[1])));
+        });
+
+        ftsDao = new FtsDaoImpl(db, () -> null);
+    }
+
+    @Test
+    void isRefinementOf() {
+        assertTrue(FtsResultCache.isRefinementOf("dune*", "dun*"));
+        assertTrue(FtsResultCache.isRefinementOf("dun*", "dun*"));
+        assertTrue(FtsResultCache.isRefinementOf("dune* f*", "dune*"));
+        assertTrue(FtsResultCache.isRefinementOf("title:dune*", "dune*"));
+        assertTrue(FtsResultCache.isRefinementOf("dune* -messiah*", "dune* -messiah*"));
+
+        assertFalse(FtsResultCache.isRefinementOf("dun*", "dune*"));
+        assertFalse(FtsResultCache.isRefinementOf("dune*", "title:dune*"));
+        assertFalse(FtsResultCache.isRefinementOf("title:dune*", "author_name:dune*"));
+        assertFalse(FtsResultCache.isRefinementOf("herbert*", "dune*"));
+        assertFalse(FtsResultCache.isRefinementOf("dune", "dun"));
+        // a longer excluded word excludes less
+        assertFalse(FtsResultCache.isRefinementOf("dune* -mess*", "dune* -me*"));
+        assertFalse(FtsResultCache.isRefinementOf("dune*", "dune* -messiah*"));
+    }
+
+    @Test
+    void limit() {
+        final FtsResultCache cache = new FtsResultCache();
+        cache.put("dun*", 2, List.of(1L, 2L), cache.getGeneration());
+        assertEquals(List.of(1L), cache.get("dun*", 1));
+        assertEquals(List.of(1L, 2L), cache.get("dun*", 2));
+        // the result was cut off; it cannot answer a larger limit, nor be used to refine
+        assertNull(cache.get("dun*", 3));
+        assertNull(cache.getCandidates("dune*"));
+
+        cache.put("dun*", 10, List.of(1L, 2L, 3L, 4L), cache.getGeneration());
+        assertEquals(List.of(1L, 2L, 3L, 4L), cache.get("dun*", 20));
+        assertEquals(List.of(1L, 2L, 3L, 4L), cache.getCandidates("dune*"));
+    }
+
+    @Test
+    void tooManyCandidates() {
+        final FtsResultCache cache = new FtsResultCache();
+        final List<Long> ids = LongStream.rangeClosed(1, FtsResultCache.MAX_CANDIDATES + 1)
+                                         .boxed()
+                                         .collect(Collectors.toList());
+        cache.put("d*", Integer.MAX_VALUE, ids, cache.getGeneration());
+        // complete, but too large to be inlined as a candidate list
+        assertEquals(ids, cache.get("d*", Integer.MAX_VALUE));
+        assertNull(cache.getCandidates("dune*"));
+
+        final List<Long> fewer = ids.subList(0, FtsResultCache.MAX_CANDIDATES);
+        cache.put("du*", Integer.MAX_VALUE, fewer, cache.getGeneration());
+        assertEquals(fewer, cache.getCandidates("dune*"));
+    }
+
+    @Test
+    void clearedWhileRunning() {
+        final FtsResultCache cache = new FtsResultCache();
+        final int generation = cache.getGeneration();
+        cache.clear();
+        cache.put("dun*", 10, List.of(1L), generation);
+        assertNull(cache.get("dun*", 10));
+    }
+
+    /**
+     * Type a few queries one character at a time, as the user would,
+     * and check the cached search always finds the same books as a full search.
+     */
+    @Test
+    void cachedEqualsUncached() {
+        final String[] typed = {
+                "dune frank", "dunwich", "herbert", "dune -messiah", "the hob", "dune"};
+        final int[] limits = {2, 20};
+
+        for (final int limit : limits) {
+            // start with an empty cache
+            ftsDao.onBooksDeleted();
+            for (final String text : typed) {
+                for (int i = 1; i <= text.length(); i++) {
+                    final String keywords = text.substring(0, i);
+                    final String clause = FtsDaoHelper.prepareSearchText(keywords, null)
+                                                      .trim();
+                    final List<Long> expected = clause.isEmpty()
+                                                ? List.of() : search(null, clause, limit);
+                    assertEquals(expected,
+                                 ftsDao.search(null, null, null, null, keywords, limit),
+                                 clause + ", limit=" + limit);
+                }
+            }
+        }
+        // Refined queries must have been restricted to the earlier results.
+        assertTrue(queries.stream().anyMatch(sql -> ID_IN.matcher(sql).find()));
+    }
+
+    @Test
+    void deletedBookIsNotFound() {
+        assertEquals(List.of(1L, 2L, 3L), ftsDao.search(null, null, null, null, "dune", 20));
+        // The same and refined queries are answered from the cache.
+        final int queryCount = queries.size();
+        assertEquals(List.of(1L, 2L, 3L), ftsDao.search(null, null, null, null, "dune", 20));
+        assertEquals(queryCount, queries.size());
+
+        // BookDaoImpl#deleteByUuid; the delete trigger removed the FTS row.
+        books.remove(2L);
+        ftsDao.onBooksDeleted();
+
+        assertEquals(List.of(1L, 3L), ftsDao.search(null, null, null, null, "dune", 20));
+        assertEquals(List.of(1L, 3L), ftsDao.search(null, null, null, null, "dune f", 20));
+        assertEquals(queryCount + 2, queries.size());
+    }
+
+    /**
+     * Create a cursor for the given ids, as used by {@link FtsDaoImpl#search}.
+     *
+     * @param ids the rows
+     *
+     * @return cursor
+     */
+    private static SynchronizedCursor cursorOf(final List<Long> ids) {
+        final Iterator<Long> it = ids.iterator();
+        final long[] current = new long[1];
+        return mock(SynchronizedCursor.class, invocation -> {
+            switch (invocation.getMethod().getName()) {
+                case "moveToNext":
+                    if (it.hasNext()) {
+                        current[0] = it.next();
+                        return true;
+                    }
+                    return false;
+                case "getLong":
+                    return current[0];
+                default:
+                    return null;
+            }
+        });
+    }
+
+    /**
+     * A minimal stand-in for the FTS table: all terms must match,
+     * a trailing '*' is a prefix search, and a leading '-' excludes.
+     */
+    private List<Long> search(final List<Long> candidates,
+                              final String clause,
+                              final int limit) {
+        final List<Long> result = new ArrayList<>();
+        for (long id = 1; id <= 6 && result.size() < limit; id++) {
+            if (!books.containsKey(id) || candidates != null && !candidates.contains(id)) {
+                continue;
+            }
+            boolean match = true;
+            for (final String term : clause.split(" ")) {
+                if (term.isEmpty()) {
+                    continue;
+                }
+                final boolean negated = term.startsWith("-");
+                final String t = negated ? term.substring(1) : term;
+                if (t.isEmpty()) {
+                    continue;
+                }
+                if (matches(books.get(id), t) == negated) {
+                    match = false;
+                    break;
+                }
+            }
+            if (match) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private boolean matches(final Map<String, String> book,
+                            final String term) {
+        final boolean prefix = term.endsWith("*");
+        final String word = prefix ? term.substring(0, term.length() - 1) : term;
+        for (final String value : book.values()) {
+            for (final String w : value.split(" ")) {
+                if (prefix ? w.startsWith(word) : w.equals(word)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.datamanager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FieldStoreTest {
+
+    @Test
+    void fieldIds() {
+        final int id = FieldStore.getFieldId("fs_test_a");
+        assertEquals(id, FieldStore.getFieldId("fs_test_a"));
+        assertTrue(id != FieldStore.getFieldId("fs_test_b"));
+    }
+
+    @Test
+    void typesArePreserved() {
+        final FieldStore store = new FieldStore();
+        store.put("fs_bool", true);
+        store.put("fs_int", 42);
+        store.put("fs_long", 1L << 40);
+        store.put("fs_float", 1.5f);
+        store.put("fs_double", -2.25d);
+        store.put("fs_string", "hello");
+
+        assertEquals(Boolean.TRUE, store.get("fs_bool"));
+        assertEquals(42, store.get("fs_int"));
+        assertEquals(1L << 40, store.get("fs_long"));
+        assertEquals(1.5f, store.get("fs_float"));
+        assertEquals(-2.25d, store.get("fs_double"));
+        assertEquals("hello", store.get("fs_string"));
+        assertEquals(6, store.size());
+
+        assertTrue(store.isBoolean("fs_bool"));
+        assertTrue(store.getBoolean("fs_bool"));
+        assertTrue(store.isIntegral("fs_int"));
+        assertTrue(store.isIntegral("fs_long"));
+        assertFalse(store.isIntegral("fs_double"));
+        assertEquals(1L << 40, store.getIntegral("fs_long"));
+        assertTrue(store.isDouble("fs_double"));
+        assertEquals(-2.25d, store.getDouble("fs_double"));
+        assertFalse(store.isDouble("fs_float"));
+    }
+
+    @Test
+    void overwriteWithOtherType() {
+        final FieldStore store = new FieldStore();
+        store.putLong("fs_x", 7);
+        store.putObject("fs_x", "seven");
+        assertFalse(store.isIntegral("fs_x"));
+        assertEquals("seven", store.get("fs_x"));
+
+        store.putInt("fs_x", 8);
+        assertEquals(8, store.get("fs_x"));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void nullValues() {
+        final FieldStore store = new FieldStore();
+        assertFalse(store.containsKey("fs_null"));
+        store.put("fs_null", null);
+        assertTrue(store.containsKey("fs_null"));
+        assertNull(store.get("fs_null"));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void removeAndClear() {
+        final FieldStore store = new FieldStore();
+        store.putLong("fs_r1", 1);
+        store.putLong("fs_r2", 2);
+        final List<String> list = new ArrayList<>();
+        store.putObject("fs_r3", list);
+
+        assertEquals(Set.of("fs_r1", "fs_r2", "fs_r3"), store.keySet());
+
+        store.remove("fs_r2");
+        // removing twice is a no-op
+        store.remove("fs_r2");
+        assertFalse(store.containsKey("fs_r2"));
+        assertNull(store.get("fs_r2"));
+        assertEquals(2, store.size());
+        assertEquals(Set.of("fs_r1", "fs_r3"), store.keySet());
+
+        store.clear();
+        assertTrue(store.isEmpty());
+        assertTrue(store.keySet().isEmpty());
+        // a key which was never used in this instance
+        assertFalse(store.containsKey("fs_never_used"));
+    }
+
+    @Test
+    void manyKeys() {
+        final FieldStore store = new FieldStore();
+        for (int i = 0; i < 500; i++) {
+            store.putInt("fs_many_" + i, i);
+        }
+        assertEquals(500, store.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i, store.get("fs_many_" + i));
+        }
+    }
+}
@@ -281,6 +281,13 @@ class BookTest
                      DBDefinitions.DOM_BOOK_PRICE_LISTED.getDefault(), INVALID_DEFAULT);
     }
 
+    @Test
+    void getParcelableOfOtherType() {
+        book.putString(DBKey.TITLE, "not a parcelable");
+        assertNull(book.getParcelable(DBKey.TITLE));
+        assertNull(book.getParcelable(DBKey.BOOK_ISBN));
+    }
+
     /** Domain: text, default "". */
     @Test
     void preprocessNullsAndBlanksForInsert() {
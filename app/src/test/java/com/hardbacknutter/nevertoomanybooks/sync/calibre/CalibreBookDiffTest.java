@@ -0,0 +1,138 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.sync.calibre;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import com.hardbacknutter.nevertoomanybooks.core.parsers.ISODateParser;
+import com.hardbacknutter.org.json.JSONArray;
+import com.hardbacknutter.org.json.JSONObject;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CalibreBookDiffTest {
+
+    private final CalibreBookDiff diff = new CalibreBookDiff(new ISODateParser(Locale.US));
+
+    @Test
+    void unchanged() {
+        final JSONObject remote = createRemote();
+        final JSONObject changes = createChanges();
+
+        diff.removeUnchanged(changes, remote, List.of());
+        assertEquals(Set.of(CalibreBookJsonKey.LAST_MODIFIED), changes.keySet());
+        assertFalse(CalibreBookDiff.hasChanges(changes));
+    }
+
+    @Test
+    void changed() {
+        final JSONObject remote = createRemote();
+        final JSONObject changes = createChanges();
+        changes.put(CalibreBookJsonKey.TITLE, "Other title");
+        changes.put(CalibreBookJsonKey.SERIES_INDEX, 2.5f);
+        changes.getJSONObject(CalibreBookJsonKey.IDENTIFIERS).put("isbn", "9780000000002");
+
+        diff.removeUnchanged(changes, remote, List.of());
+        assertEquals(Set.of(CalibreBookJsonKey.LAST_MODIFIED,
+                            CalibreBookJsonKey.TITLE,
+                            CalibreBookJsonKey.SERIES_INDEX,
+                            CalibreBookJsonKey.IDENTIFIERS), changes.keySet());
+        assertTrue(CalibreBookDiff.hasChanges(changes));
+    }
+
+    @Test
+    void coverIsAlwaysSend() {
+        final JSONObject changes = createChanges();
+        changes.put(CalibreBookJsonKey.COVER, "");
+
+        diff.removeUnchanged(changes, createRemote(), List.of());
+        assertTrue(changes.has(CalibreBookJsonKey.COVER));
+        assertTrue(CalibreBookDiff.hasChanges(changes));
+    }
+
+    @Test
+    void customFields() {
+        final CalibreCustomField read = new CalibreCustomField(
+                "#read", CalibreCustomField.TYPE_BOOL, "read");
+        final CalibreCustomField readEnd = new CalibreCustomField(
+                "#read_end", CalibreCustomField.TYPE_DATETIME, "read_end");
+        final CalibreCustomField notes = new CalibreCustomField(
+                "#notes", CalibreCustomField.TYPE_TEXT, "notes");
+
+        final JSONObject remote = createRemote();
+        remote.put(CalibreBookJsonKey.USER_METADATA, new JSONObject()
+                .put("#read", new JSONObject().put(CalibreCustomField.VALUE, true))
+                .put("#read_end", new JSONObject()
+                        .put(CalibreCustomField.VALUE, "2021-01-10T00:00:00+00:00"))
+                .put("#notes", new JSONObject().put(CalibreCustomField.VALUE, "None")));
+
+        final JSONObject changes = createChanges();
+        changes.put("#read", true);
+        changes.put("#read_end", "2021-01-10");
+        changes.put("#notes", "something");
+
+        diff.removeUnchanged(changes, remote, List.of(read, readEnd, notes));
+        assertEquals(Set.of(CalibreBookJsonKey.LAST_MODIFIED, "#notes"), changes.keySet());
+    }
+
+    /** A book as the server would return it. */
+    private JSONObject createRemote() {
+        return new JSONObject()
+                .put(CalibreBookJsonKey.UUID, "1234-5678")
+                .put(CalibreBookJsonKey.TITLE, "The title")
+                .put(CalibreBookJsonKey.DESCRIPTION, JSONObject.NULL)
+                .put(CalibreBookJsonKey.DATE_PUBLISHED, "0101-01-01T00:00:00+00:00")
+                .put(CalibreBookJsonKey.LAST_MODIFIED, "2020-11-20T11:17:51+00:00")
+                .put(CalibreBookJsonKey.AUTHOR_ARRAY, new JSONArray().put("Charles Stross"))
+                .put(CalibreBookJsonKey.SERIES, "Laundry Files")
+                .put(CalibreBookJsonKey.SERIES_INDEX, 2.0d)
+                .put(CalibreBookJsonKey.PUBLISHER, JSONObject.NULL)
+                .put(CalibreBookJsonKey.RATING, JSONObject.NULL)
+                .put(CalibreBookJsonKey.LANGUAGES_ARRAY, new JSONArray().put("eng"))
+                .put(CalibreBookJsonKey.IDENTIFIERS, new JSONObject()
+                        .put("isbn", "9780000000001")
+                        .put("goodreads", "12345"));
+    }
+
+    /** The full set of changes as the writer would collect them for the same book. */
+    private JSONObject createChanges() {
+        return new JSONObject()
+                .put(CalibreBookJsonKey.TITLE, "The title")
+                .put(CalibreBookJsonKey.DESCRIPTION, "")
+                .put(CalibreBookJsonKey.DATE_PUBLISHED, "")
+                .put(CalibreBookJsonKey.LAST_MODIFIED, "2023-01-01 10:00:00")
+                .put(CalibreBookJsonKey.AUTHOR_ARRAY, new JSONArray().put("Charles Stross"))
+                .put(CalibreBookJsonKey.SERIES, "Laundry Files")
+                .put(CalibreBookJsonKey.SERIES_INDEX, 2f)
+                .put(CalibreBookJsonKey.PUBLISHER, "")
+                .put(CalibreBookJsonKey.RATING, 0)
+                .put(CalibreBookJsonKey.LANGUAGES_ARRAY, new JSONArray().put("eng"))
+                .put(CalibreBookJsonKey.IDENTIFIERS, new JSONObject()
+                        .put("isbn", "9780000000001")
+                        .put("goodreads", "12345")
+                        .put("librarything", ""));
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.sync.stripinfo;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the pipeline against a simulated slow site.
+ */
+class CollectionPipelineTest {
+
+    private static final int PAGES = 3;
+    private static final int ITEMS_PER_PAGE = 8;
+
+    @Test
+    void orderAndBatching()
+            throws ExecutionException, InterruptedException {
+        final Random random = new Random(42);
+        final List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+        final List<Integer> pagesWritten = new ArrayList<>();
+        final Thread caller = Thread.currentThread();
+
+        final CollectionPipeline<Integer, int[]> pipeline = new CollectionPipeline<>(
+                new StubSite(PAGES, ITEMS_PER_PAGE, 5),
+                item -> {
+                    assertEquals(caller, Thread.currentThread());
+                    return new int[]{item, 0};
+                },
+                job -> {
+                    // random delays so the fetches complete out of order
+                    final int ms;
+                    synchronized (random) {
+                        ms = random.nextInt(20);
+                    }
+                    Thread.sleep(ms);
+                    job[1] = 1;
+                },
+                (pageNr, jobs) -> {
+                    assertEquals(caller, Thread.currentThread());
+                    assertEquals(ITEMS_PER_PAGE, jobs.size());
+                    pagesWritten.add(pageNr);
+                    jobs.forEach(job -> {
+                        assertEquals(1, job[1]);
+                        written.add(job[0]);
+                    });
+                },
+                () -> false,
+                4);
+        pipeline.run();
+
+        assertEquals(List.of(1, 2, 3), pagesWritten);
+        assertEquals(expectedItems(PAGES), written);
+    }
+
+    @Test
+    void cancel()
+            throws ExecutionException, InterruptedException {
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        final List<Integer> written = new ArrayList<>();
+        final AtomicInteger fetched = new AtomicInteger();
+
+        final CollectionPipeline<Integer, Integer> pipeline = new CollectionPipeline<>(
+                new StubSite(PAGES, ITEMS_PER_PAGE, 5),
+                item -> item,
+                job -> {
+                    // cancel half-way the second page
+                    if (fetched.incrementAndGet() == ITEMS_PER_PAGE + ITEMS_PER_PAGE / 2) {
+                        cancelled.set(true);
+                    }
+                    Thread.sleep(10);
+                },
+                (pageNr, jobs) -> written.addAll(jobs),
+                cancelled::get,
+                1);
+        pipeline.run();
+
+        assertTrue(cancelled.get());
+        assertFalse(written.isEmpty());
+        // Whatever was written, must be the leading part, in order
+        assertEquals(expectedItems(PAGES).subList(0, written.size()), written);
+        assertTrue(written.size() < PAGES * ITEMS_PER_PAGE);
+    }
+
+    @Test
+    void fetchFailure() {
+        final CollectionPipeline<Integer, Integer> pipeline = new CollectionPipeline<>(
+                new StubSite(PAGES, ITEMS_PER_PAGE, 5),
+                item -> item,
+                job -> {
+                    if (job == 203) {
+                        throw new IOException("boom");
+                    }
+                },
+                (pageNr, jobs) -> {
+                },
+                () -> false,
+                2);
+        final ExecutionException e = assertThrows(ExecutionException.class, pipeline::run);
+        assertInstanceOf(IOException.class, e.getCause());
+    }
+
+    @Test
+    void pageFailure() {
+        final StubSite site = new StubSite(PAGES, ITEMS_PER_PAGE, 5) {
+            @NonNull
+            @Override
+            public List<Integer> fetchPage(final int pageNr)
+                    throws IOException, InterruptedException {
+                if (pageNr == 2) {
+                    throw new IOException("boom");
+                }
+                return super.fetchPage(pageNr);
+            }
+        };
+        final List<Integer> written = new ArrayList<>();
+        final CollectionPipeline<Integer, Integer> pipeline = new CollectionPipeline<>(
+                site, item -> item, job -> {
+        }, (pageNr, jobs) -> written.addAll(jobs), () -> false, 2);
+
+        final ExecutionException e = assertThrows(ExecutionException.class, pipeline::run);
+        assertInstanceOf(IOException.class, e.getCause());
+        assertEquals(expectedItems(1), written);
+    }
+
+    /**
+     * Using the production number of workers, check that the fetches run concurrently
+     * but never above that number, and that the next page is being fetched
+     * while the current one is written.
+     * No timing assertions; the barrier and latches just wait until the overlap happens.
+     */
+    @Test
+    void fetchesOverlap()
+            throws Exception {
+        final int workers = StripInfoReader.WORKERS;
+        final CyclicBarrier allWorkersBusy = new CyclicBarrier(workers);
+        final AtomicInteger started = new AtomicInteger();
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        // index 'p' is counted down when the first fetch for page 'p' starts
+        final CountDownLatch[] pageStarted = new CountDownLatch[PAGES + 1];
+        for (int p = 1; p <= PAGES; p++) {
+            pageStarted[p] = new CountDownLatch(1);
+        }
+        final List<Integer> written = new ArrayList<>();
+
+        new CollectionPipeline<Integer, Integer>(
+                new StubSite(PAGES, ITEMS_PER_PAGE, 5),
+                item -> item,
+                job -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        pageStarted[job / 100].countDown();
+                        if (started.getAndIncrement() < workers) {
+                            // fails with a TimeoutException unless all workers fetch at once
+                            allWorkersBusy.await(5, TimeUnit.SECONDS);
+                        } else {
+                            Thread.sleep(2);
+                        }
+                    } finally {
+                        running.decrementAndGet();
+                    }
+                },
+                (pageNr, jobs) -> {
+                    if (pageNr < PAGES) {
+                        assertTrue(pageStarted[pageNr + 1].await(5, TimeUnit.SECONDS),
+                                   "page " + (pageNr + 1) + " not fetched while writing "
+                                   + pageNr);
+                    }
+                    written.addAll(jobs);
+                },
+                () -> false,
+                workers).run();
+
+        assertEquals(expectedItems(PAGES), written);
+        assertEquals(workers, maxRunning.get());
+    }
+
+    @NonNull
+    private static List<Integer> expectedItems(final int pages) {
+        return IntStream.rangeClosed(1, pages)
+                        .boxed()
+                        .flatMap(p -> IntStream.range(0, ITEMS_PER_PAGE)
+                                               .mapToObj(i -> p * 100 + i))
+                        .collect(Collectors.toList());
+    }
+
+    /**
+     * A site with a slow link. Item {@code n} on page {@code p} has the value {@code p*100+n}.
+     * Like the real site, the number of pages is only known after fetching the first one.
+     */
+    private static class StubSite
+            implements CollectionPipeline.PageSource<Integer> {
+
+        private final int pages;
+        private final int itemsPerPage;
+        private final int latencyMs;
+        private volatile int maxPages = 1;
+
+        StubSite(final int pages,
+                 final int itemsPerPage,
+                 final int latencyMs) {
+            this.pages = pages;
+            this.itemsPerPage = itemsPerPage;
+            this.latencyMs = latencyMs;
+        }
+
+        @Override
+        public int getMaxPages() {
+            return maxPages;
+        }
+
+        @NonNull
+        @Override
+        public List<Integer> fetchPage(final int pageNr)
+                throws IOException, InterruptedException {
+            Thread.sleep(latencyMs);
+            maxPages = pages;
+            return IntStream.range(0, itemsPerPage)
+                            .mapToObj(i -> pageNr * 100 + i)
+                            .collect(Collectors.toList());
+        }
+    }
+}
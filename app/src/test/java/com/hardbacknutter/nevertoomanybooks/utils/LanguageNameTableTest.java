@@ -0,0 +1,73 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.utils;
+
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LanguageNameTableTest {
+
+    private static final Locale[] LOCALES = {
+            Locale.ENGLISH, Locale.FRENCH, Locale.GERMAN, new Locale("nl")};
+
+    @Test
+    void find() {
+        final LanguageNameTable table = LanguageNameTable.EMPTY
+                .with(Locale.ENGLISH, LOCALES)
+                .with(Locale.FRENCH, LOCALES);
+
+        assertTrue(table.contains(Locale.UK));
+        assertTrue(table.contains(Locale.CANADA_FRENCH));
+        assertFalse(table.contains(Locale.GERMAN));
+
+        assertEquals(Locale.GERMAN.getISO3Language(), table.find("german"));
+        assertEquals(Locale.GERMAN.getISO3Language(), table.find("allemand"));
+        assertEquals(Locale.ENGLISH.getISO3Language(), table.find("anglais"));
+        assertEquals("nld", table.find("dutch"));
+        assertNull(table.find("deutsch"));
+        assertNull(table.find("German"));
+        assertEquals(8, table.size());
+    }
+
+    @Test
+    void binaryForm() {
+        final LanguageNameTable table = LanguageNameTable.EMPTY
+                .with(Locale.ENGLISH, Locale.getAvailableLocales());
+        final byte[] data = table.toBytes(42);
+
+        final LanguageNameTable copy = LanguageNameTable.fromBytes(data, 42);
+        assertNotNull(copy);
+        assertEquals(table.size(), copy.size());
+        assertTrue(copy.contains(Locale.ENGLISH));
+        assertEquals(table.find("french"), copy.find("french"));
+
+        // outdated Locale data
+        assertNull(LanguageNameTable.fromBytes(data, 43));
+        // truncated
+        assertNull(LanguageNameTable.fromBytes(new byte[]{0, 0, 0, 1}, 42));
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.utils;
+
+import androidx.annotation.NonNull;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class TitleArticlesTest {
+
+    private static final String EN = "a|A|an|An|the|The";
+    private static final String FR = "le|Le|la|La|les|Les|l'|L'|un|Un|une|Une";
+
+    private static final List<String> TITLES = List.of(
+            "The Lord of the Rings",
+            "Dune",
+            "Foundation and Empire",
+            "A Fire Upon the Deep",
+            "Hyperion",
+            "Childhood's End",
+            "An Instance of the Fingerpost",
+            "Rendezvous with Rama");
+
+    @Test
+    void reorder() {
+        final TitleArticles articles = TitleArticles.create(EN);
+        assertEquals("Lord of the Rings, The", articles.reorder("The Lord of the Rings"));
+        assertEquals("Fire Upon the Deep, A", articles.reorder("A Fire Upon the Deep"));
+        assertEquals("Instance, An", articles.reorder("An Instance"));
+        // multiple spaces are preserved, trailing spaces are ignored
+        assertEquals(" Title, The", articles.reorder("The  Title"));
+        assertEquals("Title, The", articles.reorder("The Title  "));
+
+        assertNull(articles.reorder("Dune"));
+        assertNull(articles.reorder("The"));
+        assertNull(articles.reorder("The   "));
+        assertNull(articles.reorder(""));
+        assertNull(articles.reorder(" The Title"));
+    }
+
+    @Test
+    void exactWords() {
+        final TitleArticles articles = TitleArticles.create(EN);
+        // All substrings of the word list; these matched with the old 'contains' check
+        assertNull(articles.reorder("he said"));
+        assertNull(articles.reorder("n Title"));
+        assertNull(articles.reorder("e Title"));
+        assertNull(articles.reorder("| Title"));
+        assertNull(articles.reorder("a|A Title"));
+        // case sensitive
+        assertNull(articles.reorder("THE Title"));
+        assertNull(articles.reorder("tHe Title"));
+        // a prefix of a longer word is not an article
+        assertNull(articles.reorder("Then Again"));
+        assertNull(articles.reorder("Another Day"));
+
+        final TitleArticles fr = TitleArticles.create(FR);
+        assertEquals("Étranger, L'", fr.reorder("L' Étranger"));
+        assertNull(fr.reorder("L'Étranger"));
+        assertNull(fr.reorder("e Title"));
+    }
+
+    @Test
+    void empty() {
+        // Weblate replaces empty strings with a single "|"
+        assertSame(TitleArticles.EMPTY, TitleArticles.create("|"));
+        assertSame(TitleArticles.EMPTY, TitleArticles.create(""));
+        assertNull(TitleArticles.EMPTY.reorder("The Title"));
+        assertNull(TitleArticles.EMPTY.reorder(" Title"));
+        assertNull(TitleArticles.EMPTY.findTrailingArticle("Title, The"));
+    }
+
+    @Test
+    void findTrailingArticle() {
+        final TitleArticles articles = TitleArticles.create(EN);
+        assertEquals("The", articles.findTrailingArticle("Lord of the Rings, The"));
+        assertEquals("An", articles.findTrailingArticle("Instance, An"));
+        assertNull(articles.findTrailingArticle("Lord of the Rings"));
+        assertNull(articles.findTrailingArticle("Rings, he"));
+        assertNull(articles.findTrailingArticle("Rings, "));
+        assertNull(articles.findTrailingArticle("Rings, Themes"));
+        // only the last separator counts
+        assertEquals("A", articles.findTrailingArticle("Lord, The, A"));
+    }
+
+    /**
+     * Compare the bytes allocated by the old split/contains/join implementation
+     * with the new one.
+     */
+    @Test
+    void allocations() {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        final TitleArticles articles = TitleArticles.create(EN);
+        final long threadId = Thread.currentThread().getId();
+        final int rounds = 20_000;
+
+        // warm up both
+        int sink = 0;
+        for (int i = 0; i < 1_000; i++) {
+            sink += runLegacy(EN) + runNew(articles);
+        }
+
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < rounds; i++) {
+            sink += runLegacy(EN);
+        }
+        final long legacy = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < rounds; i++) {
+            sink += runNew(articles);
+        }
+        final long current = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(sink > 0);
+        assertTrue(current * 4 < legacy, "legacy=" + legacy + ", current=" + current);
+    }
+
+    private static int runNew(@NonNull final TitleArticles articles) {
+        int length = 0;
+        for (final String title : TITLES) {
+            final String reordered = articles.reorder(title);
+            length += reordered != null ? reordered.length() : title.length();
+        }
+        return length;
+    }
+
+    /** The implementation before the word lists were compiled. */
+    private static int runLegacy(@NonNull final String words) {
+        int length = 0;
+        for (final String title : TITLES) {
+            final String[] titleWords = title.split(" ");
+            String result = title;
+            if (titleWords.length >= 2 && words.contains(titleWords[0])) {
+                final StringBuilder newTitle = new StringBuilder();
+                for (int i = 1; i < titleWords.length; i++) {
+                    if (i != 1) {
+                        newTitle.append(' ');
+                    }
+                    newTitle.append(titleWords[i]);
+                }
+                newTitle.append(", ").append(titleWords[0]);
+                result = newTitle.toString();
+            }
+            length += result.length();
+        }
+        return length;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.core.database;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import androidx.annotation.NonNull;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link SynchronizedDb#copyTo} must wait for a write transaction on another thread,
+ * and refuse to run inside a transaction on its own thread.
+ */
+public class SynchronizedDbCopyTest {
+
+    private static final String DB_NAME = "copy_test.db";
+    private static final String TABLE = "t";
+
+    private Context context;
+    private SynchronizedDb db;
+    private File destFile;
+
+    @Before
+    public void setup() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+        destFile = new File(context.getCacheDir(), "copy_test_backup.db");
+        //noinspection ResultOfMethodCallIgnored
+        destFile.delete();
+
+        db = new SynchronizedDb(new Synchronizer(), new TestHelper(context), false);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+        context.deleteDatabase(DB_NAME);
+        //noinspection ResultOfMethodCallIgnored
+        destFile.delete();
+        //noinspection ResultOfMethodCallIgnored
+        new File(destFile.getPath() + "-wal").delete();
+    }
+
+    @Test
+    public void waitsForTransactionOnOtherThread()
+            throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        final Thread writer = new Thread(() -> {
+            try {
+                final Synchronizer.SyncLock txLock = db.beginTransaction(true);
+                try {
+                    insert(1);
+                    started.countDown();
+                    // give the copy time to try (and, before the fix, fail)
+                    Thread.sleep(500);
+                    insert(2);
+                    db.setTransactionSuccessful();
+                } finally {
+                    db.endTransaction(txLock);
+                }
+            } catch (@NonNull final Throwable e) {
+                failure.set(e);
+                started.countDown();
+            }
+        });
+        writer.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertTrue(db.copyTo(destFile, () -> false));
+
+        writer.join(5_000);
+        assertNull(failure.get());
+
+        // The copy was taken after the commit, and contains both rows
+        try (SQLiteDatabase copy = SQLiteDatabase.openDatabase(
+                destFile.getPath(), null, SQLiteDatabase.OPEN_READONLY);
+             Cursor cursor = copy.rawQuery("SELECT COUNT(*) FROM " + TABLE, null)) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(2, cursor.getInt(0));
+        }
+    }
+
+    @Test
+    public void failsInsideOwnTransaction() {
+        final Synchronizer.SyncLock txLock = db.beginTransaction(true);
+        try {
+            assertThrows(TransactionException.class, () -> db.copyTo(destFile, () -> false));
+        } finally {
+            db.endTransaction(txLock);
+        }
+    }
+
+    private void insert(final int id) {
+        final ContentValues cv = new ContentValues();
+        cv.put("_id", id);
+        db.insert(TABLE, cv);
+    }
+
+    private static final class TestHelper
+            extends SQLiteOpenHelper {
+
+        TestHelper(@NonNull final Context context) {
+            super(context, DB_NAME, null, 1);
+        }
+
+        @Override
+        public void onCreate(@NonNull final SQLiteDatabase db) {
+            db.execSQL("CREATE TABLE " + TABLE + " (_id INTEGER PRIMARY KEY)");
+        }
+
+        @Override
+        public void onUpgrade(@NonNull final SQLiteDatabase db,
+                              final int oldVersion,
+                              final int newVersion) {
+            // not used
+        }
+    }
+}
@@ -0,0 +1,647 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.core.database;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.hardbacknutter.nevertoomanybooks.core.LoggerFactory;
+
+/**
+ * Optional instrumentation of the SQL executed through {@link SynchronizedDb},
+ * {@link SynchronizedStatement} and {@link SynchronizedCursor}.
+ * <p>
+ * Statistics are collected per statement template, i.e. the SQL with all
+ * literals replaced by a '?'. For each template we keep the number of executions,
+ * the total/maximum latency, a latency histogram (for the percentiles),
+ * the time spent waiting for the {@link Synchronizer} lock and the number of rows.
+ * <p>
+ * Disabled by default. When disabled, the overhead for the callers is a single
+ * volatile read per statement; nothing is allocated.
+ * <p>
+ * Timing protocol for callers:
+ * <pre>{@code
+ *     final long start = QueryStats.start();
+ *     final Synchronizer.SyncLock lock = synchronizer.getSharedLock();
+ *     final long acquired = QueryStats.lap(start);
+ *     try {
+ *         ...
+ *     } finally {
+ *         lock.unlock();
+ *         QueryStats.record(template, start, acquired, rows);
+ *     }
+ * }</pre>
+ */
+public final class QueryStats {
+
+    /** The default threshold in milliseconds above which a query is logged as being slow. */
+    public static final int DEFAULT_SLOW_QUERY_MS = 100;
+
+    /** Log tag. */
+    private static final String TAG = "QueryStats";
+
+    /** Maximum number of distinct templates. Anything beyond is added to {@link #OTHER}. */
+    private static final int MAX_TEMPLATES = 500;
+    /** The template used once {@link #MAX_TEMPLATES} is reached. */
+    private static final String OTHER = "<other>";
+    /** The number of most recent slow queries we keep. */
+    private static final int MAX_SLOW_QUERIES = 20;
+    /**
+     * Number of histogram buckets.
+     * Bucket 0 holds durations below 1 microsecond,
+     * bucket {@code i} holds durations in {@code [2^(i-1), 2^i)} microseconds.
+     */
+    private static final int BUCKETS = 32;
+
+    @NonNull
+    private static final Map<String, Template> TEMPLATES = new ConcurrentHashMap<>();
+    /** Most recent slow queries; the newest first. Guarded by itself. */
+    @NonNull
+    private static final Deque<SlowQuery> SLOW_QUERIES = new ArrayDeque<>();
+    /** Total lock wait time in nanos, indexed by {@link Synchronizer.LockType#ordinal()}. */
+    @NonNull
+    private static final AtomicLong[] LOCK_WAIT_NANOS = {new AtomicLong(), new AtomicLong()};
+    /** Number of locks taken, indexed by {@link Synchronizer.LockType#ordinal()}. */
+    @NonNull
+    private static final AtomicLong[] LOCK_COUNT = {new AtomicLong(), new AtomicLong()};
+
+    private static volatile boolean enabled;
+    private static volatile long slowQueryNanos =
+            TimeUnit.MILLISECONDS.toNanos(DEFAULT_SLOW_QUERY_MS);
+
+    private QueryStats() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enable or disable collecting statistics.
+     * Disabling does not clear the statistics collected so far; see {@link #reset()}.
+     *
+     * @param enable flag
+     */
+    public static void setEnabled(final boolean enable) {
+        enabled = enable;
+    }
+
+    /**
+     * Set the threshold above which a query is logged (and kept) as being slow.
+     *
+     * @param ms threshold in milliseconds
+     */
+    public static void setSlowQueryThreshold(@IntRange(from = 0) final long ms) {
+        slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(ms);
+    }
+
+    /**
+     * Clear all statistics collected so far.
+     */
+    public static void reset() {
+        TEMPLATES.clear();
+        synchronized (SLOW_QUERIES) {
+            SLOW_QUERIES.clear();
+        }
+        for (int i = 0; i < LOCK_COUNT.length; i++) {
+            LOCK_COUNT[i].set(0);
+            LOCK_WAIT_NANOS[i].set(0);
+        }
+    }
+
+    /**
+     * Start timing.
+     *
+     * @return the start time in nanos, or {@code 0} when disabled
+     */
+    static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Take an intermediate time; i.e. when the lock was acquired.
+     *
+     * @param start as returned from {@link #start()}
+     *
+     * @return the current time in nanos, or {@code 0} if timing was not started
+     */
+    static long lap(final long start) {
+        return start == 0 ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Record a lock acquisition by the {@link Synchronizer}.
+     *
+     * @param type  of lock
+     * @param start as returned from {@link #start()}
+     */
+    static void lockAcquired(@NonNull final Synchronizer.LockType type,
+                             final long start) {
+        if (start != 0) {
+            LOCK_COUNT[type.ordinal()].incrementAndGet();
+            LOCK_WAIT_NANOS[type.ordinal()].addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Record the execution of a statement.
+     *
+     * @param template as returned from {@link #toTemplate(String)}
+     * @param start    as returned from {@link #start()}
+     * @param acquired as returned from {@link #lap(long)}, or {@code 0} if no lock was taken
+     * @param rows     the number of rows returned or affected
+     */
+    static void record(@NonNull final String template,
+                       final long start,
+                       final long acquired,
+                       final int rows) {
+        if (start != 0) {
+            add(template, System.nanoTime() - start,
+                acquired == 0 ? 0 : acquired - start, rows);
+        }
+    }
+
+    @VisibleForTesting
+    static void add(@NonNull final String template,
+                    final long durationNanos,
+                    final long lockWaitNanos,
+                    final int rows) {
+        Template stats = TEMPLATES.get(template);
+        if (stats == null) {
+            final String key = TEMPLATES.size() < MAX_TEMPLATES ? template : OTHER;
+            stats = TEMPLATES.computeIfAbsent(key, Template::new);
+        }
+        stats.add(durationNanos, lockWaitNanos, rows);
+
+        if (durationNanos >= slowQueryNanos) {
+            final SlowQuery slowQuery = new SlowQuery(template, durationNanos, rows);
+            synchronized (SLOW_QUERIES) {
+                if (SLOW_QUERIES.size() >= MAX_SLOW_QUERIES) {
+                    SLOW_QUERIES.removeLast();
+                }
+                SLOW_QUERIES.addFirst(slowQuery);
+            }
+            LoggerFactory.getLogger().w(TAG, "Slow query", slowQuery);
+        }
+    }
+
+    /**
+     * Convert the given SQL to a template by replacing string and numeric literals
+     * with a '?' and collapsing all whitespace.
+     * A list of literals, e.g. {@code "IN (1, 2, 3)"} is collapsed to a single '?'
+     * so that queries only differing in the number of list elements share a template.
+     *
+     * @param sql to convert
+     *
+     * @return template
+     */
+    @NonNull
+    static String toTemplate(@NonNull final String sql) {
+        final int len = sql.length();
+        final StringBuilder sb = new StringBuilder(len);
+        // The position in 'sb' directly after the last literal we replaced; or -1
+        int lastLiteralEnd = -1;
+
+        int i = 0;
+        while (i < len) {
+            final char c = sql.charAt(i);
+
+            if (Character.isWhitespace(c)) {
+                while (i < len && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                if (sb.length() > 0 && i < len) {
+                    sb.append(' ');
+                }
+                continue;
+            }
+
+            final boolean isLiteral;
+            if (c == '\'') {
+                // skip the string literal; a quote is escaped by doubling it.
+                i++;
+                while (i < len) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < len && sql.charAt(i + 1) == '\'') {
+                            i++;
+                        } else {
+                            break;
+                        }
+                    }
+                    i++;
+                }
+                i++;
+                isLiteral = true;
+
+            } else if (Character.isDigit(c) && !isPartOfIdentifier(sb)) {
+                // skip the number, including decimals, exponents and hex digits
+                while (i < len && (Character.isLetterOrDigit(sql.charAt(i))
+                                   || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                isLiteral = true;
+
+            } else if (c == '"' || c == '`') {
+                // copy a quoted identifier as-is
+                final int end = sql.indexOf(c, i + 1);
+                final int next = end == -1 ? len : end + 1;
+                sb.append(sql, i, next);
+                i = next;
+                isLiteral = false;
+
+            } else {
+                sb.append(c);
+                i++;
+                isLiteral = false;
+            }
+
+            if (isLiteral) {
+                if (lastLiteralEnd != -1 && isListSeparator(sb, lastLiteralEnd)) {
+                    // collapse into the previous '?'
+                    sb.setLength(lastLiteralEnd);
+                } else {
+                    sb.append('?');
+                    lastLiteralEnd = sb.length();
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean isPartOfIdentifier(@NonNull final CharSequence sb) {
+        if (sb.length() == 0) {
+            return false;
+        }
+        final char prev = sb.charAt(sb.length() - 1);
+        return Character.isLetterOrDigit(prev) || prev == '_';
+    }
+
+    /**
+     * Check if the text following the given position consists of a single comma
+     * and optional spaces.
+     *
+     * @param sb    to check
+     * @param start position to start checking
+     *
+     * @return {@code true} if this is the separator in a list of literals
+     */
+    private static boolean isListSeparator(@NonNull final CharSequence sb,
+                                           final int start) {
+        boolean comma = false;
+        for (int p = start; p < sb.length(); p++) {
+            final char c = sb.charAt(p);
+            if (c == ',') {
+                if (comma) {
+                    return false;
+                }
+                comma = true;
+            } else if (c != ' ') {
+                return false;
+            }
+        }
+        return comma;
+    }
+
+    /**
+     * Get a copy of the current statistics.
+     *
+     * @return snapshot
+     */
+    @NonNull
+    public static Snapshot getSnapshot() {
+        final List<TemplateStats> templates = new ArrayList<>(TEMPLATES.size());
+        for (final Template template : TEMPLATES.values()) {
+            templates.add(template.copy());
+        }
+        templates.sort(Comparator.comparingLong(TemplateStats::getTotalNanos).reversed());
+
+        final List<SlowQuery> slowQueries;
+        synchronized (SLOW_QUERIES) {
+            slowQueries = new ArrayList<>(SLOW_QUERIES);
+        }
+
+        final long[] lockCount = new long[LOCK_COUNT.length];
+        final long[] lockWaitNanos = new long[LOCK_WAIT_NANOS.length];
+        for (int i = 0; i < lockCount.length; i++) {
+            lockCount[i] = LOCK_COUNT[i].get();
+            lockWaitNanos[i] = LOCK_WAIT_NANOS[i].get();
+        }
+        return new Snapshot(templates, slowQueries, lockCount, lockWaitNanos);
+    }
+
+    private static long toMicros(final long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    /**
+     * The accumulated statistics for a single template.
+     */
+    private static final class Template {
+
+        @NonNull
+        private final String sql;
+        private final long[] histogram = new long[BUCKETS];
+        private long count;
+        private long rows;
+        private long totalNanos;
+        private long maxNanos;
+        private long lockWaitNanos;
+
+        Template(@NonNull final String sql) {
+            this.sql = sql;
+        }
+
+        private static int bucket(final long nanos) {
+            final long micros = toMicros(nanos);
+            if (micros <= 0) {
+                return 0;
+            }
+            return Math.min(BUCKETS - 1, Long.SIZE - Long.numberOfLeadingZeros(micros));
+        }
+
+        synchronized void add(final long durationNanos,
+                              final long lockWaitNanos,
+                              final int rows) {
+            count++;
+            if (rows > 0) {
+                this.rows += rows;
+            }
+            totalNanos += durationNanos;
+            if (durationNanos > maxNanos) {
+                maxNanos = durationNanos;
+            }
+            this.lockWaitNanos += lockWaitNanos;
+            histogram[bucket(durationNanos)]++;
+        }
+
+        @NonNull
+        synchronized TemplateStats copy() {
+            return new TemplateStats(sql, count, rows, totalNanos, maxNanos, lockWaitNanos,
+                                     histogram.clone());
+        }
+    }
+
+    /**
+     * Immutable copy of the statistics for a single template.
+     */
+    public static final class TemplateStats {
+
+        @NonNull
+        private final String sql;
+        private final long count;
+        private final long rows;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long lockWaitNanos;
+        @NonNull
+        private final long[] histogram;
+
+        TemplateStats(@NonNull final String sql,
+                      final long count,
+                      final long rows,
+                      final long totalNanos,
+                      final long maxNanos,
+                      final long lockWaitNanos,
+                      @NonNull final long[] histogram) {
+            this.sql = sql;
+            this.count = count;
+            this.rows = rows;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.lockWaitNanos = lockWaitNanos;
+            this.histogram = histogram;
+        }
+
+        @NonNull
+        public String getSql() {
+            return sql;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public long getLockWaitNanos() {
+            return lockWaitNanos;
+        }
+
+        /**
+         * Get an approximation of the given latency percentile.
+         * The value returned is the upper bound of the histogram bucket
+         * in which the percentile falls; capped at the maximum latency seen.
+         *
+         * @param percentile 1..100
+         *
+         * @return latency in microseconds
+         */
+        public long getPercentileMicros(@IntRange(from = 1, to = 100) final int percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            final long threshold = (count * percentile + 99) / 100;
+            long seen = 0;
+            for (int i = 0; i < histogram.length; i++) {
+                seen += histogram[i];
+                if (seen >= threshold) {
+                    return Math.min(1L << i, toMicros(maxNanos));
+                }
+            }
+            return toMicros(maxNanos);
+        }
+    }
+
+    /**
+     * A single execution which took longer than the threshold.
+     */
+    public static final class SlowQuery {
+
+        @NonNull
+        private final LocalDateTime timestamp;
+        @NonNull
+        private final String sql;
+        private final long durationNanos;
+        private final int rows;
+
+        SlowQuery(@NonNull final String sql,
+                  final long durationNanos,
+                  final int rows) {
+            timestamp = LocalDateTime.now();
+            this.sql = sql;
+            this.durationNanos = durationNanos;
+            this.rows = rows;
+        }
+
+        @NonNull
+        public LocalDateTime getTimestamp() {
+            return timestamp;
+        }
+
+        @NonNull
+        public String getSql() {
+            return sql;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        @Override
+        @NonNull
+        public String toString() {
+            return "SlowQuery{"
+                   + "timestamp=" + timestamp
+                   + ", ms=" + TimeUnit.NANOSECONDS.toMillis(durationNanos)
+                   + ", rows=" + rows
+                   + ", sql=`" + sql + '`'
+                   + '}';
+        }
+    }
+
+    /**
+     * An immutable copy of all statistics at a given moment.
+     */
+    public static final class Snapshot {
+
+        @NonNull
+        private final List<TemplateStats> templates;
+        @NonNull
+        private final List<SlowQuery> slowQueries;
+        @NonNull
+        private final long[] lockCount;
+        @NonNull
+        private final long[] lockWaitNanos;
+
+        Snapshot(@NonNull final List<TemplateStats> templates,
+                 @NonNull final List<SlowQuery> slowQueries,
+                 @NonNull final long[] lockCount,
+                 @NonNull final long[] lockWaitNanos) {
+            this.templates = templates;
+            this.slowQueries = slowQueries;
+            this.lockCount = lockCount;
+            this.lockWaitNanos = lockWaitNanos;
+        }
+
+        /**
+         * Get the statistics per template.
+         *
+         * @return list, sorted by total time spent; the most expensive first
+         */
+        @NonNull
+        public List<TemplateStats> getTemplates() {
+            return templates;
+        }
+
+        /**
+         * Get the most recent slow queries.
+         *
+         * @return list; the most recent first
+         */
+        @NonNull
+        public List<SlowQuery> getSlowQueries() {
+            return slowQueries;
+        }
+
+        public long getLockCount(@NonNull final Synchronizer.LockType type) {
+            return lockCount[type.ordinal()];
+        }
+
+        public long getLockWaitNanos(@NonNull final Synchronizer.LockType type) {
+            return lockWaitNanos[type.ordinal()];
+        }
+
+        @Nullable
+        public TemplateStats find(@NonNull final String template) {
+            return templates.stream()
+                            .filter(v -> v.getSql().equals(template))
+                            .findFirst()
+                            .orElse(null);
+        }
+
+        /**
+         * Export the snapshot as tab-separated text; suitable for a spreadsheet.
+         *
+         * @return text
+         */
+        @NonNull
+        public String toText() {
+            final StringBuilder sb = new StringBuilder();
+            for (final Synchronizer.LockType type : Synchronizer.LockType.values()) {
+                sb.append("lock\t").append(type)
+                  .append("\tcount=").append(getLockCount(type))
+                  .append("\twait_us=").append(toMicros(getLockWaitNanos(type)))
+                  .append('\n');
+            }
+
+            sb.append("\ncount\ttotal_us\tp50_us\tp90_us\tp99_us\tmax_us\tlock_wait_us"
+                      + "\trows\tsql\n");
+            for (final TemplateStats v : templates) {
+                sb.append(v.getCount())
+                  .append('\t').append(toMicros(v.getTotalNanos()))
+                  .append('\t').append(v.getPercentileMicros(50))
+                  .append('\t').append(v.getPercentileMicros(90))
+                  .append('\t').append(v.getPercentileMicros(99))
+                  .append('\t').append(toMicros(v.getMaxNanos()))
+                  .append('\t').append(toMicros(v.getLockWaitNanos()))
+                  .append('\t').append(v.getRows())
+                  .append('\t').append(v.getSql())
+                  .append('\n');
+            }
+
+            sb.append("\nslow queries\n");
+            for (final SlowQuery q : slowQueries) {
+                sb.append(q.getTimestamp())
+                  .append('\t').append(toMicros(q.getDurationNanos()))
+                  .append('\t').append(q.getRows())
+                  .append('\t').append(q.getSql())
+                  .append('\n');
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -21,7 +21,6 @@ package com.hardbacknutter.nevertoomanybooks.core.database;
 
 import androidx.annotation.NonNull;
 
-import java.text.Normalizer;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Locale;
@@ -60,9 +59,6 @@ public final class SqlEncode {
     /** See {@link #date(LocalDateTime)}. */
     private static final Pattern T = Pattern.compile("T");
 
-    /** Keep only alpha/digit characters. */
-    private static final Pattern NORMALIZER_PATTERN = Pattern.compile("[^\\p{Alpha}\\d]");
-
     private SqlEncode() {
     }
 
@@ -118,10 +114,11 @@ public final class SqlEncode {
      * @param text to normalize
      *
      * @return normalized text
+     *
+     * @see TextNormalizer#ALPHA_DIGIT
      */
     @NonNull
     public static String normalize(@NonNull final CharSequence text) {
-        final String normalized = Normalizer.normalize(text, Normalizer.Form.NFD);
-        return NORMALIZER_PATTERN.matcher(normalized).replaceAll("");
+        return TextNormalizer.ALPHA_DIGIT.normalize(text);
     }
 }
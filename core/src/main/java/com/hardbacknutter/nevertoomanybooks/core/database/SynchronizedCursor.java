@@ -25,6 +25,7 @@ import android.database.sqlite.SQLiteQuery;
 
 import androidx.annotation.CallSuper;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 /**
  * Cursor wrapper that tries to apply locks as necessary. Unfortunately, most cursor
@@ -39,6 +40,9 @@ public class SynchronizedCursor
     private final Synchronizer synchronizer;
     /** cached count for the query. */
     private int count = -1;
+    /** The statement template; only set when {@link QueryStats} are enabled. */
+    @Nullable
+    private final String template;
 
     /**
      * Constructor.
@@ -54,20 +58,46 @@ public class SynchronizedCursor
                               @NonNull final Synchronizer synchronizer) {
         super(driver, editTable, query);
         this.synchronizer = synchronizer;
+        template = QueryStats.isEnabled() ? QueryStats.toTemplate(getSql(query)) : null;
+    }
+
+    /**
+     * Get the SQL from the query object.
+     * {@code SQLiteQuery#getSql()} is hidden, but {@code toString()} is
+     * defined as {@code "SQLiteQuery: " + getSql()}.
+     *
+     * @param query to read
+     *
+     * @return sql
+     */
+    @NonNull
+    private static String getSql(@NonNull final SQLiteQuery query) {
+        final String s = query.toString();
+        final int pos = s.indexOf(": ");
+        return pos == -1 ? s : s.substring(pos + 2);
     }
 
     /**
      * Wrapper that uses a lock before calling underlying method.
+     * <p>
+     * The first call executes the query (i.e. fills the first cursor window),
+     * and is timed when {@link QueryStats} are enabled.
      */
     @Override
     public int getCount() {
         // Cache the count (it's what SQLiteCursor does), and we avoid locking
         if (count == -1) {
+            final long start = template != null ? QueryStats.start() : 0;
             final Synchronizer.SyncLock sharedLock = synchronizer.getSharedLock();
+            final long acquired = QueryStats.lap(start);
             try {
                 count = super.getCount();
             } finally {
                 sharedLock.unlock();
+                if (start != 0) {
+                    //noinspection DataFlowIssue
+                    QueryStats.record(template, start, acquired, count);
+                }
             }
         }
         return count;
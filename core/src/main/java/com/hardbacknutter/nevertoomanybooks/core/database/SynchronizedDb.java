@@ -25,6 +25,7 @@ import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteException;
 import android.database.sqlite.SQLiteOpenHelper;
 import android.database.sqlite.SQLiteStatement;
+import android.database.sqlite.SQLiteTransactionListener;
 
 import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
@@ -32,6 +33,15 @@ import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import androidx.annotation.WorkerThread;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.Collection;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
 import com.hardbacknutter.nevertoomanybooks.core.BuildConfig;
 import com.hardbacknutter.nevertoomanybooks.core.LoggerFactory;
 
@@ -45,6 +55,8 @@ import com.hardbacknutter.nevertoomanybooks.core.LoggerFactory;
  * <p>
  * After getting a question "why?": See {@link Synchronizer} for details.
  * <p>
+ * Statement execution (and lock wait) times can be collected, see {@link QueryStats}.
+ * <p>
  * About the SQLite version:
  * <a href="https://developer.android.com/reference/android/database/sqlite/package-summary">
  * package-summary</a>
@@ -59,6 +71,8 @@ public class SynchronizedDb
         implements AutoCloseable {
 
     private static final int DEFAULT_STMT_CACHE_SIZE = 25;
+    /** Chunk size used by {@link #copyTo(File, BooleanSupplier)}. */
+    private static final long COPY_CHUNK_SIZE = 1024 * 1024;
     /** Log tag. */
     private static final String TAG = "SynchronizedDb";
     private static final String ERROR_TX_LOCK_WAS_NULL = "Lock passed in was NULL";
@@ -101,6 +115,14 @@ public class SynchronizedDb
     @Nullable
     private Synchronizer.SyncLock currentTxLock;
 
+    /** Set by {@link #setTransactionSuccessful()}; reset when a transaction begins/ends. */
+    private boolean currentTxSuccessful;
+
+    /** Notified when a transaction begins, commits or rolls back. */
+    @NonNull
+    private final Collection<SQLiteTransactionListener> transactionListeners =
+            new CopyOnWriteArrayList<>();
+
     /**
      * Constructor.
      *
@@ -266,6 +288,7 @@ public class SynchronizedDb
     public long insert(@NonNull final String table,
                        @NonNull final ContentValues values) {
 
+        final long start = QueryStats.start();
         Synchronizer.SyncLock txLock = null;
         if (currentTxLock != null) {
             if (currentTxLock.getType() != Synchronizer.LockType.Exclusive) {
@@ -277,13 +300,19 @@ public class SynchronizedDb
 
         // reminder: insert does not throw exceptions for the actual insert.
         // but it can throw other exceptions.
+        final long acquired = QueryStats.lap(start);
+        long id = -1;
         try {
-            return sqLiteDatabase.insert(table, null, values);
+            id = sqLiteDatabase.insert(table, null, values);
+            return id;
 
         } finally {
             if (txLock != null) {
                 txLock.unlock();
             }
+            if (start != 0) {
+                QueryStats.record("INSERT INTO " + table, start, acquired, id > 0 ? 1 : 0);
+            }
         }
     }
 
@@ -311,6 +340,7 @@ public class SynchronizedDb
                       @NonNull final String whereClause,
                       @Nullable final String[] whereArgs) {
 
+        final long start = QueryStats.start();
         Synchronizer.SyncLock txLock = null;
         if (currentTxLock != null) {
             if (currentTxLock.getType() != Synchronizer.LockType.Exclusive) {
@@ -322,12 +352,19 @@ public class SynchronizedDb
 
         // reminder: update does not throw exceptions for the actual update.
         // but it can throw other exceptions.
+        final long acquired = QueryStats.lap(start);
+        int rows = 0;
         try {
-            return sqLiteDatabase.update(table, values, whereClause, whereArgs);
+            rows = sqLiteDatabase.update(table, values, whereClause, whereArgs);
+            return rows;
         } finally {
             if (txLock != null) {
                 txLock.unlock();
             }
+            if (start != 0) {
+                QueryStats.record("UPDATE " + table + " WHERE " + QueryStats.toTemplate(whereClause),
+                                  start, acquired, rows);
+            }
         }
     }
 
@@ -359,6 +396,7 @@ public class SynchronizedDb
                       @Nullable final String whereClause,
                       @Nullable final String[] whereArgs) {
 
+        final long start = QueryStats.start();
         Synchronizer.SyncLock txLock = null;
         if (currentTxLock != null) {
             if (currentTxLock.getType() != Synchronizer.LockType.Exclusive) {
@@ -370,12 +408,21 @@ public class SynchronizedDb
 
         // reminder: delete does not throw exceptions for the actual delete.
         // but it can throw other exceptions.
+        final long acquired = QueryStats.lap(start);
+        int rows = 0;
         try {
-            return sqLiteDatabase.delete(table, whereClause, whereArgs);
+            rows = sqLiteDatabase.delete(table, whereClause, whereArgs);
+            return rows;
         } finally {
             if (txLock != null) {
                 txLock.unlock();
             }
+            if (start != 0) {
+                QueryStats.record("DELETE FROM " + table
+                                  + (whereClause == null || whereClause.isEmpty()
+                                     ? "" : " WHERE " + QueryStats.toTemplate(whereClause)),
+                                  start, acquired, rows);
+            }
         }
     }
 
@@ -410,7 +457,7 @@ public class SynchronizedDb
             //   readOnly = sql.trim().toUpperCase(Locale.ENGLISH).startsWith("SELECT");
             final boolean readOnly = sql.charAt(0) == 'S' || sql.charAt(0) == 's';
 
-            return new SynchronizedStatement(synchronizer, statement, readOnly);
+            return new SynchronizedStatement(synchronizer, statement, sql, readOnly);
         } finally {
             if (txLock != null) {
                 txLock.unlock();
@@ -430,6 +477,7 @@ public class SynchronizedDb
             LoggerFactory.getLogger().d(TAG, "execSQL", sql);
         }
 
+        final long start = QueryStats.start();
         Synchronizer.SyncLock txLock = null;
         if (currentTxLock != null) {
             if (currentTxLock.getType() != Synchronizer.LockType.Exclusive) {
@@ -439,12 +487,16 @@ public class SynchronizedDb
             txLock = synchronizer.getExclusiveLock();
         }
 
+        final long acquired = QueryStats.lap(start);
         try {
             sqLiteDatabase.execSQL(sql);
         } finally {
             if (txLock != null) {
                 txLock.unlock();
             }
+            if (start != 0) {
+                QueryStats.record(QueryStats.toTemplate(sql), start, acquired, 0);
+            }
         }
     }
 
@@ -612,6 +664,8 @@ public class SynchronizedDb
         }
 
         currentTxLock = txLock;
+        currentTxSuccessful = false;
+        transactionListeners.forEach(SQLiteTransactionListener::onBegin);
         return txLock;
     }
 
@@ -621,6 +675,7 @@ public class SynchronizedDb
     public void setTransactionSuccessful() {
         // We could pass in the lock and do the same checks as we do in #endTransaction
         sqLiteDatabase.setTransactionSuccessful();
+        currentTxSuccessful = true;
     }
 
     /**
@@ -644,16 +699,132 @@ public class SynchronizedDb
             throw new TransactionException(ERROR_TX_WRONG_LOCK);
         }
 
+        boolean committed = false;
         try {
             sqLiteDatabase.endTransaction();
+            committed = currentTxSuccessful;
+        } finally {
+            try {
+                // Notify while we still hold the lock, so the listeners see
+                // the outcome before any other transaction can start.
+                if (committed) {
+                    transactionListeners.forEach(SQLiteTransactionListener::onCommit);
+                } else {
+                    transactionListeners.forEach(SQLiteTransactionListener::onRollback);
+                }
+            } finally {
+                // Always clear the current one before unlocking so another thread does not
+                // see the old lock when it gets the lock
+                currentTxLock = null;
+                currentTxSuccessful = false;
+                txLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Register a listener to be notified when a transaction started with
+     * {@link #beginTransaction(boolean)} begins, and when it is committed or rolled back.
+     * <p>
+     * The listener is called on the thread which begins/ends the transaction.
+     *
+     * @param listener to add
+     */
+    public void addTransactionListener(@NonNull final SQLiteTransactionListener listener) {
+        transactionListeners.add(listener);
+    }
+
+    /**
+     * Unregister a listener added with {@link #addTransactionListener}.
+     *
+     * @param listener to remove
+     */
+    public void removeTransactionListener(@NonNull final SQLiteTransactionListener listener) {
+        transactionListeners.remove(listener);
+    }
+
+    /**
+     * Take a consistent copy of the database file(s).
+     * <p>
+     * The copy is made while holding a shared lock: other threads can keep reading,
+     * writers will wait until the copy is done. A write transaction running on another
+     * thread is waited for.
+     * The database connection itself is only used for a (WAL) checkpoint.
+     * Using 'VACUUM INTO' would keep the connection busy for the entire duration,
+     * blocking all readers.
+     * <p>
+     * If the database is in WAL mode and the checkpoint could not be completed,
+     * the "-wal" file is copied along, and must be kept together with the copy.
+     * Opening the copy will then apply it.
+     *
+     * @param destFile    to write to
+     * @param isCancelled checked between each chunk copied
+     *
+     * @return {@code true} on success, {@code false} if cancelled
+     *
+     * @throws IOException          on generic/other IO failures
+     * @throws TransactionException when called while inside a transaction on this thread
+     */
+    @WorkerThread
+    public boolean copyTo(@NonNull final File destFile,
+                          @NonNull final BooleanSupplier isCancelled)
+            throws IOException {
+        // Wait for any writer on another thread to finish first.
+        final Synchronizer.SyncLock txLock = synchronizer.getSharedLock();
+        try {
+            // Only a transaction on this thread is an error:
+            // the database file could contain uncommitted changes.
+            if (sqLiteDatabase.inTransaction()) {
+                throw new TransactionException(ERROR_TX_ALREADY_STARTED);
+            }
+
+            // In WAL mode, move as much as possible to the main file.
+            // In any other mode, this is a no-op.
+            try (Cursor cursor = sqLiteDatabase.rawQuery("PRAGMA wal_checkpoint(FULL)",
+                                                         null)) {
+                cursor.moveToFirst();
+            }
+
+            final String path = getPath();
+            if (!copyInChunks(new File(path), destFile, isCancelled)) {
+                return false;
+            }
+
+            final File wal = new File(path + "-wal");
+            final File destWal = new File(destFile.getPath() + "-wal");
+            if (wal.exists() && wal.length() > 0) {
+                return copyInChunks(wal, destWal, isCancelled);
+            }
+            //noinspection ResultOfMethodCallIgnored
+            destWal.delete();
+            return true;
         } finally {
-            // Always clear the current one before unlocking so another thread does not
-            // see the old lock when it gets the lock
-            currentTxLock = null;
             txLock.unlock();
         }
     }
 
+    private boolean copyInChunks(@NonNull final File source,
+                                 @NonNull final File destFile,
+                                 @NonNull final BooleanSupplier isCancelled)
+            throws IOException {
+        try (FileInputStream fis = new FileInputStream(source);
+             FileOutputStream fos = new FileOutputStream(destFile);
+             FileChannel in = fis.getChannel();
+             FileChannel out = fos.getChannel()) {
+            final long size = in.size();
+            long position = 0;
+            while (position < size) {
+                if (isCancelled.getAsBoolean()) {
+                    return false;
+                }
+                position += in.transferTo(position, Math.min(COPY_CHUNK_SIZE, size - position),
+                                          out);
+            }
+            out.force(true);
+        }
+        return true;
+    }
+
     /**
      * DO NOT CALL THIS UNLESS YOU REALLY NEED TO. DATABASE ACCESS SHOULD GO THROUGH THIS CLASS.
      *
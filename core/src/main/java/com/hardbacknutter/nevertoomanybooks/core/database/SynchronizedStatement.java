@@ -41,6 +41,14 @@ public class SynchronizedStatement
     private final Synchronizer synchronizer;
     /** Indicates this is a 'read-only' statement. */
     private final boolean readOnly;
+    /** The SQL as compiled. */
+    @SuppressWarnings("FieldNotUsedInToString")
+    @NonNull
+    private final String sql;
+    /** Lazily created when {@link QueryStats} are enabled. */
+    @SuppressWarnings("FieldNotUsedInToString")
+    @Nullable
+    private String template;
 
     /**
      * Constructor.
@@ -48,85 +56,131 @@ public class SynchronizedStatement
      *
      * @param synchronizer to use
      * @param statement    to wrap
+     * @param sql          the SQL as compiled into the statement
      * @param readOnly     flag; is the statement a read-only operation
      */
     public SynchronizedStatement(@NonNull final Synchronizer synchronizer,
                                  @NonNull final SQLiteStatement statement,
+                                 @NonNull final String sql,
                                  final boolean readOnly) {
         super(statement);
         this.synchronizer = synchronizer;
+        this.sql = sql;
         this.readOnly = readOnly;
     }
 
     public long simpleQueryForLong()
             throws SQLiteDoneException {
+        final long start = QueryStats.start();
         final Synchronizer.SyncLock sharedLock = synchronizer.getSharedLock();
+        final long acquired = QueryStats.lap(start);
         try {
             return super.simpleQueryForLong();
         } finally {
             sharedLock.unlock();
+            record(start, acquired, 1);
         }
     }
 
     public long simpleQueryForLongOrZero() {
+        final long start = QueryStats.start();
         final Synchronizer.SyncLock sharedLock = synchronizer.getSharedLock();
+        final long acquired = QueryStats.lap(start);
         try {
             return super.simpleQueryForLongOrZero();
         } finally {
             sharedLock.unlock();
+            record(start, acquired, 1);
         }
     }
 
     @NonNull
     public String simpleQueryForString()
             throws SQLiteDoneException {
+        final long start = QueryStats.start();
         final Synchronizer.SyncLock sharedLock = synchronizer.getSharedLock();
+        final long acquired = QueryStats.lap(start);
         try {
             return super.simpleQueryForString();
         } finally {
             sharedLock.unlock();
+            record(start, acquired, 1);
         }
     }
 
     @Nullable
     public String simpleQueryForStringOrNull() {
+        final long start = QueryStats.start();
         final Synchronizer.SyncLock sharedLock = synchronizer.getSharedLock();
+        final long acquired = QueryStats.lap(start);
         try {
             return super.simpleQueryForStringOrNull();
         } finally {
             sharedLock.unlock();
+            record(start, acquired, 1);
         }
     }
 
     public void execute() {
+        final long start = QueryStats.start();
         final Synchronizer.SyncLock txLock;
         if (readOnly) {
             txLock = synchronizer.getSharedLock();
         } else {
             txLock = synchronizer.getExclusiveLock();
         }
+        final long acquired = QueryStats.lap(start);
         try {
             super.execute();
         } finally {
             txLock.unlock();
+            record(start, acquired, 0);
         }
     }
 
     public int executeUpdateDelete() {
+        final long start = QueryStats.start();
         final Synchronizer.SyncLock exclusiveLock = synchronizer.getExclusiveLock();
+        final long acquired = QueryStats.lap(start);
+        int rows = 0;
         try {
-            return super.executeUpdateDelete();
+            rows = super.executeUpdateDelete();
+            return rows;
         } finally {
             exclusiveLock.unlock();
+            record(start, acquired, rows);
         }
     }
 
     public long executeInsert() {
+        final long start = QueryStats.start();
         final Synchronizer.SyncLock exclusiveLock = synchronizer.getExclusiveLock();
+        final long acquired = QueryStats.lap(start);
+        long id = -1;
         try {
-            return super.executeInsert();
+            id = super.executeInsert();
+            return id;
         } finally {
             exclusiveLock.unlock();
+            record(start, acquired, id > 0 ? 1 : 0);
+        }
+    }
+
+    /**
+     * Pass the timing to {@link QueryStats}; a no-op when timing was not started.
+     *
+     * @param start    as returned from {@link QueryStats#start()}
+     * @param acquired as returned from {@link QueryStats#lap(long)}
+     * @param rows     the number of rows returned or affected
+     */
+    private void record(final long start,
+                        final long acquired,
+                        final int rows) {
+        if (start != 0) {
+            if (template == null) {
+                template = QueryStats.toTemplate(sql);
+            }
+            QueryStats.record(template, start, acquired, rows);
         }
     }
 
@@ -93,7 +93,9 @@ public class Synchronizer {
     @NonNull
     SyncLock getSharedLock() {
         final Thread thread = Thread.currentThread();
+        final long start = QueryStats.start();
         mainLock.lock();
+        QueryStats.lockAcquired(LockType.Shared, start);
         purgeOldLocks();
         try {
             Integer count = sharedLockOwners.get(thread);
@@ -154,6 +156,7 @@ public class Synchronizer {
     @NonNull
     SyncLock getExclusiveLock() {
         final Thread thread = Thread.currentThread();
+        final long start = QueryStats.start();
         // Synchronize with other code
         mainLock.lock();
         while (true) {
@@ -163,11 +166,13 @@ public class Synchronizer {
             try {
                 // Simple case -- no locks held, just return and keep the lock
                 if (sharedLockOwners.isEmpty()) {
+                    QueryStats.lockAcquired(LockType.Exclusive, start);
                     return exclusiveLock;
                 }
                 // Check for one lock, and it being this thread.
                 if (sharedLockOwners.size() == 1 && sharedLockOwners.containsKey(thread)) {
                     // One locker, and it is us...so upgrade is OK.
+                    QueryStats.lockAcquired(LockType.Exclusive, start);
                     return exclusiveLock;
                 }
 
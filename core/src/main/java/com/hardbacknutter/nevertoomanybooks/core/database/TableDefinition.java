@@ -75,6 +75,9 @@ public class TableDefinition {
     private final DebugHelper debugHelper;
     @NonNull
     private TableType type = TableType.Standard;
+    /** Options appended to the column list of a virtual table; e.g. "prefix='2 3'". */
+    @Nullable
+    private String virtualTableOptions;
     /** Cached table structure info. */
     @Nullable
     private TableInfo tableInfo;
@@ -176,6 +179,20 @@ public class TableDefinition {
         return this;
     }
 
+    /**
+     * Set the options for a virtual table. They are added after the columns
+     * in the {@code CREATE VIRTUAL TABLE} statement.
+     *
+     * @param options e.g. "prefix='2 3', content=''"; or {@code null} for none
+     *
+     * @return {@code this} (for chaining)
+     */
+    @NonNull
+    public TableDefinition setVirtualTableOptions(@Nullable final String options) {
+        this.virtualTableOptions = options;
+        return this;
+    }
+
     /**
      * Get the alias name.
      *
@@ -666,6 +683,10 @@ public class TableDefinition {
                 sql = new StringBuilder("CREATE VIRTUAL TABLE " + tableName + " USING fts4");
                 break;
 
+            case FTS5:
+                sql = new StringBuilder("CREATE VIRTUAL TABLE " + tableName + " USING fts5");
+                break;
+
             case Temporary:
                 sql = new StringBuilder("CREATE TEMPORARY TABLE " + tableName);
                 break;
@@ -682,12 +703,21 @@ public class TableDefinition {
         boolean hasPrimaryKey = false;
         final StringJoiner columns = new StringJoiner(",");
         for (final Domain domain : domains) {
-            columns.add(domain.def(withDomainConstraints));
-            // remember if we added a primary key column.
-            hasPrimaryKey = hasPrimaryKey || domain.isPrimaryKey();
+            if (type == TableType.FTS5) {
+                // FTS5 does not allow types or constraints on the columns
+                columns.add(domain.getName());
+            } else {
+                columns.add(domain.def(withDomainConstraints));
+                // remember if we added a primary key column.
+                hasPrimaryKey = hasPrimaryKey || domain.isPrimaryKey();
+            }
         }
         sql.append(columns);
 
+        if (virtualTableOptions != null) {
+            sql.append(',').append(virtualTableOptions);
+        }
+
         // add the primary key if not already added / needed.
         if (!hasPrimaryKey && !primaryKey.isEmpty()) {
             sql.append("\n,PRIMARY KEY (")
@@ -715,11 +745,14 @@ public class TableDefinition {
      * Supported/used table types.
      *
      * @see <a href=https://sqlite.org/fts3.html">https://sqlite.org/fts3.html</a>
+     * @see <a href=https://sqlite.org/fts5.html">https://sqlite.org/fts5.html</a>
      */
     public enum TableType {
         Standard,
         Temporary,
-        FTS
+        /** FTS4. */
+        FTS,
+        FTS5
     }
 
 //    /**
@@ -0,0 +1,136 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.core.database;
+
+import androidx.annotation.NonNull;
+
+import java.text.Normalizer;
+import java.util.regex.Pattern;
+
+/**
+ * Normalize a string to NFD and strip all characters which are not alpha/digit
+ * (or one of a small set of extra ASCII characters).
+ * <p>
+ * Plain ASCII text does not change when normalized to NFD, and for ASCII characters
+ * the regular expression classes {@code \p{Alpha}} and {@code \d} mean the same on Android
+ * and on the JDK. Such text (i.e. most titles and names) is therefore filtered in a single
+ * pass over a reusable buffer. As soon as a non-ASCII character is seen, we fall back
+ * to {@link Normalizer} and the regular expression; so the result is always identical
+ * to the plain {@code Normalizer.normalize(text, NFD)} + {@code replaceAll} approach.
+ * <p>
+ * Instances are thread-safe.
+ *
+ * @see SqlEncode
+ */
+public final class TextNormalizer {
+
+    /** Keep only alpha/digit characters. */
+    public static final TextNormalizer ALPHA_DIGIT = new TextNormalizer("");
+
+    private static final int ASCII = 0x80;
+
+    /** Per thread buffer for the ASCII path; grown as needed, never shrunk. */
+    private static final ThreadLocal<char[]> BUFFER =
+            ThreadLocal.withInitial(() -> new char[256]);
+
+    /** The characters to keep; only used for the slow path. */
+    @NonNull
+    private final Pattern pattern;
+
+    /** The ASCII characters to keep. */
+    @NonNull
+    private final boolean[] keepAscii = new boolean[ASCII];
+
+    /**
+     * Constructor.
+     *
+     * @param extraChars ASCII characters to keep in addition to alpha/digits.
+     *                   Used as-is inside a regular expression character class.
+     *
+     * @throws IllegalArgumentException if any of the extra characters is not ASCII
+     */
+    public TextNormalizer(@NonNull final String extraChars) {
+        pattern = Pattern.compile("[^\\p{Alpha}\\d" + extraChars + "]");
+
+        for (char c = '0'; c <= '9'; c++) {
+            keepAscii[c] = true;
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            keepAscii[c] = true;
+            keepAscii[c + ('a' - 'A')] = true;
+        }
+        for (int i = 0; i < extraChars.length(); i++) {
+            final char c = extraChars.charAt(i);
+            if (c >= ASCII) {
+                throw new IllegalArgumentException("Not ASCII: " + c);
+            }
+            keepAscii[c] = true;
+        }
+    }
+
+    /**
+     * Normalize the given string and remove any unwanted characters.
+     * The case is preserved.
+     *
+     * @param text to normalize
+     *
+     * @return normalized text
+     */
+    @NonNull
+    public String normalize(@NonNull final CharSequence text) {
+        final int length = text.length();
+
+        char[] buffer = BUFFER.get();
+        if (buffer.length < length) {
+            buffer = new char[Math.max(length, buffer.length * 2)];
+            BUFFER.set(buffer);
+        }
+
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = text.charAt(i);
+            if (c >= ASCII) {
+                return normalizeUnicode(text);
+            }
+            if (keepAscii[c]) {
+                buffer[count++] = c;
+            }
+        }
+
+        if (count == length && text instanceof String) {
+            // Nothing stripped
+            return (String) text;
+        }
+        return new String(buffer, 0, count);
+    }
+
+    /**
+     * The full (slow) path.
+     *
+     * @param text to normalize
+     *
+     * @return normalized text
+     */
+    @NonNull
+    private String normalizeUnicode(@NonNull final CharSequence text) {
+        final String normalized = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return pattern.matcher(normalized).replaceAll("");
+    }
+}
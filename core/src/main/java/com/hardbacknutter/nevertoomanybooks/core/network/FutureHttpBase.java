@@ -26,6 +26,7 @@ import androidx.annotation.StringRes;
 import androidx.annotation.WorkerThread;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.UncheckedIOException;
 import java.net.HttpURLConnection;
 import java.net.SocketTimeoutException;
@@ -195,6 +196,39 @@ public abstract class FutureHttpBase<T> {
         return this;
     }
 
+    /**
+     * Wait until the throttler allows the request to be made.
+     * The wait is aborted if the request is cancelled.
+     *
+     * @param throttler to use
+     *
+     * @throws InterruptedIOException if the request was cancelled while waiting
+     */
+    @WorkerThread
+    void waitForThrottler(@NonNull final Throttler throttler)
+            throws InterruptedIOException {
+        try {
+            throttler.waitUntilRequestAllowed();
+        } catch (@NonNull final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw createCancelledException(e);
+        }
+    }
+
+    /**
+     * Wrap the given {@link InterruptedException} so it can be thrown from a network call.
+     *
+     * @param e the cause
+     *
+     * @return exception to throw
+     */
+    @NonNull
+    InterruptedIOException createCancelledException(@NonNull final InterruptedException e) {
+        final InterruptedIOException ex = new InterruptedIOException("Cancelled");
+        ex.initCause(e);
+        return ex;
+    }
+
     @NonNull
     public FutureHttpBase<T> setInstanceFollowRedirects(final boolean followRedirects) {
         this.followRedirects = followRedirects;
@@ -273,6 +307,7 @@ public abstract class FutureHttpBase<T> {
               @NonNull final Function<HttpURLConnection, T> action)
             throws StorageException,
                    CancellationException,
+                   InterruptedIOException,
                    SocketTimeoutException,
                    IOException {
         try {
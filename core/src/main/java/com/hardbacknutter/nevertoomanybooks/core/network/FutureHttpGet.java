@@ -24,6 +24,7 @@ import androidx.annotation.StringRes;
 
 import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.UncheckedIOException;
 import java.net.SocketTimeoutException;
 import java.util.Objects;
@@ -60,7 +61,10 @@ public final class FutureHttpGet<T>
      *
      * @return the processed response
      *
-     * @throws CancellationException  if the user cancelled us
+     * @throws InterruptedIOException if the request was cancelled while waiting
+     *                                for the throttler or before a retry
+     * @throws CancellationException  if {@link #cancel()} was called before the
+     *                                response was processed
      * @throws SocketTimeoutException if the timeout expires before
      *                                the connection can be established
      * @throws IOException            on generic/other IO failures
@@ -71,6 +75,7 @@ public final class FutureHttpGet<T>
                  @NonNull final ResponseProcessor<T> responseProcessor)
             throws StorageException,
                    CancellationException,
+                   InterruptedIOException,
                    SocketTimeoutException,
                    IOException {
         return get(url, DEFAULT_BUFFER_SIZE, responseProcessor);
@@ -87,7 +92,10 @@ public final class FutureHttpGet<T>
      *
      * @return the processed response
      *
-     * @throws CancellationException  if the user cancelled us
+     * @throws InterruptedIOException if the request was cancelled while waiting
+     *                                for the throttler or before a retry
+     * @throws CancellationException  if {@link #cancel()} was called before the
+     *                                response was processed
      * @throws SocketTimeoutException if the timeout expires before
      *                                the connection can be established
      * @throws IOException            on generic/other IO failures
@@ -99,6 +107,7 @@ public final class FutureHttpGet<T>
                  @NonNull final ResponseProcessor<T> responseProcessor)
             throws StorageException,
                    CancellationException,
+                   InterruptedIOException,
                    SocketTimeoutException,
                    IOException {
 
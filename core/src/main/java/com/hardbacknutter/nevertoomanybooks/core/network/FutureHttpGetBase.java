@@ -70,12 +70,12 @@ public class FutureHttpGetBase<T>
         }
 
         while (retry > 0) {
+            if (throttler != null) {
+                waitForThrottler(throttler);
+            }
+
             //noinspection OverlyBroadCatchBlock
             try {
-                if (throttler != null) {
-                    throttler.waitUntilRequestAllowed();
-                }
-
                 request.connect();
                 checkResponseCode(request);
                 // all fine, we're connected
@@ -102,8 +102,10 @@ public class FutureHttpGetBase<T>
 
             try {
                 Thread.sleep(RETRY_AFTER_MS);
-            } catch (@NonNull final InterruptedException ignore) {
-                // ignore
+            } catch (@NonNull final InterruptedException e) {
+                // We've been cancelled; don't retry
+                Thread.currentThread().interrupt();
+                throw createCancelledException(e);
             }
         }
 
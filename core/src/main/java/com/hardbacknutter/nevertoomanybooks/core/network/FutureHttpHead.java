@@ -23,6 +23,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.StringRes;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.UncheckedIOException;
 import java.net.HttpURLConnection;
 import java.net.SocketTimeoutException;
@@ -52,6 +53,7 @@ public final class FutureHttpHead<T>
                   @NonNull final Function<HttpURLConnection, T> responseProcessor)
             throws StorageException,
                    CancellationException,
+                   InterruptedIOException,
                    SocketTimeoutException,
                    IOException {
 
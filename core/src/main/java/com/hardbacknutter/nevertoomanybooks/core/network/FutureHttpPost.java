@@ -27,6 +27,7 @@ import java.io.BufferedInputStream;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.UncheckedIOException;
@@ -62,7 +63,10 @@ public class FutureHttpPost<T>
      *
      * @return the processed response; can be {@code null} if there was no response body.
      *
-     * @throws CancellationException  if the user cancelled us
+     * @throws InterruptedIOException if the request was cancelled while waiting
+     *                                for the throttler
+     * @throws CancellationException  if {@link #cancel()} was called before the
+     *                                response was processed
      * @throws SocketTimeoutException if the timeout expires before
      *                                the connection can be established
      * @throws IOException            on generic/other IO failures
@@ -74,16 +78,17 @@ public class FutureHttpPost<T>
                   @Nullable final Function<InputStream, T> responseProcessor)
             throws StorageException,
                    CancellationException,
+                   InterruptedIOException,
                    SocketTimeoutException,
                    IOException {
 
         return execute(url, POST, true, request -> {
 
-            if (throttler != null) {
-                throttler.waitUntilRequestAllowed();
-            }
-
             try {
+                if (throttler != null) {
+                    waitForThrottler(throttler);
+                }
+
                 try (OutputStream os = request.getOutputStream();
                      Writer osw = new OutputStreamWriter(os, StandardCharsets.UTF_8);
                      Writer writer = new BufferedWriter(osw)) {
@@ -19,66 +19,155 @@
  */
 package com.hardbacknutter.nevertoomanybooks.core.network;
 
+import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
 
 /**
- * Define as a static.
+ * A token-bucket throttler.
+ * <p>
+ * The bucket holds up to {@code burst} tokens and refills at one token
+ * every {@code delayInMillis}. A request takes one token; when the bucket is empty
+ * the request is given the next free time slot.
+ * <p>
+ * Implemented as a "generic cell rate algorithm" which only needs to remember the
+ * theoretical arrival time of the next request; this is equivalent to a token bucket
+ * but without a refill timer.
+ * <p>
+ * Define as a static, or hold it in a singleton such as the {@code SearchEngineConfig}
+ * so all users of a site share the same bucket.
  * <pre>
  * {@code
  *     @NonNull
- *     private static final Throttler THROTTLER = new Throttler();
+ *     private static final Throttler THROTTLER = new Throttler(1_000);
  * }
  * </pre>
  * Use where needed: {@code THROTTLER.waitUntilRequestAllowed(); }
  */
 public class Throttler {
 
-    /** Thread delay time. */
+    /** The time between two requests once the burst allowance has been used up. */
     private final int delayInMillis;
 
-    /** Stores the last time a request was made to avoid breaking site usage rules. */
-    private long lastRequestTime;
+    /** The maximum number of requests which can be made back-to-back. */
+    private final int burst;
+
+    /** How far a request may be ahead of the theoretical arrival time. */
+    private final long burstToleranceInMillis;
+
+    @NonNull
+    private final Clock clock;
+
+    /**
+     * The theoretical arrival time of the next request if the bucket were empty.
+     * <p>
+     * Note that as a result of this approach this value may in fact be
+     * in the future; callers to this class effectively allocate time slots.
+     */
+    private long theoreticalArrivalTime;
+
+    /**
+     * Constructor for a throttler which does not allow bursts.
+     * <p>
+     * IMPORTANT: Must be a static (or singleton) member variable to be meaningful.
+     *
+     * @param delayInMillis the delay time between requests.
+     */
+    public Throttler(@IntRange(from = 1) final int delayInMillis) {
+        this(delayInMillis, 1);
+    }
 
     /**
      * Constructor.
      * <p>
-     * IMPORTANT: Must be a static member variable to be meaningful.
+     * IMPORTANT: Must be a static (or singleton) member variable to be meaningful.
      *
      * @param delayInMillis the delay time between requests.
+     * @param burst         the number of requests which can be made without any delay
+     *                      if the throttler has been idle long enough.
      */
-    public Throttler(final int delayInMillis) {
+    public Throttler(@IntRange(from = 1) final int delayInMillis,
+                     @IntRange(from = 1) final int burst) {
+        this(delayInMillis, burst, Clock.SYSTEM);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param delayInMillis the delay time between requests.
+     * @param burst         the number of requests which can be made without any delay
+     * @param clock         to use
+     */
+    @VisibleForTesting
+    Throttler(@IntRange(from = 1) final int delayInMillis,
+              @IntRange(from = 1) final int burst,
+              @NonNull final Clock clock) {
+        if (delayInMillis < 1) {
+            throw new IllegalArgumentException("delayInMillis=" + delayInMillis);
+        }
+        if (burst < 1) {
+            throw new IllegalArgumentException("burst=" + burst);
+        }
         this.delayInMillis = delayInMillis;
+        this.burst = burst;
+        this.clock = clock;
+        burstToleranceInMillis = (long) (burst - 1) * delayInMillis;
+        // Start with a full bucket.
+        theoreticalArrivalTime = clock.millis();
     }
 
     /**
-     * Uses {@link #lastRequestTime} to determine how long until the next request is allowed;
-     * and update {@link #lastRequestTime}; this needs to be synchronized across threads.
-     * <p>
-     * Note that as a result of this approach {@link #lastRequestTime} may in fact be
-     * in the future; callers to this routine effectively allocate time slots.
+     * Wait until a request is allowed.
      * <p>
      * This method will sleep() until it can make a request; if 10 threads call this
-     * simultaneously, one will return immediately, one will return 1 second later,
-     * another two seconds etc.
+     * simultaneously on an idle throttler with a burst of 1, one will return immediately,
+     * one will return 1 second later, another two seconds etc.
+     * <p>
+     * If the calling thread is interrupted while waiting (e.g. because the request
+     * was cancelled), the interrupt is passed on. The reserved slot is given back
+     * if no other thread has reserved a later slot in the meantime.
+     *
+     * @throws InterruptedException if the thread was interrupted while waiting
      */
-    @SuppressWarnings("WeakerAccess")
-    public void waitUntilRequestAllowed() {
-        long wait;
+    public void waitUntilRequestAllowed()
+            throws InterruptedException {
+        final long wait;
+        final long reservedArrivalTime;
         synchronized (this) {
-            final long now = System.currentTimeMillis();
-            wait = delayInMillis - (now - lastRequestTime);
-            // lastRequestTime must be updated while synchronized. As soon as this
-            // block is left, another block may perform another update.
-            if (wait < 0) {
-                wait = 0;
-            }
-            lastRequestTime = now + wait;
+            final long now = clock.millis();
+            final long allowedAt = Math.max(now,
+                                            theoreticalArrivalTime - burstToleranceInMillis);
+            // theoreticalArrivalTime must be updated while synchronized. As soon as we
+            // leave the synchronized block, another thread may perform another update.
+            theoreticalArrivalTime = Math.max(theoreticalArrivalTime, allowedAt)
+                                     + delayInMillis;
+            reservedArrivalTime = theoreticalArrivalTime;
+            wait = allowedAt - now;
         }
 
         if (wait > 0) {
             try {
-                Thread.sleep(wait);
-            } catch (@NonNull final InterruptedException ignore) {
+                clock.sleep(wait);
+            } catch (@NonNull final InterruptedException e) {
+                release(reservedArrivalTime);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Give back a slot reserved but not used.
+     * <p>
+     * This is only possible if it is still the last slot reserved. If other threads
+     * have reserved later slots, giving it back would allow two requests in the
+     * same interval; the slot is then simply left unused.
+     *
+     * @param reservedArrivalTime the theoretical arrival time set by the reservation
+     */
+    private void release(final long reservedArrivalTime) {
+        synchronized (this) {
+            if (theoreticalArrivalTime == reservedArrivalTime) {
+                theoreticalArrivalTime -= delayInMillis;
             }
         }
     }
@@ -88,7 +177,46 @@ public class Throttler {
     public String toString() {
         return "Throttler{"
                + "delayInMillis=" + delayInMillis
-               + ", lastRequestTime=" + lastRequestTime
+               + ", burst=" + burst
+               + ", theoreticalArrivalTime=" + theoreticalArrivalTime
                + '}';
     }
+
+    /**
+     * Time source and sleep implementation; abstracted for testing.
+     */
+    @VisibleForTesting
+    interface Clock {
+
+        /** The default: {@link System#currentTimeMillis()} and {@link Thread#sleep(long)}. */
+        Clock SYSTEM = new Clock() {
+            @Override
+            public long millis() {
+                return System.currentTimeMillis();
+            }
+
+            @Override
+            public void sleep(final long millis)
+                    throws InterruptedException {
+                Thread.sleep(millis);
+            }
+        };
+
+        /**
+         * Get the current time.
+         *
+         * @return millis
+         */
+        long millis();
+
+        /**
+         * Sleep the current thread.
+         *
+         * @param millis to sleep
+         *
+         * @throws InterruptedException if interrupted while sleeping
+         */
+        void sleep(long millis)
+                throws InterruptedException;
+    }
 }
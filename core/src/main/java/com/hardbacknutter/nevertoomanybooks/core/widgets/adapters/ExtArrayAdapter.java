@@ -37,7 +37,6 @@ import androidx.annotation.LayoutRes;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import java.text.Normalizer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -46,7 +45,6 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
-import java.util.regex.Pattern;
 
 /**
  * A copy of the {@link android.widget.ArrayAdapter} code from Android-30, rev. 1 (2021-01-25)
@@ -141,6 +139,12 @@ public class ExtArrayAdapter<T>
     private Filter mFilter;
     @NonNull
     private FilterType mFilterType = FilterType.Default;
+    /**
+     * The index used by the {@link FilterType#Diacritic} filter on the original values.
+     * Built on first use, and dropped whenever the array is modified.
+     */
+    @Nullable
+    private PrefixIndex mPrefixIndex;
 
     /**
      * Constructor.
@@ -261,6 +265,28 @@ public class ExtArrayAdapter<T>
         mFieldId = textViewResourceId;
     }
 
+    /**
+     * Creates a new {@link FilterType#Diacritic} ExtArrayAdapter for the names
+     * in the given index. The index will be used for filtering, and can be shared
+     * between adapters. The underlying data collection will be immutable.
+     *
+     * @param context  The current context.
+     * @param resource The resource ID for a layout file containing a TextView to use when
+     *                 instantiating views.
+     * @param index    with the names to show
+     *
+     * @return An {@code ExtArrayAdapter<String>}
+     */
+    @NonNull
+    public static ExtArrayAdapter<String> createFromIndex(@NonNull final Context context,
+                                                          @LayoutRes final int resource,
+                                                          @NonNull final PrefixIndex index) {
+        final ExtArrayAdapter<String> adapter = new ExtArrayAdapter<>(
+                context, resource, FilterType.Diacritic, index.getNames());
+        adapter.mPrefixIndex = index;
+        return adapter;
+    }
+
     /**
      * Creates a new ExtArrayAdapter from external resources. The content of the array is
      * obtained through {@link android.content.res.Resources#getTextArray(int)}.
@@ -305,6 +331,7 @@ public class ExtArrayAdapter<T>
                 mObjects.add(object);
             }
             mObjectsFromResources = false;
+            mPrefixIndex = null;
         }
         if (mNotifyOnChange) {
             notifyDataSetChanged();
@@ -334,6 +361,7 @@ public class ExtArrayAdapter<T>
                 mObjects.addAll(collection);
             }
             mObjectsFromResources = false;
+            mPrefixIndex = null;
         }
         if (mNotifyOnChange) {
             notifyDataSetChanged();
@@ -352,6 +380,7 @@ public class ExtArrayAdapter<T>
             Collections.addAll(Objects.requireNonNullElseGet(mOriginalValues, () -> mObjects),
                                items);
             mObjectsFromResources = false;
+            mPrefixIndex = null;
         }
         if (mNotifyOnChange) {
             notifyDataSetChanged();
@@ -375,6 +404,7 @@ public class ExtArrayAdapter<T>
                 mObjects.add(index, object);
             }
             mObjectsFromResources = false;
+            mPrefixIndex = null;
         }
         if (mNotifyOnChange) {
             notifyDataSetChanged();
@@ -396,6 +426,7 @@ public class ExtArrayAdapter<T>
                 mObjects.remove(object);
             }
             mObjectsFromResources = false;
+            mPrefixIndex = null;
         }
         if (mNotifyOnChange) {
             notifyDataSetChanged();
@@ -415,6 +446,7 @@ public class ExtArrayAdapter<T>
                 mObjects.clear();
             }
             mObjectsFromResources = false;
+            mPrefixIndex = null;
         }
         if (mNotifyOnChange) {
             notifyDataSetChanged();
@@ -434,6 +466,7 @@ public class ExtArrayAdapter<T>
             } else {
                 mObjects.sort(comparator);
             }
+            mPrefixIndex = null;
         }
         if (mNotifyOnChange) {
             notifyDataSetChanged();
@@ -757,22 +790,24 @@ public class ExtArrayAdapter<T>
      * <p>An array filter constrains the content of the array adapter with
      * a prefix. Each item that does not start with the supplied prefix
      * is removed from the list.</p>
+     * <p>
+     * Uses a {@link PrefixIndex} so the values are only normalized once,
+     * instead of on each keystroke.
      */
     private class DiacriticArrayFilter
             extends AbstractArrayFilter {
 
-        /** Keep only alpha/digit and space characters. */
-        private final Pattern diacriticsPattern = Pattern.compile("[^\\p{Alpha}\\d ]");
-
         @Override
         @NonNull
         protected FilterResults performFiltering(@Nullable final CharSequence prefix) {
             final ArrayList<T> values;
+            PrefixIndex index;
             synchronized (mLock) {
                 if (mOriginalValues == null) {
                     mOriginalValues = new ArrayList<>(mObjects);
                 }
                 values = new ArrayList<>(mOriginalValues);
+                index = mPrefixIndex;
             }
 
             final FilterResults results = new FilterResults();
@@ -781,54 +816,31 @@ public class ExtArrayAdapter<T>
                 results.values = values;
                 results.count = values.size();
             } else {
-                final String prefixString = prefix.toString().toLowerCase(Locale.getDefault());
-                final String ndPrefixString = normalizeAndLowercase(prefixString);
-
-                final int count = values.size();
-                final Collection<T> newValues = new ArrayList<>();
-
-                for (int i = 0; i < count; i++) {
-                    final T value = values.get(i);
-                    final String valueText = getItemText(value)
-                            .toString().toLowerCase(Locale.getDefault());
-
-                    // First match against the whole, non-split value
-                    if (valueText.startsWith(prefixString)
-                        || normalizeAndLowercase(valueText).startsWith(ndPrefixString)) {
-                        newValues.add(value);
-                    } else {
-                        final String[] words = valueText.split(" ");
-                        for (final String word : words) {
-                            if (word.startsWith(prefixString)
-                                || normalizeAndLowercase(word).startsWith(ndPrefixString)) {
-                                newValues.add(value);
-                                break;
-                            }
+                if (index == null || index.size() != values.size()) {
+                    final List<String> texts = new ArrayList<>(values.size());
+                    for (final T value : values) {
+                        texts.add(getItemText(value).toString());
+                    }
+                    index = new PrefixIndex(texts);
+                    synchronized (mLock) {
+                        // unless the array was modified in the meantime
+                        if (mOriginalValues != null && values.equals(mOriginalValues)) {
+                            mPrefixIndex = index;
                         }
                     }
                 }
 
+                final List<T> newValues = new ArrayList<>();
+                for (final int position : index.find(prefix)) {
+                    newValues.add(values.get(position));
+                }
+
                 results.values = newValues;
                 results.count = newValues.size();
             }
 
             return results;
         }
-
-        /**
-         * Normalize a given string to contain only lower case alpha/digit and space characters.
-         *
-         * @param text to normalize
-         *
-         * @return normalized text
-         */
-        @NonNull
-        private String normalizeAndLowercase(@NonNull final CharSequence text) {
-            final String normalized = Normalizer.normalize(text, Normalizer.Form.NFD);
-            return diacriticsPattern.matcher(normalized)
-                                    .replaceAll("")
-                                    .toLowerCase(Locale.getDefault());
-        }
     }
 
     /**
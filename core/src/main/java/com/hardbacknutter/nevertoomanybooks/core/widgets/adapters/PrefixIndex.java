@@ -0,0 +1,174 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.core.widgets.adapters;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import com.hardbacknutter.nevertoomanybooks.core.database.TextNormalizer;
+
+/**
+ * An immutable index on a list of names for prefix matching as used by
+ * {@link ExtArrayAdapter.FilterType#Diacritic}.
+ * <p>
+ * A name matches if the whole name, or the part starting at any of its words,
+ * starts with the given prefix.
+ * Both are compared lower-cased and without diacritics/punctuation.
+ * <p>
+ * The folded name and each of its word-starts are stored in a sorted array,
+ * so a lookup is a binary search plus a scan over the matches;
+ * the names are only normalized once, when building the index.
+ */
+public final class PrefixIndex {
+
+    /** An index without names. */
+    public static final PrefixIndex EMPTY = new PrefixIndex(List.of());
+
+    /** Keep only alpha/digit and space characters. */
+    private static final TextNormalizer NORMALIZER = new TextNormalizer(" ");
+
+    @NonNull
+    private final List<String> names;
+    /** The folded names and word-starts; sorted. */
+    @NonNull
+    private final String[] keys;
+    /** For each key, the position of its name in {@link #names}. */
+    @NonNull
+    private final int[] positions;
+
+    /**
+     * Constructor.
+     *
+     * @param names to index; the order is preserved in the results
+     */
+    public PrefixIndex(@NonNull final List<String> names) {
+        this.names = Collections.unmodifiableList(new ArrayList<>(names));
+
+        final List<String> keyList = new ArrayList<>();
+        final List<Integer> positionList = new ArrayList<>();
+        for (int i = 0; i < this.names.size(); i++) {
+            final String folded = fold(this.names.get(i));
+            // First the whole, non-split value
+            keyList.add(folded);
+            positionList.add(i);
+            // and then each word which is not the first one
+            for (int c = 1; c < folded.length(); c++) {
+                if (folded.charAt(c - 1) == ' ' && folded.charAt(c) != ' ') {
+                    keyList.add(folded.substring(c));
+                    positionList.add(i);
+                }
+            }
+        }
+
+        final Integer[] order = new Integer[keyList.size()];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.comparing(keyList::get));
+
+        keys = new String[order.length];
+        positions = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            keys[i] = keyList.get(order[i]);
+            positions[i] = positionList.get(order[i]);
+        }
+    }
+
+    /**
+     * Normalize a given string to contain only lower case alpha/digit and space characters.
+     *
+     * @param text to normalize
+     *
+     * @return normalized text
+     */
+    @NonNull
+    public static String fold(@NonNull final CharSequence text) {
+        return NORMALIZER.normalize(text).toLowerCase(Locale.getDefault());
+    }
+
+    /**
+     * Get the indexed names.
+     *
+     * @return unmodifiable list
+     */
+    @NonNull
+    public List<String> getNames() {
+        return names;
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * Find the names where the whole name or one of its words starts with the given prefix.
+     *
+     * @param prefix to look for
+     *
+     * @return the positions of the matching names in {@link #getNames()}, in ascending order
+     */
+    @NonNull
+    public int[] find(@NonNull final CharSequence prefix) {
+        final String key = fold(prefix);
+        if (key.isEmpty()) {
+            final int[] all = new int[names.size()];
+            Arrays.setAll(all, i -> i);
+            return all;
+        }
+
+        // lower bound: the first key which is not less than the prefix
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        int[] found = new int[8];
+        int count = 0;
+        for (int i = low; i < keys.length && keys[i].startsWith(key); i++) {
+            if (count == found.length) {
+                found = Arrays.copyOf(found, count * 2);
+            }
+            found[count++] = positions[i];
+        }
+        if (count == 0) {
+            return new int[0];
+        }
+
+        // A name can match on more than one word; restore the list order and remove duplicates
+        Arrays.sort(found, 0, count);
+        int unique = 1;
+        for (int i = 1; i < count; i++) {
+            if (found[i] != found[unique - 1]) {
+                found[unique++] = found[i];
+            }
+        }
+        return Arrays.copyOf(found, unique);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.core.database;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.hardbacknutter.nevertoomanybooks.core.Logger;
+import com.hardbacknutter.nevertoomanybooks.core.LoggerFactory;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryStatsTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long US = TimeUnit.MICROSECONDS.toNanos(1);
+
+    @BeforeEach
+    void setup() {
+        LoggerFactory.setLogger(new SilentLogger());
+        QueryStats.reset();
+        QueryStats.setSlowQueryThreshold(QueryStats.DEFAULT_SLOW_QUERY_MS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        QueryStats.setEnabled(false);
+        QueryStats.reset();
+    }
+
+    @Test
+    void template() {
+        assertEquals("SELECT * FROM books WHERE _id=?",
+                     QueryStats.toTemplate("SELECT  *\n FROM books\tWHERE _id=12 "));
+        assertEquals("SELECT title FROM books WHERE title=? AND col2=?",
+                     QueryStats.toTemplate("SELECT title FROM books"
+                                           + " WHERE title='It''s here' AND col2=?"));
+        assertEquals("DELETE FROM books WHERE _id IN (?)",
+                     QueryStats.toTemplate("DELETE FROM books WHERE _id IN (1, 2,3 ,4)"));
+        assertEquals("SELECT a FROM t WHERE x=? AND y=?",
+                     QueryStats.toTemplate("SELECT a FROM t WHERE x=1.5e3 AND y=0x1F"));
+        // identifiers containing digits and quoted identifiers are kept
+        assertEquals("SELECT \"col 1\", b2 FROM t1",
+                     QueryStats.toTemplate("SELECT \"col 1\", b2 FROM t1"));
+        // bound parameters and literals are not merged into a single list
+        assertEquals("VALUES (?,?,?)",
+                     QueryStats.toTemplate("VALUES (?,?,?)"));
+    }
+
+    @Test
+    void record() {
+        final String sql = "SELECT * FROM books WHERE _id=?";
+        for (int i = 1; i <= 100; i++) {
+            QueryStats.add(sql, i * US, 0L, 1);
+        }
+        QueryStats.add(sql, 5 * MS, 2 * MS, 1);
+
+        final QueryStats.Snapshot snapshot = QueryStats.getSnapshot();
+        final QueryStats.TemplateStats stats = snapshot.find(sql);
+        assertNotNull(stats);
+        assertEquals(101, stats.getCount());
+        assertEquals(101, stats.getRows());
+        assertEquals(5 * MS, stats.getMaxNanos());
+        assertEquals(2 * MS, stats.getLockWaitNanos());
+        assertEquals(5050 * US + 5 * MS, stats.getTotalNanos());
+
+        // bucket upper bounds are powers of 2
+        assertEquals(64, stats.getPercentileMicros(50));
+        assertEquals(128, stats.getPercentileMicros(90));
+        assertEquals(5000, stats.getPercentileMicros(100));
+
+        assertTrue(snapshot.getSlowQueries().isEmpty());
+    }
+
+    @Test
+    void slowQueries() {
+        QueryStats.setSlowQueryThreshold(10);
+        QueryStats.add("fast", 9 * MS, 0L, 0);
+        QueryStats.add("slow", 10 * MS, 0L, 3);
+        QueryStats.add("slower", 20 * MS, 0L, 0);
+
+        final QueryStats.Snapshot snapshot = QueryStats.getSnapshot();
+        final List<QueryStats.SlowQuery> slowQueries = snapshot.getSlowQueries();
+        assertEquals(2, slowQueries.size());
+        assertEquals("slower", slowQueries.get(0).getSql());
+        assertEquals("slow", slowQueries.get(1).getSql());
+        assertEquals(3, slowQueries.get(1).getRows());
+
+        // most expensive first
+        assertEquals("slower", snapshot.getTemplates().get(0).getSql());
+        assertTrue(snapshot.toText().contains("\tslower\n"));
+    }
+
+    @Test
+    void disabled() {
+        QueryStats.setEnabled(false);
+        final long start = QueryStats.start();
+        assertEquals(0, start);
+        assertEquals(0, QueryStats.lap(start));
+        QueryStats.record("SELECT 1", start, 0L, 1);
+        QueryStats.lockAcquired(Synchronizer.LockType.Shared, start);
+
+        final QueryStats.Snapshot snapshot = QueryStats.getSnapshot();
+        assertTrue(snapshot.getTemplates().isEmpty());
+        assertEquals(0, snapshot.getLockCount(Synchronizer.LockType.Shared));
+    }
+
+    @Test
+    void enabled() {
+        QueryStats.setEnabled(true);
+        final long start = QueryStats.start();
+        QueryStats.lockAcquired(Synchronizer.LockType.Exclusive, start);
+        QueryStats.record("SELECT 1", start, QueryStats.lap(start), 1);
+
+        final QueryStats.Snapshot snapshot = QueryStats.getSnapshot();
+        assertNotNull(snapshot.find("SELECT 1"));
+        assertEquals(1, snapshot.getLockCount(Synchronizer.LockType.Exclusive));
+    }
+
+    private static class SilentLogger
+            implements Logger {
+
+        @NonNull
+        @Override
+        public String getErrorLog() {
+            return "";
+        }
+
+        @NonNull
+        @Override
+        public File getLogDir() {
+            return new File(System.getProperty("java.io.tmpdir"));
+        }
+
+        @Override
+        public void e(@NonNull final String tag,
+                      @Nullable final Throwable e,
+                      @Nullable final Object... params) {
+        }
+
+        @Override
+        public void w(@NonNull final String tag,
+                      @Nullable final Object... params) {
+        }
+
+        @Override
+        public void d(@NonNull final String tag,
+                      @NonNull final String method,
+                      @Nullable final Object... params) {
+        }
+    }
+}
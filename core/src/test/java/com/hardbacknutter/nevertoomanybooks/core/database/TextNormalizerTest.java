@@ -0,0 +1,193 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.core.database;
+
+import androidx.annotation.NonNull;
+
+import java.text.Normalizer;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks {@link TextNormalizer} against fixed values and, for random text, against
+ * an independent code point filter.
+ * <p>
+ * The JDK and Android differ in the meaning of {@code \p{Alpha}} for non-ASCII
+ * characters (see {@link SqlEncode}). On the JDK it only matches {@code [a-zA-Z]},
+ * so the expected values here are the JDK ones: after decomposing to NFD,
+ * only ASCII letters, digits and the extra characters are kept.
+ */
+class TextNormalizerTest {
+
+    private static final int ROUNDS = 20_000;
+
+    /** Blocks with letters, digits, marks and punctuation from a number of scripts. */
+    private static final int[][] RANGES = {
+            {0x0000, 0x007F},   // ASCII, including control characters
+            {0x0080, 0x024F},   // Latin-1 and Latin Extended-A/B
+            {0x0300, 0x036F},   // Combining diacritical marks
+            {0x0370, 0x03FF},   // Greek
+            {0x0400, 0x04FF},   // Cyrillic
+            {0x0590, 0x06FF},   // Hebrew, Arabic
+            {0x0900, 0x097F},   // Devanagari
+            {0x10A0, 0x10FF},   // Georgian
+            {0x1E00, 0x1EFF},   // Latin Extended Additional
+            {0x2000, 0x206F},   // General punctuation
+            {0x3040, 0x30FF},   // Hiragana, Katakana
+            {0x4E00, 0x4FFF},   // CJK
+            {0xAC00, 0xAD00},   // Hangul syllables
+            {0xFF00, 0xFFEF},   // Full width forms
+            {0x1D400, 0x1D7FF}, // Mathematical alphanumerics (surrogate pairs)
+            {0x1F600, 0x1F64F}, // Emoticons (surrogate pairs)
+    };
+
+    private final Random random = new Random(42);
+
+    @Test
+    void ascii() {
+        final TextNormalizer normalizer = TextNormalizer.ALPHA_DIGIT;
+        assertEquals("aBcDef", normalizer.normalize("aBc Def"));
+        assertEquals("TheLordoftheRings2", normalizer.normalize("The Lord of the Rings, #2"));
+        assertEquals("", normalizer.normalize(""));
+        assertEquals("", normalizer.normalize(" .,;-'\t"));
+
+        // nothing stripped: no copy made
+        final String plain = "abc123";
+        assertSame(plain, normalizer.normalize(plain));
+
+        assertEquals("aBc Def", new TextNormalizer(" ").normalize("a-Bc Def!"));
+        assertEquals("a-Bc Def", new TextNormalizer(" -").normalize("a-Bc Def!"));
+    }
+
+    @Test
+    void latin() {
+        final TextNormalizer normalizer = TextNormalizer.ALPHA_DIGIT;
+        assertEquals("Etats", normalizer.normalize("États"));
+        assertEquals("PremiereRepubliquefrancaise",
+                     normalizer.normalize("Première République française"));
+        assertEquals("LuisdeCamoes", normalizer.normalize("Luís de Camões"));
+    }
+
+    @Test
+    void unicode() {
+        final TextNormalizer normalizer = TextNormalizer.ALPHA_DIGIT;
+        // decomposed; the combining marks are dropped
+        assertEquals("Angstrom", normalizer.normalize("\u00C5ngstr\u00F6m"));
+        assertEquals("naivecafe1er", normalizer.normalize("na\u00EFve caf\u00E9 1er"));
+        // already decomposed input
+        assertEquals("cafe", normalizer.normalize("cafe\u0301"));
+        // no canonical decomposition: dropped
+        assertEquals("r", normalizer.normalize("\u00C6r\u00F8"));
+        // compatibility forms are not decomposed by NFD: dropped
+        assertEquals("", normalizer.normalize("\uFB01"));
+        assertEquals("", normalizer.normalize("\uFF21\uFF22\uFF23"));
+        // other scripts and surrogate pairs: dropped on the JDK
+        assertEquals("", normalizer.normalize("\u0395\u03BB\u03BB\u03B7\u03BD\u03B9\u03BA\u03AC"));
+        assertEquals("A1", normalizer.normalize("A\uD835\uDC00\u4E2D1\uD83D\uDE00"));
+
+        assertEquals("Capek-Stastny 2",
+                     new TextNormalizer(" -").normalize("\u010Capek-\u0160\u0165astn\u00FD #2"));
+        // ASCII prefix before the first non-ASCII character
+        assertEquals("abc def", new TextNormalizer(" ").normalize("abc, d\u00E9f!"));
+    }
+
+    @Test
+    void invalid() {
+        assertThrows(IllegalArgumentException.class, () -> new TextNormalizer("é"));
+    }
+
+    @Test
+    void mostlyAscii() {
+        compare(0.02);
+    }
+
+    @Test
+    void mixed() {
+        compare(0.5);
+    }
+
+    @Test
+    void longText() {
+        // larger than the initial buffer
+        final String text = randomText(2_000, 0.0);
+        assertEquals(expected(text, " "), new TextNormalizer(" ").normalize(text));
+    }
+
+    private void compare(final double nonAsciiRatio) {
+        final String[] extras = {"", " ", " -"};
+        final TextNormalizer[] normalizers = new TextNormalizer[extras.length];
+        for (int e = 0; e < extras.length; e++) {
+            normalizers[e] = new TextNormalizer(extras[e]);
+        }
+
+        for (int i = 0; i < ROUNDS; i++) {
+            final String text = randomText(random.nextInt(80), nonAsciiRatio);
+            for (int e = 0; e < extras.length; e++) {
+                assertEquals(expected(text, extras[e]), normalizers[e].normalize(text),
+                             () -> "text=" + escape(text));
+            }
+        }
+    }
+
+    /**
+     * The expected JDK result, computed without regular expressions: decompose,
+     * then keep the ASCII letters, digits and extra characters, code point by code point.
+     */
+    @NonNull
+    private static String expected(@NonNull final String text,
+                                   @NonNull final String extraChars) {
+        final StringBuilder sb = new StringBuilder();
+        Normalizer.normalize(text, Normalizer.Form.NFD).codePoints().forEach(cp -> {
+            if ((cp >= 'a' && cp <= 'z') || (cp >= 'A' && cp <= 'Z')
+                || (cp >= '0' && cp <= '9') || extraChars.indexOf(cp) >= 0) {
+                sb.appendCodePoint(cp);
+            }
+        });
+        return sb.toString();
+    }
+
+    @NonNull
+    private String randomText(final int length,
+                              final double nonAsciiRatio) {
+        final StringBuilder sb = new StringBuilder(length * 2);
+        for (int i = 0; i < length; i++) {
+            final int[] range;
+            if (random.nextDouble() < nonAsciiRatio) {
+                range = RANGES[1 + random.nextInt(RANGES.length - 1)];
+            } else {
+                range = RANGES[0];
+            }
+            sb.appendCodePoint(range[0] + random.nextInt(range[1] - range[0] + 1));
+        }
+        return sb.toString();
+    }
+
+    @NonNull
+    private static String escape(@NonNull final String text) {
+        final StringBuilder sb = new StringBuilder();
+        text.chars().forEach(c -> sb.append(String.format("\\u%04x", c)));
+        return sb.toString();
+    }
+}
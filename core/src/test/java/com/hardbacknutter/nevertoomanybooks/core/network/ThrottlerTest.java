@@ -0,0 +1,257 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.core.network;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ThrottlerTest {
+
+    private static final int DELAY = 1_000;
+
+    private FakeClock clock;
+
+    @BeforeEach
+    void setup() {
+        clock = new FakeClock(100_000);
+    }
+
+    @Test
+    void noBurst()
+            throws InterruptedException {
+        final Throttler throttler = new Throttler(DELAY, 1, clock);
+
+        // First request is immediate
+        throttler.waitUntilRequestAllowed();
+        assertEquals(100_000, clock.now);
+
+        // Second one waits the full delay
+        throttler.waitUntilRequestAllowed();
+        assertEquals(101_000, clock.now);
+
+        // Half the delay passes while doing something else
+        clock.now += 500;
+        throttler.waitUntilRequestAllowed();
+        assertEquals(102_000, clock.now);
+    }
+
+    @Test
+    void burst()
+            throws InterruptedException {
+        final Throttler throttler = new Throttler(DELAY, 3, clock);
+
+        // A full bucket allows 3 requests without delay
+        for (int i = 0; i < 3; i++) {
+            throttler.waitUntilRequestAllowed();
+            assertEquals(100_000, clock.now);
+        }
+        // then we're at the normal rate
+        throttler.waitUntilRequestAllowed();
+        assertEquals(101_000, clock.now);
+        throttler.waitUntilRequestAllowed();
+        assertEquals(102_000, clock.now);
+
+        // Idle long enough to refill the whole bucket, but not more
+        clock.now += 10_000;
+        for (int i = 0; i < 3; i++) {
+            throttler.waitUntilRequestAllowed();
+            assertEquals(112_000, clock.now);
+        }
+        throttler.waitUntilRequestAllowed();
+        assertEquals(113_000, clock.now);
+    }
+
+    @Test
+    void partialRefill()
+            throws InterruptedException {
+        final Throttler throttler = new Throttler(DELAY, 3, clock);
+        for (int i = 0; i < 3; i++) {
+            throttler.waitUntilRequestAllowed();
+        }
+        // One token comes back after one delay
+        clock.now += DELAY;
+        throttler.waitUntilRequestAllowed();
+        assertEquals(101_000, clock.now);
+        throttler.waitUntilRequestAllowed();
+        assertEquals(102_000, clock.now);
+    }
+
+    @Test
+    void interrupted()
+            throws InterruptedException {
+        final Throttler throttler = new Throttler(DELAY, 1, clock);
+        throttler.waitUntilRequestAllowed();
+
+        clock.interruptOnSleep = true;
+        assertThrows(InterruptedException.class, throttler::waitUntilRequestAllowed);
+        assertEquals(100_000, clock.now);
+
+        // The cancelled request gave its slot back
+        clock.interruptOnSleep = false;
+        throttler.waitUntilRequestAllowed();
+        assertEquals(101_000, clock.now);
+    }
+
+    @Test
+    void interruptedWithLaterReservations()
+            throws InterruptedException {
+        final BlockingClock blockingClock = new BlockingClock(100_000);
+        final Throttler throttler = new Throttler(DELAY, 1, blockingClock);
+
+        // slot at 100_000
+        throttler.waitUntilRequestAllowed();
+        // slot at 101_000, followed by a slot at 102_000
+        final Waiter first = new Waiter(throttler, blockingClock);
+        final Waiter second = new Waiter(throttler, blockingClock);
+
+        // The first one is cancelled, but the second one has the slot after it.
+        first.cancel();
+        // Giving the slot back would put the next request at 102_000,
+        // in the same interval as the second one. The slot is lost instead.
+        throttler.waitUntilRequestAllowed();
+        assertEquals(3 * DELAY, blockingClock.lastSleep);
+
+        // The second one is no longer the last one either
+        second.cancel();
+        throttler.waitUntilRequestAllowed();
+        assertEquals(4 * DELAY, blockingClock.lastSleep);
+
+        // The last reservation is cancelled: its slot (105_000) is given back.
+        final Waiter third = new Waiter(throttler, blockingClock);
+        third.cancel();
+        throttler.waitUntilRequestAllowed();
+        assertEquals(5 * DELAY, blockingClock.lastSleep);
+    }
+
+    @Test
+    void invalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new Throttler(0, 1, clock));
+        assertThrows(IllegalArgumentException.class, () -> new Throttler(DELAY, 0, clock));
+    }
+
+    private static class FakeClock
+            implements Throttler.Clock {
+
+        long now;
+        boolean interruptOnSleep;
+
+        FakeClock(final long now) {
+            this.now = now;
+        }
+
+        @Override
+        public long millis() {
+            return now;
+        }
+
+        @Override
+        public void sleep(final long millis)
+                throws InterruptedException {
+            if (interruptOnSleep) {
+                throw new InterruptedException();
+            }
+            now += millis;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "FakeClock{now=" + now + '}';
+        }
+    }
+
+    /**
+     * A clock which stands still. The test thread records its sleep and returns at once;
+     * other threads block in their sleep until interrupted.
+     */
+    private static class BlockingClock
+            implements Throttler.Clock {
+
+        private final long now;
+        private final Thread testThread = Thread.currentThread();
+        /** Released each time another thread starts sleeping. */
+        private final Semaphore sleeping = new Semaphore(0);
+        long lastSleep;
+
+        BlockingClock(final long now) {
+            this.now = now;
+        }
+
+        @Override
+        public long millis() {
+            return now;
+        }
+
+        @Override
+        public void sleep(final long millis)
+                throws InterruptedException {
+            if (Thread.currentThread() == testThread) {
+                lastSleep = millis;
+                return;
+            }
+            sleeping.release();
+            Thread.sleep(Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * A thread waiting for its slot.
+     */
+    private static class Waiter {
+
+        private final Thread thread;
+        private final AtomicReference<Throwable> result = new AtomicReference<>();
+
+        /**
+         * Start the thread, and return once it holds a reservation and is waiting for it.
+         */
+        Waiter(@NonNull final Throttler throttler,
+               @NonNull final BlockingClock clock)
+                throws InterruptedException {
+            thread = new Thread(() -> {
+                try {
+                    throttler.waitUntilRequestAllowed();
+                } catch (@NonNull final Throwable e) {
+                    result.set(e);
+                }
+            });
+            thread.start();
+            assertTrue(clock.sleeping.tryAcquire(5, TimeUnit.SECONDS));
+        }
+
+        void cancel()
+                throws InterruptedException {
+            thread.interrupt();
+            thread.join(5_000);
+            assertInstanceOf(InterruptedException.class, result.get());
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.nevertoomanybooks.core.widgets.adapters;
+
+import androidx.annotation.NonNull;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the index with the linear scan formerly done
+ * by the {@link ExtArrayAdapter.FilterType#Diacritic} filter.
+ */
+class PrefixIndexTest {
+
+    private static final Pattern DIACRITICS_PATTERN = Pattern.compile("[^\\p{Alpha}\\d ]");
+
+    private static final List<String> NAMES = List.of(
+            "Herbert, Frank",
+            "Le Guin, Ursula K.",
+            "Lévi-Strauss, Claude",
+            "O'Brien, Flann",
+            "Brontë, Charlotte",
+            "Brontë, Emily",
+            "García Márquez, Gabriel",
+            "Tolkien, J.R.R.",
+            "van Vogt, A. E.",
+            "2001 Collective",
+            "Ørsted, Hans Christian",
+            "");
+
+    @NonNull
+    private static String fold(@NonNull final CharSequence text) {
+        final String normalized = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS_PATTERN.matcher(normalized)
+                                 .replaceAll("")
+                                 .toLowerCase(Locale.getDefault());
+    }
+
+    /** The former filter logic; the text was lower-cased before testing the raw value. */
+    @NonNull
+    private static int[] linearScan(@NonNull final List<String> names,
+                                    @NonNull final String prefix) {
+        final String prefixString = prefix.toLowerCase(Locale.getDefault());
+        final String ndPrefixString = fold(prefixString);
+        final List<Integer> found = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            final String valueText = names.get(i).toLowerCase(Locale.getDefault());
+            if (valueText.startsWith(prefixString)
+                || fold(valueText).startsWith(ndPrefixString)) {
+                found.add(i);
+            } else {
+                for (final String word : valueText.split(" ")) {
+                    if (word.startsWith(prefixString)
+                        || fold(word).startsWith(ndPrefixString)) {
+                        found.add(i);
+                        break;
+                    }
+                }
+            }
+        }
+        return found.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Test
+    void find() {
+        final PrefixIndex index = new PrefixIndex(NAMES);
+        assertEquals(NAMES.size(), index.size());
+
+        assertArrayEquals(new int[]{0}, index.find("her"));
+        assertArrayEquals(new int[]{0}, index.find("FRA"));
+        assertArrayEquals(new int[]{4, 5}, index.find("bronte"));
+        assertArrayEquals(new int[]{4, 5}, index.find("Brontë"));
+        assertArrayEquals(new int[]{2}, index.find("levi"));
+        assertArrayEquals(new int[]{2}, index.find("levistr"));
+        assertArrayEquals(new int[]{3}, index.find("o'b"));
+        assertArrayEquals(new int[]{6}, index.find("marq"));
+        assertArrayEquals(new int[]{9}, index.find("200"));
+        assertArrayEquals(new int[0], index.find("xyz"));
+        // on multiple words, but reported once
+        assertArrayEquals(new int[]{8}, index.find("v"));
+        // unlike the linear scan, a prefix can span words starting from any word
+        assertArrayEquals(new int[]{10}, index.find("hans c"));
+    }
+
+    @Test
+    void sameAsLinearScan() {
+        final String[] prefixes = {
+                "h", "her", "herbert, f", "herbert frank", "le", "le g", "ur", "k",
+                "lé", "lev", "levi-", "strauss", "o", "o'", "ob", "flann", "bron",
+                "brontë, e", "gar", "garcia m", "j", "jrr", "van v", "a", "2", "ørs",
+                "hans", "christian", "e", "zz"};
+        final PrefixIndex index = new PrefixIndex(NAMES);
+        for (final String prefix : prefixes) {
+            assertArrayEquals(linearScan(NAMES, prefix), index.find(prefix), prefix);
+        }
+    }
+
+    @Test
+    void sameAsLinearScanRandom() {
+        final Random random = new Random(42);
+        final String alphabet = "abcdeéëfgo ,.-'";
+        final List<String> names = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            names.add(randomText(random, alphabet, 1 + random.nextInt(20)));
+        }
+        final PrefixIndex index = new PrefixIndex(names);
+        for (int i = 0; i < 500; i++) {
+            // letters only; the linear scan also matched on the raw punctuation
+            final String prefix = randomText(random, "abcdeéfgo", 1 + random.nextInt(3));
+            assertArrayEquals(linearScan(names, prefix), index.find(prefix), prefix);
+        }
+    }
+
+    @NonNull
+    private static String randomText(@NonNull final Random random,
+                                     @NonNull final String alphabet,
+                                     final int length) {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+}
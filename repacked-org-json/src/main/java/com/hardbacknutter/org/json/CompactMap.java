@@ -0,0 +1,447 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.hardbacknutter.org.json;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The map used by {@link JSONObject} to store its properties.
+ * <p>
+ * Keys and values are kept in two flat arrays in insertion order.
+ * Small maps are searched linearly; once a map grows beyond {@link #LINEAR_MAX}
+ * entries an open-addressing index is added.
+ * <p>
+ * Keys are shared through a global pool, as the backup/book objects repeat
+ * the same set of keys thousands of times.
+ * <p>
+ * Values can be stored as a {@link DeferredNumber}. These are converted
+ * to the actual value the first time they are accessed, and replaced in the map.
+ * Callers never see a {@link DeferredNumber}.
+ */
+final class CompactMap
+        extends AbstractMap<String, Object> {
+
+    /** Up to this number of entries, lookups are done by a linear scan. */
+    private static final int LINEAR_MAX = 8;
+    /** Maximum number of keys kept in the {@link #KEY_POOL}. */
+    private static final int KEY_POOL_MAX = 2048;
+    /** Shared key strings. */
+    private static final Map<String, String> KEY_POOL = new ConcurrentHashMap<>();
+
+    @NonNull
+    private String[] keys;
+    @NonNull
+    private Object[] values;
+    private int size;
+    /**
+     * Hash index; the entries are the array position + 1, {@code 0} being empty.
+     * {@code null} while the map is small.
+     */
+    @Nullable
+    private int[] index;
+    /** Modification counter for the iterators. */
+    private int modCount;
+    @Nullable
+    private Set<Entry<String, Object>> entrySet;
+
+    /**
+     * Constructor.
+     *
+     * @param initialCapacity the initial capacity.
+     */
+    CompactMap(int initialCapacity) {
+        final int capacity = Math.max(initialCapacity, 4);
+        keys = new String[capacity];
+        values = new Object[capacity];
+    }
+
+    @NonNull
+    private static String intern(@NonNull String key) {
+        final String pooled = KEY_POOL.get(key);
+        if (pooled != null) {
+            return pooled;
+        }
+        if (KEY_POOL.size() < KEY_POOL_MAX) {
+            final String previous = KEY_POOL.putIfAbsent(key, key);
+            return previous != null ? previous : key;
+        }
+        return key;
+    }
+
+    /**
+     * Get the number of keys in the shared pool.
+     *
+     * @return size
+     */
+    @VisibleForTesting
+    static int getKeyPoolSize() {
+        return KEY_POOL.size();
+    }
+
+    /**
+     * Get the maximum number of keys kept in the shared pool.
+     *
+     * @return max size
+     */
+    @VisibleForTesting
+    static int getKeyPoolMax() {
+        return KEY_POOL_MAX;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Find the array position of the given key.
+     *
+     * @param key to find
+     *
+     * @return position, or {@code -1} if not found
+     */
+    private int indexOf(@Nullable Object key) {
+        if (!(key instanceof String)) {
+            return -1;
+        }
+        if (index == null) {
+            for (int i = 0; i < size; i++) {
+                final String k = keys[i];
+                if (k == key || k.equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        final int mask = index.length - 1;
+        int slot = spread(key.hashCode()) & mask;
+        int pos;
+        while ((pos = index[slot]) != 0) {
+            final String k = keys[pos - 1];
+            if (k == key || k.equals(key)) {
+                return pos - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * (Re)build the hash index for the current capacity.
+     */
+    private void rebuildIndex() {
+        if (size <= LINEAR_MAX) {
+            index = null;
+            return;
+        }
+        int length = Integer.highestOneBit(keys.length * 2 - 1) << 1;
+        final int[] newIndex = new int[length];
+        final int mask = length - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = spread(keys[i].hashCode()) & mask;
+            while (newIndex[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newIndex[slot] = i + 1;
+        }
+        index = newIndex;
+    }
+
+    @NonNull
+    private Object valueAt(int i) {
+        Object value = values[i];
+        if (value instanceof DeferredNumber) {
+            value = ((DeferredNumber) value).resolve();
+            values[i] = value;
+        }
+        return value;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(@Nullable Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    @Nullable
+    public Object get(@Nullable Object key) {
+        final int i = indexOf(key);
+        return i < 0 ? null : valueAt(i);
+    }
+
+    @Override
+    @Nullable
+    public Object put(@NonNull String key,
+                      @NonNull Object value) {
+        Objects.requireNonNull(key);
+        final int i = indexOf(key);
+        if (i >= 0) {
+            final Object previous = valueAt(i);
+            values[i] = value;
+            return previous;
+        }
+
+        if (size == keys.length) {
+            final int capacity = keys.length * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+            keys[size] = intern(key);
+            values[size] = value;
+            size++;
+            rebuildIndex();
+        } else {
+            keys[size] = intern(key);
+            values[size] = value;
+            size++;
+            if (index != null) {
+                final int mask = index.length - 1;
+                int slot = spread(key.hashCode()) & mask;
+                while (index[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                index[slot] = size;
+            } else if (size > LINEAR_MAX) {
+                rebuildIndex();
+            }
+        }
+        modCount++;
+        return null;
+    }
+
+    @Override
+    @Nullable
+    public Object remove(@Nullable Object key) {
+        final int i = indexOf(key);
+        if (i < 0) {
+            return null;
+        }
+        final Object previous = valueAt(i);
+        removeAt(i);
+        return previous;
+    }
+
+    private void removeAt(int i) {
+        final int tail = size - i - 1;
+        if (tail > 0) {
+            System.arraycopy(keys, i + 1, keys, i, tail);
+            System.arraycopy(values, i + 1, values, i, tail);
+        }
+        size--;
+        keys[size] = null;
+        values[size] = null;
+        modCount++;
+        if (index != null) {
+            rebuildIndex();
+        }
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+        index = null;
+        modCount++;
+    }
+
+    @Override
+    @NonNull
+    public Set<Entry<String, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    /**
+     * A number as found in the JSON text, converted to the actual
+     * {@link Number} (or String) with {@link JSONObject#stringToValue(String)}
+     * only when accessed.
+     */
+    static final class DeferredNumber {
+
+        @NonNull
+        private final String text;
+
+        DeferredNumber(@NonNull String text) {
+            this.text = text;
+        }
+
+        @NonNull
+        Object resolve() {
+            return JSONObject.stringToValue(text);
+        }
+    }
+
+    private final class EntrySet
+            extends AbstractSet<Entry<String, Object>> {
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            CompactMap.this.clear();
+        }
+
+        @Override
+        @NonNull
+        public Iterator<Entry<String, Object>> iterator() {
+            return new EntryIterator();
+        }
+    }
+
+    private final class EntryIterator
+            implements Iterator<Entry<String, Object>> {
+
+        private int next;
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        @NonNull
+        public Entry<String, Object> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= size) {
+                throw new NoSuchElementException();
+            }
+            last = next++;
+            return new MapEntry(keys[last], last);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(last);
+            next = last;
+            last = -1;
+            expectedModCount = modCount;
+        }
+    }
+
+    /**
+     * An entry bound to its key, not to its array position; a remove shifts
+     * the arrays, so the position is only used as a hint.
+     * Once the key itself has been removed from the map, accessing the value
+     * throws an {@link IllegalStateException}.
+     */
+    private final class MapEntry
+            implements Entry<String, Object> {
+
+        @NonNull
+        private final String key;
+        private int position;
+
+        MapEntry(@NonNull String key,
+                 int position) {
+            this.key = key;
+            this.position = position;
+        }
+
+        private int position() {
+            if (position >= size || keys[position] != key) {
+                final int i = indexOf(key);
+                if (i < 0) {
+                    throw new IllegalStateException("Entry removed: " + key);
+                }
+                position = i;
+            }
+            return position;
+        }
+
+        @Override
+        @NonNull
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        @NonNull
+        public Object getValue() {
+            return valueAt(position());
+        }
+
+        @Override
+        @NonNull
+        public Object setValue(@NonNull Object value) {
+            final int i = position();
+            final Object previous = valueAt(i);
+            values[i] = value;
+            return previous;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            final Entry<?, ?> e = (Entry<?, ?>) o;
+            return getKey().equals(e.getKey()) && getValue().equals(e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey().hashCode() ^ getValue().hashCode();
+        }
+
+        @Override
+        @NonNull
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
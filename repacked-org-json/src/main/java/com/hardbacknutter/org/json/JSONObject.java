@@ -128,13 +128,12 @@ public class JSONObject {
      * Construct an empty JSONObject.
      */
     public JSONObject() {
-        // HashMap is used on purpose to ensure that elements are unordered by
-        // the specification.
         // JSON tends to be a portable transfer format to allows the container
         // implementations to rearrange their items for a faster element
         // retrieval based on associative access.
         // Therefore, an implementation mustn't rely on the order of the item.
-        this.map = new HashMap<String, Object>();
+        // The CompactMap happens to keep insertion order, but that is not part of the API.
+        this.map = new CompactMap(8);
     }
 
     /**
@@ -209,7 +208,8 @@ public class JSONObject {
                     throw x.syntaxError("Duplicate key \"" + key + "\"");
                 }
                 // Only add value if non-null
-                Object value = x.nextValue();
+                // numbers are only converted when first accessed
+                Object value = x.nextValue(true);
                 if (value != null) {
                     this.put(key, value);
                 }
@@ -244,9 +244,9 @@ public class JSONObject {
      */
     public JSONObject(@Nullable Map<?, ?> m) {
         if (m == null) {
-            this.map = new HashMap<String, Object>();
+            this.map = new CompactMap(8);
         } else {
-            this.map = new HashMap<String, Object>(m.size());
+            this.map = new CompactMap(m.size());
             for (final Entry<?, ?> e : m.entrySet()) {
                 if (e.getKey() == null) {
                     throw new NullPointerException("Null key.");
@@ -420,7 +420,7 @@ public class JSONObject {
      * @param initialCapacity initial capacity of the internal map.
      */
     protected JSONObject(int initialCapacity) {
-        this.map = new HashMap<String, Object>(initialCapacity);
+        this.map = new CompactMap(initialCapacity);
     }
 
     /**
@@ -21,13 +21,13 @@
 package com.hardbacknutter.org.json;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.io.StringReader;
+import java.util.Arrays;
 
 /*
 Public Domain.
@@ -37,14 +37,49 @@ Public Domain.
  * A JSONTokener takes a source string and extracts characters and tokens from
  * it. It is used by the JSONObject and JSONArray constructors to parse
  * JSON source strings.
+ * <p>
+ * The input is read in blocks into a private {@code char[]} window.
+ * Strings, unquoted values and whitespace are scanned directly in that window,
+ * so the common case does not go through a (synchronized) {@link Reader#read()}
+ * call per character.
  *
  * @author JSON.org
  * @version 2014-05-03
  */
 @SuppressWarnings("ALL")
 public class JSONTokener {
-    /** Reader for the input. */
+    /** Size of the read window when reading from a {@link Reader}. */
+    private static final int BUFFER_SIZE = 8192;
+    /**
+     * The maximum number of characters {@link #skipTo(char)} keeps in memory
+     * to be able to rewind; the same limit as the original {@code Reader#mark} call.
+     */
+    static final int MAX_MARK = 1_000_000;
+    /**
+     * Lookup table for {@link #nextValue()}: {@code true} for the ASCII characters
+     * which can be part of an unquoted value. Non-ASCII characters always can.
+     */
+    private static final boolean[] UNQUOTED = new boolean[128];
+
+    static {
+        for (char c = ' '; c < 128; c++) {
+            UNQUOTED[c] = ",:]}/\\\"[{;=#".indexOf(c) < 0;
+        }
+    }
+
+    /** Reader for the input; {@code null} when the source was a String. */
+    @Nullable
     private final Reader reader;
+    /** The read window. */
+    private char[] buffer;
+    /** Position of the next character to read in the {@link #buffer}. */
+    private int pos;
+    /** Number of valid characters in the {@link #buffer}. */
+    private int limit;
+    /** Start of the data which must be kept when refilling; or {@code -1} for none. */
+    private int markPos = -1;
+    /** Set if the mark was dropped because it would hold more than {@link #MAX_MARK}. */
+    private boolean markInvalid;
     /** current read character position on the current line. */
     private long character;
     /** flag to indicate if the end of the input has been found. */
@@ -67,9 +102,8 @@ public class JSONTokener {
      * @param reader A reader.
      */
     public JSONTokener(@NonNull Reader reader) {
-        this.reader = reader.markSupported()
-                      ? reader
-                      : new BufferedReader(reader);
+        this.reader = reader;
+        this.buffer = new char[BUFFER_SIZE];
         this.eof = false;
         this.usePrevious = false;
         this.previous = 0;
@@ -96,7 +130,100 @@ public class JSONTokener {
      * @param s A source string.
      */
     public JSONTokener(@NonNull String s) {
-        this(new StringReader(s));
+        this.reader = null;
+        this.buffer = s.toCharArray();
+        this.limit = this.buffer.length;
+        this.eof = false;
+        this.usePrevious = false;
+        this.previous = 0;
+        this.index = 0;
+        this.character = 1;
+        this.characterPreviousLine = 0;
+        this.line = 1;
+    }
+
+    private static boolean isUnquoted(char c) {
+        return c >= 128 || UNQUOTED[c];
+    }
+
+    /**
+     * Read the next block of input into the {@link #buffer}.
+     * Data before {@link #pos} (or {@link #markPos} if set) is discarded.
+     * The marked data is limited to {@link #MAX_MARK} characters; beyond that
+     * the mark is dropped.
+     *
+     * @return {@code false} if there is no more input.
+     *
+     * @throws JSONException Thrown if there is an error reading the input.
+     */
+    private boolean fill()
+            throws JSONException {
+        if (this.reader == null) {
+            return false;
+        }
+        if (this.markPos >= 0 && this.limit - this.markPos >= MAX_MARK) {
+            this.markPos = -1;
+            this.markInvalid = true;
+        }
+        final int keep = this.markPos >= 0 ? this.markPos : this.pos;
+        if (keep > 0) {
+            System.arraycopy(this.buffer, keep, this.buffer, 0, this.limit - keep);
+            this.limit -= keep;
+            this.pos -= keep;
+            if (this.markPos >= 0) {
+                this.markPos = 0;
+            }
+        }
+        if (this.markPos < 0 && this.buffer.length > BUFFER_SIZE && this.limit < BUFFER_SIZE) {
+            // the mark is gone; shrink back to the normal window
+            this.buffer = Arrays.copyOf(this.buffer, BUFFER_SIZE);
+        }
+        if (this.limit == this.buffer.length) {
+            // only happens while marked
+            this.buffer = Arrays.copyOf(this.buffer, this.buffer.length * 2);
+        }
+        try {
+            int n;
+            do {
+                n = this.reader.read(this.buffer, this.limit, this.buffer.length - this.limit);
+            } while (n == 0);
+            if (n < 0) {
+                return false;
+            }
+            this.limit += n;
+            return true;
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+    }
+
+    /**
+     * Get the next raw character from the input.
+     *
+     * @return the character, or -1 at the end of the input
+     *
+     * @throws JSONException Thrown if there is an error reading the input.
+     */
+    private int read()
+            throws JSONException {
+        if (this.pos >= this.limit && !fill()) {
+            return -1;
+        }
+        return this.buffer[this.pos++];
+    }
+
+    /**
+     * Account for a run of characters consumed directly from the {@link #buffer}.
+     * The run must not contain line terminators.
+     *
+     * @param end position after the last character of the run
+     */
+    private void consumeRun(int end) {
+        final int len = end - this.pos;
+        this.index += len;
+        this.character += len;
+        this.previous = this.buffer[end - 1];
+        this.pos = end;
     }
 
     /**
@@ -175,20 +302,15 @@ public class JSONTokener {
         if (this.usePrevious) {
             return true;
         }
-        try {
-            this.reader.mark(1);
-        } catch (IOException e) {
-            throw new JSONException("Unable to preserve stream position", e);
+        if (this.pos >= this.limit && !fill()) {
+            this.eof = true;
+            return false;
         }
-        try {
-            // -1 is EOF, but next() can not consume the null character '\0'
-            if (this.reader.read() <= 0) {
-                this.eof = true;
-                return false;
-            }
-            this.reader.reset();
-        } catch (IOException e) {
-            throw new JSONException("Unable to read the next character from the stream", e);
+        // next() can not consume the null character '\0'
+        if (this.buffer[this.pos] == 0) {
+            this.pos++;
+            this.eof = true;
+            return false;
         }
         return true;
     }
@@ -207,12 +329,10 @@ public class JSONTokener {
         if (this.usePrevious) {
             this.usePrevious = false;
             c = this.previous;
+        } else if (this.pos < this.limit) {
+            c = this.buffer[this.pos++];
         } else {
-            try {
-                c = this.reader.read();
-            } catch (IOException exception) {
-                throw new JSONException(exception);
-            }
+            c = this.read();
         }
         if (c <= 0) { // End of stream
             this.eof = true;
@@ -321,6 +441,16 @@ public class JSONTokener {
     public char nextClean()
             throws JSONException {
         for (; ; ) {
+            if (!this.usePrevious) {
+                // skip spaces and tabs without going through next()
+                int p = this.pos;
+                while (p < this.limit && (this.buffer[p] == ' ' || this.buffer[p] == '\t')) {
+                    p++;
+                }
+                if (p > this.pos) {
+                    consumeRun(p);
+                }
+            }
             char c = this.next();
             if (c == 0 || c > ' ') {
                 return c;
@@ -347,8 +477,49 @@ public class JSONTokener {
     public String nextString(char quote)
             throws JSONException {
         char c;
-        StringBuilder sb = new StringBuilder();
+        StringBuilder sb = null;
         for (; ; ) {
+            if (!this.usePrevious) {
+                // Fast path: scan the run of plain characters in the buffer.
+                if (this.pos >= this.limit) {
+                    fill();
+                }
+                final int start = this.pos;
+                int p = start;
+                c = 0;
+                while (p < this.limit) {
+                    c = this.buffer[p];
+                    if (c == quote || c == '\\' || c == '\n' || c == '\r' || c == 0) {
+                        break;
+                    }
+                    p++;
+                }
+                if (p < this.limit && c == quote) {
+                    if (p > start) {
+                        consumeRun(p);
+                    }
+                    // consume the closing quote
+                    consumeRun(p + 1);
+                    if (sb == null) {
+                        return new String(this.buffer, start, p - start);
+                    }
+                    return sb.append(this.buffer, start, p - start).toString();
+                }
+                if (p > start) {
+                    if (sb == null) {
+                        sb = new StringBuilder(p - start + 16);
+                    }
+                    sb.append(this.buffer, start, p - start);
+                    consumeRun(p);
+                    if (p >= this.limit) {
+                        // the buffer is exhausted; refill and continue scanning
+                        continue;
+                    }
+                }
+            }
+            if (sb == null) {
+                sb = new StringBuilder();
+            }
             c = this.next();
             switch (c) {
                 case 0:
@@ -469,6 +640,23 @@ public class JSONTokener {
     @NonNull
     public Object nextValue()
             throws JSONException {
+        return this.nextValue(false);
+    }
+
+    /**
+     * Get the next value.
+     *
+     * @param deferNumbers if {@code true}, a value which looks like a number is returned
+     *                     as a {@link CompactMap.DeferredNumber}; only to be used
+     *                     for values stored in a {@link JSONObject}.
+     *
+     * @return An object.
+     *
+     * @throws JSONException If syntax error.
+     */
+    @NonNull
+    Object nextValue(boolean deferNumbers)
+            throws JSONException {
         char c = this.nextClean();
         String string;
 
@@ -502,8 +690,18 @@ public class JSONTokener {
          */
 
         StringBuilder sb = new StringBuilder();
-        while (c >= ' ' && ",:]}/\\\"[{;=#".indexOf(c) < 0) {
+        while (isUnquoted(c)) {
             sb.append(c);
+            if (!this.usePrevious) {
+                int p = this.pos;
+                while (p < this.limit && isUnquoted(this.buffer[p])) {
+                    p++;
+                }
+                if (p > this.pos) {
+                    sb.append(this.buffer, this.pos, p - this.pos);
+                    consumeRun(p);
+                }
+            }
             c = this.next();
         }
         if (!this.eof) {
@@ -514,6 +712,12 @@ public class JSONTokener {
         if ("".equals(string)) {
             throw this.syntaxError("Missing value");
         }
+        if (deferNumbers) {
+            char initial = string.charAt(0);
+            if ((initial >= '0' && initial <= '9') || initial == '-') {
+                return new CompactMap.DeferredNumber(string);
+            }
+        }
         return JSONObject.stringToValue(string);
     }
 
@@ -521,6 +725,8 @@ public class JSONTokener {
     /**
      * Skip characters until the next character is the requested character.
      * If the requested character is not found, no characters are skipped.
+     * <p>
+     * To be able to rewind, up to {@link #MAX_MARK} characters are kept in memory.
      *
      * @param to A character to skip to.
      *
@@ -528,32 +734,36 @@ public class JSONTokener {
      *         is not found.
      *
      * @throws JSONException Thrown if there is an error while searching
-     *                       for the to character
+     *                       for the to character, or if the character was not found
+     *                       and more than {@link #MAX_MARK} characters were skipped.
      */
     public char skipTo(char to)
             throws JSONException {
         char c;
+        long startIndex = this.index;
+        long startCharacter = this.character;
+        long startLine = this.line;
+        // keep everything from here on in the buffer so we can rewind
+        this.markPos = this.pos;
         try {
-            long startIndex = this.index;
-            long startCharacter = this.character;
-            long startLine = this.line;
-            this.reader.mark(1000000);
             do {
                 c = this.next();
                 if (c == 0) {
-                    // in some readers, reset() may throw an exception if
-                    // the remaining portion of the input is greater than
-                    // the mark size (1,000,000 above).
-                    this.reader.reset();
+                    if (this.markInvalid) {
+                        throw new JSONException("Mark invalid; '" + to
+                                                + "' not found within " + MAX_MARK
+                                                + " characters");
+                    }
+                    this.pos = this.markPos;
                     this.index = startIndex;
                     this.character = startCharacter;
                     this.line = startLine;
                     return 0;
                 }
             } while (c != to);
-            this.reader.mark(1);
-        } catch (IOException exception) {
-            throw new JSONException(exception);
+        } finally {
+            this.markPos = -1;
+            this.markInvalid = false;
         }
         this.back();
         return c;
@@ -0,0 +1,248 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.org.json;
+
+import androidx.annotation.NonNull;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link CompactMap} must behave exactly like a {@link LinkedHashMap}.
+ */
+class CompactMapTest {
+
+    /** Enough keys to cross the linear/hashed threshold in both directions. */
+    private static final int KEYS = 40;
+
+    @NonNull
+    private static String key(final int i) {
+        // a new instance each time, so lookups cannot rely on identity
+        return new String("key" + i);
+    }
+
+    private static void assertSameContent(@NonNull final Map<String, Object> expected,
+                                          @NonNull final CompactMap actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.isEmpty(), actual.isEmpty());
+        assertEquals(expected, actual);
+        assertEquals(actual, expected);
+        assertEquals(expected.hashCode(), actual.hashCode());
+        assertEquals(expected.entrySet(), actual.entrySet());
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(actual.keySet()));
+        assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(actual.values()));
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1L, 42L, 20231031L, 987654321L})
+    void randomOperations(final long seed) {
+        final Random random = new Random(seed);
+        final Map<String, Object> expected = new LinkedHashMap<>();
+        final CompactMap actual = new CompactMap(random.nextInt(10));
+
+        for (int op = 0; op < 5_000; op++) {
+            final String key = key(random.nextInt(KEYS));
+            final int choice = random.nextInt(100);
+            if (choice < 45) {
+                final int value = random.nextInt(1000);
+                if (random.nextBoolean()) {
+                    assertEquals(expected.put(key, value),
+                                 actual.put(key, new CompactMap.DeferredNumber(
+                                         String.valueOf(value))));
+                } else {
+                    assertEquals(expected.put(key, "v" + value),
+                                 actual.put(key, "v" + value));
+                }
+            } else if (choice < 70) {
+                assertEquals(expected.remove(key), actual.remove(key));
+            } else if (choice < 80) {
+                assertEquals(expected.get(key), actual.get(key));
+                assertEquals(expected.containsKey(key), actual.containsKey(key));
+            } else if (choice < 90 && !expected.isEmpty()) {
+                // remove a random entry through the iterators
+                final int target = random.nextInt(expected.size());
+                final Iterator<Map.Entry<String, Object>> ei = expected.entrySet().iterator();
+                final Iterator<Map.Entry<String, Object>> ai = actual.entrySet().iterator();
+                for (int i = 0; i <= target; i++) {
+                    assertEquals(ei.next(), ai.next());
+                }
+                ei.remove();
+                ai.remove();
+                // continue iterating after the remove
+                while (ei.hasNext()) {
+                    assertTrue(ai.hasNext());
+                    assertEquals(ei.next(), ai.next());
+                }
+                assertFalse(ai.hasNext());
+            } else if (choice < 98 && !expected.isEmpty()) {
+                // update a random entry with Entry.setValue
+                final int target = random.nextInt(expected.size());
+                final Iterator<Map.Entry<String, Object>> ei = expected.entrySet().iterator();
+                final Iterator<Map.Entry<String, Object>> ai = actual.entrySet().iterator();
+                for (int i = 0; i < target; i++) {
+                    ei.next();
+                    ai.next();
+                }
+                final int value = random.nextInt(1000);
+                assertEquals(ei.next().setValue(value), ai.next().setValue(value));
+            } else if (choice >= 98) {
+                expected.clear();
+                actual.clear();
+            }
+            assertSameContent(expected, actual);
+        }
+    }
+
+    @Test
+    void iteratorRemove() {
+        final CompactMap map = new CompactMap(4);
+        for (int i = 0; i < 20; i++) {
+            map.put(key(i), i);
+        }
+        final Iterator<Map.Entry<String, Object>> it = map.entrySet().iterator();
+        assertThrows(IllegalStateException.class, it::remove);
+        while (it.hasNext()) {
+            final int value = (Integer) it.next().getValue();
+            if (value % 2 == 0) {
+                it.remove();
+                assertThrows(IllegalStateException.class, it::remove);
+            }
+        }
+        assertEquals(10, map.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i % 2 != 0, map.containsKey(key(i)));
+        }
+
+        final Iterator<Map.Entry<String, Object>> it2 = map.entrySet().iterator();
+        it2.next();
+        map.put("other", 1);
+        assertThrows(ConcurrentModificationException.class, it2::next);
+    }
+
+    @Test
+    void entryFollowsKeyAfterRemove() {
+        final CompactMap map = new CompactMap(4);
+        map.put("a", 1);
+        map.put("b", 2);
+        map.put("c", 3);
+
+        final List<Map.Entry<String, Object>> entries = new ArrayList<>(map.entrySet());
+        // shifts "b" and "c" down one position
+        map.remove("a");
+
+        assertEquals("b", entries.get(1).getKey());
+        assertEquals(2, entries.get(1).getValue());
+        assertEquals(3, entries.get(2).getValue());
+        assertEquals(3, entries.get(2).setValue(30));
+        assertEquals(30, map.get("c"));
+        assertEquals(2, map.get("b"));
+
+        assertEquals("a", entries.get(0).getKey());
+        assertThrows(IllegalStateException.class, () -> entries.get(0).getValue());
+        assertThrows(IllegalStateException.class, () -> entries.get(0).setValue(10));
+        assertFalse(map.containsKey("a"));
+    }
+
+    @Test
+    void deferredNumbers() {
+        final CompactMap map = new CompactMap(4);
+        map.put("int", new CompactMap.DeferredNumber("42"));
+        map.put("long", new CompactMap.DeferredNumber("12345678901"));
+        map.put("big", new CompactMap.DeferredNumber("123456789012345678901234567890"));
+        map.put("decimal", new CompactMap.DeferredNumber("1.50"));
+        map.put("negZero", new CompactMap.DeferredNumber("-0.0"));
+        map.put("octal", new CompactMap.DeferredNumber("012"));
+
+        final Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("int", 42);
+        expected.put("long", 12345678901L);
+        expected.put("big", new BigInteger("123456789012345678901234567890"));
+        expected.put("decimal", new BigDecimal("1.50"));
+        expected.put("negZero", -0.0d);
+        // not a valid JSON number, kept as text
+        expected.put("octal", "012");
+
+        // all access paths resolve; none of them exposes the DeferredNumber
+        assertEquals(42, map.get("int"));
+        assertSame(map.get("int"), map.get("int"));
+        for (final Map.Entry<String, Object> entry : map.entrySet()) {
+            assertFalse(entry.getValue() instanceof CompactMap.DeferredNumber);
+        }
+        assertSameContent(expected, map);
+
+        // put and remove return the resolved previous value
+        map.put("deferred", new CompactMap.DeferredNumber("7"));
+        assertEquals(7, map.put("deferred", new CompactMap.DeferredNumber("8")));
+        assertEquals(8, map.remove("deferred"));
+        assertNull(map.remove("deferred"));
+    }
+
+    @Test
+    void keyPool() {
+        // keys are shared between maps while the pool has room
+        final CompactMap m1 = new CompactMap(4);
+        final CompactMap m2 = new CompactMap(4);
+        final String k1 = new String("pooledKey");
+        final String k2 = new String("pooledKey");
+        assertNotSame(k1, k2);
+        m1.put(k1, 1);
+        m2.put(k2, 2);
+        assertSame(m1.keySet().iterator().next(), m2.keySet().iterator().next());
+
+        // the pool never grows beyond its limit ...
+        final int max = CompactMap.getKeyPoolMax();
+        final CompactMap big = new CompactMap(4);
+        for (int i = 0; i < max + 500; i++) {
+            big.put("unique" + i, i);
+        }
+        assertTrue(CompactMap.getKeyPoolSize() <= max);
+
+        // ... and keys which did not make it into the pool still work
+        final Map<String, Object> expected = new LinkedHashMap<>();
+        for (int i = 0; i < max + 500; i++) {
+            expected.put("unique" + i, i);
+        }
+        assertSameContent(expected, big);
+        final String late = "unique" + (max + 499);
+        assertEquals(max + 499, big.get(new String(late)));
+        assertEquals(max + 499, big.remove(new String(late)));
+        assertFalse(big.containsKey(late));
+    }
+}
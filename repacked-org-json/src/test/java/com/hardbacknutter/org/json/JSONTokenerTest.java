@@ -0,0 +1,226 @@
+/*
+ * @Copyright 2018-2023 HardBackNutter
+ * @License GNU General Public License
+ *
+ * This file is part of NeverTooManyBooks.
+ *
+ * NeverTooManyBooks is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NeverTooManyBooks is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NeverTooManyBooks. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.hardbacknutter.org.json;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The buffered {@link JSONTokener} with input which arrives in small chunks,
+ * so tokens are split over several refills of the read window.
+ */
+class JSONTokenerTest {
+
+    private static final String JSON =
+            "{\n"
+            + "  \"title\": \"The \\\"Hobbit\\\"\\tor There and Back Again\",\n"
+            + "  \"escaped\": \"\\u00e9t\\u00E9 \\/ \\\\\",\n"
+            + "  \"pairs\": \"a😀b\\uD83D\\uDE00c\",\n"
+            + "  'single': 'quoted',\n"
+            + "  \"int\": 1234567,\n"
+            + "  \"long\": 12345678901234,\n"
+            + "  \"decimal\": -12.50e3,\n"
+            + "  \"flags\": [true, false, null],\n"
+            + "  \"unquoted\": café😀,\n"
+            + "  \"nested\": {\"a\": [1, {\"b\": \"c\"}], \"empty\": {}}\n"
+            + "}";
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 5, 7, 64})
+    void tokensAcrossRefills(final int chunk) {
+        final JSONObject expected = new JSONObject(new JSONTokener(JSON));
+        final JSONObject actual = new JSONObject(new JSONTokener(new ChunkReader(JSON, chunk)));
+        assertEquals(expected.toString(), actual.toString());
+
+        assertEquals("The \"Hobbit\"\tor There and Back Again", actual.getString("title"));
+        assertEquals("été / \\", actual.getString("escaped"));
+        assertEquals(12345678901234L, actual.getLong("long"));
+        assertEquals("c", actual.getJSONObject("nested").getJSONArray("a")
+                                .getJSONObject(1).getString("b"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3})
+    void surrogatePairsAcrossRefills(final int chunk) {
+        final JSONObject actual = new JSONObject(new JSONTokener(new ChunkReader(JSON, chunk)));
+        // both the literal and the escaped pair are kept intact
+        assertEquals("a😀b😀c", actual.getString("pairs"));
+        assertEquals("café😀", actual.getString("unquoted"));
+    }
+
+    @Test
+    void longStringAcrossRefills() {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        final String value = sb.toString();
+        final String json = "[\"" + value + "\", " + value.length() + "]";
+        final JSONArray array = new JSONArray(new JSONTokener(new ChunkReader(json, 4096)));
+        assertEquals(value, array.getString(0));
+        assertEquals(value.length(), array.getInt(1));
+    }
+
+    @Test
+    void backAtRefill() {
+        final JSONTokener tokener = new JSONTokener(new ChunkReader("abc", 1));
+        assertEquals('a', tokener.next());
+        // 'b' needs a refill, which discards 'a'
+        assertEquals('b', tokener.next());
+        tokener.back();
+        assertEquals('b', tokener.next());
+        assertThrows(JSONException.class, () -> {
+            tokener.back();
+            tokener.back();
+        });
+        assertEquals('b', tokener.next());
+        assertEquals('c', tokener.next());
+        assertEquals(0, tokener.next());
+        assertTrue(tokener.end());
+    }
+
+    @Test
+    void skipToFound() {
+        final JSONTokener tokener = new JSONTokener(new ChunkReader("abc\ndef:ghi", 2));
+        assertEquals(':', tokener.skipTo(':'));
+        assertEquals(':', tokener.next());
+        assertEquals('g', tokener.next());
+    }
+
+    @Test
+    void skipToNotFound() {
+        final JSONTokener tokener = new JSONTokener(new ChunkReader("abc\ndef:ghi", 2));
+        assertEquals('a', tokener.next());
+        // Not found: nothing skipped, even though several refills were needed
+        assertEquals(0, tokener.skipTo('x'));
+        assertEquals('b', tokener.next());
+        assertEquals('c', tokener.next());
+        assertEquals(':', tokener.skipTo(':'));
+        assertEquals(':', tokener.next());
+    }
+
+    @Test
+    void skipToNotFoundBeyondMark() {
+        final JSONTokener tokener = new JSONTokener(
+                new RepeatReader('a', JSONTokener.MAX_MARK * 2));
+        // The skipped text is not kept in memory beyond the mark limit
+        assertThrows(JSONException.class, () -> tokener.skipTo('x'));
+    }
+
+    @Test
+    void skipToFoundBeyondMark() {
+        final JSONTokener tokener = new JSONTokener(
+                new RepeatReader('a', JSONTokener.MAX_MARK * 2, 'x'));
+        assertEquals('x', tokener.skipTo('x'));
+        assertEquals('x', tokener.next());
+        assertEquals(0, tokener.next());
+    }
+
+    /**
+     * Returns at most {@code chunk} characters per read.
+     */
+    private static class ChunkReader
+            extends Reader {
+
+        @NonNull
+        private final Reader reader;
+        private final int chunk;
+
+        ChunkReader(@NonNull final String text,
+                    final int chunk) {
+            this.reader = new StringReader(text);
+            this.chunk = chunk;
+        }
+
+        @Override
+        public int read(@NonNull final char[] cbuf,
+                        final int off,
+                        final int len)
+                throws IOException {
+            return reader.read(cbuf, off, Math.min(len, chunk));
+        }
+
+        @Override
+        public void close()
+                throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * A long run of the same character, optionally followed by a last one;
+     * generated on the fly.
+     */
+    private static class RepeatReader
+            extends Reader {
+
+        private final char c;
+        private final char last;
+        private int remaining;
+
+        RepeatReader(final char c,
+                     final int count) {
+            this(c, count, (char) 0);
+        }
+
+        RepeatReader(final char c,
+                     final int count,
+                     final char last) {
+            this.c = c;
+            this.last = last;
+            this.remaining = count;
+        }
+
+        @Override
+        public int read(@NonNull final char[] cbuf,
+                        final int off,
+                        final int len) {
+            if (remaining > 0) {
+                final int n = Math.min(len, remaining);
+                Arrays.fill(cbuf, off, off + n, c);
+                remaining -= n;
+                return n;
+            }
+            if (remaining == 0 && last != 0) {
+                remaining = -1;
+                cbuf[off] = last;
+                return 1;
+            }
+            return -1;
+        }
+
+        @Override
+        public void close() {
+            // nothing to close
+        }
+    }
+}